@@ -209,7 +209,7 @@ public class ExampleDecoder {
 				break;
 			case ADSB_IDENTIFICATION:
 				IdentificationMsg ident = (IdentificationMsg) msg;
-				System.out.println("["+icao24+"]: Callsign: "+new String(ident.getIdentity()));
+				System.out.println("["+icao24+"]: Callsign: "+ident.getCallsign());
 				System.out.println("          Category: "+ident.getCategoryDescription());
 				break;
 			case ADSB_STATUS_V0:
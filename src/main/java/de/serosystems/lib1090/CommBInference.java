@@ -0,0 +1,649 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.bds.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Infers the type of the Comm-B register (BDS) in DF 20/21 replies, which is not contained in the reply itself.
+ * Candidate registers are first checked with cheap bit-level tests (fixed headers, status bits of unavailable
+ * fields, reserved bits, value ranges). Registers carrying kinematic data or the callsign are then checked
+ * against the aircraft's recent ADS-B state: a candidate which contradicts the state is rejected, one which
+ * agrees with it is confirmed.<br>
+ * <br>
+ * The registers seen for each aircraft are counted. Likely registers are checked first and the first confirmed
+ * one is taken, so most replies of an aircraft which is tracked by ADS-B resolve with a single candidate check.
+ * Otherwise all candidates are checked and the best one is taken if it is unique; ties are broken by the
+ * aircraft's register mix.<br>
+ * <br>
+ * The capability reports (BDS 1,0 and 1,7) of each aircraft are cached with their raw 56 bit content as
+ * fingerprint. Unchanged reports are returned from the cache without checks or decoding; changes are passed to
+ * {@link CapabilityListener}s. Registers which are not supported according to the cached BDS 1,7 report are no
+ * candidates for the aircraft's replies.<br>
+ * <br>
+ * State is only kept for aircraft with ADS-B state or at least one inferred register, i.e. not for the random
+ * addresses of corrupted replies whose register cannot be inferred. Idle state is removed periodically (every
+ * 65536 calls); state of aircraft with a single inferred register and no ADS-B state is removed after
+ * {@link #MAX_STATE_AGE}, all other state after {@link #MAX_IDLE}.<br>
+ * <br>
+ * Supported registers are BDS 1,0, 1,7, 2,0, 3,0, 4,0, 5,0 and 6,0. This class is not thread-safe.
+ */
+public class CommBInference {
+
+	/**
+	 * Receives changes of the capability reports (BDS 1,0 and 1,7) of an aircraft.
+	 */
+	@FunctionalInterface
+	public interface CapabilityListener {
+		/**
+		 * @param address   the aircraft's address
+		 * @param previous  the previous report
+		 * @param current   the new report
+		 * @param timestamp time of reception of the new report in milliseconds
+		 */
+		void onCapabilityChange(QualifiedAddress address, BDSRegister previous, BDSRegister current, long timestamp);
+	}
+
+	// results of a candidate check
+	static final int REJECTED = 0;
+	static final int PLAUSIBLE = 1;
+	static final int CONFIRMED = 2;
+
+	// candidate registers
+	static final int BDS10 = 0;
+	static final int BDS17 = 1;
+	static final int BDS20 = 2;
+	static final int BDS30 = 3;
+	static final int BDS40 = 4;
+	static final int BDS50 = 5;
+	static final int BDS60 = 6;
+	static final int CANDIDATES = 7;
+	private static final int ALL_CANDIDATES = (1 << CANDIDATES) - 1;
+
+	/**
+	 * ADS-B state older than this (in milliseconds) is not used for checks
+	 */
+	static final long MAX_STATE_AGE = 30_000L;
+
+	/**
+	 * State of aircraft idle for longer than this (in milliseconds) is removed
+	 */
+	static final long MAX_IDLE = 3600_000L;
+
+	// the register mix is halved when this many replies have been counted
+	private static final int MIX_WINDOW = 64;
+	// idle state is removed after this many calls
+	private static final int SWEEP_INTERVAL = 1 << 16;
+
+	private final Map<QualifiedAddress, Context> contexts = new HashMap<>();
+	private final List<CapabilityListener> listeners = new ArrayList<>();
+	private long resolved;
+	private long cacheHits;
+	private long ambiguous;
+	private long checks;
+	private int untilSweep = SWEEP_INTERVAL;
+
+	/**
+	 * Infers the register type of a Comm-B message.
+	 *
+	 * @param address   address of the replying aircraft
+	 * @param commB     the 7-byte Comm-B message (MB field)
+	 * @param altitude  altitude of a DF 20 reply in feet or null
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded register or a plain {@link BDSRegister} with code {@link BDSRegister.bdsCode#UNKNOWN}
+	 * if the type cannot be inferred
+	 */
+	public BDSRegister infer(QualifiedAddress address, byte[] commB, Integer altitude, long timestamp) {
+		long mb = pack(commB);
+		if (mb == 0) return new BDSRegister(commB); // empty register
+
+		sweep(timestamp);
+		// state is only created once a register has been inferred
+		Context ctx = contexts.get(address);
+		boolean known = ctx != null;
+		if (!known) ctx = new Context();
+		ctx.lastUsed = timestamp;
+
+		// unchanged capability reports
+		if (ctx.capabilities != null && mb == ctx.capabilitiesFingerprint) {
+			cacheHits++;
+			resolve(ctx, BDS10);
+			return ctx.capabilities;
+		}
+		if (ctx.gicbCapabilities != null && mb == ctx.gicbFingerprint) {
+			cacheHits++;
+			resolve(ctx, BDS17);
+			return ctx.gicbCapabilities;
+		}
+
+		int candidate = infer(ctx, mb, altitude, timestamp);
+		if (candidate < 0) return new BDSRegister(commB);
+		if (!known) contexts.put(address, ctx);
+
+		try {
+			BDSRegister register = create(candidate, commB);
+			if (candidate == BDS10) updateCapabilities(address, ctx, mb, (DataLinkCapabilityReport) register, timestamp);
+			else if (candidate == BDS17) updateGicbCapabilities(address, ctx, mb, (CommonUsageGICBCapabilityReport) register, timestamp);
+			return register;
+		} catch (BadFormatException e) {
+			return new BDSRegister(commB);
+		}
+	}
+
+	private void updateCapabilities(QualifiedAddress address, Context ctx, long mb, DataLinkCapabilityReport report,
+									long timestamp) {
+		DataLinkCapabilityReport previous = ctx.capabilities;
+		ctx.capabilities = report;
+		ctx.capabilitiesFingerprint = mb;
+
+		// bit 36 is toggled when the BDS 1,7 report changes, so the cached one is outdated
+		if (previous != null && previous.isCommonUsageGicb() != report.isCommonUsageGicb()) {
+			ctx.gicbCapabilities = null;
+			ctx.supported = ALL_CANDIDATES;
+		}
+		if (previous != null) notifyListeners(address, previous, report, timestamp);
+	}
+
+	private void updateGicbCapabilities(QualifiedAddress address, Context ctx, long mb,
+										CommonUsageGICBCapabilityReport report, long timestamp) {
+		CommonUsageGICBCapabilityReport previous = ctx.gicbCapabilities;
+		ctx.gicbCapabilities = report;
+		ctx.gicbFingerprint = mb;
+
+		// candidates supported according to the report (bits 7, 9, 16 and 24)
+		ctx.supported = 1 << BDS10 | 1 << BDS17 | 1 << BDS30 |
+				(bit(mb, 7) ? 1 << BDS20 : 0) | (bit(mb, 9) ? 1 << BDS40 : 0) |
+				(bit(mb, 16) ? 1 << BDS50 : 0) | (bit(mb, 24) ? 1 << BDS60 : 0);
+		if (previous != null) notifyListeners(address, previous, report, timestamp);
+	}
+
+	private void notifyListeners(QualifiedAddress address, BDSRegister previous, BDSRegister current, long timestamp) {
+		for (CapabilityListener listener : listeners)
+			listener.onCapabilityChange(address, previous, current, timestamp);
+	}
+
+	/**
+	 * @return the candidate or -1 if none or ambiguous
+	 */
+	int infer(Context ctx, long mb, Integer altitude, long timestamp) {
+		int[] scores = new int[CANDIDATES];
+		boolean[] checked = new boolean[CANDIDATES];
+
+		// likely registers first
+		for (int i = 0; i < CANDIDATES && ctx.counts[ctx.order[i]] > 0; i++) {
+			int candidate = ctx.order[i];
+			if ((ctx.supported & 1 << candidate) == 0) continue;
+			scores[candidate] = check(candidate, mb, ctx, altitude, timestamp);
+			checked[candidate] = true;
+			if (scores[candidate] == CONFIRMED) return resolve(ctx, candidate);
+		}
+
+		int best = REJECTED, bestCount = 0, winner = -1;
+		boolean tie = false;
+		for (int candidate = 0; candidate < CANDIDATES; candidate++) {
+			if ((ctx.supported & 1 << candidate) == 0) continue;
+			if (!checked[candidate]) scores[candidate] = check(candidate, mb, ctx, altitude, timestamp);
+			int score = scores[candidate], count = ctx.counts[candidate];
+			if (score == REJECTED || score < best) continue;
+
+			if (score > best) {
+				best = score;
+				bestCount = count;
+				winner = candidate;
+				tie = false;
+			} else if (count > bestCount) {
+				// break ties by the register mix
+				bestCount = count;
+				winner = candidate;
+				tie = false;
+			} else if (count == bestCount) {
+				tie = true;
+			}
+		}
+
+		if (winner < 0 || tie) {
+			ambiguous++;
+			return -1;
+		}
+		return resolve(ctx, winner);
+	}
+
+	private int resolve(Context ctx, int candidate) {
+		resolved++;
+		int[] counts = ctx.counts;
+		if (++ctx.total >= MIX_WINDOW) {
+			for (int i = 0; i < CANDIDATES; i++) counts[i] >>= 1;
+			ctx.total >>= 1;
+		}
+		counts[candidate]++;
+
+		// keep candidates ordered by count (insertion sort of the changed one)
+		byte[] order = ctx.order;
+		int i = 0;
+		while (order[i] != candidate) i++;
+		while (i > 0 && counts[order[i - 1]] < counts[candidate]) {
+			order[i] = order[i - 1];
+			i--;
+		}
+		order[i] = (byte) candidate;
+		return candidate;
+	}
+
+	int check(int candidate, long mb, Context ctx, Integer altitude, long timestamp) {
+		checks++;
+		switch (candidate) {
+			case BDS10:
+				return check10(mb);
+			case BDS17:
+				return check17(mb);
+			case BDS20:
+				return check20(mb, ctx, timestamp);
+			case BDS30:
+				return check30(mb);
+			case BDS40:
+				return check40(mb, altitude);
+			case BDS50:
+				return check50(mb, ctx, timestamp);
+			case BDS60:
+				return check60(mb, ctx, altitude, timestamp);
+			default:
+				return REJECTED;
+		}
+	}
+
+	/**
+	 * Data link capability report: header and Mode S subnetwork version
+	 */
+	private static int check10(long mb) {
+		if (field(mb, 1, 8) != 0x10) return REJECTED;
+		return field(mb, 17, 23) <= 6 ? PLAUSIBLE : REJECTED;
+	}
+
+	/**
+	 * Common usage GICB capability report: unassigned bits are zero and BDS 2,0 is supported
+	 */
+	private static int check17(long mb) {
+		return field(mb, 30, 56) == 0 && bit(mb, 7) ? PLAUSIBLE : REJECTED;
+	}
+
+	/**
+	 * Aircraft identification: header and valid characters; confirmed by the ADS-B callsign
+	 */
+	private static int check20(long mb, Context ctx, long timestamp) {
+		if (field(mb, 1, 8) != 0x20) return REJECTED;
+		long identification = field(mb, 9, 56);
+		for (int i = 0; i < 8; i++) {
+			int c = (int) (identification >>> (42 - 6 * i)) & 0x3F;
+			if (!(c >= 1 && c <= 26 || c == 32 || c >= 48 && c <= 57)) return REJECTED;
+		}
+		if (fresh(ctx.callsignTime, timestamp) && ctx.callsign == identification) return CONFIRMED;
+		return PLAUSIBLE;
+	}
+
+	/**
+	 * ACAS active resolution advisory: header, ACAS III bits and threat type
+	 */
+	private static int check30(long mb) {
+		if (field(mb, 1, 8) != 0x30) return REJECTED;
+		if (field(mb, 16, 22) >= 48) return REJECTED;
+		return field(mb, 29, 30) != 3 ? PLAUSIBLE : REJECTED;
+	}
+
+	/**
+	 * Selected vertical intention: status bits and reserved bits; confirmed if a selected altitude equals the
+	 * current altitude (level flight)
+	 */
+	private static int check40(long mb, Integer altitude) {
+		if (wrongStatus(mb, 1, 2, 13) || wrongStatus(mb, 14, 15, 26) || wrongStatus(mb, 27, 28, 39) ||
+				wrongStatus(mb, 48, 49, 51) || wrongStatus(mb, 54, 55, 56))
+			return REJECTED;
+		if (field(mb, 40, 47) != 0 || field(mb, 52, 53) != 0) return REJECTED;
+
+		if (altitude != null) {
+			if (bit(mb, 1) && Math.abs(field(mb, 2, 13) * 16 - altitude) <= 100) return CONFIRMED;
+			if (bit(mb, 14) && Math.abs(field(mb, 15, 26) * 16 - altitude) <= 100) return CONFIRMED;
+		}
+		return PLAUSIBLE;
+	}
+
+	/**
+	 * Track and turn report: status bits and value ranges; checked against ADS-B ground speed and track
+	 */
+	private static int check50(long mb, Context ctx, long timestamp) {
+		if (wrongStatus(mb, 1, 3, 11) || wrongStatus(mb, 12, 13, 23) || wrongStatus(mb, 24, 25, 34) ||
+				wrongStatus(mb, 35, 36, 45) || wrongStatus(mb, 46, 47, 56))
+			return REJECTED;
+
+		if (bit(mb, 1) && Math.abs(signed(mb, 2, 11) * 45. / 256.) > 50) return REJECTED;
+		long gs = bit(mb, 24) ? field(mb, 25, 34) * 2 : -1;
+		long tas = bit(mb, 46) ? field(mb, 47, 56) * 2 : -1;
+		if (gs > 600 || tas > 500) return REJECTED;
+		if (gs >= 0 && tas >= 0 && Math.abs(gs - tas) > 200) return REJECTED;
+
+		if (!fresh(ctx.velocityTime, timestamp)) return PLAUSIBLE;
+		boolean compared = false;
+		if (gs >= 0 && !Double.isNaN(ctx.groundSpeed)) {
+			if (Math.abs(gs - ctx.groundSpeed) > 40) return REJECTED;
+			compared = true;
+		}
+		if (bit(mb, 12) && !Double.isNaN(ctx.track)) {
+			if (angleDifference(signed(mb, 13, 23) * 90. / 512., ctx.track) > 20) return REJECTED;
+			compared = true;
+		}
+		return compared ? CONFIRMED : PLAUSIBLE;
+	}
+
+	/**
+	 * Heading and speed report: status bits, value ranges and consistency of airspeed and Mach number at the
+	 * current altitude; checked against ADS-B heading (or track) and vertical rate
+	 */
+	private static int check60(long mb, Context ctx, Integer altitude, long timestamp) {
+		if (wrongStatus(mb, 1, 2, 12) || wrongStatus(mb, 13, 14, 23) || wrongStatus(mb, 24, 25, 34) ||
+				wrongStatus(mb, 35, 36, 45) || wrongStatus(mb, 46, 47, 56))
+			return REJECTED;
+
+		long ias = bit(mb, 13) ? field(mb, 14, 23) : -1;
+		double mach = bit(mb, 24) ? field(mb, 25, 34) * 2.048 / 512. : -1;
+		if (ias > 500 || mach > 1) return REJECTED;
+		int baroRate = bit(mb, 35) ? (int) signed(mb, 36, 45) * 32 : 0;
+		int inertialRate = bit(mb, 46) ? (int) signed(mb, 47, 56) * 32 : 0;
+		if (Math.abs(baroRate) > 6000 || Math.abs(inertialRate) > 6000) return REJECTED;
+		if (ias >= 0 && mach >= 0 && altitude != null && Math.abs(machToCas(mach, altitude) - ias) > 50)
+			return REJECTED;
+
+		boolean compared = false;
+		if (bit(mb, 1)) {
+			double heading = signed(mb, 2, 12) * 90. / 512.;
+			if (fresh(ctx.headingTime, timestamp) && !Double.isNaN(ctx.heading)) {
+				if (angleDifference(heading, ctx.heading) > 15) return REJECTED;
+				compared = true;
+			} else if (fresh(ctx.velocityTime, timestamp) && !Double.isNaN(ctx.track)) {
+				// magnetic heading vs. true track: allow for declination and wind correction
+				if (angleDifference(heading, ctx.track) > 45) return REJECTED;
+				compared = true;
+			}
+		}
+		if (fresh(ctx.velocityTime, timestamp) && ctx.verticalRate != null && (bit(mb, 35) || bit(mb, 46))) {
+			int rate = bit(mb, 46) ? inertialRate : baroRate;
+			if (Math.abs(rate - ctx.verticalRate) > 1500) return REJECTED;
+			compared = true;
+		}
+		return compared ? CONFIRMED : PLAUSIBLE;
+	}
+
+	/**
+	 * Calibrated airspeed in knots for a Mach number at a pressure altitude in the ISA
+	 */
+	static double machToCas(double mach, int altitude) {
+		double h = altitude * 0.3048;
+		double temperature = h < 11000 ? 288.15 - 0.0065 * h : 216.65;
+		double pressure = h < 11000 ? 101325 * Math.pow(temperature / 288.15, 5.2559) :
+				22632 * Math.exp(-(h - 11000) / 6341.6);
+
+		// impact pressure from the Mach number, then CAS at sea level conditions
+		double qc = pressure * (Math.pow(1 + 0.2 * mach * mach, 3.5) - 1);
+		double cas = 340.294 * Math.sqrt(5 * (Math.pow(qc / 101325 + 1, 2 / 7.) - 1));
+		return cas / 0.514444;
+	}
+
+	private static BDSRegister create(int candidate, byte[] commB) throws BadFormatException {
+		switch (candidate) {
+			case BDS10:
+				return new DataLinkCapabilityReport(commB);
+			case BDS17:
+				return new CommonUsageGICBCapabilityReport(commB);
+			case BDS20:
+				return new AircraftIdentification(commB);
+			case BDS30:
+				return new ACASActiveResolutionAdvisoryReport(commB);
+			case BDS40:
+				return new SelectedVerticalIntention(commB);
+			case BDS50:
+				return new TrackAndTurn(commB);
+			case BDS60:
+				return new HeadingAndSpeed(commB);
+			default:
+				return new BDSRegister(commB);
+		}
+	}
+
+	/**
+	 * Records the velocity of an aircraft from ADS-B.
+	 *
+	 * @param address      the aircraft's address
+	 * @param groundSpeed  ground speed in knots or null
+	 * @param track        true track in degrees or null
+	 * @param verticalRate vertical rate in feet/min or null
+	 * @param timestamp    time of reception in milliseconds
+	 */
+	public void observeVelocity(QualifiedAddress address, Double groundSpeed, Double track, Integer verticalRate,
+								long timestamp) {
+		sweep(timestamp);
+		Context ctx = context(address);
+		ctx.groundSpeed = groundSpeed != null ? groundSpeed : Double.NaN;
+		ctx.track = track != null ? track : Double.NaN;
+		ctx.verticalRate = verticalRate;
+		ctx.velocityTime = timestamp;
+		ctx.lastUsed = timestamp;
+	}
+
+	/**
+	 * Records the heading of an aircraft from ADS-B (airspeed and heading messages).
+	 *
+	 * @param address   the aircraft's address
+	 * @param heading   heading in degrees or null
+	 * @param timestamp time of reception in milliseconds
+	 */
+	public void observeHeading(QualifiedAddress address, Double heading, long timestamp) {
+		sweep(timestamp);
+		Context ctx = context(address);
+		ctx.heading = heading != null ? heading : Double.NaN;
+		ctx.headingTime = timestamp;
+		ctx.lastUsed = timestamp;
+	}
+
+	/**
+	 * Records the callsign of an aircraft from ADS-B.
+	 *
+	 * @param address        the aircraft's address
+	 * @param identification the packed 48 bit character field, see
+	 *                       {@link de.serosystems.lib1090.decoding.Identification#extractIdentification(byte[])}
+	 * @param timestamp      time of reception in milliseconds
+	 */
+	public void observeCallsign(QualifiedAddress address, long identification, long timestamp) {
+		sweep(timestamp);
+		Context ctx = context(address);
+		ctx.callsign = identification;
+		ctx.callsignTime = timestamp;
+		ctx.lastUsed = timestamp;
+	}
+
+	/**
+	 * @param listener called for each change of the capability reports of an aircraft
+	 */
+	public void addCapabilityListener(CapabilityListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param address the aircraft's address
+	 * @return the latest data link capability report (BDS 1,0) of the aircraft or null
+	 */
+	public DataLinkCapabilityReport getDataLinkCapability(QualifiedAddress address) {
+		Context ctx = contexts.get(address);
+		return ctx != null ? ctx.capabilities : null;
+	}
+
+	/**
+	 * @param address the aircraft's address
+	 * @return the latest common usage GICB capability report (BDS 1,7) of the aircraft or null
+	 */
+	public CommonUsageGICBCapabilityReport getGICBCapability(QualifiedAddress address) {
+		Context ctx = contexts.get(address);
+		return ctx != null ? ctx.gicbCapabilities : null;
+	}
+
+	/**
+	 * @return number of aircraft with state
+	 */
+	public int size() {
+		return contexts.size();
+	}
+
+	/**
+	 * Removes the state of aircraft which have not been seen for more than maxIdle milliseconds.
+	 *
+	 * @param latestTimestamp the current time in milliseconds
+	 * @param maxIdle         maximum idle time in milliseconds
+	 */
+	public void removeIdle(long latestTimestamp, long maxIdle) {
+		contexts.values().removeIf(ctx -> latestTimestamp - ctx.lastUsed > maxIdle);
+	}
+
+	/**
+	 * Removes idle state every {@link #SWEEP_INTERVAL} calls, independent of the decoder's cleanup which only
+	 * runs for large numbers of aircraft.
+	 */
+	private void sweep(long timestamp) {
+		if (--untilSweep > 0) return;
+		untilSweep = SWEEP_INTERVAL;
+		contexts.values().removeIf(ctx ->
+				timestamp - ctx.lastUsed > (ctx.isSingleReply() ? MAX_STATE_AGE : MAX_IDLE));
+	}
+
+	/**
+	 * @return number of replies with an inferred register
+	 */
+	public long getResolved() {
+		return resolved;
+	}
+
+	/**
+	 * @return number of replies for which no or several registers were plausible
+	 */
+	public long getAmbiguous() {
+		return ambiguous;
+	}
+
+	/**
+	 * @return number of capability reports returned from the cache
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * @return total number of candidate checks
+	 */
+	public long getCandidateChecks() {
+		return checks;
+	}
+
+	Context context(QualifiedAddress address) {
+		return contexts.computeIfAbsent(address, a -> new Context());
+	}
+
+	private static boolean fresh(long time, long timestamp) {
+		return time != Long.MIN_VALUE && timestamp - time <= MAX_STATE_AGE;
+	}
+
+	static long pack(byte[] commB) {
+		long mb = 0;
+		for (int i = 0; i < 7; i++) mb = mb << 8 | (commB[i] & 0xFF);
+		return mb;
+	}
+
+	/**
+	 * @return bits first to last (1-based, inclusive) of the 56 bit message
+	 */
+	private static long field(long mb, int first, int last) {
+		return (mb >>> (56 - last)) & ((1L << (last - first + 1)) - 1);
+	}
+
+	private static boolean bit(long mb, int bit) {
+		return (mb >>> (56 - bit) & 1) == 1;
+	}
+
+	/**
+	 * @return two's complement value of bits first (sign) to last
+	 */
+	private static long signed(long mb, int first, int last) {
+		int bits = last - first + 1;
+		long value = field(mb, first, last);
+		return value >= 1L << (bits - 1) ? value - (1L << bits) : value;
+	}
+
+	/**
+	 * @return whether the value bits of a field are set although its status bit is not
+	 */
+	private static boolean wrongStatus(long mb, int status, int first, int last) {
+		return !bit(mb, status) && field(mb, first, last) != 0;
+	}
+
+	private static double angleDifference(double a, double b) {
+		double d = Math.abs(a - b) % 360;
+		return d > 180 ? 360 - d : d;
+	}
+
+	/**
+	 * Per-aircraft state of the inference
+	 */
+	static final class Context {
+		long lastUsed;
+
+		// register mix: number of recent replies resolved to each candidate and candidates ordered by it
+		final int[] counts = new int[CANDIDATES];
+		final byte[] order = {BDS10, BDS17, BDS20, BDS30, BDS40, BDS50, BDS60};
+		int total;
+		// candidates supported according to the capability report
+		int supported = ALL_CANDIDATES;
+
+		// cached capability reports and their raw content
+		DataLinkCapabilityReport capabilities;
+		long capabilitiesFingerprint;
+		CommonUsageGICBCapabilityReport gicbCapabilities;
+		long gicbFingerprint;
+
+		// recent ADS-B state
+		double groundSpeed = Double.NaN;
+		double track = Double.NaN;
+		Integer verticalRate;
+		long velocityTime = Long.MIN_VALUE;
+		double heading = Double.NaN;
+		long headingTime = Long.MIN_VALUE;
+		long callsign = -1;
+		long callsignTime = Long.MIN_VALUE;
+
+		/**
+		 * @return whether only a single register has been inferred and there is no ADS-B state, e.g. for the
+		 * address of a corrupted reply
+		 */
+		boolean isSingleReply() {
+			return total <= 1 && velocityTime == Long.MIN_VALUE && headingTime == Long.MIN_VALUE &&
+					callsignTime == Long.MIN_VALUE;
+		}
+	}
+}
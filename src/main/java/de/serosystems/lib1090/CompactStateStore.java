@@ -0,0 +1,463 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.ReferencePointProvider;
+import de.serosystems.lib1090.cpr.StatefulPositionDecoder;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * State backend which keeps the decoder and CPR state of all aircraft in fixed-width records in primitive
+ * arrays (struct of arrays) indexed by an open addressing map from address to record. Apart from short-lived
+ * objects while decoding positions, there are no objects per aircraft the garbage collector has to trace.
+ * <p>
+ * Position decoding behaves exactly like {@link de.serosystems.lib1090.cpr.StatefulPositionDecoder}.
+ * Custom {@link de.serosystems.lib1090.cpr.PositionDecoderSupplier}s are not supported.
+ */
+final class CompactStateStore implements DecoderStateStore {
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	// record flags
+	private static final byte NIC_SUPPL_A = DecoderSnapshot.NIC_SUPPL_A;
+	private static final byte NIC_SUPPL_C = DecoderSnapshot.NIC_SUPPL_C;
+	private static final byte GEO_MINUS_BARO = DecoderSnapshot.GEO_MINUS_BARO;
+	private static final byte LAST_POS = 0x8;
+
+	// flags of stored CPR encoded positions
+	private static final byte CPR_PRESENT = 0x1;
+	private static final byte CPR_SURFACE = 0x2;
+	private static final byte CPR_HIGH_SPEED = 0x4;
+
+	private final boolean disableSpeedTest;
+	private final ReferencePointProvider references;
+
+	// CPR state per receiver and aircraft, keyed by receiver id (upper 32 bits) and aircraft key; created on first use
+	private CompactStateStore receivers;
+	private DecoderMetrics.PositionCounters metrics;
+
+	private int size;
+	private int current = -1;
+
+	// open addressing index: record + 1 or 0 if empty
+	private int[] index;
+
+	// records
+	private long[] keys;
+	private long[] lastUsed;
+	private byte[] adsbVersion;
+	private byte[] flags;
+	private int[] geoMinusBaro;
+
+	// last even (2*record) and odd (2*record+1) airborne positions
+	private byte[] cprFlags;
+	private byte[] cprBits;
+	private int[] cprYz;
+	private int[] cprXz;
+	private long[] cprTime;
+
+	// last decoded position
+	private double[] lastLat;
+	private double[] lastLon;
+	private long[] lastTime;
+	private int[] numReasonable;
+
+	CompactStateStore(boolean disableSpeedTest) {
+		this(disableSpeedTest, null);
+	}
+
+	CompactStateStore(boolean disableSpeedTest, ReferencePointProvider references) {
+		this.disableSpeedTest = disableSpeedTest;
+		this.references = references;
+		allocate(INITIAL_CAPACITY);
+	}
+
+	@Override
+	public void select(QualifiedAddress address, long timestamp) {
+		select(DecoderSnapshot.key(address), timestamp);
+	}
+
+	private void select(long key, long timestamp) {
+		int mask = index.length - 1;
+		int i = hash(key) & mask;
+		int record;
+		while ((record = index[i] - 1) >= 0 && keys[record] != key)
+			i = (i + 1) & mask;
+
+		if (record < 0) {
+			if (size == keys.length) {
+				allocate(keys.length << 1);
+				select(key, timestamp);
+				return;
+			}
+			record = size++;
+			index[i] = record + 1;
+			keys[record] = key;
+			adsbVersion[record] = 0;
+			flags[record] = 0;
+			cprFlags[2 * record] = 0;
+			cprFlags[2 * record + 1] = 0;
+			numReasonable[record] = 0;
+		}
+
+		lastUsed[record] = timestamp;
+		current = record;
+	}
+
+	@Override
+	public byte getAdsbVersion() {
+		return adsbVersion[current];
+	}
+
+	@Override
+	public void setAdsbVersion(byte adsbVersion) {
+		this.adsbVersion[current] = adsbVersion;
+	}
+
+	@Override
+	public boolean hasNICSupplementA() {
+		return (flags[current] & NIC_SUPPL_A) != 0;
+	}
+
+	@Override
+	public void setNICSupplementA(boolean nicSupplA) {
+		setFlag(NIC_SUPPL_A, nicSupplA);
+	}
+
+	@Override
+	public boolean hasNICSupplementC() {
+		return (flags[current] & NIC_SUPPL_C) != 0;
+	}
+
+	@Override
+	public void setNICSupplementC(boolean nicSupplC) {
+		setFlag(NIC_SUPPL_C, nicSupplC);
+	}
+
+	@Override
+	public Integer getGeoMinusBaro() {
+		return (flags[current] & GEO_MINUS_BARO) != 0 ? geoMinusBaro[current] : null;
+	}
+
+	@Override
+	public void setGeoMinusBaro(Integer geoMinusBaro) {
+		setFlag(GEO_MINUS_BARO, geoMinusBaro != null);
+		if (geoMinusBaro != null) this.geoMinusBaro[current] = geoMinusBaro;
+	}
+
+	@Override
+	public Position decodePosition(CPREncodedPosition cpr, Position receiver) {
+		if (cpr == null) return null;
+		int record = current;
+
+		// get last position in complementary format for global decoding
+		CPREncodedPosition lastOther = loadCPR(2 * record + (cpr.isOddFormat() ? 0 : 1));
+
+		// store position message for global decoding
+		storeCPR(2 * record + (cpr.isOddFormat() ? 1 : 0), cpr);
+
+		Position lastPos = (flags[record] & LAST_POS) != 0 ?
+				new Position(lastLon[record], lastLat[record], 0.) : null;
+
+		// only use receiver as reference for surface positions (might be too far away for airborne)
+		Position refPos = lastPos != null ? lastPos : (cpr.isSurface() ? surfaceReference(cpr, receiver) : null);
+
+		Position newPos = cpr.decodePosition(lastOther, refPos, metrics);
+
+		if (newPos == null) return null;
+
+		numReasonable[record] = StatefulPositionDecoder.checkReasonableness(newPos, cpr.getTimestamp(), lastPos,
+				lastTime[record], numReasonable[record], receiver, disableSpeedTest, metrics);
+		lastLat[record] = newPos.getLatitude();
+		lastLon[record] = newPos.getLongitude();
+		lastTime[record] = cpr.getTimestamp();
+		flags[record] |= LAST_POS;
+
+		return newPos;
+	}
+
+	private Position surfaceReference(CPREncodedPosition cpr, Position receiver) {
+		Position ref = references != null ? references.getReference(cpr, receiver) : null;
+		return ref != null ? ref : receiver;
+	}
+
+	@Override
+	public Position decodePosition(int receiverId, CPREncodedPosition cpr, Position receiver) {
+		if (receivers == null) {
+			receivers = new CompactStateStore(disableSpeedTest, references);
+			receivers.metrics = metrics;
+		}
+		receivers.select((long) receiverId << 32 | keys[current], lastUsed[current]);
+		return receivers.decodePosition(cpr, receiver);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void setMetrics(DecoderMetrics metrics) {
+		this.metrics = metrics == null ? null : metrics.positionCounters();
+		if (receivers != null) receivers.metrics = this.metrics;
+	}
+
+	@Override
+	public void removeIdle(long latestTimestamp, long maxIdle) {
+		// compact records, then rebuild the index
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			if (latestTimestamp - lastUsed[i] > maxIdle) {
+				if (DecoderEvents.isEnabled()) evicted(keys[i], latestTimestamp - lastUsed[i]);
+				continue;
+			}
+			if (i != j) move(i, j);
+			j++;
+		}
+		size = j;
+		current = -1;
+		rebuildIndex();
+
+		// per-receiver state lives as long as its aircraft
+		if (receivers != null) {
+			j = 0;
+			for (int i = 0; i < receivers.size; i++) {
+				if (!contains(receivers.keys[i] & 0xFFFFFFFFL)) continue;
+				if (i != j) receivers.move(i, j);
+				j++;
+			}
+			receivers.size = j;
+			receivers.current = -1;
+			receivers.rebuildIndex();
+		}
+	}
+
+	private static void evicted(long key, long idle) {
+		try {
+			DecoderEvents.evicted(DecoderSnapshot.address(key), idle);
+		} catch (IOException e) {
+			// keys are created from valid addresses
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public void writeRecords(DataOutput out) throws IOException {
+		for (int record = 0; record < size; record++)
+			writeRecord(record, out);
+	}
+
+	@Override
+	public long[] keys() {
+		return Arrays.copyOf(keys, size);
+	}
+
+	@Override
+	public boolean writeRecord(long key, DataOutput out) throws IOException {
+		int record = find(key);
+		if (record < 0) return false;
+		writeRecord(record, out);
+		return true;
+	}
+
+	private void writeRecord(int record, DataOutput out) throws IOException {
+		out.writeLong(keys[record]);
+		out.writeLong(lastUsed[record]);
+		out.writeByte(adsbVersion[record]);
+		out.writeByte(flags[record] & (NIC_SUPPL_A | NIC_SUPPL_C | GEO_MINUS_BARO));
+		out.writeInt(geoMinusBaro[record]);
+
+		// same layout as StatefulPositionDecoder.writeState
+		CPREncodedPosition.write(out, loadCPR(2 * record));
+		CPREncodedPosition.write(out, loadCPR(2 * record + 1));
+		boolean hasLastPos = (flags[record] & LAST_POS) != 0;
+		out.writeBoolean(hasLastPos);
+		out.writeDouble(hasLastPos ? lastLat[record] : 0.);
+		out.writeDouble(hasLastPos ? lastLon[record] : 0.);
+		out.writeLong(hasLastPos ? lastTime[record] : 0L);
+		out.writeInt(numReasonable[record]);
+	}
+
+	@Override
+	public void readRecords(DataInput in, int count) throws IOException {
+		// read into a new store first, so that this store is unchanged if the input is truncated or corrupt
+		CompactStateStore read = new CompactStateStore(disableSpeedTest, references);
+		for (int record = 0; record < count; record++)
+			read.readRecord(in);
+		read.rebuildIndex();
+
+		size = read.size;
+		current = -1;
+		receivers = null;
+		index = read.index;
+		keys = read.keys;
+		lastUsed = read.lastUsed;
+		adsbVersion = read.adsbVersion;
+		flags = read.flags;
+		geoMinusBaro = read.geoMinusBaro;
+		cprFlags = read.cprFlags;
+		cprBits = read.cprBits;
+		cprYz = read.cprYz;
+		cprXz = read.cprXz;
+		cprTime = read.cprTime;
+		lastLat = read.lastLat;
+		lastLon = read.lastLon;
+		lastTime = read.lastTime;
+		numReasonable = read.numReasonable;
+	}
+
+	/**
+	 * Appends a record read from the input; the index has to be rebuilt afterwards.
+	 */
+	private void readRecord(DataInput in) throws IOException {
+		long key = in.readLong();
+		// validates the address type
+		DecoderSnapshot.address(key);
+		if (size == keys.length) allocate(keys.length << 1);
+
+		int record = size;
+		keys[record] = key;
+		lastUsed[record] = in.readLong();
+		adsbVersion[record] = in.readByte();
+		flags[record] = (byte) (in.readByte() & (NIC_SUPPL_A | NIC_SUPPL_C | GEO_MINUS_BARO));
+		geoMinusBaro[record] = in.readInt();
+
+		CPREncodedPosition even = CPREncodedPosition.read(in);
+		CPREncodedPosition odd = CPREncodedPosition.read(in);
+		cprFlags[2 * record] = 0;
+		cprFlags[2 * record + 1] = 0;
+		if (even != null) storeCPR(2 * record, even);
+		if (odd != null) storeCPR(2 * record + 1, odd);
+
+		if (in.readBoolean()) flags[record] |= LAST_POS;
+		lastLat[record] = in.readDouble();
+		lastLon[record] = in.readDouble();
+		lastTime[record] = in.readLong();
+		numReasonable[record] = in.readInt();
+		size++;
+	}
+
+	private boolean contains(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * @return the record of a key or -1 if there is none
+	 */
+	private int find(long key) {
+		int mask = index.length - 1;
+		int i = hash(key) & mask;
+		int record;
+		while ((record = index[i] - 1) >= 0) {
+			if (keys[record] == key) return record;
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void move(int from, int to) {
+		keys[to] = keys[from];
+		lastUsed[to] = lastUsed[from];
+		adsbVersion[to] = adsbVersion[from];
+		flags[to] = flags[from];
+		geoMinusBaro[to] = geoMinusBaro[from];
+		for (int k = 0; k < 2; k++) {
+			cprFlags[2 * to + k] = cprFlags[2 * from + k];
+			cprBits[2 * to + k] = cprBits[2 * from + k];
+			cprYz[2 * to + k] = cprYz[2 * from + k];
+			cprXz[2 * to + k] = cprXz[2 * from + k];
+			cprTime[2 * to + k] = cprTime[2 * from + k];
+		}
+		lastLat[to] = lastLat[from];
+		lastLon[to] = lastLon[from];
+		lastTime[to] = lastTime[from];
+		numReasonable[to] = numReasonable[from];
+	}
+
+	private CPREncodedPosition loadCPR(int i) {
+		byte f = cprFlags[i];
+		if ((f & CPR_PRESENT) == 0) return null;
+
+		boolean isOdd = (i & 1) == 1;
+		if ((f & CPR_SURFACE) != 0)
+			return CPREncodedPosition.ofSurface(cprBits[i], isOdd, (f & CPR_HIGH_SPEED) != 0,
+					cprYz[i], cprXz[i], cprTime[i]);
+		else
+			return CPREncodedPosition.ofAirborne(cprBits[i], isOdd, cprYz[i], cprXz[i], cprTime[i]);
+	}
+
+	private void storeCPR(int i, CPREncodedPosition cpr) {
+		byte f = CPR_PRESENT;
+		if (cpr.isSurface()) f |= CPR_SURFACE;
+		if (cpr.isHighSurfaceSpeed()) f |= CPR_HIGH_SPEED;
+		cprFlags[i] = f;
+		cprBits[i] = (byte) cpr.getNBits();
+		cprYz[i] = cpr.yz();
+		cprXz[i] = cpr.xz();
+		cprTime[i] = cpr.getTimestamp();
+	}
+
+	private void setFlag(byte flag, boolean value) {
+		if (value) flags[current] |= flag;
+		else flags[current] &= (byte) ~flag;
+	}
+
+	private void allocate(int capacity) {
+		keys = keys == null ? new long[capacity] : Arrays.copyOf(keys, capacity);
+		lastUsed = lastUsed == null ? new long[capacity] : Arrays.copyOf(lastUsed, capacity);
+		adsbVersion = adsbVersion == null ? new byte[capacity] : Arrays.copyOf(adsbVersion, capacity);
+		flags = flags == null ? new byte[capacity] : Arrays.copyOf(flags, capacity);
+		geoMinusBaro = geoMinusBaro == null ? new int[capacity] : Arrays.copyOf(geoMinusBaro, capacity);
+		cprFlags = cprFlags == null ? new byte[2 * capacity] : Arrays.copyOf(cprFlags, 2 * capacity);
+		cprBits = cprBits == null ? new byte[2 * capacity] : Arrays.copyOf(cprBits, 2 * capacity);
+		cprYz = cprYz == null ? new int[2 * capacity] : Arrays.copyOf(cprYz, 2 * capacity);
+		cprXz = cprXz == null ? new int[2 * capacity] : Arrays.copyOf(cprXz, 2 * capacity);
+		cprTime = cprTime == null ? new long[2 * capacity] : Arrays.copyOf(cprTime, 2 * capacity);
+		lastLat = lastLat == null ? new double[capacity] : Arrays.copyOf(lastLat, capacity);
+		lastLon = lastLon == null ? new double[capacity] : Arrays.copyOf(lastLon, capacity);
+		lastTime = lastTime == null ? new long[capacity] : Arrays.copyOf(lastTime, capacity);
+		numReasonable = numReasonable == null ? new int[capacity] : Arrays.copyOf(numReasonable, capacity);
+
+		// keep the load factor of the index at or below 0.5
+		index = new int[capacity << 1];
+		rebuildIndex();
+	}
+
+	private void rebuildIndex() {
+		Arrays.fill(index, 0);
+		int mask = index.length - 1;
+		for (int record = 0; record < size; record++) {
+			int i = hash(keys[record]) & mask;
+			while (index[i] != 0)
+				i = (i + 1) & mask;
+			index[i] = record + 1;
+		}
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+/**
+ * Hooks for JDK Flight Recorder events of the decoder: slow decodes, failed CPR pairs, failed reasonableness
+ * tests, evicted aircraft and cleanup sweeps.
+ * <br>
+ * This class is the Java 8 version which does nothing. The jar also contains a version for Java 11 and later
+ * (multi-release jar) which emits the events if the system property {@code lib1090.jfr} is set to {@code true}.
+ * Events are off by default. Callers check {@link #isEnabled()} before calling any other method, so disabled
+ * events cost no more than a check of a constant.
+ * <br>
+ * The events are in the category "lib1090" and carry the address, downlink format and message type of the
+ * frame which was being decoded by the current thread when the event was emitted.
+ */
+public final class DecoderEvents {
+
+	/**
+	 * Reasons for which two CPR encoded positions could not be combined by global decoding
+	 */
+	public enum CPRFailure {
+		/**
+		 * the time between the even and the odd position exceeds {@link de.serosystems.lib1090.cpr.CPREncodedPosition#maxGap}
+		 */
+		MAX_GAP_EXCEEDED,
+		/**
+		 * the even and odd position are in different longitude zones (NL)
+		 */
+		STRADDLING_ZONES,
+		/**
+		 * the decoded latitude is invalid
+		 */
+		INVALID_LATITUDE
+	}
+
+	private DecoderEvents() {
+	}
+
+	/**
+	 * @return true if events are emitted
+	 */
+	public static boolean isEnabled() {
+		return false;
+	}
+
+	/**
+	 * Called before a frame is decoded.
+	 *
+	 * @param modes the frame
+	 * @return true if the frame is tracked, {@link #decodeFinished()} must be called then
+	 */
+	public static boolean decodeStarted(ModeSDownlinkMsg modes) {
+		return false;
+	}
+
+	/**
+	 * Called with the message a frame has been decoded to.
+	 *
+	 * @param msg the decoded message
+	 */
+	public static void decoded(ModeSDownlinkMsg msg) {
+	}
+
+	/**
+	 * Called after a tracked frame has been decoded (also if decoding failed). Emits a slow decode event if decoding took
+	 * longer than the event's threshold.
+	 */
+	public static void decodeFinished() {
+	}
+
+	/**
+	 * Called if two CPR encoded positions could not be combined.
+	 *
+	 * @param reason the reason
+	 * @param gap    time between the two positions in milliseconds
+	 * @param maxGap maximum time between the two positions in milliseconds
+	 */
+	public static void cprPairFailed(CPRFailure reason, long gap, long maxGap) {
+	}
+
+	/**
+	 * Called if a decoded position failed a reasonableness test.
+	 *
+	 * @param test     the failed test
+	 * @param position the position
+	 */
+	public static void rejected(DecoderMetrics.ReasonablenessTest test, Position position) {
+	}
+
+	/**
+	 * Called for each aircraft which is removed from the decoder state.
+	 *
+	 * @param address the aircraft's address
+	 * @param idle    time since the aircraft has been seen last in milliseconds
+	 */
+	public static void evicted(QualifiedAddress address, long idle) {
+	}
+
+	/**
+	 * Called before idle aircraft are removed from the decoder state.
+	 */
+	public static void cleanupStarted() {
+	}
+
+	/**
+	 * Called after idle aircraft have been removed from the decoder state.
+	 *
+	 * @param before  number of aircraft before the cleanup
+	 * @param after   number of aircraft after the cleanup
+	 * @param maxIdle maximum idle time in milliseconds
+	 */
+	public static void cleanupFinished(int before, int after, long maxIdle) {
+	}
+}
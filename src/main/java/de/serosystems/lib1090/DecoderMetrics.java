@@ -0,0 +1,376 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of a {@link StatefulModeSDecoder}, see {@link StatefulModeSDecoder#enableMetrics()}. Since a decoder is
+ * used by one thread at a time, each counter has a single writer which updates it with an ordered store
+ * ({@link AtomicLongArray#lazySet(int, long)}) instead of an atomic read-modify-write. To keep it that way, the
+ * counters can only be created and updated by their decoder (and its position decoders through
+ * {@link PositionCounters}). Counters can be read at any time from any thread (pull API or JMX via
+ * {@link #registerMBean(String)}); reads are not atomic across counters.<br>
+ * <br>
+ * CPR and reasonableness counters are only updated by the built-in position decoders, i.e. not for custom
+ * {@link de.serosystems.lib1090.cpr.PositionDecoderSupplier}s. The parity of extended squitters is only checked
+ * if enabled with {@link #setCheckParity(boolean)} because the CRC computation costs several percent of the
+ * decoding time.
+ */
+public class DecoderMetrics implements DecoderMetricsMBean {
+
+	/**
+	 * Reasonableness tests which can mark a decoded position as unreasonable
+	 */
+	public enum ReasonablenessTest {
+		/** global and local decoding differ by more than 5 m */
+		LOCAL_GLOBAL,
+		/** the positions of an even/odd pair are more than 5556 m apart */
+		PAIR_DISTANCE,
+		/** latitude or longitude out of range */
+		COORDINATES,
+		/** the aircraft would have moved faster than 514.4 m/s since its last position */
+		SPEED,
+		/** the position is more than 700 km away from the receiver */
+		RECEIVER_DISTANCE
+	}
+
+	private static final int DOWNLINK_FORMATS = 32;
+	private static final ModeSDownlinkMsg.subtype[] SUBTYPES = ModeSDownlinkMsg.subtype.values();
+	private static final ReasonablenessTest[] TESTS = ReasonablenessTest.values();
+
+	// counter layout, decoded messages by downlink format and subtype so each frame updates a single counter
+	private static final int DECODED = 0;
+	private static final int BAD_FORMAT = DECODED + DOWNLINK_FORMATS * SUBTYPES.length;
+	private static final int UNSPECIFIED_FORMAT = BAD_FORMAT + DOWNLINK_FORMATS;
+	private static final int REJECTED = UNSPECIFIED_FORMAT + DOWNLINK_FORMATS;
+	private static final int MALFORMED = REJECTED + TESTS.length;
+	private static final int CRC_PASSED = MALFORMED + 1;
+	private static final int CRC_FAILED = CRC_PASSED + 1;
+	private static final int EVICTIONS = CRC_FAILED + 1;
+	private static final int CPR_GLOBAL = EVICTIONS + 1;
+	private static final int CPR_LOCAL = CPR_GLOBAL + 1;
+	private static final int CPR_FAILED = CPR_LOCAL + 1;
+	private static final int COUNTERS = CPR_FAILED + 1;
+
+	private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+	private final PositionCounters positionCounters = new PositionCounters();
+	// values at the last reset, only used by readers
+	private final AtomicLongArray baseline = new AtomicLongArray(COUNTERS);
+	private volatile int trackedTargets;
+	private volatile boolean checkParity;
+
+	private ObjectName objectName;
+
+	/**
+	 * Created by {@link StatefulModeSDecoder#enableMetrics()} only, so each instance has a single writer.
+	 */
+	DecoderMetrics() {
+	}
+
+	private void increment(int counter) {
+		counters.lazySet(counter, counters.get(counter) + 1);
+	}
+
+	private long get(int counter) {
+		return counters.get(counter) - baseline.get(counter);
+	}
+
+	private long sum(int from, int count) {
+		long sum = 0;
+		for (int i = from; i < from + count; i++) sum += get(i);
+		return sum;
+	}
+
+	/**
+	 * Enables or disables checking the parity of extended squitters (DF 17-19) for {@link #getCRCPassed()}
+	 * and {@link #getCRCFailed()}. Disabled by default.
+	 *
+	 * @param checkParity whether to check the parity
+	 */
+	public void setCheckParity(boolean checkParity) {
+		this.checkParity = checkParity;
+	}
+
+	/*
+	 * Updates by the decoder
+	 */
+
+	void received(ModeSDownlinkMsg msg) {
+		int df = msg.getDownlinkFormat();
+		if (checkParity && df >= 17 && df <= 19)
+			increment(msg.getParity() == 0 || msg.checkParity() ? CRC_PASSED : CRC_FAILED);
+	}
+
+	void decoded(ModeSDownlinkMsg msg) {
+		increment(DECODED + msg.getDownlinkFormat() * SUBTYPES.length + msg.getType().ordinal());
+	}
+
+	void malformed() {
+		increment(MALFORMED);
+	}
+
+	void badFormat(ModeSDownlinkMsg msg) {
+		increment(BAD_FORMAT + msg.getDownlinkFormat());
+	}
+
+	void unspecifiedFormat(ModeSDownlinkMsg msg) {
+		increment(UNSPECIFIED_FORMAT + msg.getDownlinkFormat());
+	}
+
+	void trackedTargets(int count) {
+		trackedTargets = count;
+	}
+
+	void evicted(int count) {
+		counters.lazySet(EVICTIONS, counters.get(EVICTIONS) + count);
+	}
+
+	/**
+	 * @return the counters updated by the position decoders of the decoder
+	 */
+	PositionCounters positionCounters() {
+		return positionCounters;
+	}
+
+	/**
+	 * CPR and reasonableness counters which are updated by the position decoders (package
+	 * {@link de.serosystems.lib1090.cpr}). Instances are only handed to the position decoders of the decoder which
+	 * owns the metrics, so they cannot be shared by decoders on different threads.
+	 */
+	public final class PositionCounters {
+
+		private PositionCounters() {
+		}
+
+		/**
+		 * Counts the result of a CPR decoding.
+		 *
+		 * @param pos    the decoded position or null if decoding failed
+		 * @param global whether the position was decoded globally
+		 */
+		public void cprDecoded(Position pos, boolean global) {
+			increment(pos == null ? CPR_FAILED : global ? CPR_GLOBAL : CPR_LOCAL);
+		}
+
+		/**
+		 * Counts a failed reasonableness test.
+		 *
+		 * @param test the test
+		 */
+		public void rejected(ReasonablenessTest test) {
+			increment(REJECTED + test.ordinal());
+		}
+	}
+
+	/*
+	 * Pull API
+	 */
+
+	@Override
+	public long getReceived() {
+		return sum(DECODED, DOWNLINK_FORMATS * SUBTYPES.length) + getBadFormat() + getUnspecifiedFormat();
+	}
+
+	/**
+	 * @param downlinkFormat the downlink format (0-24)
+	 * @return number of received frames with the downlink format
+	 */
+	public long getReceived(int downlinkFormat) {
+		return sum(DECODED + downlinkFormat * SUBTYPES.length, SUBTYPES.length) +
+				get(BAD_FORMAT + downlinkFormat) + get(UNSPECIFIED_FORMAT + downlinkFormat);
+	}
+
+	/**
+	 * @param type the message type
+	 * @return number of messages decoded to the type
+	 */
+	public long getDecoded(ModeSDownlinkMsg.subtype type) {
+		long sum = 0;
+		for (int df = 0; df < DOWNLINK_FORMATS; df++)
+			sum += get(DECODED + df * SUBTYPES.length + type.ordinal());
+		return sum;
+	}
+
+	@Override
+	public long getMalformed() {
+		return get(MALFORMED);
+	}
+
+	@Override
+	public long getCRCPassed() {
+		return get(CRC_PASSED);
+	}
+
+	@Override
+	public long getCRCFailed() {
+		return get(CRC_FAILED);
+	}
+
+	@Override
+	public long getBadFormat() {
+		return sum(BAD_FORMAT, DOWNLINK_FORMATS);
+	}
+
+	/**
+	 * @param downlinkFormat the downlink format (0-24)
+	 * @return number of frames with the downlink format rejected with a
+	 * {@link de.serosystems.lib1090.exceptions.BadFormatException}
+	 */
+	public long getBadFormat(int downlinkFormat) {
+		return get(BAD_FORMAT + downlinkFormat);
+	}
+
+	@Override
+	public long getUnspecifiedFormat() {
+		return sum(UNSPECIFIED_FORMAT, DOWNLINK_FORMATS);
+	}
+
+	/**
+	 * @param downlinkFormat the downlink format (0-24)
+	 * @return number of frames with the downlink format rejected with an
+	 * {@link de.serosystems.lib1090.exceptions.UnspecifiedFormatError}
+	 */
+	public long getUnspecifiedFormat(int downlinkFormat) {
+		return get(UNSPECIFIED_FORMAT + downlinkFormat);
+	}
+
+	@Override
+	public long getTrackedTargets() {
+		return trackedTargets;
+	}
+
+	@Override
+	public long getEvictions() {
+		return get(EVICTIONS);
+	}
+
+	@Override
+	public long getCPRGlobal() {
+		return get(CPR_GLOBAL);
+	}
+
+	@Override
+	public long getCPRLocal() {
+		return get(CPR_LOCAL);
+	}
+
+	@Override
+	public long getCPRFailed() {
+		return get(CPR_FAILED);
+	}
+
+	/**
+	 * @param test the reasonableness test
+	 * @return number of positions marked unreasonable by the test
+	 */
+	public long getRejected(ReasonablenessTest test) {
+		return get(REJECTED + test.ordinal());
+	}
+
+	@Override
+	public Map<String, Long> getReceivedByDownlinkFormat() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int df = 0; df < DOWNLINK_FORMATS; df++) {
+			long count = getReceived(df);
+			if (count > 0) result.put("DF" + df, count);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getDecodedBySubtype() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (ModeSDownlinkMsg.subtype type : SUBTYPES) {
+			long count = getDecoded(type);
+			if (count > 0) result.put(type.name(), count);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getErrors() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int df = 0; df < DOWNLINK_FORMATS; df++) {
+			long count = get(BAD_FORMAT + df);
+			if (count > 0) result.put("BadFormatException/DF" + df, count);
+		}
+		for (int df = 0; df < DOWNLINK_FORMATS; df++) {
+			long count = get(UNSPECIFIED_FORMAT + df);
+			if (count > 0) result.put("UnspecifiedFormatError/DF" + df, count);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getRejectedByTest() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (ReasonablenessTest test : TESTS)
+			result.put(test.name(), get(REJECTED + test.ordinal()));
+		return result;
+	}
+
+	/**
+	 * Resets all counters. The counters are not modified (they have a single writer), instead their current
+	 * values become the new baseline.
+	 */
+	@Override
+	public synchronized void reset() {
+		for (int i = 0; i < COUNTERS; i++)
+			baseline.set(i, counters.get(i));
+	}
+
+	/*
+	 * JMX
+	 */
+
+	/**
+	 * Registers these metrics at the platform MBean server as
+	 * {@code de.serosystems.lib1090:type=DecoderMetrics,name=<name>}.
+	 *
+	 * @param name name which distinguishes the decoders of an application
+	 * @throws JMException if the name is invalid or already in use
+	 */
+	public synchronized void registerMBean(String name) throws JMException {
+		if (objectName != null) unregisterMBean();
+		ObjectName on = new ObjectName("de.serosystems.lib1090:type=DecoderMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+		objectName = on;
+	}
+
+	/**
+	 * Removes the registration of {@link #registerMBean(String)}, if any.
+	 *
+	 * @throws JMException if unregistering fails
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (objectName == null) return;
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+		objectName = null;
+	}
+}
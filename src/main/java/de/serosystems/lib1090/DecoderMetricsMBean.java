@@ -0,0 +1,108 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import java.util.Map;
+
+/**
+ * JMX interface of {@link DecoderMetrics}. All values are counts since the creation or last reset of the
+ * metrics, except for the number of tracked targets.
+ */
+public interface DecoderMetricsMBean {
+
+	/**
+	 * @return number of frames passed to the decoder
+	 */
+	long getReceived();
+
+	/**
+	 * @return number of frames which could not be parsed at all (e.g. invalid length or downlink format)
+	 */
+	long getMalformed();
+
+	/**
+	 * @return number of extended squitters (DF 17-19) with correct parity, see {@link DecoderMetrics#setCheckParity(boolean)}
+	 */
+	long getCRCPassed();
+
+	/**
+	 * @return number of extended squitters (DF 17-19) with wrong parity, see {@link DecoderMetrics#setCheckParity(boolean)}
+	 */
+	long getCRCFailed();
+
+	/**
+	 * @return number of frames rejected with a {@link de.serosystems.lib1090.exceptions.BadFormatException}
+	 */
+	long getBadFormat();
+
+	/**
+	 * @return number of frames rejected with an {@link de.serosystems.lib1090.exceptions.UnspecifiedFormatError}
+	 */
+	long getUnspecifiedFormat();
+
+	/**
+	 * @return number of aircraft in the decoder state (updated every 1024 frames and after each cleanup)
+	 */
+	long getTrackedTargets();
+
+	/**
+	 * @return number of aircraft removed from the decoder state because they were idle
+	 */
+	long getEvictions();
+
+	/**
+	 * @return number of positions decoded with global CPR decoding
+	 */
+	long getCPRGlobal();
+
+	/**
+	 * @return number of positions decoded with local CPR decoding
+	 */
+	long getCPRLocal();
+
+	/**
+	 * @return number of CPR encoded positions which could not be decoded
+	 */
+	long getCPRFailed();
+
+	/**
+	 * @return number of received frames by downlink format ("DF17" etc.), formats not seen are omitted
+	 */
+	Map<String, Long> getReceivedByDownlinkFormat();
+
+	/**
+	 * @return number of decoded messages by {@link de.serosystems.lib1090.msgs.ModeSDownlinkMsg.subtype}
+	 */
+	Map<String, Long> getDecodedBySubtype();
+
+	/**
+	 * @return number of rejected frames by exception type and downlink format ("BadFormatException/DF17" etc.)
+	 */
+	Map<String, Long> getErrors();
+
+	/**
+	 * @return number of positions marked unreasonable by {@link DecoderMetrics.ReasonablenessTest}
+	 */
+	Map<String, Long> getRejectedByTest();
+
+	/**
+	 * Resets all counters.
+	 */
+	void reset();
+}
@@ -0,0 +1,207 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.StatefulPositionDecoder;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot format of the state of {@link StatefulModeSDecoder}. All values are big-endian
+ * ({@link DataOutput}). The file starts with a header
+ * <pre>
+ * magic (int, "L1SS") | format version (short) | latest timestamp (long) | number of records (int)
+ * </pre>
+ * followed by one fixed-size record per aircraft
+ * <pre>
+ * address and type (long: address &lt;&lt; 8 | type ordinal) | last used (long) | ADS-B version (byte) |
+ * flags (byte: 0x1 NIC supplement A, 0x2 NIC supplement C, 0x4 geo minus baro available) |
+ * geo minus baro (int) | position decoder state (see {@link StatefulPositionDecoder#writeState(DataOutput)})
+ * </pre>
+ */
+final class DecoderSnapshot {
+
+	static final int MAGIC = 0x4C315353;
+	static final short FORMAT_VERSION = 1;
+
+	static final int RECORD_SIZE = 22 + StatefulPositionDecoder.SERIALIZED_STATE_SIZE;
+
+	// record flags
+	static final byte NIC_SUPPL_A = 0x1;
+	static final byte NIC_SUPPL_C = 0x2;
+	static final byte GEO_MINUS_BARO = 0x4;
+
+	private DecoderSnapshot() {}
+
+	/**
+	 * @param address a qualified address
+	 * @return address and type packed into a long
+	 */
+	static long key(QualifiedAddress address) {
+		return address.toKey();
+	}
+
+	/**
+	 * @param key address and type as returned by {@link #key(QualifiedAddress)}
+	 * @return the (canonical) qualified address
+	 * @throws IOException if the type is unknown
+	 */
+	static QualifiedAddress address(long key) throws IOException {
+		try {
+			return QualifiedAddress.ofKey(key);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid address type in snapshot: " + (key & 0xFF), e);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a store.
+	 *
+	 * @param store           the state store
+	 * @param latestTimestamp the decoder's latest timestamp
+	 * @param out             destination, will not be closed
+	 * @throws IOException if writing fails
+	 */
+	static void write(DecoderStateStore store, long latestTimestamp, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		data.writeInt(MAGIC);
+		data.writeShort(FORMAT_VERSION);
+		data.writeLong(latestTimestamp);
+		data.writeInt(store.size());
+		store.writeRecords(data);
+		data.flush();
+	}
+
+	/**
+	 * Writes a snapshot of a store in slices, so that the store can be modified in between. Each record is
+	 * consistent, but records are written at different times. Records added after the writer was created are
+	 * not included, removed records are skipped. Records are buffered in fixed-size chunks, so no slice has to
+	 * copy the records written before.
+	 */
+	static final class IncrementalWriter {
+
+		private static final int CHUNK_SIZE = 1 << 16;
+
+		private final long latestTimestamp;
+		private final long[] keys;
+		private final List<byte[]> chunks = new ArrayList<>();
+		private final DataOutputStream data;
+		private byte[] chunk;
+		private int position;
+		private int next;
+		private int count;
+
+		/**
+		 * @param store           the state store
+		 * @param latestTimestamp the decoder's latest timestamp
+		 */
+		IncrementalWriter(DecoderStateStore store, long latestTimestamp) {
+			this.latestTimestamp = latestTimestamp;
+			this.keys = store.keys();
+			this.data = new DataOutputStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+					if (chunk == null || position == CHUNK_SIZE) nextChunk();
+					chunk[position++] = (byte) b;
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					while (len > 0) {
+						if (chunk == null || position == CHUNK_SIZE) nextChunk();
+						int n = Math.min(len, CHUNK_SIZE - position);
+						System.arraycopy(b, off, chunk, position, n);
+						position += n;
+						off += n;
+						len -= n;
+					}
+				}
+			});
+		}
+
+		private void nextChunk() {
+			chunk = new byte[CHUNK_SIZE];
+			chunks.add(chunk);
+			position = 0;
+		}
+
+		/**
+		 * Writes the next records.
+		 *
+		 * @param store   the state store the writer was created for
+		 * @param records maximum number of records to write
+		 * @return true if all records have been written
+		 */
+		boolean write(DecoderStateStore store, int records) {
+			try {
+				for (int end = next + Math.min(records, keys.length - next); next < end; next++)
+					if (store.writeRecord(keys[next], data)) count++;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e); // cannot happen with the in-memory chunks
+			}
+			return next == keys.length;
+		}
+
+		/**
+		 * Writes the snapshot, which is complete once {@link #write(DecoderStateStore, int)} returned true.
+		 *
+		 * @param out destination, will not be closed
+		 * @throws IOException if writing fails
+		 */
+		void writeTo(OutputStream out) throws IOException {
+			DataOutputStream header = new DataOutputStream(out);
+			header.writeInt(MAGIC);
+			header.writeShort(FORMAT_VERSION);
+			header.writeLong(latestTimestamp);
+			header.writeInt(count);
+			for (byte[] c : chunks)
+				out.write(c, 0, c == chunk ? position : CHUNK_SIZE);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Replaces the content of a store with a snapshot.
+	 *
+	 * @param store the state store
+	 * @param in    source, will not be closed
+	 * @return the latest timestamp of the decoder which wrote the snapshot
+	 * @throws IOException if reading fails or if the snapshot format is not supported; the store is unchanged then
+	 */
+	static long read(DecoderStateStore store, InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		if (data.readInt() != MAGIC)
+			throw new IOException("Not a decoder snapshot.");
+
+		short version = data.readShort();
+		if (version != FORMAT_VERSION)
+			throw new IOException("Unsupported snapshot format version " + version + ".");
+
+		long latestTimestamp = data.readLong();
+		int count = data.readInt();
+		if (count < 0)
+			throw new IOException("Invalid number of records in snapshot: " + count);
+
+		store.readRecords(data, count);
+		return latestTimestamp;
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Storage backend for the per-aircraft state of {@link StatefulModeSDecoder}. Accessors refer to the
+ * record which has been selected last via {@link #select(QualifiedAddress, long)}.
+ */
+interface DecoderStateStore {
+
+	/**
+	 * Selects (and creates if necessary) the record of an aircraft and marks it as used.
+	 *
+	 * @param address   the aircraft's address
+	 * @param timestamp the current time in milliseconds
+	 */
+	void select(QualifiedAddress address, long timestamp);
+
+	/**
+	 * @return ADS-B version of the selected aircraft
+	 */
+	byte getAdsbVersion();
+
+	void setAdsbVersion(byte adsbVersion);
+
+	/**
+	 * @return NIC supplement A of the selected aircraft
+	 */
+	boolean hasNICSupplementA();
+
+	void setNICSupplementA(boolean nicSupplA);
+
+	/**
+	 * @return NIC supplement C of the selected aircraft
+	 */
+	boolean hasNICSupplementC();
+
+	void setNICSupplementC(boolean nicSupplC);
+
+	/**
+	 * @return the difference between geometric and barometric altitude in feet or null if unknown
+	 */
+	Integer getGeoMinusBaro();
+
+	void setGeoMinusBaro(Integer geoMinusBaro);
+
+	/**
+	 * Decodes a position of the selected aircraft, see {@link de.serosystems.lib1090.cpr.PositionDecoder}.
+	 *
+	 * @param cpr      CPR encoded position
+	 * @param receiver position of the receiver or null
+	 * @return the decoded position or null
+	 */
+	Position decodePosition(CPREncodedPosition cpr, Position receiver);
+
+	/**
+	 * Decodes a position of the selected aircraft with CPR state (position pair, last position and time) which is
+	 * kept separately per receiver. All other state of the aircraft is shared by all receivers.
+	 *
+	 * @param receiverId id of the receiver which received the position
+	 * @param cpr        CPR encoded position
+	 * @param receiver   position of the receiver or null
+	 * @return the decoded position or null
+	 */
+	Position decodePosition(int receiverId, CPREncodedPosition cpr, Position receiver);
+
+	/**
+	 * @return number of aircraft in the store
+	 */
+	int size();
+
+	/**
+	 * Sets the counters which are updated by the position decoding of all aircraft.
+	 *
+	 * @param metrics the counters or null to disable counting
+	 */
+	void setMetrics(DecoderMetrics metrics);
+
+	/**
+	 * Removes all aircraft (and per-receiver state) which have not been used for more than maxIdle milliseconds.
+	 * Invalidates the selection.
+	 *
+	 * @param latestTimestamp the current time in milliseconds
+	 * @param maxIdle         maximum idle time in milliseconds
+	 */
+	void removeIdle(long latestTimestamp, long maxIdle);
+
+	/**
+	 * Writes all records in the format described in {@link DecoderSnapshot}. Per-receiver state is not included.
+	 *
+	 * @param out the output
+	 * @throws IOException if writing fails
+	 */
+	void writeRecords(DataOutput out) throws IOException;
+
+	/**
+	 * @return the keys (see {@link DecoderSnapshot}) of all records currently in the store
+	 */
+	long[] keys();
+
+	/**
+	 * Writes a single record in the format described in {@link DecoderSnapshot}.
+	 *
+	 * @param key the key of the record as returned by {@link #keys()}
+	 * @param out the output
+	 * @return false if there is no such record (anymore), nothing is written then
+	 * @throws IOException if writing fails
+	 */
+	boolean writeRecord(long key, DataOutput out) throws IOException;
+
+	/**
+	 * Replaces all records with the records read from the input. Invalidates the selection. If reading
+	 * fails, the store is left unchanged.
+	 *
+	 * @param in    the input
+	 * @param count number of records
+	 * @throws IOException if reading fails
+	 */
+	void readRecords(DataInput in, int count) throws IOException;
+}
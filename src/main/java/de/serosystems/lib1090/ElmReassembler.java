@@ -0,0 +1,297 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.modes.CommBAltitudeReply;
+import de.serosystems.lib1090.msgs.modes.CommBIdentifyReply;
+import de.serosystems.lib1090.msgs.modes.CommDExtendedLengthMsg;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reassembles downlink extended length messages (Comm-D ELM, DF 24) from their segments. An aircraft announces
+ * an ELM of n segments (up to 16) with downlink request (DR) n + 15 in a Comm-B reply and then transmits the
+ * segments with numbers (ND) 0 to n - 1. As soon as all segments of an announced ELM have been received, the
+ * 80 bit MD fields are concatenated in segment order and passed to the sink.<br>
+ * <br>
+ * Segments are collected in a fixed number of preallocated slots (one per aircraft with a pending ELM), so the
+ * memory is bounded by {@link #getMemoryBudget()}. Pending messages are dropped when their first segment or
+ * announcement is older than the timeout. If all slots are in use, the oldest pending message is evicted.
+ * A segment which differs from an already received segment with the same number starts a new message.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public class ElmReassembler {
+
+	/**
+	 * Receives complete messages.
+	 */
+	@FunctionalInterface
+	public interface Sink {
+		/**
+		 * @param address   address of the aircraft
+		 * @param message   the concatenated MD fields of all segments (10 bytes per segment)
+		 * @param timestamp time of reception of the last segment in milliseconds
+		 */
+		void accept(QualifiedAddress address, byte[] message, long timestamp);
+	}
+
+	/**
+	 * Maximum number of segments of an ELM
+	 */
+	public static final int MAX_SEGMENTS = 16;
+
+	/**
+	 * Length of the MD field of a segment in bytes
+	 */
+	public static final int SEGMENT_LENGTH = 10;
+
+	private static final int SLOT_SIZE = MAX_SEGMENTS * SEGMENT_LENGTH;
+
+	private final int maxPending;
+	private final long timeout;
+	private final Sink sink;
+
+	// per slot: segment data, received segments (bit mask), announced number of segments (0 if unknown),
+	// start time and aircraft (null if free)
+	private final byte[] segments;
+	private final int[] received;
+	private final int[] expected;
+	private final long[] started;
+	private final QualifiedAddress[] owners;
+	private final Map<QualifiedAddress, Integer> slots = new HashMap<>();
+	private final int[] free;
+	private int freeCount;
+
+	private long latestTimestamp;
+	private long nextExpiry = Long.MAX_VALUE;
+	private long completed;
+	private long expired;
+	private long evicted;
+
+	/**
+	 * @param maxPending maximum number of aircraft with pending messages
+	 * @param timeout    time in milliseconds after which an incomplete message is dropped
+	 * @param sink       receives the complete messages
+	 */
+	public ElmReassembler(int maxPending, long timeout, Sink sink) {
+		if (maxPending <= 0) throw new IllegalArgumentException("Number of pending messages must be positive");
+		if (timeout <= 0) throw new IllegalArgumentException("Timeout must be positive");
+		this.maxPending = maxPending;
+		this.timeout = timeout;
+		this.sink = sink;
+
+		segments = new byte[maxPending * SLOT_SIZE];
+		received = new int[maxPending];
+		expected = new int[maxPending];
+		started = new long[maxPending];
+		owners = new QualifiedAddress[maxPending];
+		free = new int[maxPending];
+		for (int i = 0; i < maxPending; i++) free[i] = maxPending - 1 - i;
+		freeCount = maxPending;
+	}
+
+	/**
+	 * Announces an ELM of an aircraft.
+	 *
+	 * @param address   address of the aircraft
+	 * @param count     number of segments (1 to 16)
+	 * @param timestamp time of reception of the announcement in milliseconds
+	 */
+	public void announce(QualifiedAddress address, int count, long timestamp) {
+		if (count < 1 || count > MAX_SEGMENTS) throw new IllegalArgumentException("Invalid number of segments: " + count);
+		advance(timestamp);
+
+		Integer slot = slots.get(address);
+		if (slot != null && expected[slot] != 0 && expected[slot] != count) {
+			// another message
+			release(slot);
+			expired++;
+			slot = null;
+		}
+		if (slot == null) slot = acquire(address, timestamp);
+		expected[slot] = count;
+		complete(slot, timestamp);
+	}
+
+	/**
+	 * Announces an ELM if the downlink request of a Comm-B reply asks for one (DR 16 to 31).
+	 *
+	 * @param reply     the Comm-B reply
+	 * @param timestamp time of reception in milliseconds
+	 * @return whether the reply announced an ELM
+	 */
+	public boolean announce(CommBAltitudeReply reply, long timestamp) {
+		return announce(reply.getAddress(), reply.getDownlinkRequest(), timestamp);
+	}
+
+	/**
+	 * @param reply     the Comm-B reply
+	 * @param timestamp time of reception in milliseconds
+	 * @return whether the reply announced an ELM
+	 * @see #announce(CommBAltitudeReply, long)
+	 */
+	public boolean announce(CommBIdentifyReply reply, long timestamp) {
+		return announce(reply.getAddress(), reply.getDownlinkRequest(), timestamp);
+	}
+
+	private boolean announce(QualifiedAddress address, byte downlinkRequest, long timestamp) {
+		if (downlinkRequest < 16 || downlinkRequest > 31) return false;
+		announce(address, downlinkRequest - 15, timestamp);
+		return true;
+	}
+
+	/**
+	 * Adds a segment. Acknowledgements of uplink ELMs (KE set) carry no data and are ignored.
+	 *
+	 * @param segment   the segment
+	 * @param timestamp time of reception in milliseconds
+	 * @return true if the segment completed a message
+	 */
+	public boolean offer(CommDExtendedLengthMsg segment, long timestamp) {
+		if (segment.isAck()) return false;
+		advance(timestamp);
+
+		QualifiedAddress address = segment.getAddress();
+		int number = segment.getSequenceNumber();
+		byte[] data = segment.getMessage();
+
+		Integer slot = slots.get(address);
+		if (slot != null && (number >= expected[slot] && expected[slot] != 0 || conflicts(slot, number, data))) {
+			// segment of another message
+			release(slot);
+			expired++;
+			slot = null;
+		}
+		if (slot == null) slot = acquire(address, timestamp);
+
+		System.arraycopy(data, 0, segments, slot * SLOT_SIZE + number * SEGMENT_LENGTH, SEGMENT_LENGTH);
+		received[slot] |= 1 << number;
+		return complete(slot, timestamp);
+	}
+
+	/**
+	 * Drops all pending messages which started more than the timeout before the given time. This happens
+	 * automatically with each announcement or segment.
+	 *
+	 * @param now the current time in milliseconds
+	 */
+	public void expire(long now) {
+		nextExpiry = Long.MAX_VALUE;
+		for (int slot = 0; slot < maxPending; slot++) {
+			if (owners[slot] == null) continue;
+			if (now - started[slot] > timeout) {
+				release(slot);
+				expired++;
+			} else {
+				nextExpiry = Math.min(nextExpiry, started[slot] + timeout);
+			}
+		}
+	}
+
+	private void advance(long timestamp) {
+		latestTimestamp = Math.max(latestTimestamp, timestamp);
+		if (latestTimestamp > nextExpiry) expire(latestTimestamp);
+	}
+
+	private boolean conflicts(int slot, int number, byte[] data) {
+		if ((received[slot] & 1 << number) == 0) return false;
+		int offset = slot * SLOT_SIZE + number * SEGMENT_LENGTH;
+		for (int i = 0; i < SEGMENT_LENGTH; i++)
+			if (segments[offset + i] != data[i]) return true;
+		return false;
+	}
+
+	private boolean complete(int slot, long timestamp) {
+		int count = expected[slot];
+		if (count == 0 || received[slot] != (1 << count) - 1) return false;
+
+		int offset = slot * SLOT_SIZE;
+		byte[] message = Arrays.copyOfRange(segments, offset, offset + count * SEGMENT_LENGTH);
+		QualifiedAddress address = owners[slot];
+		release(slot);
+		completed++;
+		sink.accept(address, message, timestamp);
+		return true;
+	}
+
+	private int acquire(QualifiedAddress address, long timestamp) {
+		if (freeCount == 0) {
+			// evict the oldest pending message
+			int oldest = 0;
+			for (int slot = 1; slot < maxPending; slot++)
+				if (started[slot] < started[oldest]) oldest = slot;
+			release(oldest);
+			evicted++;
+		}
+
+		int slot = free[--freeCount];
+		owners[slot] = address;
+		started[slot] = timestamp;
+		received[slot] = 0;
+		expected[slot] = 0;
+		slots.put(address, slot);
+		nextExpiry = Math.min(nextExpiry, timestamp + timeout);
+		return slot;
+	}
+
+	private void release(int slot) {
+		slots.remove(owners[slot]);
+		owners[slot] = null;
+		free[freeCount++] = slot;
+	}
+
+	/**
+	 * @return number of aircraft with pending messages
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * @return size of the preallocated segment buffers in bytes
+	 */
+	public long getMemoryBudget() {
+		return (long) maxPending * SLOT_SIZE;
+	}
+
+	/**
+	 * @return number of complete messages
+	 */
+	public long getCompleted() {
+		return completed;
+	}
+
+	/**
+	 * @return number of incomplete messages dropped because of the timeout or a new message of the same aircraft
+	 */
+	public long getExpired() {
+		return expired;
+	}
+
+	/**
+	 * @return number of incomplete messages dropped because all slots were in use
+	 */
+	public long getEvicted() {
+		return evicted;
+	}
+}
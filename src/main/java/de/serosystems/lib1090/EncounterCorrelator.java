@@ -0,0 +1,685 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.adsb.TCASResolutionAdvisoryMsg;
+import de.serosystems.lib1090.msgs.bds.ACASActiveResolutionAdvisoryReport;
+import de.serosystems.lib1090.msgs.bds.ThreatIdentityData;
+import de.serosystems.lib1090.msgs.modes.LongACAS;
+import de.serosystems.lib1090.msgs.modes.ShortACAS;
+
+import java.util.Arrays;
+
+/**
+ * Correlates the ACAS resolution advisories (RAs) reported by different aircraft into encounters. RAs are
+ * reported in ADS-B (type code 28, subtype 2), in Comm-B replies (BDS 3,0) and in long air-air surveillance
+ * replies (DF 16). Each report describes the RA of one aircraft and, for ACAS II version 7 and later, the
+ * identity of the threat. An encounter links the reports of an aircraft and its threat; if the threat is not
+ * identified by its address, the encounter has only one known participant until a report of the aircraft
+ * names the threat.<br>
+ * <br>
+ * Encounters are indexed in primitive open addressing hash maps by address pair and by participating aircraft,
+ * so reports are linked to the other side of their encounter in constant time. Since the RA of an aircraft
+ * covers all of its threats, a report updates the aircraft's side of all of its encounters. Encounters are
+ * opened by the first report of an active RA, updated when a side's RA changes and closed when all reporting
+ * sides have terminated their RAs or when no report has been received for the timeout. Short air-air
+ * surveillance replies (DF 0) and DF 16 replies update the altitude of the participants without an event.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public class EncounterCorrelator {
+
+	/**
+	 * Default time in milliseconds without reports after which an encounter is closed. Terminated RAs are
+	 * reported for 18 seconds, so this is a bit longer.
+	 */
+	public static final long DEFAULT_TIMEOUT = 30_000;
+
+	/**
+	 * The origin of an RA report
+	 */
+	public enum Source {
+		/** ADS-B TCAS resolution advisory message */
+		ADSB,
+		/** BDS 3,0 in a Comm-B reply */
+		COMM_B,
+		/** MV field of a long air-air surveillance reply (DF 16) */
+		ACAS
+	}
+
+	/**
+	 * Receives encounter events. The encounter objects are updated in place as further reports arrive.
+	 */
+	public interface EncounterListener {
+		/**
+		 * Called when the first active RA of an encounter is reported.
+		 *
+		 * @param encounter the new encounter
+		 * @param timestamp time of the report in milliseconds
+		 */
+		void onOpen(Encounter encounter, long timestamp);
+
+		/**
+		 * Called when the RA of a side has changed, the other side reported for the first time or the threat
+		 * has been identified.
+		 *
+		 * @param encounter the encounter
+		 * @param timestamp time of the report in milliseconds
+		 */
+		default void onUpdate(Encounter encounter, long timestamp) { }
+
+		/**
+		 * Called when an encounter ended. The encounter is not updated afterwards.
+		 *
+		 * @param encounter the closed encounter
+		 * @param timestamp time of the report which terminated the encounter or the time of the timeout
+		 */
+		default void onClose(Encounter encounter, long timestamp) { }
+	}
+
+	/**
+	 * An encounter of an aircraft (side 0, the first to report) and its threat (side 1).
+	 */
+	public static final class Encounter {
+		private final long id;
+		private final int[] addresses = {-1, -1};
+		private final long opened;
+		private ThreatIdentityData threatIdentityData;
+		private long updated;
+		private boolean closed;
+		// threat identified since the last report
+		private boolean identified;
+
+		// per side
+		private final boolean[] reported = new boolean[2];
+		private final short[] activeRA = new short[2];
+		private final byte[] racRecord = new byte[2];
+		private final boolean[] terminated = new boolean[2];
+		private final boolean[] multiThreat = new boolean[2];
+		private final boolean[] active = new boolean[2];
+		private final long[] lastReport = new long[2];
+		private final Source[] source = new Source[2];
+		private final Integer[] altitude = new Integer[2];
+
+		// index: slot and next encounter of each side's aircraft
+		private int slot;
+		private final Encounter[] next = new Encounter[2];
+
+		private Encounter(long id, int address, long opened) {
+			this.id = id;
+			this.addresses[0] = address;
+			this.opened = opened;
+			this.updated = opened;
+		}
+
+		/**
+		 * @return sequential number of the encounter
+		 */
+		public long getId() {
+			return id;
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return ICAO 24-bit address of the side's aircraft or -1 if the threat has not been identified
+		 */
+		public int getAddress(int side) {
+			return addresses[side];
+		}
+
+		/**
+		 * @param address an ICAO 24-bit address
+		 * @return the side of the aircraft or -1 if it does not participate
+		 */
+		public int side(int address) {
+			return addresses[0] == address ? 0 : addresses[1] == address ? 1 : -1;
+		}
+
+		/**
+		 * @return whether both participants are known
+		 */
+		public boolean hasThreatAddress() {
+			return addresses[1] >= 0;
+		}
+
+		/**
+		 * @return altitude, range and bearing of the threat as reported by side 0 if the threat has no
+		 * transponder address, null otherwise
+		 */
+		public ThreatIdentityData getThreatIdentityData() {
+			return threatIdentityData;
+		}
+
+		/**
+		 * @return time of the first report in milliseconds
+		 */
+		public long getOpened() {
+			return opened;
+		}
+
+		/**
+		 * @return time of the last change in milliseconds
+		 */
+		public long getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * @return whether the encounter has ended
+		 */
+		public boolean isClosed() {
+			return closed;
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return whether the side's aircraft has reported an RA
+		 */
+		public boolean hasReported(int side) {
+			return reported[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return whether the side's aircraft has reported an RA which has not terminated
+		 */
+		public boolean isActive(int side) {
+			return active[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return the 14 active RA bits of the side's last report, see
+		 * {@link TCASResolutionAdvisoryMsg#getActiveRA()}
+		 */
+		public short getActiveRA(int side) {
+			return activeRA[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return the 4 RA complement bits of the side's last report, see
+		 * {@link TCASResolutionAdvisoryMsg#getRACRecord()}
+		 */
+		public byte getRACRecord(int side) {
+			return racRecord[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return whether the side's last report indicated that the RA has terminated
+		 */
+		public boolean hasRATerminated(int side) {
+			return terminated[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return whether the side's last report indicated more than one threat
+		 */
+		public boolean hasMultiThreatEncounter(int side) {
+			return multiThreat[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return time of the side's last report in milliseconds or 0 if it has not reported
+		 */
+		public long getLastReport(int side) {
+			return lastReport[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return origin of the side's last report or null if it has not reported
+		 */
+		public Source getSource(int side) {
+			return source[side];
+		}
+
+		/**
+		 * @param side 0 or 1
+		 * @return the last altitude of the side's aircraft from DF 0 or DF 16 replies in feet or null if unknown
+		 */
+		public Integer getAltitude(int side) {
+			return altitude[side];
+		}
+
+		@Override
+		public String toString() {
+			return "Encounter{" +
+					"id=" + id +
+					", addresses=" + Arrays.toString(addresses) +
+					", opened=" + opened +
+					", updated=" + updated +
+					", closed=" + closed +
+					", active=" + Arrays.toString(active) +
+					", activeRA=" + Arrays.toString(activeRA) +
+					", racRecord=" + Arrays.toString(racRecord) +
+					'}';
+		}
+	}
+
+	// key of encounters with unidentified threat: address of side 0 plus this flag
+	private static final long UNKNOWN_THREAT = 1L << 48;
+
+	private final long timeout;
+	private final EncounterListener listener;
+
+	// encounter by key, first encounter of an aircraft by address (linked via Encounter.next)
+	private final LongIntMap pairs = new LongIntMap(64);
+	private final LongIntMap aircraft = new LongIntMap(64);
+
+	private Encounter[] encounters = new Encounter[32];
+	private int[] free = new int[32];
+	private int freeCount;
+	private int size;
+
+	private long nextId;
+	private long latestTimestamp;
+	private long nextExpiry = Long.MAX_VALUE;
+	private long openedCount;
+	private long closedCount;
+
+	/**
+	 * @param listener receives the encounter events
+	 */
+	public EncounterCorrelator(EncounterListener listener) {
+		this(DEFAULT_TIMEOUT, listener);
+	}
+
+	/**
+	 * @param timeout  time in milliseconds without reports after which an encounter is closed
+	 * @param listener receives the encounter events
+	 */
+	public EncounterCorrelator(long timeout, EncounterListener listener) {
+		if (timeout <= 0) throw new IllegalArgumentException("Timeout must be positive");
+		this.timeout = timeout;
+		this.listener = listener;
+		for (int i = 0; i < free.length; i++) free[i] = free.length - 1 - i;
+		freeCount = free.length;
+	}
+
+	/**
+	 * Processes an ADS-B RA report.
+	 *
+	 * @param msg       the message
+	 * @param timestamp time of reception in milliseconds
+	 */
+	public void offer(TCASResolutionAdvisoryMsg msg, long timestamp) {
+		if (msg.getAddress().getType() != QualifiedAddress.Type.ICAO24) return;
+		if (msg.isTCAS6())
+			report(msg.getAddress().getAddress(), null, msg.getActiveRA(), msg.getRACRecord(), false, false,
+					Source.ADSB, timestamp);
+		else
+			report(msg.getAddress().getAddress(), msg.getThreatIdentityData(), msg.getActiveRA(), msg.getRACRecord(),
+					msg.hasRATerminated(), msg.hasMultiThreatEncounter(), Source.ADSB, timestamp);
+	}
+
+	/**
+	 * Processes an RA report from a Comm-B reply.
+	 *
+	 * @param address   address of the replying aircraft
+	 * @param report    the BDS 3,0 register
+	 * @param timestamp time of reception in milliseconds
+	 */
+	public void offer(QualifiedAddress address, ACASActiveResolutionAdvisoryReport report, long timestamp) {
+		if (address.getType() != QualifiedAddress.Type.ICAO24) return;
+		offer(address.getAddress(), report, Source.COMM_B, timestamp);
+	}
+
+	/**
+	 * Processes a long air-air surveillance reply. Its altitude is assigned to the aircraft's encounters and
+	 * the MV field is processed as RA report if it contains one.
+	 *
+	 * @param reply     the reply
+	 * @param timestamp time of reception in milliseconds
+	 */
+	public void offer(LongACAS reply, long timestamp) {
+		if (reply.getAddress().getType() != QualifiedAddress.Type.ICAO24) return;
+		int address = reply.getAddress().getAddress();
+		if (reply.hasValidRAC()) {
+			try {
+				offer(address, new ACASActiveResolutionAdvisoryReport(Arrays.copyOfRange(reply.getPayload(), 3, 10)),
+						Source.ACAS, timestamp);
+			} catch (BadFormatException e) {
+				// no RA report
+			}
+		}
+		advance(timestamp);
+		updateAltitude(address, reply.getAltitude());
+	}
+
+	/**
+	 * Assigns the altitude of a short air-air surveillance reply to the aircraft's encounters.
+	 *
+	 * @param reply     the reply
+	 * @param timestamp time of reception in milliseconds
+	 */
+	public void offer(ShortACAS reply, long timestamp) {
+		if (reply.getAddress().getType() != QualifiedAddress.Type.ICAO24) return;
+		advance(timestamp);
+		updateAltitude(reply.getAddress().getAddress(), reply.getAltitude());
+	}
+
+	private void offer(int address, ACASActiveResolutionAdvisoryReport report, Source source, long timestamp) {
+		if (report.isTCAS6())
+			report(address, null, report.getActiveRA(), report.getRACRecord(), false, false, source, timestamp);
+		else
+			report(address, report.getThreatIdentityData(), report.getActiveRA(), report.getRACRecord(),
+					report.hasRATerminated(), report.hasMultiThreatEncounter(), source, timestamp);
+	}
+
+	private void report(int own, ThreatIdentityData tid, short ara, byte rac, boolean rat, boolean mte,
+						Source source, long timestamp) {
+		advance(timestamp);
+		boolean active = !rat && (ara != 0 || rac != 0 || mte);
+		int threat = tid != null && tid.hasTransponderAddress() ? tid.getIcao24() : -1;
+		if (threat == own) threat = -1;
+
+		Encounter opened = null;
+		if (threat >= 0 && get(pairKey(own, threat)) == null) {
+			// adopt an encounter of either side whose threat was unknown so far
+			Encounter e = get(UNKNOWN_THREAT | own);
+			if (e == null) e = get(UNKNOWN_THREAT | threat);
+			if (e != null) {
+				identify(e, e.addresses[0] == own ? threat : own);
+			} else if (active) {
+				opened = open(own, threat, timestamp);
+			}
+		}
+
+		int head = aircraft.get(own);
+		if (head < 0) {
+			if (!active) return;
+			opened = open(own, -1, timestamp);
+			if (tid != null && !tid.hasTransponderAddress()) opened.threatIdentityData = tid;
+			head = opened.slot;
+		}
+
+		// the RA of an aircraft covers all of its encounters
+		Encounter e = encounters[head];
+		while (e != null) {
+			int side = e.side(own);
+			Encounter next = e.next[side];
+			boolean changed = update(e, side, ara, rac, rat, mte, active, source, timestamp);
+
+			if (e == opened) {
+				listener.onOpen(e, timestamp);
+			} else if (!e.active[0] && !e.active[1]) {
+				close(e, timestamp);
+			} else if (changed) {
+				e.updated = timestamp;
+				listener.onUpdate(e, timestamp);
+			}
+			e = next;
+		}
+	}
+
+	private static boolean update(Encounter e, int side, short ara, byte rac, boolean rat, boolean mte,
+								  boolean active, Source source, long timestamp) {
+		boolean changed = !e.reported[side] || e.activeRA[side] != ara || e.racRecord[side] != rac ||
+				e.terminated[side] != rat || e.multiThreat[side] != mte || e.identified;
+		e.identified = false;
+		e.reported[side] = true;
+		e.activeRA[side] = ara;
+		e.racRecord[side] = rac;
+		e.terminated[side] = rat;
+		e.multiThreat[side] = mte;
+		e.active[side] = active;
+		e.lastReport[side] = timestamp;
+		e.source[side] = source;
+		return changed;
+	}
+
+	private void updateAltitude(int address, Integer altitude) {
+		for (int slot = aircraft.get(address); slot >= 0; ) {
+			Encounter e = encounters[slot];
+			int side = e.side(address);
+			e.altitude[side] = altitude;
+			slot = e.next[side] != null ? e.next[side].slot : -1;
+		}
+	}
+
+	/**
+	 * Closes all encounters without reports for more than the timeout. This happens automatically with each
+	 * message.
+	 *
+	 * @param now the current time in milliseconds
+	 */
+	public void expire(long now) {
+		nextExpiry = Long.MAX_VALUE;
+		for (Encounter e : encounters) {
+			if (e == null) continue;
+			long last = Math.max(e.lastReport[0], e.lastReport[1]);
+			if (now - last > timeout) close(e, now);
+			else nextExpiry = Math.min(nextExpiry, last + timeout);
+		}
+	}
+
+	private void advance(long timestamp) {
+		latestTimestamp = Math.max(latestTimestamp, timestamp);
+		if (latestTimestamp > nextExpiry) expire(latestTimestamp);
+	}
+
+	private Encounter get(long key) {
+		int slot = pairs.get(key);
+		return slot < 0 ? null : encounters[slot];
+	}
+
+	private Encounter open(int own, int threat, long timestamp) {
+		if (freeCount == 0) {
+			int capacity = encounters.length;
+			encounters = Arrays.copyOf(encounters, capacity << 1);
+			free = new int[capacity << 1];
+			for (int i = 0; i < capacity; i++) free[i] = (capacity << 1) - 1 - i;
+			freeCount = capacity;
+		}
+
+		Encounter e = new Encounter(nextId++, own, timestamp);
+		e.addresses[1] = threat;
+		e.slot = free[--freeCount];
+		encounters[e.slot] = e;
+		pairs.put(threat >= 0 ? pairKey(own, threat) : UNKNOWN_THREAT | own, e.slot);
+		link(e, own);
+		if (threat >= 0) link(e, threat);
+
+		size++;
+		openedCount++;
+		nextExpiry = Math.min(nextExpiry, timestamp + timeout);
+		return e;
+	}
+
+	private void identify(Encounter e, int threat) {
+		pairs.remove(UNKNOWN_THREAT | e.addresses[0]);
+		e.addresses[1] = threat;
+		e.threatIdentityData = null;
+		e.identified = true;
+		pairs.put(pairKey(e.addresses[0], threat), e.slot);
+		link(e, threat);
+	}
+
+	private void close(Encounter e, long timestamp) {
+		pairs.remove(e.hasThreatAddress() ? pairKey(e.addresses[0], e.addresses[1]) : UNKNOWN_THREAT | e.addresses[0]);
+		unlink(e, e.addresses[0]);
+		if (e.hasThreatAddress()) unlink(e, e.addresses[1]);
+		encounters[e.slot] = null;
+		free[freeCount++] = e.slot;
+		e.closed = true;
+
+		size--;
+		closedCount++;
+		listener.onClose(e, timestamp);
+	}
+
+	private void link(Encounter e, int address) {
+		int head = aircraft.get(address);
+		e.next[e.side(address)] = head >= 0 ? encounters[head] : null;
+		aircraft.put(address, e.slot);
+	}
+
+	private void unlink(Encounter e, int address) {
+		Encounter prev = null, cur = encounters[aircraft.get(address)];
+		while (cur != e) {
+			prev = cur;
+			cur = cur.next[cur.side(address)];
+		}
+
+		int side = e.side(address);
+		Encounter next = e.next[side];
+		e.next[side] = null;
+		if (prev != null) prev.next[prev.side(address)] = next;
+		else if (next != null) aircraft.put(address, next.slot);
+		else aircraft.remove(address);
+	}
+
+	private static long pairKey(int a, int b) {
+		return a < b ? (long) a << 24 | b : (long) b << 24 | a;
+	}
+
+	/**
+	 * @param address an ICAO 24-bit address
+	 * @return the open encounters of the aircraft
+	 */
+	public Encounter[] getEncounters(int address) {
+		int count = 0;
+		for (int slot = aircraft.get(address); slot >= 0; count++) {
+			Encounter e = encounters[slot];
+			Encounter next = e.next[e.side(address)];
+			slot = next != null ? next.slot : -1;
+		}
+
+		Encounter[] result = new Encounter[count];
+		count = 0;
+		for (int slot = aircraft.get(address); slot >= 0; ) {
+			Encounter e = result[count++] = encounters[slot];
+			Encounter next = e.next[e.side(address)];
+			slot = next != null ? next.slot : -1;
+		}
+		return result;
+	}
+
+	/**
+	 * @param first  an ICAO 24-bit address
+	 * @param second another ICAO 24-bit address
+	 * @return the open encounter of the two aircraft or null if there is none
+	 */
+	public Encounter getEncounter(int first, int second) {
+		return get(pairKey(first, second));
+	}
+
+	/**
+	 * @return number of open encounters
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of encounters opened so far
+	 */
+	public long getOpenedCount() {
+		return openedCount;
+	}
+
+	/**
+	 * @return number of encounters closed so far
+	 */
+	public long getClosedCount() {
+		return closedCount;
+	}
+
+	/**
+	 * Open addressing hash map from long keys to non-negative ints with linear probing.
+	 */
+	private static final class LongIntMap {
+		private long[] keys;
+		// value + 1 or 0 if empty
+		private int[] values;
+		private int size;
+
+		LongIntMap(int capacity) {
+			keys = new long[capacity];
+			values = new int[capacity];
+		}
+
+		int get(long key) {
+			int mask = keys.length - 1;
+			for (int i = hash(key) & mask; values[i] != 0; i = (i + 1) & mask)
+				if (keys[i] == key) return values[i] - 1;
+			return -1;
+		}
+
+		void put(long key, int value) {
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (values[i] != 0 && keys[i] != key)
+				i = (i + 1) & mask;
+
+			if (values[i] == 0) {
+				if (2 * (size + 1) > keys.length) {
+					// keep the load factor at or below 0.5
+					resize(keys.length << 1);
+					put(key, value);
+					return;
+				}
+				size++;
+			}
+			keys[i] = key;
+			values[i] = value + 1;
+		}
+
+		void remove(long key) {
+			int mask = keys.length - 1;
+			int i = hash(key) & mask;
+			while (values[i] != 0 && keys[i] != key)
+				i = (i + 1) & mask;
+			if (values[i] == 0) return;
+
+			// shift back following entries which would not be found otherwise
+			values[i] = 0;
+			size--;
+			for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+				int home = hash(keys[j]) & mask;
+				if (i <= j ? i < home && home <= j : i < home || home <= j) continue;
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = 0;
+				i = j;
+			}
+		}
+
+		private void resize(int capacity) {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[capacity];
+			values = new int[capacity];
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++)
+				if (oldValues[i] != 0) put(oldKeys[i], oldValues[i] - 1);
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
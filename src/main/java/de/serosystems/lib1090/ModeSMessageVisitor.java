@@ -0,0 +1,498 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.adsb.*;
+import de.serosystems.lib1090.msgs.modes.*;
+
+/**
+ * Visitor for messages decoded by {@link StatefulModeSDecoder}. Pass an implementation to
+ * {@link StatefulModeSDecoder#decode(ModeSDownlinkMsg, long, ModeSMessageVisitor)} to have the decoder call the
+ * method matching the decoded message class directly from its dispatch logic. This avoids switching over
+ * {@link ModeSDownlinkMsg#getType()} and casting the result.
+ * <br>
+ * There is one method per concrete message class the decoder produces. All methods default to
+ * {@link #visitDefault(ModeSDownlinkMsg)}, so implementations only need to override the messages they are
+ * interested in. Note that the decoder calls exactly one method per message, e.g. an {@link AirbornePositionV2Msg}
+ * is passed to {@link #visitAirbornePositionV2(AirbornePositionV2Msg)} only and not to the methods of its super
+ * classes.
+ *
+ * @param <R> result type of the visitor, use {@link Void} if there is none
+ */
+public interface ModeSMessageVisitor<R> {
+
+	/**
+	 * Called for all messages whose visit method has not been overridden.
+	 *
+	 * @param msg the decoded message
+	 * @return result of the visitor; null by default
+	 */
+	default R visitDefault(ModeSDownlinkMsg msg) {
+		return null;
+	}
+
+	/*
+	 * Mode S downlink formats
+	 */
+
+	/**
+	 * @param msg decoded message (unknown or unsupported downlink formats)
+	 * @return result of the visitor
+	 */
+	default R visitModeSDownlinkMsg(ModeSDownlinkMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 0)
+	 * @return result of the visitor
+	 */
+	default R visitShortACAS(ShortACAS msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 4)
+	 * @return result of the visitor
+	 */
+	default R visitAltitudeReply(AltitudeReply msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 5)
+	 * @return result of the visitor
+	 */
+	default R visitIdentifyReply(IdentifyReply msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 11)
+	 * @return result of the visitor
+	 */
+	default R visitAllCallReply(AllCallReply msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 16)
+	 * @return result of the visitor
+	 */
+	default R visitLongACAS(LongACAS msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 17/18/19 with unknown or unsupported format type code)
+	 * @return result of the visitor
+	 */
+	default R visitExtendedSquitter(ExtendedSquitter msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 19 with AF &gt; 0)
+	 * @return result of the visitor
+	 */
+	default R visitMilitaryExtendedSquitter(MilitaryExtendedSquitter msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 20)
+	 * @return result of the visitor
+	 */
+	default R visitCommBAltitudeReply(CommBAltitudeReply msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 21)
+	 * @return result of the visitor
+	 */
+	default R visitCommBIdentifyReply(CommBIdentifyReply msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message (DF 24)
+	 * @return result of the visitor
+	 */
+	default R visitCommDExtendedLengthMsg(CommDExtendedLengthMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/*
+	 * ADS-B
+	 */
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitIdentification(IdentificationMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitSurfacePositionV0(SurfacePositionV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitSurfacePositionV1(SurfacePositionV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitSurfacePositionV2(SurfacePositionV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirbornePositionV0(AirbornePositionV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirbornePositionV1(AirbornePositionV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirbornePositionV2(AirbornePositionV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitVelocityOverGround(VelocityOverGroundMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirspeedHeading(AirspeedHeadingMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitModeACodeV1(ModeACodeV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitMLATSystemStatus(MLATSystemStatusMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitEmergencyOrPriorityStatus(EmergencyOrPriorityStatusMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTCASResolutionAdvisory(TCASResolutionAdvisoryMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTargetStateAndStatusV1(TargetStateAndStatusV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTargetStateAndStatusV2(TargetStateAndStatusV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitOperationalStatusV0(OperationalStatusV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirborneOperationalStatusV1(AirborneOperationalStatusV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAirborneOperationalStatusV2(AirborneOperationalStatusV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitSurfaceOperationalStatusV1(SurfaceOperationalStatusV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitSurfaceOperationalStatusV2(SurfaceOperationalStatusV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/*
+	 * TIS-B
+	 */
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbCoarsePosition(de.serosystems.lib1090.msgs.tisb.CoarsePositionMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbManagementMessage(de.serosystems.lib1090.msgs.tisb.ManagementMessage msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbFineAirbornePosition(de.serosystems.lib1090.msgs.tisb.FineAirbornePositionMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbFineSurfacePosition(de.serosystems.lib1090.msgs.tisb.FineSurfacePositionMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbVelocityOverGround(de.serosystems.lib1090.msgs.tisb.VelocityOverGroundMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbAirspeedHeading(de.serosystems.lib1090.msgs.tisb.AirspeedHeadingMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitTisbIdentification(de.serosystems.lib1090.msgs.tisb.IdentificationMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/*
+	 * ADS-R
+	 */
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrIdentification(de.serosystems.lib1090.msgs.adsr.IdentificationMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrSurfacePositionV0(de.serosystems.lib1090.msgs.adsr.SurfacePositionV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrSurfacePositionV1(de.serosystems.lib1090.msgs.adsr.SurfacePositionV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrSurfacePositionV2(de.serosystems.lib1090.msgs.adsr.SurfacePositionV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirbornePositionV0(de.serosystems.lib1090.msgs.adsr.AirbornePositionV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirbornePositionV1(de.serosystems.lib1090.msgs.adsr.AirbornePositionV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirbornePositionV2(de.serosystems.lib1090.msgs.adsr.AirbornePositionV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrVelocityOverGround(de.serosystems.lib1090.msgs.adsr.VelocityOverGroundMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirspeedHeading(de.serosystems.lib1090.msgs.adsr.AirspeedHeadingMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrEmergencyOrPriorityStatus(de.serosystems.lib1090.msgs.adsr.EmergencyOrPriorityStatusMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrTargetStateAndStatus(de.serosystems.lib1090.msgs.adsr.TargetStateAndStatusMsg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrOperationalStatusV0(de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirborneOperationalStatusV1(de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrAirborneOperationalStatusV2(de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV2Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrSurfaceOperationalStatusV1(de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV1Msg msg) {
+		return visitDefault(msg);
+	}
+
+	/**
+	 * @param msg decoded message
+	 * @return result of the visitor
+	 */
+	default R visitAdsrSurfaceOperationalStatusV2(de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV2Msg msg) {
+		return visitDefault(msg);
+	}
+}
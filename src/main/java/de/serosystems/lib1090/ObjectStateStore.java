@@ -0,0 +1,247 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.PositionDecoder;
+import de.serosystems.lib1090.cpr.PositionDecoderSupplier;
+import de.serosystems.lib1090.cpr.StatefulPositionDecoder;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Default state backend with one {@link DecoderData} object and one {@link PositionDecoder} per aircraft.
+ */
+final class ObjectStateStore implements DecoderStateStore {
+
+	private final PositionDecoderSupplier positionDecoderSupplier;
+	// mapping from icao24 to Decoder, note that we cannot use byte[] as key!
+	private Map<QualifiedAddress, DecoderData> decoderData = new HashMap<>();
+	private DecoderData current;
+	private QualifiedAddress currentAddress;
+	private DecoderMetrics.PositionCounters metrics;
+
+	ObjectStateStore(PositionDecoderSupplier positionDecoderSupplier) {
+		this.positionDecoderSupplier = positionDecoderSupplier;
+	}
+
+	@Override
+	public void select(QualifiedAddress address, long timestamp) {
+		current = decoderData.computeIfAbsent(
+				address,
+				a -> new DecoderData(newPositionDecoder(a))
+		);
+		current.lastUsed = timestamp;
+		currentAddress = address;
+	}
+
+	@Override
+	public byte getAdsbVersion() {
+		return current.adsbVersion;
+	}
+
+	@Override
+	public void setAdsbVersion(byte adsbVersion) {
+		current.adsbVersion = adsbVersion;
+	}
+
+	@Override
+	public boolean hasNICSupplementA() {
+		return current.nicSupplA;
+	}
+
+	@Override
+	public void setNICSupplementA(boolean nicSupplA) {
+		current.nicSupplA = nicSupplA;
+	}
+
+	@Override
+	public boolean hasNICSupplementC() {
+		return current.nicSupplC;
+	}
+
+	@Override
+	public void setNICSupplementC(boolean nicSupplC) {
+		current.nicSupplC = nicSupplC;
+	}
+
+	@Override
+	public Integer getGeoMinusBaro() {
+		return current.geoMinusBaro;
+	}
+
+	@Override
+	public void setGeoMinusBaro(Integer geoMinusBaro) {
+		current.geoMinusBaro = geoMinusBaro;
+	}
+
+	@Override
+	public Position decodePosition(CPREncodedPosition cpr, Position receiver) {
+		return current.posDec.decodePosition(cpr, receiver);
+	}
+
+	@Override
+	public Position decodePosition(int receiverId, CPREncodedPosition cpr, Position receiver) {
+		if (current.receiverPosDec == null)
+			current.receiverPosDec = new HashMap<>(4);
+		PositionDecoder posDec = current.receiverPosDec.computeIfAbsent(
+				receiverId,
+				r -> newPositionDecoder(currentAddress)
+		);
+		return posDec.decodePosition(cpr, receiver);
+	}
+
+	@Override
+	public int size() {
+		return decoderData.size();
+	}
+
+	@Override
+	public void setMetrics(DecoderMetrics metrics) {
+		this.metrics = metrics == null ? null : metrics.positionCounters();
+		for (DecoderData dd : decoderData.values()) {
+			setMetrics(dd.posDec, this.metrics);
+			if (dd.receiverPosDec != null)
+				for (PositionDecoder posDec : dd.receiverPosDec.values()) setMetrics(posDec, this.metrics);
+		}
+	}
+
+	private PositionDecoder newPositionDecoder(QualifiedAddress address) {
+		PositionDecoder posDec = positionDecoderSupplier.apply(address);
+		setMetrics(posDec, metrics);
+		return posDec;
+	}
+
+	private static void setMetrics(PositionDecoder posDec, DecoderMetrics.PositionCounters metrics) {
+		if (posDec instanceof StatefulPositionDecoder)
+			((StatefulPositionDecoder) posDec).setMetrics(metrics);
+	}
+
+	@Override
+	public void removeIdle(long latestTimestamp, long maxIdle) {
+		Iterator<Map.Entry<QualifiedAddress, DecoderData>> it = decoderData.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<QualifiedAddress, DecoderData> entry = it.next();
+			long idle = latestTimestamp - entry.getValue().lastUsed;
+			if (idle > maxIdle) {
+				if (DecoderEvents.isEnabled()) DecoderEvents.evicted(entry.getKey(), idle);
+				it.remove();
+			}
+		}
+		current = null;
+		currentAddress = null;
+	}
+
+	/**
+	 * Note: only the state of {@link StatefulPositionDecoder}s is included, other position decoders start over.
+	 */
+	@Override
+	public void writeRecords(DataOutput out) throws IOException {
+		for (Map.Entry<QualifiedAddress, DecoderData> entry : decoderData.entrySet())
+			writeRecord(DecoderSnapshot.key(entry.getKey()), entry.getValue(), out);
+	}
+
+	@Override
+	public long[] keys() {
+		long[] keys = new long[decoderData.size()];
+		int i = 0;
+		for (QualifiedAddress address : decoderData.keySet())
+			keys[i++] = DecoderSnapshot.key(address);
+		return keys;
+	}
+
+	@Override
+	public boolean writeRecord(long key, DataOutput out) throws IOException {
+		DecoderData dd = decoderData.get(DecoderSnapshot.address(key));
+		if (dd == null) return false;
+		writeRecord(key, dd, out);
+		return true;
+	}
+
+	private static void writeRecord(long key, DecoderData dd, DataOutput out) throws IOException {
+		int flags = (dd.nicSupplA ? DecoderSnapshot.NIC_SUPPL_A : 0) |
+				(dd.nicSupplC ? DecoderSnapshot.NIC_SUPPL_C : 0) |
+				(dd.geoMinusBaro != null ? DecoderSnapshot.GEO_MINUS_BARO : 0);
+
+		out.writeLong(key);
+		out.writeLong(dd.lastUsed);
+		out.writeByte(dd.adsbVersion);
+		out.writeByte(flags);
+		out.writeInt(dd.geoMinusBaro != null ? dd.geoMinusBaro : 0);
+
+		if (dd.posDec instanceof StatefulPositionDecoder)
+			((StatefulPositionDecoder) dd.posDec).writeState(out);
+		else
+			new StatefulPositionDecoder().writeState(out);
+	}
+
+	@Override
+	public void readRecords(DataInput in, int count) throws IOException {
+		// read into a new map first, so that this store is unchanged if the input is truncated or corrupt
+		Map<QualifiedAddress, DecoderData> read = new HashMap<>();
+		for (int i = 0; i < count; i++) {
+			QualifiedAddress address = DecoderSnapshot.address(in.readLong());
+			DecoderData dd = new DecoderData(newPositionDecoder(address));
+			dd.lastUsed = in.readLong();
+			dd.adsbVersion = in.readByte();
+			int flags = in.readByte();
+			int geoMinusBaro = in.readInt();
+			dd.nicSupplA = (flags & DecoderSnapshot.NIC_SUPPL_A) != 0;
+			dd.nicSupplC = (flags & DecoderSnapshot.NIC_SUPPL_C) != 0;
+			dd.geoMinusBaro = (flags & DecoderSnapshot.GEO_MINUS_BARO) != 0 ? geoMinusBaro : null;
+
+			if (dd.posDec instanceof StatefulPositionDecoder)
+				((StatefulPositionDecoder) dd.posDec).readState(in);
+			else
+				in.readFully(new byte[StatefulPositionDecoder.SERIALIZED_STATE_SIZE]);
+
+			read.put(address, dd);
+		}
+
+		decoderData = read;
+		current = null;
+		currentAddress = null;
+	}
+
+	/**
+	 * Represents the state of a decoder for a certain aircraft
+	 */
+	private static class DecoderData {
+		byte adsbVersion;
+		boolean nicSupplA;
+		boolean nicSupplC;
+		Integer geoMinusBaro;
+		long lastUsed;
+		PositionDecoder posDec;
+		// position decoders per receiver id, created on first use
+		Map<Integer, PositionDecoder> receiverPosDec;
+
+		DecoderData(PositionDecoder posDec) {
+			adsbVersion = 0;
+			lastUsed = System.currentTimeMillis();
+			this.posDec = posDec;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+
+import java.util.Arrays;
+
+/**
+ * Bounded buffer which restores the event-time order of frames before they are passed on, e.g. to the
+ * {@link StatefulModeSDecoder}. Frames from networked receivers arrive out of timestamp order, but the CPR
+ * decoding and the reasonableness tests of the stateful decoder assume ordered data.<br>
+ * <br>
+ * Frames are held back until the latest timestamp seen exceeds their timestamp by the maximum lateness
+ * (the watermark). They are released in timestamp order (and in arrival order for equal timestamps). Frames
+ * which arrive after a frame with a later timestamp has already been released are dropped and counted as
+ * late. If the buffer is full, the earliest frame is released early.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @param <T> type of the buffered frames
+ */
+public class ReorderBuffer<T> {
+
+	/**
+	 * Receives the frames in timestamp order.
+	 *
+	 * @param <T> type of the frames
+	 */
+	@FunctionalInterface
+	public interface Sink<T> {
+		/**
+		 * @param frame     the released frame
+		 * @param timestamp the frame's timestamp
+		 * @throws BadFormatException     passed on to the caller of the buffer
+		 * @throws UnspecifiedFormatError passed on to the caller of the buffer
+		 */
+		void accept(T frame, long timestamp) throws BadFormatException, UnspecifiedFormatError;
+	}
+
+	private final long maxLateness;
+	private final int capacity;
+	private final Sink<? super T> sink;
+
+	// binary min-heap on (times, sequence) with frames as payload
+	private long[] times;
+	private long[] sequence;
+	private Object[] frames;
+	private int size;
+
+	private long nextSequence;
+	private long maxTimestamp = Long.MIN_VALUE;
+	private long lastReleased = Long.MIN_VALUE;
+
+	private long offered, released, droppedLate, overflows;
+
+	/**
+	 * @param maxLateness maximum delay of a frame behind the latest timestamp in milliseconds (the watermark)
+	 * @param capacity    maximum number of buffered frames
+	 * @param sink        receives the frames in timestamp order
+	 */
+	public ReorderBuffer(long maxLateness, int capacity, Sink<? super T> sink) {
+		if (maxLateness < 0)
+			throw new IllegalArgumentException("Maximum lateness must not be negative");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+		if (sink == null)
+			throw new IllegalArgumentException("Sink must not be null");
+
+		this.maxLateness = maxLateness;
+		this.capacity = capacity;
+		this.sink = sink;
+
+		int initial = Math.min(capacity, 1024);
+		times = new long[initial];
+		sequence = new long[initial];
+		frames = new Object[initial];
+	}
+
+	/**
+	 * Creates a reorder buffer which passes frames to a stateful decoder.
+	 *
+	 * @param decoder     the decoder
+	 * @param visitor     called with each decoded message
+	 * @param maxLateness maximum delay of a frame behind the latest timestamp in milliseconds
+	 * @param capacity    maximum number of buffered frames
+	 * @return the reorder buffer
+	 */
+	public static ReorderBuffer<ModeSDownlinkMsg> forDecoder(StatefulModeSDecoder decoder,
+															 ModeSMessageVisitor<?> visitor,
+															 long maxLateness, int capacity) {
+		return new ReorderBuffer<>(maxLateness, capacity, (msg, timestamp) -> decoder.decode(msg, timestamp, visitor));
+	}
+
+	/**
+	 * Adds a frame to the buffer and releases all frames which passed the watermark.
+	 *
+	 * @param frame     the frame
+	 * @param timestamp time of reception in milliseconds
+	 * @return false if the frame was dropped because it was too late, true otherwise
+	 * @throws BadFormatException     if thrown by the sink for a released frame
+	 * @throws UnspecifiedFormatError if thrown by the sink for a released frame
+	 */
+	public boolean offer(T frame, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+		++offered;
+		if (timestamp < lastReleased) {
+			++droppedLate;
+			return false;
+		}
+
+		push(frame, timestamp);
+		if (timestamp > maxTimestamp)
+			maxTimestamp = timestamp;
+
+		releaseUntil(maxTimestamp - maxLateness);
+		while (size > capacity) {
+			++overflows;
+			release();
+		}
+		return true;
+	}
+
+	/**
+	 * Releases all frames which are older than the given time minus the maximum lateness. Use this to advance the
+	 * watermark by wall clock time if no frames are received.
+	 *
+	 * @param time current time in milliseconds
+	 * @throws BadFormatException     if thrown by the sink for a released frame
+	 * @throws UnspecifiedFormatError if thrown by the sink for a released frame
+	 */
+	public void advanceTo(long time) throws BadFormatException, UnspecifiedFormatError {
+		if (time > maxTimestamp)
+			maxTimestamp = time;
+		releaseUntil(maxTimestamp - maxLateness);
+	}
+
+	/**
+	 * Releases all buffered frames.
+	 *
+	 * @throws BadFormatException     if thrown by the sink for a released frame
+	 * @throws UnspecifiedFormatError if thrown by the sink for a released frame
+	 */
+	public void flush() throws BadFormatException, UnspecifiedFormatError {
+		while (size > 0)
+			release();
+	}
+
+	/**
+	 * @return number of currently buffered frames
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of frames passed to {@link #offer(Object, long)}
+	 */
+	public long getOffered() {
+		return offered;
+	}
+
+	/**
+	 * @return number of frames passed to the sink
+	 */
+	public long getReleased() {
+		return released;
+	}
+
+	/**
+	 * @return number of frames dropped because they arrived after a later frame was released
+	 */
+	public long getDroppedLate() {
+		return droppedLate;
+	}
+
+	/**
+	 * @return number of frames released before the watermark because the buffer was full
+	 */
+	public long getOverflows() {
+		return overflows;
+	}
+
+	/**
+	 * @return fraction of offered frames which were dropped because they were too late; 0 if none were offered
+	 */
+	public double getLateDropRate() {
+		return offered == 0 ? 0. : (double) droppedLate / offered;
+	}
+
+	private void releaseUntil(long watermark) throws BadFormatException, UnspecifiedFormatError {
+		// guard against overflow for timestamps close to Long.MIN_VALUE
+		if (watermark > maxTimestamp)
+			return;
+		while (size > 0 && times[0] <= watermark)
+			release();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void release() throws BadFormatException, UnspecifiedFormatError {
+		long timestamp = times[0];
+		T frame = (T) frames[0];
+
+		// remove root before calling the sink to stay consistent if it throws
+		--size;
+		if (size > 0) {
+			times[0] = times[size];
+			sequence[0] = sequence[size];
+			frames[0] = frames[size];
+			siftDown(0);
+		}
+		frames[size] = null;
+
+		lastReleased = timestamp;
+		++released;
+		sink.accept(frame, timestamp);
+	}
+
+	private void push(T frame, long timestamp) {
+		if (size == times.length) {
+			int grown = Math.min(Math.max(times.length * 2, 16), capacity + 1);
+			times = Arrays.copyOf(times, grown);
+			sequence = Arrays.copyOf(sequence, grown);
+			frames = Arrays.copyOf(frames, grown);
+		}
+
+		int i = size++;
+		long seq = nextSequence++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!less(timestamp, seq, times[parent], sequence[parent]))
+				break;
+			move(parent, i);
+			i = parent;
+		}
+		times[i] = timestamp;
+		sequence[i] = seq;
+		frames[i] = frame;
+	}
+
+	private void siftDown(int i) {
+		long timestamp = times[i];
+		long seq = sequence[i];
+		Object frame = frames[i];
+
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if (right < size && less(times[right], sequence[right], times[child], sequence[child]))
+				child = right;
+			if (!less(times[child], sequence[child], timestamp, seq))
+				break;
+			move(child, i);
+			i = child;
+		}
+		times[i] = timestamp;
+		sequence[i] = seq;
+		frames[i] = frame;
+	}
+
+	private void move(int from, int to) {
+		times[to] = times[from];
+		sequence[to] = sequence[from];
+		frames[to] = frames[from];
+	}
+
+	private static boolean less(long time1, long seq1, long time2, long seq2) {
+		return time1 < time2 || (time1 == time2 && seq1 < seq2);
+	}
+}
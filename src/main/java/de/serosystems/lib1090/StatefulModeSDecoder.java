@@ -20,20 +20,33 @@ package de.serosystems.lib1090;
 
 import de.serosystems.lib1090.cpr.PositionDecoder;
 import de.serosystems.lib1090.cpr.PositionDecoderSupplier;
+import de.serosystems.lib1090.cpr.ReferencePointProvider;
+import de.serosystems.lib1090.decoding.Identification;
 import de.serosystems.lib1090.exceptions.BadFormatException;
 import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
 import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
 import de.serosystems.lib1090.msgs.PositionMsg;
 import de.serosystems.lib1090.msgs.QualifiedAddress;
 import de.serosystems.lib1090.msgs.adsb.*;
+import de.serosystems.lib1090.msgs.bds.BDSRegister;
 import de.serosystems.lib1090.msgs.modes.*;
 import de.serosystems.lib1090.msgs.tisb.CoarsePositionMsg;
 import de.serosystems.lib1090.msgs.tisb.FineAirbornePositionMsg;
 import de.serosystems.lib1090.msgs.tisb.FineSurfacePositionMsg;
 import de.serosystems.lib1090.msgs.tisb.ManagementMessage;
 
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Generic stateful decoder for Mode S Messages.
@@ -41,19 +54,50 @@ import java.util.Map;
 @SuppressWarnings("unused")
 public class StatefulModeSDecoder {
 
-	private final PositionDecoderSupplier positionDecoderSupplier;
-	// mapping from icao24 to Decoder, note that we cannot use byte[] as key!
-	private final Map<QualifiedAddress, DecoderData> decoderData = new HashMap<>();
+	private static final Logger LOGGER = Logger.getLogger(StatefulModeSDecoder.class.getName());
+
+	// number of records a periodic snapshot copies per decoded message
+	private static final int SNAPSHOT_RECORDS_PER_DECODE = 64;
+
+	/**
+	 * Visitor which returns the decoded message itself; backs the non-visitor decode methods.
+	 */
+	private static final ModeSMessageVisitor<ModeSDownlinkMsg> IDENTITY_VISITOR = new ModeSMessageVisitor<ModeSDownlinkMsg>() {
+		@Override
+		public ModeSDownlinkMsg visitDefault(ModeSDownlinkMsg msg) {
+			return msg;
+		}
+	};
+
+	private final DecoderStateStore state;
+	// reference positions for receiver-aware position decoding
+	private final Map<Integer, Position> receiverPositions = new HashMap<>();
 	private int afterLastCleanup;
 	private long latestTimestamp;
 
+	// periodic snapshots
+	private File snapshotFile;
+	private long snapshotInterval;
+	private Executor snapshotExecutor;
+	private long lastSnapshot;
+	private int afterLastSnapshotCheck;
+	// periodic snapshot which is currently being copied, if any
+	private DecoderSnapshot.IncrementalWriter snapshotWriter;
+	private final AtomicBoolean snapshotPending = new AtomicBoolean();
+
+	// created on first use of Comm-B inference
+	private CommBInference commB;
+
+	// null unless enabled
+	private DecoderMetrics metrics;
+
 	/**
 	 * Create an instance of the stateful decoder with the default position decoding logic. Note that
 	 * the default logic uses quite strict reasonableness tests. If your data comes from a heterogenous
 	 * receiver network with fluctuating timestamps, you might want to use {@link #StatefulModeSDecoder(boolean)}.
 	 */
 	public StatefulModeSDecoder() {
-		this.positionDecoderSupplier = PositionDecoderSupplier.statefulPositionDecoder();
+		this(PositionDecoderSupplier.statefulPositionDecoder());
 	}
 
 	/**
@@ -62,7 +106,7 @@ public class StatefulModeSDecoder {
 	 * @param disableSpeedTest set to true if your data comes from a heterogeneous network with varying timestamp stability
 	 */
 	public StatefulModeSDecoder(boolean disableSpeedTest) {
-		this.positionDecoderSupplier = PositionDecoderSupplier.statefulPositionDecoder(disableSpeedTest);
+		this(PositionDecoderSupplier.statefulPositionDecoder(disableSpeedTest));
 	}
 
 	/**
@@ -71,7 +115,37 @@ public class StatefulModeSDecoder {
 	 * @param positionDecoderSupplier a custom {@link PositionDecoderSupplier}
 	 */
 	public StatefulModeSDecoder(PositionDecoderSupplier positionDecoderSupplier) {
-		this.positionDecoderSupplier = positionDecoderSupplier;
+		this(new ObjectStateStore(positionDecoderSupplier));
+	}
+
+	private StatefulModeSDecoder(DecoderStateStore state) {
+		this.state = state;
+	}
+
+	/**
+	 * Create an instance of the stateful decoder which keeps the state of all aircraft (including the
+	 * position decoding state) in primitive arrays instead of several objects per aircraft. This reduces
+	 * memory and garbage collection overhead when tracking a large number of aircraft. The decoder behaves
+	 * exactly like one created with {@link #StatefulModeSDecoder(boolean)}.
+	 *
+	 * @param disableSpeedTest set to true if your data comes from a heterogeneous network with varying timestamp stability
+	 * @return a new decoder with compact state
+	 */
+	public static StatefulModeSDecoder withCompactState(boolean disableSpeedTest) {
+		return new StatefulModeSDecoder(new CompactStateStore(disableSpeedTest));
+	}
+
+	/**
+	 * Like {@link #withCompactState(boolean)}, but with a provider of reference points (e.g. a
+	 * {@link de.serosystems.lib1090.cpr.ReferencePointIndex} of airports) for the first surface position of an
+	 * aircraft. See also {@link de.serosystems.lib1090.cpr.StatefulPositionDecoder#StatefulPositionDecoder(boolean, ReferencePointProvider)}.
+	 *
+	 * @param disableSpeedTest set to true if your data comes from a heterogeneous network with varying timestamp stability
+	 * @param references       provider of reference points for surface positions
+	 * @return a new decoder with compact state
+	 */
+	public static StatefulModeSDecoder withCompactState(boolean disableSpeedTest, ReferencePointProvider references) {
+		return new StatefulModeSDecoder(new CompactStateStore(disableSpeedTest, references));
 	}
 
 	/**
@@ -86,21 +160,70 @@ public class StatefulModeSDecoder {
 	 * @throws BadFormatException     if format contains error
 	 */
 	public ModeSDownlinkMsg decode(ModeSDownlinkMsg modes, long timestamp) throws BadFormatException, UnspecifiedFormatError {
-		if (++afterLastCleanup > 1000000 && decoderData.size() > 30000) clearDecoders();
+		return decode(modes, timestamp, IDENTITY_VISITOR);
+	}
+
+	/**
+	 * This function decodes a half-decoded Mode S reply to its deepest possible specialization and passes
+	 * the result to the matching method of the visitor. In contrast to {@link #decode(ModeSDownlinkMsg, long)},
+	 * neither {@link ModeSDownlinkMsg#getType()} checks nor casts are required.
+	 *
+	 * @param modes     the incompletely decoded Mode S message
+	 * @param timestamp time of applicability (or reception) of the message in milliseconds
+	 * @param visitor   the visitor which is called with the decoded message
+	 * @param <R>       result type of the visitor
+	 * @return the result of the visitor
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 */
+	public <R> R decode(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
+		if (++afterLastCleanup > 1000000) {
+			afterLastCleanup = 0;
+			if (state.size() > 30000) clearDecoders();
+		}
+		if (snapshotFile != null && (snapshotWriter != null || ++afterLastSnapshotCheck >= 1024)) checkSnapshot();
 
 		latestTimestamp = timestamp;
 
+		if (!DecoderEvents.isEnabled() || !DecoderEvents.decodeStarted(modes))
+			return decodeCounted(modes, timestamp, visitor);
+
+		try {
+			return decodeCounted(modes, timestamp, visitor);
+		} finally {
+			DecoderEvents.decodeFinished();
+		}
+	}
+
+	private <R> R decodeCounted(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
+		if (metrics == null) return dispatch(modes, timestamp, visitor);
+
+		metrics.received(modes);
+		try {
+			return dispatch(modes, timestamp, visitor);
+		} catch (BadFormatException e) {
+			metrics.badFormat(modes);
+			throw e;
+		} catch (UnspecifiedFormatError e) {
+			metrics.unspecifiedFormat(modes);
+			throw e;
+		} finally {
+			if ((afterLastCleanup & 0x3FF) == 0) metrics.trackedTargets(state.size());
+		}
+	}
+
+	private <R> R dispatch(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
 		switch (modes.getDownlinkFormat()) {
 			case 0:
-				return new ShortACAS(modes);
+				return visitor.visitShortACAS(counted(new ShortACAS(modes)));
 			case 4:
-				return new AltitudeReply(modes);
+				return visitor.visitAltitudeReply(counted(new AltitudeReply(modes)));
 			case 5:
-				return new IdentifyReply(modes);
+				return visitor.visitIdentifyReply(counted(new IdentifyReply(modes)));
 			case 11:
-				return new AllCallReply(modes);
+				return visitor.visitAllCallReply(counted(new AllCallReply(modes)));
 			case 16:
-				return new LongACAS(modes);
+				return visitor.visitLongACAS(counted(new LongACAS(modes)));
 			case 17:
 			case 18:
 			case 19:
@@ -109,90 +232,116 @@ public class StatefulModeSDecoder {
 						modes.getDownlinkFormat() == 18 && modes.getFirstField() < 2 ||
 						modes.getDownlinkFormat() == 19 && modes.getFirstField() == 0) {
 
-					return decodeADSB(modes, timestamp);
+					return decodeADSB(modes, timestamp, visitor);
 
 				} else if (modes.getDownlinkFormat() == 18 && modes.getFirstField() == 2 ||
 						modes.getDownlinkFormat() == 18 && modes.getFirstField() == 5) {
 
-					return decodeTISB(modes, timestamp);
+					return decodeTISB(modes, timestamp, visitor);
 
 				} else if (modes.getDownlinkFormat() == 18 && modes.getFirstField() == 3) {
 					ExtendedSquitter es1090 = new ExtendedSquitter(modes);
-					return new CoarsePositionMsg(es1090, timestamp);
+					return visitor.visitTisbCoarsePosition(counted(new CoarsePositionMsg(es1090, timestamp)));
 
 				} else if (modes.getDownlinkFormat() == 18 && modes.getFirstField() == 4) {
 					// TIS-B or ADS-R Management Message
-					return new ManagementMessage(new ExtendedSquitter(modes));
+					return visitor.visitTisbManagementMessage(counted(new ManagementMessage(new ExtendedSquitter(modes))));
 
 				} else if (modes.getDownlinkFormat() == 18 && modes.getFirstField() == 6) {
-					return decodeADSR(modes, timestamp);
+					return decodeADSR(modes, timestamp, visitor);
 
 				} else if (modes.getDownlinkFormat() == 19) {
-					return new MilitaryExtendedSquitter(modes);
+					return visitor.visitMilitaryExtendedSquitter(counted(new MilitaryExtendedSquitter(modes)));
 				}
 
-				return modes; // this should never happen
+				return visitor.visitModeSDownlinkMsg(counted(modes)); // this should never happen
 			case 20:
-				return new CommBAltitudeReply(modes);
+				return visitor.visitCommBAltitudeReply(counted(new CommBAltitudeReply(modes)));
 			case 21:
-				return new CommBIdentifyReply(modes);
+				return visitor.visitCommBIdentifyReply(counted(new CommBIdentifyReply(modes)));
 			case 24:
-				return new CommDExtendedLengthMsg(modes);
+				return visitor.visitCommDExtendedLengthMsg(counted(new CommDExtendedLengthMsg(modes)));
 			default:
-				return modes; // unknown mode s reply
+				return visitor.visitModeSDownlinkMsg(counted(modes)); // unknown mode s reply
 		}
 	}
 
-	private ExtendedSquitter decodeADSR(ModeSDownlinkMsg modes, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+	private ModeSDownlinkMsg parse(byte[] raw_message, boolean noCRC) throws BadFormatException, UnspecifiedFormatError {
+		if (metrics == null) return new ModeSDownlinkMsg(raw_message, noCRC);
+		try {
+			return new ModeSDownlinkMsg(raw_message, noCRC);
+		} catch (BadFormatException | UnspecifiedFormatError e) {
+			metrics.malformed();
+			throw e;
+		}
+	}
+
+	private ModeSDownlinkMsg parse(String raw_message, boolean noCRC) throws BadFormatException, UnspecifiedFormatError {
+		if (metrics == null) return new ModeSDownlinkMsg(raw_message, noCRC);
+		try {
+			return new ModeSDownlinkMsg(raw_message, noCRC);
+		} catch (BadFormatException | UnspecifiedFormatError e) {
+			metrics.malformed();
+			throw e;
+		}
+	}
+
+	private <M extends ModeSDownlinkMsg> M counted(M msg) {
+		if (metrics != null) metrics.decoded(msg);
+		if (DecoderEvents.isEnabled()) DecoderEvents.decoded(msg);
+		return msg;
+	}
+
+	private <R> R decodeADSR(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
 		// interpret ME field as ADS-R
 		ExtendedSquitter es1090 = new ExtendedSquitter(modes);
 
 		// we need stateful decoding, because ADS-R version > 0 can only be assumed
 		// if matching version info in operational status has been found.
-		DecoderData dd = getDecoderData(modes.getAddress());
+		state.select(modes.getAddress(), latestTimestamp);
 
 		// what kind of extended squitter?
 		byte ftc = es1090.getFormatTypeCode();
 
 		if (ftc >= 1 && ftc <= 4) // identification message
-			return new de.serosystems.lib1090.msgs.adsr.IdentificationMsg(es1090);
+			return visitor.visitAdsrIdentification(counted(new de.serosystems.lib1090.msgs.adsr.IdentificationMsg(es1090)));
 
 		if (ftc >= 5 && ftc <= 8) {
 			// surface position message
-			switch (dd.adsbVersion) {
+			switch (state.getAdsbVersion()) {
 				case 1:
 					de.serosystems.lib1090.msgs.adsr.SurfacePositionV1Msg s1 =
 							new de.serosystems.lib1090.msgs.adsr.SurfacePositionV1Msg(es1090, timestamp);
-					s1.setNICSupplementA(dd.nicSupplA);
-					return s1;
+					s1.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitAdsrSurfacePositionV1(counted(s1));
 				case 2:
 					de.serosystems.lib1090.msgs.adsr.SurfacePositionV2Msg s2 =
 							new de.serosystems.lib1090.msgs.adsr.SurfacePositionV2Msg(es1090, timestamp);
-					s2.setNICSupplementA(dd.nicSupplA);
-					s2.setNICSupplementC(dd.nicSupplC);
-					return s2;
+					s2.setNICSupplementA(state.hasNICSupplementA());
+					s2.setNICSupplementC(state.hasNICSupplementC());
+					return visitor.visitAdsrSurfacePositionV2(counted(s2));
 				default:
 					// implicit by version 0
-					return new de.serosystems.lib1090.msgs.adsr.SurfacePositionV0Msg(es1090, timestamp);
+					return visitor.visitAdsrSurfacePositionV0(counted(new de.serosystems.lib1090.msgs.adsr.SurfacePositionV0Msg(es1090, timestamp)));
 			}
 		}
 
 		if ((ftc >= 9 && ftc <= 18) || (ftc >= 20 && ftc <= 22)) {
 			// airborne position message
-			switch (dd.adsbVersion) {
+			switch (state.getAdsbVersion()) {
 				case 1:
 					de.serosystems.lib1090.msgs.adsr.AirbornePositionV1Msg a1 =
 							new de.serosystems.lib1090.msgs.adsr.AirbornePositionV1Msg(es1090, timestamp);
-					a1.setNICSupplementA(dd.nicSupplA);
-					return a1;
+					a1.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitAdsrAirbornePositionV1(counted(a1));
 				case 2:
 					de.serosystems.lib1090.msgs.adsr.AirbornePositionV2Msg a2 =
 							new de.serosystems.lib1090.msgs.adsr.AirbornePositionV2Msg(es1090, timestamp);
-					a2.setNICSupplementA(dd.nicSupplA);
-					return a2;
+					a2.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitAdsrAirbornePositionV2(counted(a2));
 				default:
 					// implicit by version 0
-					return new de.serosystems.lib1090.msgs.adsr.AirbornePositionV0Msg(es1090, timestamp);
+					return visitor.visitAdsrAirbornePositionV0(counted(new de.serosystems.lib1090.msgs.adsr.AirbornePositionV0Msg(es1090, timestamp)));
 			}
 		}
 
@@ -202,13 +351,13 @@ public class StatefulModeSDecoder {
 			if (subtype == 1 || subtype == 2) { // velocity over ground
 				de.serosystems.lib1090.msgs.adsr.VelocityOverGroundMsg velocity =
 						new de.serosystems.lib1090.msgs.adsr.VelocityOverGroundMsg(es1090);
-				if (velocity.hasGeoMinusBaroInfo()) dd.geoMinusBaro = velocity.getGeoMinusBaro();
-				return velocity;
+				if (velocity.hasGeoMinusBaroInfo()) state.setGeoMinusBaro(velocity.getGeoMinusBaro());
+				return visitor.visitAdsrVelocityOverGround(counted(velocity));
 			} else if (subtype == 3 || subtype == 4) {  // airspeed & heading
 				de.serosystems.lib1090.msgs.adsr.AirspeedHeadingMsg airspeed =
 						new de.serosystems.lib1090.msgs.adsr.AirspeedHeadingMsg(es1090);
-				if (airspeed.hasGeoMinusBaroInfo()) dd.geoMinusBaro = airspeed.getGeoMinusBaro();
-				return airspeed;
+				if (airspeed.hasGeoMinusBaroInfo()) state.setGeoMinusBaro(airspeed.getGeoMinusBaro());
+				return visitor.visitAdsrAirspeedHeading(counted(airspeed));
 			}
 		}
 
@@ -216,7 +365,7 @@ public class StatefulModeSDecoder {
 			int subtype = es1090.getMessage()[0] & 0x7;
 
 			if (subtype == 1) // emergency/priority status
-				return new de.serosystems.lib1090.msgs.adsr.EmergencyOrPriorityStatusMsg(es1090);
+				return visitor.visitAdsrEmergencyOrPriorityStatus(counted(new de.serosystems.lib1090.msgs.adsr.EmergencyOrPriorityStatusMsg(es1090)));
 		}
 
 		if (ftc == 29) {
@@ -224,144 +373,147 @@ public class StatefulModeSDecoder {
 			// DO-260B 2.2.3.2.7.1: ignore for ADS-B v0 transponders if ME bit 11 != 0
 			boolean hasMe11Bit = (es1090.getMessage()[1] & 0x20) != 0;
 
-			if (subtype == 1 && (dd.adsbVersion > 0 || !hasMe11Bit)) {
-				return new de.serosystems.lib1090.msgs.adsr.TargetStateAndStatusMsg(es1090);
+			if (subtype == 1 && (state.getAdsbVersion() > 0 || !hasMe11Bit)) {
+				return visitor.visitAdsrTargetStateAndStatus(counted(new de.serosystems.lib1090.msgs.adsr.TargetStateAndStatusMsg(es1090)));
 			}
 		}
 
 		if (ftc == 31) { // operational status message
 			int subtype = es1090.getMessage()[0] & 0x7;
 
-			dd.adsbVersion = (byte) ((es1090.getMessage()[5] >>> 5) & 0x7);
+			state.setAdsbVersion((byte) ((es1090.getMessage()[5] >>> 5) & 0x7));
 			if (subtype == 0) {
 				// airborne
-				switch (dd.adsbVersion) {
+				switch (state.getAdsbVersion()) {
 					case 0:
-						return new de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg(es1090);
+						return visitor.visitAdsrOperationalStatusV0(counted(new de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg(es1090)));
 					case 1:
 						// TODO: store NIC supplement B as well
 						de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV1Msg s1 =
 								new de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV1Msg(es1090);
-						dd.nicSupplA = s1.hasNICSupplementA();
-						return s1;
+						state.setNICSupplementA(s1.hasNICSupplementA());
+						return visitor.visitAdsrAirborneOperationalStatusV1(counted(s1));
 					case 2:
 						// TODO: store NIC supplement B as well
 						de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV2Msg s2 =
 								new de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV2Msg(es1090);
-						dd.nicSupplA = s2.hasNICSupplementA();
-						return s2;
+						state.setNICSupplementA(s2.hasNICSupplementA());
+						return visitor.visitAdsrAirborneOperationalStatusV2(counted(s2));
 					default:
-						throw new BadFormatException("Airborne operational status has invalid version: " + dd.adsbVersion);
+						throw new BadFormatException("Airborne operational status has invalid version: " + state.getAdsbVersion());
 				}
 			} else if (subtype == 1) {
 				// surface
-				switch (dd.adsbVersion) {
+				switch (state.getAdsbVersion()) {
 					case 0:
-						return new de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg(es1090);
+						return visitor.visitAdsrOperationalStatusV0(counted(new de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg(es1090)));
 					case 1:
 						de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV1Msg s1 =
 								new de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV1Msg(es1090);
-						dd.nicSupplA = s1.hasNICSupplementA();
-						dd.nicSupplC = s1.getNICSupplementC();
-						return s1;
+						state.setNICSupplementA(s1.hasNICSupplementA());
+						state.setNICSupplementC(s1.getNICSupplementC());
+						return visitor.visitAdsrSurfaceOperationalStatusV1(counted(s1));
 					case 2:
 						de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV2Msg s2 =
 								new de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV2Msg(es1090);
-						dd.nicSupplA = s2.hasNICSupplementA();
-						dd.nicSupplC = s2.getNICSupplementC();
-						return s2;
+						state.setNICSupplementA(s2.hasNICSupplementA());
+						state.setNICSupplementC(s2.getNICSupplementC());
+						return visitor.visitAdsrSurfaceOperationalStatusV2(counted(s2));
 					default:
-						throw new BadFormatException("Surface operational status has invalid version: " + dd.adsbVersion);
+						throw new BadFormatException("Surface operational status has invalid version: " + state.getAdsbVersion());
 				}
 			}
 		}
 
-		return es1090;
+		return visitor.visitExtendedSquitter(counted(es1090));
 	}
 
-	private ExtendedSquitter decodeTISB(ModeSDownlinkMsg modes, long timestamp) throws BadFormatException {
+	private <R> R decodeTISB(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException {
 		// interpret ME field as standard ADS-B
 		ExtendedSquitter es1090 = new ExtendedSquitter(modes);
 
 		// we need stateful decoding, because ADS-B version > 0 can only be assumed
 		// if matching version info in operational status has been found.
-		DecoderData dd = getDecoderData(modes.getAddress());
+		state.select(modes.getAddress(), latestTimestamp);
 
 		// what kind of extended squitter?
 		byte ftc = es1090.getFormatTypeCode();
 
 		if ((ftc >= 9 && ftc <= 18) || (ftc >= 20 && ftc <= 22)) {
-			return new FineAirbornePositionMsg(es1090, timestamp);
+			return visitor.visitTisbFineAirbornePosition(counted(new FineAirbornePositionMsg(es1090, timestamp)));
 		} else if (ftc >= 5 && ftc <= 8) {
-			return new FineSurfacePositionMsg(es1090, timestamp);
+			return visitor.visitTisbFineSurfacePosition(counted(new FineSurfacePositionMsg(es1090, timestamp)));
 		} else if (ftc == 19) {
 			int subtype = es1090.getMessage()[0] & 0x7;
 			if (subtype == 1 || subtype == 2) {
 				de.serosystems.lib1090.msgs.tisb.VelocityOverGroundMsg vog =
 						new de.serosystems.lib1090.msgs.tisb.VelocityOverGroundMsg(es1090);
 				if (vog.hasGeoMinusBaroInfo())
-					dd.geoMinusBaro = vog.getGeoMinusBaro();
-				return vog;
+					state.setGeoMinusBaro(vog.getGeoMinusBaro());
+				return visitor.visitTisbVelocityOverGround(counted(vog));
 			} else if (subtype == 3 || subtype == 4) {
 				de.serosystems.lib1090.msgs.tisb.AirspeedHeadingMsg ash =
 						new de.serosystems.lib1090.msgs.tisb.AirspeedHeadingMsg(es1090);
 				if (ash.hasGeoMinusBaroInfo())
-					dd.geoMinusBaro = ash.getGeoMinusBaro();
-				return ash;
+					state.setGeoMinusBaro(ash.getGeoMinusBaro());
+				return visitor.visitTisbAirspeedHeading(counted(ash));
 			}
 		} else if (ftc >= 1 && ftc <= 4) {
-			return new de.serosystems.lib1090.msgs.tisb.IdentificationMsg(es1090);
+			return visitor.visitTisbIdentification(counted(new de.serosystems.lib1090.msgs.tisb.IdentificationMsg(es1090)));
 		}
 
-		return es1090;
+		return visitor.visitExtendedSquitter(counted(es1090));
 	}
 
-	private ExtendedSquitter decodeADSB(ModeSDownlinkMsg modes, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+	private <R> R decodeADSB(ModeSDownlinkMsg modes, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
 		// interpret ME field as standard ADS-B
 		ExtendedSquitter es1090 = new ExtendedSquitter(modes);
 
 		// we need stateful decoding, because ADS-B version > 0 can only be assumed
 		// if matching version info in operational status has been found.
-		DecoderData dd = getDecoderData(modes.getAddress());
+		state.select(modes.getAddress(), latestTimestamp);
 
 		// what kind of extended squitter?
 		byte ftc = es1090.getFormatTypeCode();
 
-		if (ftc >= 1 && ftc <= 4) // identification message
-			return new IdentificationMsg(es1090);
+		if (ftc >= 1 && ftc <= 4) { // identification message
+			if (commB != null)
+				commB.observeCallsign(modes.getAddress(), Identification.extractIdentification(es1090.getMessage()), timestamp);
+			return visitor.visitIdentification(counted(new IdentificationMsg(es1090)));
+		}
 
 		if (ftc >= 5 && ftc <= 8) {
 			// surface position message
-			switch (dd.adsbVersion) {
+			switch (state.getAdsbVersion()) {
 				case 1:
 					SurfacePositionV1Msg s1 = new SurfacePositionV1Msg(es1090, timestamp);
-					s1.setNICSupplementA(dd.nicSupplA);
-					return s1;
+					s1.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitSurfacePositionV1(counted(s1));
 				case 2:
 					SurfacePositionV2Msg s2 = new SurfacePositionV2Msg(es1090, timestamp);
-					s2.setNICSupplementA(dd.nicSupplA);
-					s2.setNICSupplementC(dd.nicSupplC);
-					return s2;
+					s2.setNICSupplementA(state.hasNICSupplementA());
+					s2.setNICSupplementC(state.hasNICSupplementC());
+					return visitor.visitSurfacePositionV2(counted(s2));
 				default:
 					// implicit by version 0
-					return new SurfacePositionV0Msg(es1090, timestamp);
+					return visitor.visitSurfacePositionV0(counted(new SurfacePositionV0Msg(es1090, timestamp)));
 			}
 		}
 
 		if ((ftc >= 9 && ftc <= 18) || (ftc >= 20 && ftc <= 22)) {
 			// airborne position message
-			switch (dd.adsbVersion) {
+			switch (state.getAdsbVersion()) {
 				case 1:
 					AirbornePositionV1Msg a1 = new AirbornePositionV1Msg(es1090, timestamp);
-					a1.setNICSupplementA(dd.nicSupplA);
-					return a1;
+					a1.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitAirbornePositionV1(counted(a1));
 				case 2:
 					AirbornePositionV2Msg a2 = new AirbornePositionV2Msg(es1090, timestamp);
-					a2.setNICSupplementA(dd.nicSupplA);
-					return a2;
+					a2.setNICSupplementA(state.hasNICSupplementA());
+					return visitor.visitAirbornePositionV2(counted(a2));
 				default:
 					// implicit by version 0
-					return new AirbornePositionV0Msg(es1090, timestamp);
+					return visitor.visitAirbornePositionV0(counted(new AirbornePositionV0Msg(es1090, timestamp)));
 			}
 		}
 
@@ -371,87 +523,91 @@ public class StatefulModeSDecoder {
 			if (subtype == 1 || subtype == 2) { // velocity over ground
 				VelocityOverGroundMsg velocity =
 						new VelocityOverGroundMsg(es1090);
-				if (velocity.hasGeoMinusBaroInfo()) dd.geoMinusBaro = velocity.getGeoMinusBaro();
-				return velocity;
+				if (velocity.hasGeoMinusBaroInfo()) state.setGeoMinusBaro(velocity.getGeoMinusBaro());
+				if (commB != null)
+					commB.observeVelocity(modes.getAddress(), velocity.getGroundSpeed(), velocity.getTrueTrackAngle(),
+							velocity.getVerticalRate(), timestamp);
+				return visitor.visitVelocityOverGround(counted(velocity));
 			} else if (subtype == 3 || subtype == 4) {  // airspeed & heading
 				AirspeedHeadingMsg airspeed =
 						new AirspeedHeadingMsg(es1090);
-				if (airspeed.hasGeoMinusBaroInfo()) dd.geoMinusBaro = airspeed.getGeoMinusBaro();
-				return airspeed;
+				if (airspeed.hasGeoMinusBaroInfo()) state.setGeoMinusBaro(airspeed.getGeoMinusBaro());
+				if (commB != null) commB.observeHeading(modes.getAddress(), airspeed.getHeading(), timestamp);
+				return visitor.visitAirspeedHeading(counted(airspeed));
 			}
 		}
 
 		if (ftc == 23) { // Test Message, check subtype
 			int subtype = es1090.getMessage()[0] & 0x7;
-			if (subtype == 7 && dd.adsbVersion == 1) // Mode A code
-				return new ModeACodeV1Msg(es1090);
+			if (subtype == 7 && state.getAdsbVersion() == 1) // Mode A code
+				return visitor.visitModeACodeV1(counted(new ModeACodeV1Msg(es1090)));
 		}
 
 		if (ftc == 24) {
 			int subtype = es1090.getMessage()[0] & 0x7;
 			if (subtype == 1)
-				return new MLATSystemStatusMsg(es1090);
+				return visitor.visitMLATSystemStatus(counted(new MLATSystemStatusMsg(es1090)));
 		}
 
 		if (ftc == 28) { // aircraft status message, check subtype
 			int subtype = es1090.getMessage()[0] & 0x7;
 
 			if (subtype == 1)
-				return new EmergencyOrPriorityStatusMsg(es1090);
-			if (subtype == 2 && dd.adsbVersion > 1)
-				return new TCASResolutionAdvisoryMsg(es1090);
+				return visitor.visitEmergencyOrPriorityStatus(counted(new EmergencyOrPriorityStatusMsg(es1090)));
+			if (subtype == 2 && state.getAdsbVersion() > 1)
+				return visitor.visitTCASResolutionAdvisory(counted(new TCASResolutionAdvisoryMsg(es1090)));
 		}
 
 		if (ftc == 29) {
 			int subtype = (es1090.getMessage()[0] >>> 1) & 0x3;
-			if (subtype == 0 && dd.adsbVersion == 1) {
-				return new TargetStateAndStatusV1Msg(es1090);
-			} else if (subtype == 1 && dd.adsbVersion == 2) {
-				return new TargetStateAndStatusV2Msg(es1090);
+			if (subtype == 0 && state.getAdsbVersion() == 1) {
+				return visitor.visitTargetStateAndStatusV1(counted(new TargetStateAndStatusV1Msg(es1090)));
+			} else if (subtype == 1 && state.getAdsbVersion() == 2) {
+				return visitor.visitTargetStateAndStatusV2(counted(new TargetStateAndStatusV2Msg(es1090)));
 			}
 		}
 
 		if (ftc == 31) { // operational status message
 			int subtype = es1090.getMessage()[0] & 0x7;
 
-			dd.adsbVersion = (byte) ((es1090.getMessage()[5] >>> 5) & 0x7);
+			state.setAdsbVersion((byte) ((es1090.getMessage()[5] >>> 5) & 0x7));
 			if (subtype == 0) {
 				// airborne
-				switch (dd.adsbVersion) {
+				switch (state.getAdsbVersion()) {
 					case 0:
-						return new OperationalStatusV0Msg(es1090);
+						return visitor.visitOperationalStatusV0(counted(new OperationalStatusV0Msg(es1090)));
 					case 1:
 						AirborneOperationalStatusV1Msg s1 = new AirborneOperationalStatusV1Msg(es1090);
-						dd.nicSupplA = s1.hasNICSupplementA();
-						return s1;
+						state.setNICSupplementA(s1.hasNICSupplementA());
+						return visitor.visitAirborneOperationalStatusV1(counted(s1));
 					case 2:
 						AirborneOperationalStatusV2Msg s2 = new AirborneOperationalStatusV2Msg(es1090);
-						dd.nicSupplA = s2.hasNICSupplementA();
-						return s2;
+						state.setNICSupplementA(s2.hasNICSupplementA());
+						return visitor.visitAirborneOperationalStatusV2(counted(s2));
 					default:
-						throw new BadFormatException("Airborne operational status has invalid version: " + dd.adsbVersion);
+						throw new BadFormatException("Airborne operational status has invalid version: " + state.getAdsbVersion());
 				}
 			} else if (subtype == 1) {
 				// surface
-				switch (dd.adsbVersion) {
+				switch (state.getAdsbVersion()) {
 					case 0: // undefined subtype for v0, handle like any other undefined subtype
 						break;
 					case 1:
 						SurfaceOperationalStatusV1Msg s1 = new SurfaceOperationalStatusV1Msg(es1090);
-						dd.nicSupplA = s1.hasNICSupplementA();
-						return s1;
+						state.setNICSupplementA(s1.hasNICSupplementA());
+						return visitor.visitSurfaceOperationalStatusV1(counted(s1));
 					case 2:
 						SurfaceOperationalStatusV2Msg s2 = new SurfaceOperationalStatusV2Msg(es1090);
-						dd.nicSupplA = s2.hasNICSupplementA();
-						dd.nicSupplC = s2.getNICSupplementC();
-						return s2;
+						state.setNICSupplementA(s2.hasNICSupplementA());
+						state.setNICSupplementC(s2.getNICSupplementC());
+						return visitor.visitSurfaceOperationalStatusV2(counted(s2));
 					default:
-						throw new BadFormatException("Surface operational status has invalid version: " + dd.adsbVersion);
+						throw new BadFormatException("Surface operational status has invalid version: " + state.getAdsbVersion());
 				}
 			}
 		}
 
-		return es1090;
+		return visitor.visitExtendedSquitter(counted(es1090));
 	}
 
 	/**
@@ -462,7 +618,7 @@ public class StatefulModeSDecoder {
 	 * @throws BadFormatException     if format contains error
 	 */
 	public ModeSDownlinkMsg decode(byte[] raw_message, long timestamp) throws BadFormatException, UnspecifiedFormatError {
-		return decode(new ModeSDownlinkMsg(raw_message), timestamp);
+		return decode(parse(raw_message, false), timestamp);
 	}
 
 	/**
@@ -474,7 +630,7 @@ public class StatefulModeSDecoder {
 	 * @throws BadFormatException     if format contains error
 	 */
 	public ModeSDownlinkMsg decode(byte[] raw_message, boolean noCRC, long timestamp) throws BadFormatException, UnspecifiedFormatError {
-		return decode(new ModeSDownlinkMsg(raw_message, noCRC), timestamp);
+		return decode(parse(raw_message, noCRC), timestamp);
 	}
 
 	/**
@@ -485,7 +641,7 @@ public class StatefulModeSDecoder {
 	 * @throws BadFormatException     if format contains error
 	 */
 	public ModeSDownlinkMsg decode(String raw_message, long timestamp) throws BadFormatException, UnspecifiedFormatError {
-		return decode(new ModeSDownlinkMsg(raw_message), timestamp);
+		return decode(parse(raw_message, false), timestamp);
 	}
 
 	/**
@@ -497,7 +653,67 @@ public class StatefulModeSDecoder {
 	 * @throws BadFormatException     if format contains error
 	 */
 	public ModeSDownlinkMsg decode(String raw_message, boolean noCRC, long timestamp) throws BadFormatException, UnspecifiedFormatError {
-		return decode(new ModeSDownlinkMsg(raw_message, noCRC), timestamp);
+		return decode(parse(raw_message, noCRC), timestamp);
+	}
+
+	/**
+	 * @param raw_message the Mode S message as byte array
+	 * @param timestamp   time of applicability (or reception) of the message in milliseconds
+	 * @param visitor     the visitor which is called with the decoded message
+	 * @param <R>         result type of the visitor
+	 * @return the result of the visitor
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 * @see #decode(ModeSDownlinkMsg, long, ModeSMessageVisitor)
+	 */
+	public <R> R decode(byte[] raw_message, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
+		return decode(parse(raw_message, false), timestamp, visitor);
+	}
+
+	/**
+	 * @param raw_message the Mode S message in hex representation
+	 * @param timestamp   time of applicability (or reception) of the message in milliseconds
+	 * @param visitor     the visitor which is called with the decoded message
+	 * @param <R>         result type of the visitor
+	 * @return the result of the visitor
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 * @see #decode(ModeSDownlinkMsg, long, ModeSMessageVisitor)
+	 */
+	public <R> R decode(String raw_message, long timestamp, ModeSMessageVisitor<R> visitor) throws BadFormatException, UnspecifiedFormatError {
+		return decode(parse(raw_message, false), timestamp, visitor);
+	}
+
+	/**
+	 * Infers the type of the Comm-B register of a DF 20 reply and decodes it, see {@link CommBInference}. From the
+	 * first call on, this decoder collects ADS-B velocities, headings and callsigns for the inference.
+	 *
+	 * @param reply     the Comm-B altitude reply
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded register or a plain {@link BDSRegister} with unknown code if the type cannot be inferred
+	 */
+	public BDSRegister decodeCommB(CommBAltitudeReply reply, long timestamp) {
+		return getCommBInference().infer(reply.getAddress(), reply.getMessage(), reply.getAltitude(), timestamp);
+	}
+
+	/**
+	 * Infers the type of the Comm-B register of a DF 21 reply and decodes it.
+	 *
+	 * @param reply     the Comm-B identify reply
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded register or a plain {@link BDSRegister} with unknown code if the type cannot be inferred
+	 * @see #decodeCommB(CommBAltitudeReply, long)
+	 */
+	public BDSRegister decodeCommB(CommBIdentifyReply reply, long timestamp) {
+		return getCommBInference().infer(reply.getAddress(), reply.getMessage(), null, timestamp);
+	}
+
+	/**
+	 * @return the Comm-B inference state of this decoder (created on first use)
+	 */
+	public CommBInference getCommBInference() {
+		if (commB == null) commB = new CommBInference();
+		return commB;
 	}
 
 	/**
@@ -512,8 +728,35 @@ public class StatefulModeSDecoder {
 		if (!msg.hasValidPosition()) {
 			return null;
 		}
-		DecoderData dd = getDecoderData(address);
-		Position pos = dd.posDec.decodePosition(msg.getCPREncodedPosition(), receiver);
+		state.select(address, latestTimestamp);
+		Position pos = state.decodePosition(msg.getCPREncodedPosition(), receiver);
+
+		if (pos != null && msg.hasValidAltitude()) {
+			pos.setAltitude(Double.valueOf(msg.getAltitude()));
+			pos.setAltitudeType(msg.getAltitudeType());
+		}
+
+		return pos;
+	}
+
+	/**
+	 * Decode CPR encoded position from position messages received by one of several receivers. In contrast to
+	 * {@link #extractPosition(QualifiedAddress, PositionMsg, Position)}, the CPR state which depends on timestamps
+	 * (last position pair and position) is kept separately per receiver, so timestamps of unsynchronized
+	 * sites are never mixed. ADS-B version and capabilities are still shared by all receivers. The receiver's
+	 * reference position must be set with {@link #setReceiverPosition(int, Position)}.
+	 *
+	 * @param receiverId id of the receiver which received the message
+	 * @param address    the aircraft's qualified address to decode position for
+	 * @param msg        which contains the encoded position
+	 * @return decoded WGS84 position
+	 */
+	public Position extractPosition(int receiverId, QualifiedAddress address, PositionMsg msg) {
+		if (!msg.hasValidPosition()) {
+			return null;
+		}
+		state.select(address, latestTimestamp);
+		Position pos = state.decodePosition(receiverId, msg.getCPREncodedPosition(), receiverPositions.get(receiverId));
 
 		if (pos != null && msg.hasValidAltitude()) {
 			pos.setAltitude(Double.valueOf(msg.getAltitude()));
@@ -523,6 +766,26 @@ public class StatefulModeSDecoder {
 		return pos;
 	}
 
+	/**
+	 * Sets the reference position of a receiver which is used by {@link #extractPosition(int, QualifiedAddress, PositionMsg)}
+	 * for the reasonableness test and for decoding surface positions.
+	 *
+	 * @param receiverId id of the receiver
+	 * @param position   position of the receiver or null to remove it
+	 */
+	public void setReceiverPosition(int receiverId, Position position) {
+		if (position == null) receiverPositions.remove(receiverId);
+		else receiverPositions.put(receiverId, position);
+	}
+
+	/**
+	 * @param receiverId id of the receiver
+	 * @return the reference position of the receiver or null if unknown
+	 */
+	public Position getReceiverPosition(int receiverId) {
+		return receiverPositions.get(receiverId);
+	}
+
 	/**
 	 * @param reply a Mode S message
 	 * @param <T>   {@link ModeSDownlinkMsg} or one of its sub classes
@@ -531,8 +794,8 @@ public class StatefulModeSDecoder {
 	 */
 	public <T extends ModeSDownlinkMsg> byte getAdsbVersion(T reply) {
 		if (reply == null) return 0;
-		DecoderData dd = getDecoderData(reply.getAddress());
-		return dd.adsbVersion;
+		state.select(reply.getAddress(), latestTimestamp);
+		return state.getAdsbVersion();
 	}
 
 	/**
@@ -546,8 +809,8 @@ public class StatefulModeSDecoder {
 	 */
 	public <T extends ModeSDownlinkMsg> Integer getGeoMinusBaro(T reply) {
 		if (reply == null) return null;
-		DecoderData dd = getDecoderData(reply.getAddress());
-		return dd.geoMinusBaro;
+		state.select(reply.getAddress(), latestTimestamp);
+		return state.getGeoMinusBaro();
 	}
 
 	/**
@@ -595,38 +858,179 @@ public class StatefulModeSDecoder {
 		return isAirbornePosition(reply) || isSurfacePosition(reply);
 	}
 
+	/**
+	 * Writes the state of all tracked aircraft (ADS-B version, NIC supplements, geo minus baro and position
+	 * decoder state) to a compact binary snapshot. Note that the state of custom position decoders other than
+	 * {@link de.serosystems.lib1090.cpr.StatefulPositionDecoder} and the per-receiver CPR state (see
+	 * {@link #extractPosition(int, QualifiedAddress, PositionMsg)}) are not included.
+	 *
+	 * @param out destination of the snapshot; will not be closed
+	 * @throws IOException if writing fails
+	 */
+	public void writeSnapshot(OutputStream out) throws IOException {
+		DecoderSnapshot.write(state, latestTimestamp, out);
+	}
+
+	/**
+	 * Writes a snapshot (see {@link #writeSnapshot(OutputStream)}) to a file. The file is replaced atomically
+	 * (if supported by the file system), i.e. it either contains the previous or the new snapshot.
+	 *
+	 * @param file destination file
+	 * @throws IOException if writing fails
+	 */
+	public void writeSnapshot(File file) throws IOException {
+		DecoderSnapshot.IncrementalWriter snapshot = new DecoderSnapshot.IncrementalWriter(state, latestTimestamp);
+		snapshot.write(state, Integer.MAX_VALUE);
+		writeFileAtomically(file, snapshot);
+	}
+
+	/**
+	 * Replaces the state of this decoder with a snapshot written by {@link #writeSnapshot(OutputStream)},
+	 * e.g. to continue decoding after a restart without waiting for the state to rebuild.
+	 *
+	 * @param in source of the snapshot; will not be closed but might be read beyond the end of the snapshot
+	 * @throws IOException if reading fails or if the snapshot format is not supported
+	 */
+	public void readSnapshot(InputStream in) throws IOException {
+		latestTimestamp = DecoderSnapshot.read(state, in);
+		cancelSnapshot();
+	}
+
+	/**
+	 * Replaces the state of this decoder with a snapshot file, see {@link #readSnapshot(InputStream)}.
+	 *
+	 * @param file the snapshot file
+	 * @throws IOException if reading fails or if the snapshot format is not supported
+	 */
+	public void readSnapshot(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			readSnapshot(in);
+		}
+	}
+
+	/**
+	 * Enables periodic snapshots of the decoder state to a file. To avoid pauses, the decoding thread copies
+	 * the state into memory a few records per decoded message; writing the file is done by the executor.
+	 * Hence, each aircraft's record is consistent, but records are copied at slightly different times and
+	 * aircraft which appear while a snapshot is being copied are only included in the next snapshot.
+	 * Snapshots are skipped while the previous snapshot is still being copied or written, or if the executor
+	 * rejects the task. Errors are thrown as {@link UncheckedIOException} in the executor.
+	 *
+	 * @param file     destination file, see {@link #writeSnapshot(File)}
+	 * @param interval minimum time between snapshots in milliseconds (wall clock)
+	 * @param executor executor which writes the files, e.g. a single thread executor
+	 */
+	public void enablePeriodicSnapshots(File file, long interval, Executor executor) {
+		this.snapshotFile = file;
+		this.snapshotInterval = interval;
+		this.snapshotExecutor = executor;
+		this.lastSnapshot = System.currentTimeMillis();
+	}
+
+	/**
+	 * Disables periodic snapshots, see {@link #enablePeriodicSnapshots(File, long, Executor)}.
+	 */
+	public void disablePeriodicSnapshots() {
+		this.snapshotFile = null;
+		this.snapshotExecutor = null;
+		cancelSnapshot();
+	}
+
+	private void cancelSnapshot() {
+		if (snapshotWriter != null) {
+			snapshotWriter = null;
+			snapshotPending.set(false);
+		}
+	}
+
+	private void checkSnapshot() {
+		if (snapshotWriter == null) {
+			afterLastSnapshotCheck = 0;
+			long now = System.currentTimeMillis();
+			if (now - lastSnapshot < snapshotInterval || !snapshotPending.compareAndSet(false, true))
+				return;
+			lastSnapshot = now;
+			snapshotWriter = new DecoderSnapshot.IncrementalWriter(state, latestTimestamp);
+		}
+
+		if (!snapshotWriter.write(state, SNAPSHOT_RECORDS_PER_DECODE))
+			return;
+
+		final File file = snapshotFile;
+		final DecoderSnapshot.IncrementalWriter snapshot = snapshotWriter;
+		snapshotWriter = null;
+		try {
+			snapshotExecutor.execute(() -> {
+				try {
+					writeFileAtomically(file, snapshot);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					snapshotPending.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			snapshotPending.set(false);
+			LOGGER.log(Level.WARNING, "Snapshot executor rejected the task, skipping snapshot.", e);
+		}
+	}
+
+	private static void writeFileAtomically(File file, DecoderSnapshot.IncrementalWriter snapshot) throws IOException {
+		Path target = file.toPath();
+		Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(tmp)) {
+			snapshot.writeTo(out);
+		}
+		try {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 	/**
 	 * Clean state by removing decoders not used for more than an hour. This happens automatically
 	 * every 1 Mio messages if more than 30000 aircraft are tracked.
 	 */
 	public void clearDecoders() {
-		decoderData.values().removeIf(dd -> latestTimestamp - dd.lastUsed > 3600_000L);
+		if (DecoderEvents.isEnabled()) DecoderEvents.cleanupStarted();
+		int before = state.size();
+		state.removeIdle(latestTimestamp, 3600_000L);
+		if (commB != null) commB.removeIdle(latestTimestamp, 3600_000L);
+		if (DecoderEvents.isEnabled()) DecoderEvents.cleanupFinished(before, state.size(), 3600_000L);
+		if (metrics != null) {
+			metrics.evicted(before - state.size());
+			metrics.trackedTargets(state.size());
+		}
 	}
 
-	private DecoderData getDecoderData(QualifiedAddress address) {
-		DecoderData dd = decoderData.computeIfAbsent(
-				address,
-				a -> new DecoderData(positionDecoderSupplier.apply(a))
-		);
-		dd.lastUsed = latestTimestamp;
-		return dd;
+	/**
+	 * Enables counting of received frames, decoded messages, errors, tracked aircraft and position decoding
+	 * results. Counting is disabled by default.
+	 *
+	 * @return the counters of this decoder (the same instance on repeated calls)
+	 */
+	public DecoderMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new DecoderMetrics();
+			state.setMetrics(metrics);
+		}
+		return metrics;
 	}
 
 	/**
-	 * Represents the state of a decoder for a certain aircraft
+	 * Disables counting. Counters obtained before keep their values.
 	 */
-	private static class DecoderData {
-		byte adsbVersion;
-		boolean nicSupplA;
-		boolean nicSupplC;
-		Integer geoMinusBaro;
-		long lastUsed;
-		PositionDecoder posDec;
+	public void disableMetrics() {
+		metrics = null;
+		state.setMetrics(null);
+	}
 
-		DecoderData(PositionDecoder posDec) {
-			adsbVersion = 0;
-			lastUsed = System.currentTimeMillis();
-			this.posDec = posDec;
-		}
+	/**
+	 * @return the counters of this decoder or null if counting is disabled
+	 * @see #enableMetrics()
+	 */
+	public DecoderMetrics getMetrics() {
+		return metrics;
 	}
 }
@@ -18,8 +18,13 @@
 
 package de.serosystems.lib1090.cpr;
 
+import de.serosystems.lib1090.DecoderEvents;
+import de.serosystems.lib1090.DecoderMetrics;
 import de.serosystems.lib1090.Position;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -149,6 +154,13 @@ public final class CPREncodedPosition {
 		return isSurface;
 	}
 
+	/**
+	 * @return whether the surface position message indicated a high or unknown speed; false for airborne positions
+	 */
+	public boolean isHighSurfaceSpeed() {
+		return isHighSurfaceSpeed;
+	}
+
 	public int yz() {
 		return yz;
 	}
@@ -207,7 +219,11 @@ public final class CPREncodedPosition {
 		if (isSurface != other.isSurface) return null;
 		if (isSurface && reference == null) return null;
 		long gap = Math.abs(timestamp - other.timestamp);
-		if (gap > maxGap(other)) return null;
+		if (gap > maxGap(other)) {
+			if (DecoderEvents.isEnabled())
+				DecoderEvents.cprPairFailed(DecoderEvents.CPRFailure.MAX_GAP_EXCEEDED, gap, maxGap(other));
+			return null;
+		}
 
 		final CPREncodedPosition even = isOdd ? other : this;
 		final CPREncodedPosition odd = isOdd ? this : other;
@@ -223,12 +239,19 @@ public final class CPREncodedPosition {
 		final L0Latitude Rlat1L = L0Latitude.ofGlobal(odd, j, refLat);
 
 		// additional check against invalid latitudes
-		if (!Rlat0L.isValid() || !Rlat1L.isValid())
+		if (!Rlat0L.isValid() || !Rlat1L.isValid()) {
+			if (DecoderEvents.isEnabled())
+				DecoderEvents.cprPairFailed(DecoderEvents.CPRFailure.INVALID_LATITUDE, gap, maxGap(other));
 			return null;
+		}
 
 		// require that the number of longitude zones are equal
 		final int nLon = Rlat0L.NL();
-		if (nLon != Rlat1L.NL()) return null; // straddling position
+		if (nLon != Rlat1L.NL()) { // straddling position
+			if (DecoderEvents.isEnabled())
+				DecoderEvents.cprPairFailed(DecoderEvents.CPRFailure.STRADDLING_ZONES, gap, maxGap(other));
+			return null;
+		}
 
 		// reconstruct latitude
 		final double Rlat = isOdd ? Rlat1L.toDegrees() : Rlat0L.toDegrees();
@@ -339,6 +362,19 @@ public final class CPREncodedPosition {
 	 * @return the decoded position or null if could not be decoded
 	 */
 	public Position decodePosition(CPREncodedPosition other, Position reference) {
+		return decodePosition(other, reference, null);
+	}
+
+	/**
+	 * Like {@link #decodePosition(CPREncodedPosition, Position)}, but counts the decoding method and the failed
+	 * reasonableness tests.
+	 *
+	 * @param other     the other CPR encoded position in complementary format (even/odd) or null
+	 * @param reference reference point for plausibility, surface and local decoding or null
+	 * @param metrics   the counters to update (can be null)
+	 * @return the decoded position or null if could not be decoded
+	 */
+	public Position decodePosition(CPREncodedPosition other, Position reference, DecoderMetrics.PositionCounters metrics) {
 		// apply global decoding
 		Position globalPos = other == null ? null : decodeGlobal(other, reference);
 
@@ -349,11 +385,12 @@ public final class CPREncodedPosition {
 		// see A.1.7.10.2 of DO-260B
 
 		boolean reasonable = true; // be positive :-)
+		boolean localGlobal = false, pairDistance = false;
 		double mu = 5.0; // 5 meters is a random small distance
 
 		// check distance between global and local position if possible -> should be almost equal
 		if (globalPos != null && localPos != null && globalPos.haversine(localPos) > mu)
-			reasonable = false;
+			localGlobal = true;
 
 		// use local CPR to verify even and odd position
 		if (globalPos != null) {
@@ -361,7 +398,7 @@ public final class CPREncodedPosition {
 
 			// check local/global dist of new message
 			if (globalPos.haversine(localThis) > mu)
-				reasonable = false;
+				localGlobal = true;
 
 			// check if distance to other is within limits
 			Position globalOther = other.decodeGlobal(this, reference);
@@ -369,26 +406,107 @@ public final class CPREncodedPosition {
 
 			// should be within 3 NM (= 555.6 m/s * 10 seconds)
 			if (globalOther != null && !isSurface && globalOther.haversine(globalPos) > 5556)
-				reasonable = false;
+				pairDistance = true;
 
 			if (localOther != null && !isSurface && localOther.haversine(globalPos) > 5556)
-				reasonable = false;
+				pairDistance = true;
 		}
+		if (localGlobal || pairDistance)
+			reasonable = false;
 
 		// prefer global over local position
 		Position ret = globalPos != null ? globalPos : localPos;
 
 		if (ret != null) {
 			// is it a valid coordinate?
-			if (Math.abs(ret.getLongitude()) > 180.0 || Math.abs(ret.getLatitude()) > 90.0)
+			if (Math.abs(ret.getLongitude()) > 180.0 || Math.abs(ret.getLatitude()) > 90.0) {
 				reasonable = false;
+				if (metrics != null) metrics.rejected(DecoderMetrics.ReasonablenessTest.COORDINATES);
+				if (DecoderEvents.isEnabled()) DecoderEvents.rejected(DecoderMetrics.ReasonablenessTest.COORDINATES, ret);
+			}
 
 			ret.setReasonable(reasonable);
 		}
 
+		if (metrics != null) {
+			metrics.cprDecoded(ret, globalPos != null);
+			if (localGlobal) metrics.rejected(DecoderMetrics.ReasonablenessTest.LOCAL_GLOBAL);
+			if (pairDistance) metrics.rejected(DecoderMetrics.ReasonablenessTest.PAIR_DISTANCE);
+		}
+		if (DecoderEvents.isEnabled() && ret != null) {
+			if (localGlobal) DecoderEvents.rejected(DecoderMetrics.ReasonablenessTest.LOCAL_GLOBAL, ret);
+			if (pairDistance) DecoderEvents.rejected(DecoderMetrics.ReasonablenessTest.PAIR_DISTANCE, ret);
+		}
+
 		return ret;
 	}
 
+	/**
+	 * Number of bytes written by {@link #write(DataOutput, CPREncodedPosition)}
+	 */
+	public static final int SERIALIZED_SIZE = 18;
+
+	// flags of the binary representation
+	private static final int FLAG_PRESENT = 0x1;
+	private static final int FLAG_SURFACE = 0x2;
+	private static final int FLAG_HIGH_SURFACE_SPEED = 0x4;
+	private static final int FLAG_ODD = 0x8;
+
+	/**
+	 * Writes an encoded position in a compact binary format of fixed size (e.g. for snapshots of decoder state):
+	 * flags (byte: 0x1 present, 0x2 surface, 0x4 high surface speed, 0x8 odd), number of bits (byte), yz (int),
+	 * xz (int), timestamp (long).
+	 *
+	 * @param out the output
+	 * @param cpr the encoded position or null
+	 * @throws IOException if writing fails
+	 */
+	public static void write(DataOutput out, CPREncodedPosition cpr) throws IOException {
+		if (cpr == null) {
+			out.writeByte(0);
+			out.writeByte(0);
+			out.writeInt(0);
+			out.writeInt(0);
+			out.writeLong(0L);
+			return;
+		}
+
+		int flags = FLAG_PRESENT;
+		if (cpr.isSurface) flags |= FLAG_SURFACE;
+		if (cpr.isHighSurfaceSpeed) flags |= FLAG_HIGH_SURFACE_SPEED;
+		if (cpr.isOdd) flags |= FLAG_ODD;
+		out.writeByte(flags);
+		out.writeByte(cpr.nBits);
+		out.writeInt(cpr.yz);
+		out.writeInt(cpr.xz);
+		out.writeLong(cpr.timestamp);
+	}
+
+	/**
+	 * Reads an encoded position written with {@link #write(DataOutput, CPREncodedPosition)}.
+	 *
+	 * @param in the input
+	 * @return the encoded position or null if none was written
+	 * @throws IOException if reading fails or the data is invalid
+	 */
+	public static CPREncodedPosition read(DataInput in) throws IOException {
+		int flags = in.readByte();
+		int nBits = in.readByte();
+		int yz = in.readInt();
+		int xz = in.readInt();
+		long timestamp = in.readLong();
+
+		if ((flags & FLAG_PRESENT) == 0)
+			return null;
+
+		try {
+			return new CPREncodedPosition(nBits, (flags & FLAG_ODD) != 0, (flags & FLAG_SURFACE) != 0,
+					(flags & FLAG_HIGH_SURFACE_SPEED) != 0, yz, xz, timestamp);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid CPR encoded position: " + e.getMessage());
+		}
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) return true;
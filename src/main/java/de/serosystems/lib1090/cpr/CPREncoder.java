@@ -0,0 +1,125 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.cpr;
+
+/**
+ * Compact Position Reporting encoder according to DO-260B A.1.7.3. This is the counterpart of
+ * {@link CPREncodedPosition} and produces positions which decode to the original position within the resolution of
+ * the encoding.
+ * <br>
+ * Encoded positions are returned as one primitive long with yz in bits 17-33 and xz in bits 0-16 (for 17 bit
+ * encodings), i.e. in the layout of the latitude and longitude fields of airborne and surface position messages.
+ * Use {@link #yz(long)} and {@link #xz(long)} to extract the coordinates.
+ */
+public final class CPREncoder {
+
+	private CPREncoder() {}
+
+	/**
+	 * @param latitude latitude in degrees [-90, 90]
+	 * @param longitude longitude in degrees
+	 * @param isOdd whether to encode with the odd format
+	 * @param isSurface whether to encode a surface position (90° zones)
+	 * @return the encoded position with 17 bits per coordinate, see class description
+	 */
+	public static long encode(double latitude, double longitude, boolean isOdd, boolean isSurface) {
+		return encode(latitude, longitude, isOdd, isSurface, 17);
+	}
+
+	/**
+	 * @param latitude latitude in degrees [-90, 90]
+	 * @param longitude longitude in degrees
+	 * @param isOdd whether to encode with the odd format
+	 * @param isSurface whether to encode a surface position (90° zones)
+	 * @param nBits number of bits per coordinate. Must be 12, 14, or 17
+	 * @return the encoded position with yz in bits nBits to 2*nBits-1 and xz in the lower nBits bits
+	 */
+	public static long encode(double latitude, double longitude, boolean isOdd, boolean isSurface, int nBits) {
+		if (nBits != 12 && nBits != 14 && nBits != 17)
+			throw new IllegalArgumentException("CPR encoding must use 12, 14, or 17 bits.");
+		if (!(latitude >= -90. && latitude <= 90.))
+			throw new IllegalArgumentException("Latitude must be within [-90, 90].");
+
+		final double angle = isSurface ? 90. : 360.;
+		final double scale = 1 << nBits;
+		final int i = isOdd ? 1 : 0;
+
+		// latitude
+		final double dLat = angle / (60 - i);
+		final double yz = Math.floor(scale * mod(latitude, dLat) / dLat + .5);
+		final double rLat = dLat * (yz / scale + Math.floor(latitude / dLat));
+
+		// longitude, the number of zones must be determined exactly as by the decoder
+		final double dLon = angle / Math.max(L0Latitude.ofDegrees(rLat).NL() - i, 1);
+		final double xz = Math.floor(scale * mod(longitude, dLon) / dLon + .5);
+
+		final long mask = (1L << nBits) - 1;
+		return ((long) yz & mask) << nBits | (long) xz & mask;
+	}
+
+	/**
+	 * @param cpr position as returned by {@link #encode(double, double, boolean, boolean)}
+	 * @return the encoded latitude
+	 */
+	public static int yz(long cpr) {
+		return (int) (cpr >>> 17) & 0x1FFFF;
+	}
+
+	/**
+	 * @param cpr position as returned by {@link #encode(double, double, boolean, boolean)}
+	 * @return the encoded longitude
+	 */
+	public static int xz(long cpr) {
+		return (int) cpr & 0x1FFFF;
+	}
+
+	/**
+	 * @param latitude latitude in degrees [-90, 90]
+	 * @param longitude longitude in degrees
+	 * @param isOdd whether to encode with the odd format
+	 * @param timestamp timestamp of the position message
+	 * @return the airborne position as it would be decoded from a position message
+	 */
+	public static CPREncodedPosition airborne(double latitude, double longitude, boolean isOdd, long timestamp) {
+		long cpr = encode(latitude, longitude, isOdd, false);
+		return CPREncodedPosition.ofAirborne(17, isOdd, yz(cpr), xz(cpr), timestamp);
+	}
+
+	/**
+	 * @param latitude latitude in degrees [-90, 90]
+	 * @param longitude longitude in degrees
+	 * @param isOdd whether to encode with the odd format
+	 * @param isHighSurfaceSpeed whether the position message indicates a high or unknown speed
+	 * @param timestamp timestamp of the position message
+	 * @return the surface position as it would be decoded from a position message
+	 */
+	public static CPREncodedPosition surface(double latitude, double longitude, boolean isOdd,
+											 boolean isHighSurfaceSpeed, long timestamp) {
+		long cpr = encode(latitude, longitude, isOdd, true);
+		return CPREncodedPosition.ofSurface(17, isOdd, isHighSurfaceSpeed, yz(cpr), xz(cpr), timestamp);
+	}
+
+	/**
+	 * Floating point modulo with a non-negative result (MOD in DO-260B A.1.7.3)
+	 */
+	private static double mod(double a, double b) {
+		return a - b * Math.floor(a / b);
+	}
+}
@@ -31,4 +31,9 @@ public interface PositionDecoderSupplier extends Function<QualifiedAddress, Posi
 	static PositionDecoderSupplier statefulPositionDecoder(final boolean disableSpeedTest) {
 		return address -> new StatefulPositionDecoder(disableSpeedTest);
 	}
+
+	static PositionDecoderSupplier statefulPositionDecoder(final boolean disableSpeedTest,
+														   final ReferencePointProvider references) {
+		return address -> new StatefulPositionDecoder(disableSpeedTest, references);
+	}
 }
@@ -0,0 +1,346 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.cpr;
+
+import de.serosystems.lib1090.Position;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.Math.*;
+
+/**
+ * {@link ReferencePointProvider} backed by a grid index of fixed reference points such as airport reference
+ * points (ARP). A surface position is decoded locally relative to the receiver and to its aliases in the
+ * neighbouring CPR zones. The alias which is closest to the receiver and lies within the maximum distance of
+ * a reference point determines the reference. Thus, receivers covering several airports or being further than
+ * 45 NM away from an airport still get a valid reference for the first surface position of a target.
+ * <br>
+ * Reference points are stored in primitive arrays sorted by grid cell; a lookup inspects a constant number of
+ * cells. Instances are immutable and thread-safe.
+ */
+public final class ReferencePointIndex implements ReferencePointProvider {
+
+	/**
+	 * Default maximum distance of a target from the reference point of its airport in meters
+	 */
+	public static final double DEFAULT_MAX_DISTANCE = 5000.;
+
+	// grid cell size in degrees
+	private static final double CELL_SIZE = 0.1;
+	private static final int LAT_CELLS = (int) round(180. / CELL_SIZE);
+	private static final int LON_CELLS = (int) round(360. / CELL_SIZE);
+	private static final double METERS_PER_DEGREE = 6371000.0 * PI / 180.;
+
+	private final double maxDistance;
+
+	// reference points sorted by cell
+	private final double[] latitudes;
+	private final double[] longitudes;
+
+	// open addressing map from cell to [cellStart, cellStart + cellSize) in the arrays above
+	private final int[] cellKeys;
+	private final int[] cellStart;
+	private final int[] cellSize;
+
+	/**
+	 * @param latitudes   latitudes of the reference points in degrees
+	 * @param longitudes  longitudes of the reference points in degrees
+	 * @param maxDistance maximum distance of a target from its reference point in meters
+	 */
+	public ReferencePointIndex(double[] latitudes, double[] longitudes, double maxDistance) {
+		if (latitudes.length != longitudes.length)
+			throw new IllegalArgumentException("Number of latitudes and longitudes differ");
+		if (maxDistance <= 0 || maxDistance > 45 * 1852.)
+			throw new IllegalArgumentException("Maximum distance must be in (0, 45 NM]");
+		this.maxDistance = maxDistance;
+
+		int n = latitudes.length;
+		long[] order = new long[n];
+		for (int i = 0; i < n; i++) {
+			if (abs(latitudes[i]) > 90. || abs(longitudes[i]) > 180.)
+				throw new IllegalArgumentException("Invalid reference point " + latitudes[i] + "," + longitudes[i]);
+			order[i] = (long) cell(latitudes[i], longitudes[i]) << 32 | i;
+		}
+		Arrays.sort(order);
+
+		this.latitudes = new double[n];
+		this.longitudes = new double[n];
+		int capacity = Integer.highestOneBit(max(n, 1)) << 2;
+		cellKeys = new int[capacity];
+		Arrays.fill(cellKeys, -1);
+		cellStart = new int[capacity];
+		cellSize = new int[capacity];
+
+		int slot = -1;
+		for (int i = 0; i < n; i++) {
+			int point = (int) order[i];
+			int key = (int) (order[i] >>> 32);
+			this.latitudes[i] = latitudes[point];
+			this.longitudes[i] = longitudes[point];
+
+			if (slot < 0 || cellKeys[slot] != key) {
+				slot = slot(key);
+				cellKeys[slot] = key;
+				cellStart[slot] = i;
+			}
+			cellSize[slot]++;
+		}
+	}
+
+	/**
+	 * @param latitudes  latitudes of the reference points in degrees
+	 * @param longitudes longitudes of the reference points in degrees
+	 */
+	public ReferencePointIndex(double[] latitudes, double[] longitudes) {
+		this(latitudes, longitudes, DEFAULT_MAX_DISTANCE);
+	}
+
+	/**
+	 * Loads reference points from a CSV file with a header line, e.g. the airport list of OurAirports. The
+	 * coordinates are taken from the columns named {@code latitude_deg}, {@code latitude} or {@code lat} and
+	 * {@code longitude_deg}, {@code longitude}, {@code lon} or {@code lng}. Rows with a {@code type} of
+	 * {@code closed} (ignoring case and surrounding whitespace) and rows without valid coordinates are skipped.
+	 *
+	 * @param reader      the CSV input; will not be closed
+	 * @param maxDistance maximum distance of a target from its reference point in meters
+	 * @return the index
+	 * @throws IOException if reading fails or the coordinate columns are missing
+	 */
+	public static ReferencePointIndex fromCsv(Reader reader, double maxDistance) throws IOException {
+		BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+		String line = in.readLine();
+		if (line == null) throw new IOException("Missing CSV header");
+		List<String> header = splitCsv(line);
+		int latColumn = -1, lonColumn = -1, typeColumn = -1;
+		for (int i = 0; i < header.size(); i++) {
+			switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+				case "latitude_deg":
+				case "latitude":
+				case "lat":
+					latColumn = i;
+					break;
+				case "longitude_deg":
+				case "longitude":
+				case "lon":
+				case "lng":
+					lonColumn = i;
+					break;
+				case "type":
+					typeColumn = i;
+					break;
+				default:
+			}
+		}
+		if (latColumn < 0 || lonColumn < 0)
+			throw new IOException("CSV header does not contain latitude and longitude columns");
+
+		double[] lat = new double[1024], lon = new double[1024];
+		int n = 0;
+		while ((line = in.readLine()) != null) {
+			List<String> row = splitCsv(line);
+			if (row.size() <= max(latColumn, lonColumn)) continue;
+			if (typeColumn >= 0 && typeColumn < row.size() && "closed".equalsIgnoreCase(row.get(typeColumn).trim())) continue;
+
+			double la, lo;
+			try {
+				la = Double.parseDouble(row.get(latColumn).trim());
+				lo = Double.parseDouble(row.get(lonColumn).trim());
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			if (!(abs(la) <= 90. && abs(lo) <= 180.)) continue;
+
+			if (n == lat.length) {
+				lat = Arrays.copyOf(lat, 2 * n);
+				lon = Arrays.copyOf(lon, 2 * n);
+			}
+			lat[n] = la;
+			lon[n++] = lo;
+		}
+
+		return new ReferencePointIndex(Arrays.copyOf(lat, n), Arrays.copyOf(lon, n), maxDistance);
+	}
+
+	/**
+	 * Loads reference points from a UTF-8 encoded CSV file, see {@link #fromCsv(Reader, double)}.
+	 *
+	 * @param file the CSV file
+	 * @return the index with {@link #DEFAULT_MAX_DISTANCE}
+	 * @throws IOException if reading fails or the coordinate columns are missing
+	 */
+	public static ReferencePointIndex fromCsv(File file) throws IOException {
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			return fromCsv(reader, DEFAULT_MAX_DISTANCE);
+		}
+	}
+
+	/**
+	 * @return number of reference points
+	 */
+	public int size() {
+		return latitudes.length;
+	}
+
+	/**
+	 * Finds the nearest reference point within the maximum distance.
+	 *
+	 * @param latitude  latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @return the nearest reference point or null if there is none within the maximum distance
+	 */
+	public Position nearest(double latitude, double longitude) {
+		int i = nearestIndex(latitude, longitude);
+		return i < 0 ? null : new Position(longitudes[i], latitudes[i], 0.);
+	}
+
+	@Override
+	public Position getReference(CPREncodedPosition cpr, Position receiver) {
+		if (cpr == null || !cpr.isSurface() || receiver == null) return null;
+
+		int odd = cpr.isOddFormat() ? 1 : 0;
+		double dLat = 90. / (60 - odd);
+
+		// candidates: the receiver's zone and its neighbours
+		int best = -1;
+		double bestDistance = Double.MAX_VALUE;
+		for (int k = -1; k <= 1; k++) {
+			double refLat = receiver.getLatitude() + k * dLat;
+			if (abs(refLat) > 90.) continue;
+
+			double dLon = 90. / max(1, L0Latitude.ofDegrees(refLat).NL() - odd);
+			for (int m = -1; m <= 1; m++) {
+				Position alias = cpr.decodeLocal(new Position(receiver.getLongitude() + m * dLon, refLat, 0.));
+				if (abs(alias.getLatitude()) > 90.) continue;
+				double lon = alias.getLongitude();
+				lon = lon - 360. * floor((lon + 180.) / 360.);
+
+				int i = nearestIndex(alias.getLatitude(), lon);
+				if (i < 0) continue;
+
+				double distance = distance(receiver.getLatitude(), receiver.getLongitude(), alias.getLatitude(), lon);
+				if (distance < bestDistance) {
+					best = i;
+					bestDistance = distance;
+				}
+			}
+		}
+
+		return best < 0 ? null : new Position(longitudes[best], latitudes[best], 0.);
+	}
+
+	private int nearestIndex(double latitude, double longitude) {
+		int latCell = latCell(latitude);
+		int lonCell = lonCell(longitude);
+		int latRadius = (int) ceil(maxDistance / (CELL_SIZE * METERS_PER_DEGREE));
+		double cosLat = cos(toRadians(min(90., abs(latitude) + latRadius * CELL_SIZE)));
+		int lonRadius = cosLat < 1e-6 ? LON_CELLS / 2 :
+				(int) min(LON_CELLS / 2, ceil(maxDistance / (CELL_SIZE * METERS_PER_DEGREE * cosLat)));
+
+		int best = -1;
+		double bestDistance = maxDistance;
+		for (int y = max(0, latCell - latRadius); y <= min(LAT_CELLS - 1, latCell + latRadius); y++) {
+			for (int dx = -lonRadius; dx <= lonRadius; dx++) {
+				int x = Util.mod(lonCell + dx, LON_CELLS);
+				int slot = slot(y * LON_CELLS + x);
+				if (cellKeys[slot] < 0) continue;
+
+				for (int i = cellStart[slot], end = i + cellSize[slot]; i < end; i++) {
+					double distance = distance(latitude, longitude, latitudes[i], longitudes[i]);
+					if (distance <= bestDistance) {
+						best = i;
+						bestDistance = distance;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param key cell key
+	 * @return slot of the cell or the empty slot where it would be
+	 */
+	private int slot(int key) {
+		int mask = cellKeys.length - 1;
+		int i = (key * 0x9E3779B9) >>> 7 & mask;
+		while (cellKeys[i] >= 0 && cellKeys[i] != key)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	private static int cell(double latitude, double longitude) {
+		return latCell(latitude) * LON_CELLS + lonCell(longitude);
+	}
+
+	private static int latCell(double latitude) {
+		return min(LAT_CELLS - 1, (int) floor((latitude + 90.) / CELL_SIZE));
+	}
+
+	private static int lonCell(double longitude) {
+		return Util.mod((int) floor((longitude + 180.) / CELL_SIZE), LON_CELLS);
+	}
+
+	/**
+	 * Haversine distance, see {@link Position#haversine(Position)}
+	 */
+	private static double distance(double lat0, double lon0, double lat1, double lon1) {
+		double a = pow(sin(toRadians(lat1 - lat0) / 2.0), 2);
+		double b = cos(toRadians(lat0)) * cos(toRadians(lat1)) * pow(sin(toRadians(lon1 - lon0) / 2.0), 2);
+		return 6371000.0 * 2 * asin(sqrt(a + b));
+	}
+
+	/**
+	 * Splits a CSV line; supports quoted fields with escaped quotes but no line breaks within fields.
+	 */
+	private static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.cpr;
+
+import de.serosystems.lib1090.Position;
+
+/**
+ * Provides reference points for the local decoding of surface positions of targets whose position is not known
+ * yet, e.g. the reference point of the airport the target is located at. Without a reference, the decoder falls
+ * back to the receiver position, which is only correct if the target is within 45 NM of the receiver.
+ *
+ * @see ReferencePointIndex
+ */
+@FunctionalInterface
+public interface ReferencePointProvider {
+
+	/**
+	 * @param cpr      CPR encoded surface position of a target whose position is not known yet
+	 * @param receiver position of the receiver or null if unknown
+	 * @return a reference point within 45 NM of the target's true position or null if none is known
+	 */
+	Position getReference(CPREncodedPosition cpr, Position receiver);
+}
@@ -18,8 +18,14 @@
 
 package de.serosystems.lib1090.cpr;
 
+import de.serosystems.lib1090.DecoderEvents;
+import de.serosystems.lib1090.DecoderMetrics;
 import de.serosystems.lib1090.Position;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import static java.lang.Math.abs;
 
 /**
@@ -32,6 +38,8 @@ public class StatefulPositionDecoder implements PositionDecoder {
 	private Long last_time; // in ms
 	private int num_reasonable; // number of successive reasonable msgs
 	private boolean disableSpeedTest = false;
+	private ReferencePointProvider references;
+	private DecoderMetrics.PositionCounters metrics;
 
 	/**
 	 * Default constructor that uses speed test
@@ -48,6 +56,25 @@ public class StatefulPositionDecoder implements PositionDecoder {
 		this.disableSpeedTest = disableSpeedTest;
 	}
 
+	/**
+	 * Constructor with a provider of reference points (e.g. airports) for the first surface position of a
+	 * target. The receiver position is used if the provider does not know a reference.
+	 * @param disableSpeedTest true if speed test should not be applied
+	 * @param references provider of reference points for surface positions (can be null)
+	 */
+	public StatefulPositionDecoder (boolean disableSpeedTest, ReferencePointProvider references) {
+		this.disableSpeedTest = disableSpeedTest;
+		this.references = references;
+	}
+
+	/**
+	 * @param metrics counters of decoded positions and failed reasonableness tests to update (can be null); only
+	 *                available to the decoder which owns the {@link DecoderMetrics}
+	 */
+	public void setMetrics(DecoderMetrics.PositionCounters metrics) {
+		this.metrics = metrics;
+	}
+
 	// distance to receiver threshold
 	private static final int MAX_DIST_TO_SENDER = 700000; // 700km
 
@@ -73,38 +100,69 @@ public class StatefulPositionDecoder implements PositionDecoder {
 		else last_even_airborne = cpr;
 
 		// only use receiver as reference for surface positions (might be too far away for airborne)
-		Position refPos = last_pos != null ? last_pos : (cpr.isSurface() ? receiver : null);
+		Position refPos = last_pos != null ? last_pos : (cpr.isSurface() ? surfaceReference(cpr, receiver) : null);
 
-		Position newPos = cpr.decodePosition(lastOther, refPos);
+		Position newPos = cpr.decodePosition(lastOther, refPos, metrics);
 
 		if (newPos == null) return null;
 
-		//////// apply some additional (stateful) reasonableness tests //////////
+		num_reasonable = checkReasonableness(newPos, cpr.getTimestamp(), last_time != null ? last_pos : null,
+				last_time != null ? last_time : 0L, num_reasonable, receiver, disableSpeedTest, metrics);
+		last_pos = newPos;
+		last_time = cpr.getTimestamp();
 
+		return newPos;
+	}
+
+	/**
+	 * Applies the stateful reasonableness tests to a newly decoded position and marks it as not reasonable if
+	 * one of them fails: the target must not have been faster than 1000 knots since the last position, at least
+	 * three successive positions must be reasonable and the position must be within 700 km of the receiver. Used
+	 * by all state backends of the stateful decoder, so that they decide alike.
+	 *
+	 * @param newPos           the newly decoded position
+	 * @param time             time of the new position in milliseconds
+	 * @param lastPos          the last decoded position of the target or null
+	 * @param lastTime         time of the last position in milliseconds (ignored if lastPos is null)
+	 * @param numReasonable    number of successive reasonable positions before the new one
+	 * @param receiver         position of the receiver or null
+	 * @param disableSpeedTest true if the speed test should not be applied
+	 * @param metrics          counters of failed tests to update (can be null)
+	 * @return number of successive reasonable positions including the new one
+	 */
+	public static int checkReasonableness(Position newPos, long time, Position lastPos, long lastTime,
+										  int numReasonable, Position receiver, boolean disableSpeedTest,
+										  DecoderMetrics.PositionCounters metrics) {
 		// check if it's realistic that the target covered this distance (faster than 1000 knots?)
-		if (!disableSpeedTest && last_pos != null && last_time != null) {
-			double td = abs((cpr.getTimestamp() - last_time) / 1_000.);
-			double groundSpeed = newPos.haversine(last_pos) / td; // in meters per second
+		if (!disableSpeedTest && lastPos != null) {
+			double td = abs((time - lastTime) / 1_000.);
+			double groundSpeed = newPos.haversine(lastPos) / td; // in meters per second
 
 			if (groundSpeed > 514.4) {
 				newPos.setReasonable(false);
+				if (metrics != null) metrics.rejected(DecoderMetrics.ReasonablenessTest.SPEED);
+				if (DecoderEvents.isEnabled()) DecoderEvents.rejected(DecoderMetrics.ReasonablenessTest.SPEED, newPos);
 			}
 		}
 
-		last_pos = newPos;
-		last_time = cpr.getTimestamp();
-
-		if (!newPos.isReasonable()) num_reasonable = 0; // reset
+		if (!newPos.isReasonable()) numReasonable = 0; // reset
 			// at least n good msgs before we declare reasonable
-		else if (num_reasonable++ < 2) newPos.setReasonable(false);
+		else if (numReasonable++ < 2) newPos.setReasonable(false);
 
 		// apply additional reasonableness test
 		if (receiver != null && receiver.haversine(newPos) > MAX_DIST_TO_SENDER) {
 			newPos.setReasonable(false);
-			num_reasonable = 0;
+			numReasonable = 0;
+			if (metrics != null) metrics.rejected(DecoderMetrics.ReasonablenessTest.RECEIVER_DISTANCE);
+			if (DecoderEvents.isEnabled()) DecoderEvents.rejected(DecoderMetrics.ReasonablenessTest.RECEIVER_DISTANCE, newPos);
 		}
 
-		return newPos;
+		return numReasonable;
+	}
+
+	private Position surfaceReference(CPREncodedPosition cpr, Position receiver) {
+		Position ref = references != null ? references.getReference(cpr, receiver) : null;
+		return ref != null ? ref : receiver;
 	}
 
 	/**
@@ -122,4 +180,45 @@ public class StatefulPositionDecoder implements PositionDecoder {
 		return decodePosition(cpr, receiver, disableSpeedTest);
 	}
 
+	/**
+	 * Number of bytes written by {@link #writeState(DataOutput)}
+	 */
+	public static final int SERIALIZED_STATE_SIZE = 2 * CPREncodedPosition.SERIALIZED_SIZE + 29;
+
+	/**
+	 * Writes the state of this decoder in a binary format of fixed size, e.g. for snapshots. Whether
+	 * the speed test is disabled is configuration and not part of the state.
+	 *
+	 * @param out the output
+	 * @throws IOException if writing fails
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		CPREncodedPosition.write(out, last_even_airborne);
+		CPREncodedPosition.write(out, last_odd_airborne);
+		boolean hasLastPos = last_pos != null && last_time != null;
+		out.writeBoolean(hasLastPos);
+		out.writeDouble(hasLastPos ? last_pos.getLatitude() : 0.);
+		out.writeDouble(hasLastPos ? last_pos.getLongitude() : 0.);
+		out.writeLong(hasLastPos ? last_time : 0L);
+		out.writeInt(num_reasonable);
+	}
+
+	/**
+	 * Replaces the state of this decoder with a state written by {@link #writeState(DataOutput)}.
+	 *
+	 * @param in the input
+	 * @throws IOException if reading fails
+	 */
+	public void readState(DataInput in) throws IOException {
+		last_even_airborne = CPREncodedPosition.read(in);
+		last_odd_airborne = CPREncodedPosition.read(in);
+		boolean hasLastPos = in.readBoolean();
+		double lat = in.readDouble();
+		double lon = in.readDouble();
+		long time = in.readLong();
+		last_pos = hasLastPos ? new Position(lon, lat, 0.) : null;
+		last_time = hasLastPos ? time : null;
+		num_reasonable = in.readInt();
+	}
+
 }
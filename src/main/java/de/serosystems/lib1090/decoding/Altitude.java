@@ -23,6 +23,28 @@ package de.serosystems.lib1090.decoding;
  */
 public final class Altitude {
 
+	/**
+	 * Sentinel returned by the primitive decoding methods if no altitude is available
+	 */
+	public static final int UNAVAILABLE = Integer.MIN_VALUE;
+
+	// the code spaces are small enough to decode every possible altitude code once at class load
+	private static final int[] ALTITUDE_13 = new int[1 << 13];
+	private static final int[] ALTITUDE_12 = new int[1 << 12];
+	private static final Integer[] ALTITUDE_13_BOXED = new Integer[ALTITUDE_13.length];
+	private static final Integer[] ALTITUDE_12_BOXED = new Integer[ALTITUDE_12.length];
+
+	static {
+		for (int code = 0; code < ALTITUDE_13.length; code++) {
+			ALTITUDE_13[code] = calc13BitAltitude(code);
+			ALTITUDE_13_BOXED[code] = ALTITUDE_13[code] == UNAVAILABLE ? null : ALTITUDE_13[code];
+		}
+		for (int code = 0; code < ALTITUDE_12.length; code++) {
+			ALTITUDE_12[code] = calc12BitAltitude(code);
+			ALTITUDE_12_BOXED[code] = ALTITUDE_12[code];
+		}
+	}
+
 	private Altitude() {}
 
 	/**
@@ -44,8 +66,63 @@ public final class Altitude {
 	 * @return altitude in feet
 	 */
 	public static Integer decode13BitAltitude(short altitude_code) {
+		return ALTITUDE_13_BOXED[altitude_code & 0x1FFF];
+	}
+
+	/**
+	 * Decode altitude code according to Annex 10 V4 3.1.2.6.5.4 without boxing
+	 * @param altitude_code as provided in most Mode S replies (13 bits)
+	 * @return altitude in feet or {@link #UNAVAILABLE} if altitude is not available or M bit is set
+	 */
+	public static int decode13BitAltitudeInt(short altitude_code) {
+		return ALTITUDE_13[altitude_code & 0x1FFF];
+	}
+
+	/**
+	 * Decode Q bit for altitude code according to Annex 10 V4 3.1.2.6.5.4
+	 * @param altitude_code as provided in most Mode S replies (13 bits)
+	 * @return value of the Q bit, null if MBit is set or altitude is not available
+	 */
+	public static Boolean decode13BitQBit(short altitude_code) {
+		boolean Mbit = (altitude_code&0x40)!=0;
+		return !Mbit && ((altitude_code&0x10)!=0);
+	}
+
+	/**
+	 * Decode altitude according to DO-260B 2.2.3.2.3.4.3 <br>
+	 * @param altitude_encoded 12 bit encoded altitude
+	 * @return altitude in feet
+	 */
+	public static Integer decode12BitAltitude(short altitude_encoded) {
+		return ALTITUDE_12_BOXED[altitude_encoded & 0xFFF];
+	}
+
+	/**
+	 * Decode altitude according to DO-260B 2.2.3.2.3.4.3 without boxing <br>
+	 * @param altitude_encoded 12 bit encoded altitude
+	 * @return altitude in feet
+	 */
+	public static int decode12BitAltitudeInt(short altitude_encoded) {
+		return ALTITUDE_12[altitude_encoded & 0xFFF];
+	}
+
+	/**
+	 * Decode the Q bit for an altitude provided according to DO-260B 2.2.3.2.3.4.3 <br>
+	 * @param altitude_encoded 12 bit encoded altitude
+	 * @return value of the Q bit
+	 */
+	public static boolean decode12BitQBit(short altitude_encoded) {
+		return (altitude_encoded&0x10)!=0;
+	}
+
+	/**
+	 * Computes entries of the 13 bit altitude table according to Annex 10 V4 3.1.2.6.5.4
+	 * @param altitude_code 13 bit altitude code
+	 * @return altitude in feet or {@link #UNAVAILABLE}
+	 */
+	private static int calc13BitAltitude(int altitude_code) {
 		// altitude unavailable
-		if (altitude_code == 0) return null;
+		if (altitude_code == 0) return UNAVAILABLE;
 
 		boolean Mbit = (altitude_code&0x40)!=0;
 		if (!Mbit) {
@@ -81,28 +158,18 @@ public final class Altitude {
 				return -1200+N500*500+N100*100;
 			}
 		}
-		else return null; // unspecified metric encoding
-	}
-
-	/**
-	 * Decode Q bit for altitude code according to Annex 10 V4 3.1.2.6.5.4
-	 * @param altitude_code as provided in most Mode S replies (13 bits)
-	 * @return value of the Q bit, null if MBit is set or altitude is not available
-	 */
-	public static Boolean decode13BitQBit(short altitude_code) {
-		boolean Mbit = (altitude_code&0x40)!=0;
-		return !Mbit && ((altitude_code&0x10)!=0);
+		else return UNAVAILABLE; // unspecified metric encoding
 	}
 
 	/**
-	 * Decode altitude according to DO-260B 2.2.3.2.3.4.3 <br>
+	 * Computes entries of the 12 bit altitude table according to DO-260B 2.2.3.2.3.4.3
 	 * @param altitude_encoded 12 bit encoded altitude
 	 * @return altitude in feet
 	 */
-	public static Integer decode12BitAltitude(short altitude_encoded) {
+	private static int calc12BitAltitude(int altitude_encoded) {
 		// In contrast to the decodeAltitude method in {@link de.serosystems.lib1090.msgs.modes.AltitudeReply}, input
 		// does not contain the MBit
-		boolean Qbit = decode12BitQBit(altitude_encoded);
+		boolean Qbit = (altitude_encoded&0x10)!=0;
 		int N;
 		if (Qbit) { // altitude reported in 25ft increments
 			N = (altitude_encoded&0xF) | ((altitude_encoded&0xFE0)>>>1);
@@ -134,13 +201,4 @@ public final class Altitude {
 			return -1200+N500*500+N100*100;
 		}
 	}
-
-	/**
-	 * Decode the Q bit for an altitude provided according to DO-260B 2.2.3.2.3.4.3 <br>
-	 * @param altitude_encoded 12 bit encoded altitude
-	 * @return value of the Q bit
-	 */
-	public static boolean decode12BitQBit(short altitude_encoded) {
-		return (altitude_encoded&0x10)!=0;
-	}
 }
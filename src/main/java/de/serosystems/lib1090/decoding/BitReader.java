@@ -34,17 +34,36 @@ import java.util.Objects;
  * Example: {@code readInt(1, 5)} extracts the first 5 bits of the message.
  */
 public class BitReader {
+	/**
+	 * Buffers up to this size (covers 56 and 112 bit frames) are loaded into two words on creation
+	 */
+	private static final int MAX_WORD_BYTES = 16;
+
 	private final byte[] data;
 	private final boolean bigEndian;
+	private final boolean words;
+	private final long word0, word1;
 
 	private BitReader(byte[] data, boolean bigEndian) {
 		this.data = Objects.requireNonNull(data);
 		this.bigEndian = bigEndian;
+		this.words = data.length <= MAX_WORD_BYTES;
+
+		long w0 = 0, w1 = 0;
+		if (words) {
+			for (int i = 0; i < 8 && i < data.length; i++)
+				w0 |= (data[i] & 0xFFL) << (bigEndian ? 56 - 8 * i : 8 * i);
+			for (int i = 8; i < data.length; i++)
+				w1 |= (data[i] & 0xFFL) << (bigEndian ? 56 - 8 * (i - 8) : 8 * (i - 8));
+		}
+		word0 = w0;
+		word1 = w1;
 	}
 
 	/**
 	 * Factory for Big-Endian bit ordering (Network Byte Order).
 	 * Bit 1 is the MSB of data[0].
+	 * Note: buffers of up to 16 bytes are copied on creation, i.e. later modifications of data are not visible.
 	 */
 	public static BitReader forBigEndian(byte[] data) {
 		return new BitReader(data, true);
@@ -53,6 +72,7 @@ public class BitReader {
 	/**
 	 * Factory for Little-Endian bit ordering.
 	 * Bit 1 is the LSB of data[0].
+	 * Note: buffers of up to 16 bytes are copied on creation, i.e. later modifications of data are not visible.
 	 */
 	public static BitReader forLittleEndian(byte[] data) {
 		return new BitReader(data, false);
@@ -74,6 +94,35 @@ public class BitReader {
 		return readRange(from, to, 64);
 	}
 
+	/**
+	 * Like {@link #readByte(int, int)} but without range checks. The caller must make sure that
+	 * 1 &lt;= from &lt;= to, that the range fits into the type and that it lies within the buffer.
+	 */
+	public byte readByteUnchecked(int from, int to) {
+		return (byte) readRangeUnchecked(from, to);
+	}
+
+	/**
+	 * Like {@link #readShort(int, int)} but without range checks, see {@link #readByteUnchecked(int, int)}.
+	 */
+	public short readShortUnchecked(int from, int to) {
+		return (short) readRangeUnchecked(from, to);
+	}
+
+	/**
+	 * Like {@link #readInt(int, int)} but without range checks, see {@link #readByteUnchecked(int, int)}.
+	 */
+	public int readIntUnchecked(int from, int to) {
+		return (int) readRangeUnchecked(from, to);
+	}
+
+	/**
+	 * Like {@link #readLong(int, int)} but without range checks, see {@link #readByteUnchecked(int, int)}.
+	 */
+	public long readLongUnchecked(int from, int to) {
+		return readRangeUnchecked(from, to);
+	}
+
 	/**
 	 * Internal extraction logic.
 	 * * @param from    The starting bit position (inclusive, starts at 1).
@@ -99,7 +148,14 @@ public class BitReader {
 			throw new IndexOutOfBoundsException("End of buffer.");
 		}
 
-		if (bigEndian) {
+		return readRangeUnchecked(from, to);
+	}
+
+	private long readRangeUnchecked(int from, int to) {
+		int numBits = (to - from) + 1;
+		if (words) {
+			return bigEndian ? readBigEndianWords(from - 1, numBits) : readLittleEndianWords(from - 1, numBits);
+		} else if (bigEndian) {
 			return readBigEndian(from, to, numBits);
 		} else {
 			return readLittleEndian(from, to);
@@ -107,7 +163,33 @@ public class BitReader {
 	}
 
 	/**
-	 * Optimized Byte-Block extraction for Big-Endian.
+	 * Single shift and mask extraction from the preloaded words (Big-Endian).
+	 * @param start 0-based index of the first bit
+	 * @param numBits number of bits (1-64)
+	 */
+	private long readBigEndianWords(int start, int numBits) {
+		long window; // 64 bits starting at start, left-aligned
+		if (start == 0) window = word0;
+		else if (start < 64) window = word0 << start | word1 >>> (64 - start);
+		else window = word1 << (start - 64);
+		return window >>> (64 - numBits);
+	}
+
+	/**
+	 * Single shift and mask extraction from the preloaded words (Little-Endian).
+	 * @param start 0-based index of the first bit
+	 * @param numBits number of bits (1-64)
+	 */
+	private long readLittleEndianWords(int start, int numBits) {
+		long window; // 64 bits starting at start, right-aligned
+		if (start == 0) window = word0;
+		else if (start < 64) window = word0 >>> start | word1 << (64 - start);
+		else window = word1 >>> (start - 64);
+		return numBits == 64 ? window : window & ((1L << numBits) - 1);
+	}
+
+	/**
+	 * Optimized Byte-Block extraction for Big-Endian (buffers longer than 16 bytes).
 	 */
 	private long readBigEndian(int from, int to, int numBits) {
 		int startBit0 = from - 1;
@@ -127,7 +209,7 @@ public class BitReader {
 	}
 
 	/**
-	 * Bit-by-bit extraction for Little-Endian to ensure LSB-first accuracy.
+	 * Bit-by-bit extraction for Little-Endian to ensure LSB-first accuracy (buffers longer than 16 bytes).
 	 */
 	private long readLittleEndian(int from, int to) {
 		long value = 0;
@@ -50,6 +50,70 @@ public final class Identification {
 		return result;
 	}
 
+	/**
+	 * The callsign cache has 2^CALLSIGN_CACHE_BITS entries
+	 */
+	private static final int CALLSIGN_CACHE_BITS = 14;
+
+	/**
+	 * Direct-mapped cache from packed identification fields to decoded callsigns. Colliding entries simply replace
+	 * each other, so the cache never grows. Entries are immutable, so concurrent readers either see a complete entry
+	 * or miss.
+	 */
+	private static final CallsignEntry[] CALLSIGN_CACHE = new CallsignEntry[1 << CALLSIGN_CACHE_BITS];
+
+	private static final class CallsignEntry {
+		final long identification;
+		final String callsign;
+
+		CallsignEntry(long identification, String callsign) {
+			this.identification = identification;
+			this.callsign = callsign;
+		}
+	}
+
+	/**
+	 * Extracts the eight 6 bit characters of an identification message (ME bits 9-56) at once.
+	 * @param msg the ME field of an identification message or the Comm-B message of BDS 2,0
+	 * @return the 48 bit character field; the first character is in the most significant bits
+	 */
+	public static long extractIdentification(byte[] msg) {
+		return (msg[1] & 0xFFL) << 40 | (msg[2] & 0xFFL) << 32 | (msg[3] & 0xFFL) << 24 |
+				(msg[4] & 0xFFL) << 16 | (msg[5] & 0xFFL) << 8 | (msg[6] & 0xFFL);
+	}
+
+	/**
+	 * Decodes a packed identification field to the callsign. Callsigns are cached, i.e. repeatedly
+	 * decoding the same callsign does not allocate and returns the same instance in most cases.
+	 * @param identification the 48 bit character field as returned by {@link #extractIdentification(byte[])}
+	 * @return the call sign with 8 characters (including trailing spaces)
+	 */
+	public static String decodeCallsign(long identification) {
+		int idx = (int) ((identification * 0x9E3779B97F4A7C15L) >>> (64 - CALLSIGN_CACHE_BITS));
+		CallsignEntry entry = CALLSIGN_CACHE[idx];
+		if (entry != null && entry.identification == identification)
+			return entry.callsign;
+
+		char[] chars = new char[8];
+		for (int i = 0; i < 8; i++)
+			chars[i] = mapChar((byte) ((identification >>> (42 - 6 * i)) & 0x3F));
+
+		String callsign = new String(chars);
+		CALLSIGN_CACHE[idx] = new CallsignEntry(identification, callsign);
+		return callsign;
+	}
+
+	/**
+	 * @param identification the 48 bit character field as returned by {@link #extractIdentification(byte[])}
+	 * @return the eight encoded characters as in {@link #decodeAircraftIdentification(byte[])}
+	 */
+	public static byte[] unpackIdentification(long identification) {
+		byte[] identity = new byte[8];
+		for (int i = 0; i < 8; i++)
+			identity[i] = (byte) ((identification >>> (42 - 6 * i)) & 0x3F);
+		return identity;
+	}
+
 	public static byte[] decodeAircraftIdentification(byte[] msg) {
 		byte[] identity = new byte[8];
 
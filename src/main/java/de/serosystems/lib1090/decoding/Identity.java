@@ -26,6 +26,23 @@ public final class Identity {
 
 	private Identity() {}
 
+	// 13 bit identity codes mapped to their 12 bit octal representation
+	private static final short[] MODE_A_OCTAL = new short[1 << 13];
+	// 13 bit identity codes mapped to the Mode A code with the octal digits as decimal digits (e.g. 7700)
+	private static final short[] MODE_A_CODES = new short[1 << 13];
+	// one canonical string for each of the 4096 Mode A codes, indexed by the 12 bit octal value
+	private static final String[] MODE_A_STRINGS = new String[1 << 12];
+
+	static {
+		for (int octal = 0; octal < MODE_A_STRINGS.length; octal++)
+			MODE_A_STRINGS[octal] = String.format("%04o", octal).intern();
+
+		for (int identity = 0; identity < MODE_A_CODES.length; identity++) {
+			MODE_A_OCTAL[identity] = (short) toOctal(identity);
+			MODE_A_CODES[identity] = Short.parseShort(MODE_A_STRINGS[MODE_A_OCTAL[identity]]);
+		}
+	}
+
 	/**
 	 * @return The identity/Mode A code (see ICAO Annex 10 V4).
 	 * Special codes are<br>
@@ -35,8 +52,26 @@ public final class Identity {
 	 * <li> 7500 indicates unlawful interference</li>
 	 * <li> 2000 indicates that transponder is not yet operated</li>
 	 * </ul>
+	 * The same string instance is returned for each code.
 	 */
 	public static String decodeIdentity(short identity) {
+		return MODE_A_STRINGS[MODE_A_OCTAL[identity & 0x1FFF]];
+	}
+
+	/**
+	 * Same as {@link #decodeIdentity(short)} but without string handling.
+	 * @return The identity/Mode A code (see ICAO Annex 10 V4) with its octal digits as
+	 * decimal digits, e.g. 7700 for emergency.
+	 */
+	public static int decodeIdentityInt(short identity) {
+		return MODE_A_CODES[identity & 0x1FFF];
+	}
+
+	/**
+	 * Rearranges the bits of the 13 bit identity code (C1 A1 C2 A2 C4 A4 X B1 D1 B2 D2 B4 D4)
+	 * into its 12 bit octal representation (A4 A2 A1 B4 B2 B1 C4 C2 C1 D4 D2 D1).
+	 */
+	private static int toOctal(int identity) {
 		int C1 = (0x1000&identity)>>>12;
 		int A1 = (0x800&identity)>>>11;
 		int C2 = (0x400&identity)>>>10;
@@ -51,11 +86,11 @@ public final class Identity {
 		int B4 = (0x002&identity)>>>1;
 		int D4 = (0x001&identity);
 
-		String A = Integer.toString((A4<<2)+(A2<<1)+A1);
-		String B = Integer.toString((B4<<2)+(B2<<1)+B1);
-		String C = Integer.toString((C4<<2)+(C2<<1)+C1);
-		String D = Integer.toString((D4<<2)+(D2<<1)+D1);
+		int A = (A4<<2)+(A2<<1)+A1;
+		int B = (B4<<2)+(B2<<1)+B1;
+		int C = (C4<<2)+(C2<<1)+C1;
+		int D = (D4<<2)+(D2<<1)+D1;
 
-		return A+B+C+D;
+		return A<<9 | B<<6 | C<<3 | D;
 	}
 }
@@ -0,0 +1,341 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.decoding;
+
+/**
+ * Stateless utility for Mode S frames packed into two primitive longs. This allows storing frames in {@code long[]}
+ * arrays, ring buffers or off-heap memory without an object per frame.
+ * <p>
+ * <b>Layout:</b> the high word holds frame bits 1-64 with bit 1 as its MSB. The low word holds frame bits 65-112
+ * in its upper 48 bits. Bit 0 (LSB) of the low word is set for 112 bit frames. 56 bit frames only use the upper
+ * 56 bits of the high word and have a low word of 0.
+ * <p>
+ * Bit positions in the documentation are 1-based frame bits as in ICAO Annex 10 (i.e. ME bit n is frame bit n+32).
+ * The accessors do not check whether a field is present in the respective downlink format/type code.
+ */
+public final class ModeSFrame {
+
+	private static final long LONG_FRAME = 1L;
+
+	private ModeSFrame() {}
+
+	// Packing
+	// -------
+
+	/**
+	 * @param frame 7 or 14 byte Mode S frame
+	 * @return the high word of the packed frame
+	 * @throws IllegalArgumentException if frame has neither 7 nor 14 bytes
+	 */
+	public static long packHigh(byte[] frame) {
+		checkLength(frame.length);
+		long high = 0;
+		for (int i = 0; i < 7; i++)
+			high |= (frame[i] & 0xFFL) << (56 - 8 * i);
+		if (frame.length == 14)
+			high |= frame[7] & 0xFFL;
+		return high;
+	}
+
+	/**
+	 * @param frame 7 or 14 byte Mode S frame
+	 * @return the low word of the packed frame
+	 * @throws IllegalArgumentException if frame has neither 7 nor 14 bytes
+	 */
+	public static long packLow(byte[] frame) {
+		checkLength(frame.length);
+		if (frame.length == 7)
+			return 0L;
+
+		long low = LONG_FRAME;
+		for (int i = 8; i < 14; i++)
+			low |= (frame[i] & 0xFFL) << (56 - 8 * (i - 8));
+		return low;
+	}
+
+	/**
+	 * Packs a frame into two consecutive elements of an array
+	 * @param frame 7 or 14 byte Mode S frame
+	 * @param dst destination array
+	 * @param offset index of the high word in dst; the low word is stored at offset+1
+	 * @throws IllegalArgumentException if frame has neither 7 nor 14 bytes
+	 */
+	public static void pack(byte[] frame, long[] dst, int offset) {
+		dst[offset] = packHigh(frame);
+		dst[offset + 1] = packLow(frame);
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return the frame as 7 or 14 byte array
+	 */
+	public static byte[] unpack(long high, long low) {
+		byte[] frame = new byte[isLong(low) ? 14 : 7];
+		for (int i = 0; i < frame.length && i < 8; i++)
+			frame[i] = (byte) (high >>> (56 - 8 * i));
+		for (int i = 8; i < frame.length; i++)
+			frame[i] = (byte) (low >>> (56 - 8 * (i - 8)));
+		return frame;
+	}
+
+	/**
+	 * @param low low word of the packed frame
+	 * @return true if the frame has 112 bits, false for 56 bit frames
+	 */
+	public static boolean isLong(long low) {
+		return (low & LONG_FRAME) != 0;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return a 64 bit hash of the frame, e.g. for deduplication
+	 */
+	public static long fingerprint(long high, long low) {
+		return mix(mix(high) ^ low);
+	}
+
+	/**
+	 * Generic extraction of a bit range.
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @param from first frame bit (1-based, inclusive)
+	 * @param to last frame bit (inclusive), at most 64 bits after from
+	 * @return the bits as unsigned value
+	 */
+	public static long bits(long high, long low, int from, int to) {
+		int start = from - 1;
+		long window; // 64 bits starting at start, left-aligned
+		if (start == 0) window = high;
+		else if (start < 64) window = high << start | low >>> (64 - start);
+		else window = low << (start - 64);
+		return window >>> (64 - (to - from + 1));
+	}
+
+	// Mode S fields
+	// -------------
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return downlink format (bits 1-5)
+	 */
+	public static int downlinkFormat(long high) {
+		return (int) (high >>> 59);
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return the 3 bits following the downlink format (bits 6-8), i.e. CA, CF, AF, FS or VS/SL
+	 */
+	public static int firstField(long high) {
+		return (int) (high >>> 56) & 0x7;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return address announced (AA, bits 9-32) of DF 11, 17, 18 and 19
+	 */
+	public static int announcedAddress(long high) {
+		return (int) (high >>> 32) & 0xFFFFFF;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return the 24 bit parity field (AP or PI) at the end of the frame
+	 */
+	public static int parity(long high, long low) {
+		return isLong(low) ? (int) (low >>> 16) & 0xFFFFFF : (int) (high >>> 8) & 0xFFFFFF;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return the 13 bit altitude code (AC, bits 20-32) of DF 0, 4, 16 and 20
+	 */
+	public static short altitudeCode(long high) {
+		return (short) ((high >>> 32) & 0x1FFF);
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return the 13 bit identity code (ID, bits 20-32) of DF 5 and 21
+	 */
+	public static short identityCode(long high) {
+		return (short) ((high >>> 32) & 0x1FFF);
+	}
+
+	// Extended squitter fields
+	// ------------------------
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return the 56 bit ME field (bits 33-88)
+	 */
+	public static long me(long high, long low) {
+		return (high & 0xFFFFFFFFL) << 24 | low >>> 40;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return format type code (ME bits 1-5)
+	 */
+	public static int typeCode(long high) {
+		return (int) (high >>> 27) & 0x1F;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return subtype (ME bits 6-8), e.g. of velocity or operational status messages
+	 */
+	public static int meSubtype(long high) {
+		return (int) (high >>> 24) & 0x7;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return 12 bit altitude code of airborne position messages (ME bits 9-20)
+	 */
+	public static short airborneAltitudeCode(long high) {
+		return (short) ((high >>> 12) & 0xFFF);
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return true if the CPR format flag (ME bit 22) indicates odd format
+	 */
+	public static boolean cprOddFormat(long high) {
+		return (high >>> 10 & 1) == 1;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return 17 bit CPR encoded latitude (ME bits 23-39)
+	 */
+	public static int cprLatitude(long high, long low) {
+		return (int) ((high & 0x3FF) << 7 | low >>> 57);
+	}
+
+	/**
+	 * @param low low word of the packed frame
+	 * @return 17 bit CPR encoded longitude (ME bits 40-56)
+	 */
+	public static int cprLongitude(long low) {
+		return (int) (low >>> 40) & 0x1FFFF;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return true if the east-west velocity is directed west (ME bit 14 of velocity messages)
+	 */
+	public static boolean velocityWest(long high) {
+		return (high >>> 18 & 1) == 1;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return raw 10 bit east-west velocity (ME bits 15-24), 0 means not available
+	 */
+	public static int velocityEastWest(long high) {
+		return (int) (high >>> 8) & 0x3FF;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @return true if the north-south velocity is directed south (ME bit 25 of velocity messages)
+	 */
+	public static boolean velocitySouth(long high) {
+		return (high >>> 7 & 1) == 1;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return raw 10 bit north-south velocity (ME bits 26-35), 0 means not available
+	 */
+	public static int velocityNorthSouth(long high, long low) {
+		return (int) ((high & 0x7F) << 3 | low >>> 61);
+	}
+
+	/**
+	 * @param low low word of the packed frame
+	 * @return true if the vertical rate is geometric, false if barometric (ME bit 36 of velocity messages)
+	 */
+	public static boolean verticalRateGeometric(long low) {
+		return (low >>> 60 & 1) == 0;
+	}
+
+	/**
+	 * @param low low word of the packed frame
+	 * @return true if the vertical rate is directed down (ME bit 37 of velocity messages)
+	 */
+	public static boolean verticalRateDown(long low) {
+		return (low >>> 59 & 1) == 1;
+	}
+
+	/**
+	 * @param low low word of the packed frame
+	 * @return raw 9 bit vertical rate (ME bits 38-46), 0 means not available
+	 */
+	public static int verticalRate(long low) {
+		return (int) (low >>> 50) & 0x1FF;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @return the eight 6 bit identification characters (ME bits 9-56), compatible with
+	 *         {@link Identification#extractIdentification(byte[])} and {@link Identification#decodeCallsign(long)}
+	 */
+	public static long identification(long high, long low) {
+		return (high & 0xFFFFFF) << 24 | low >>> 40;
+	}
+
+	/**
+	 * @param high high word of the packed frame
+	 * @param low low word of the packed frame
+	 * @param index index of the character (0-7)
+	 * @return the 6 bit encoded character, see {@link Identification#mapChar(byte)}
+	 */
+	public static byte identificationChar(long high, long low, int index) {
+		return (byte) (identification(high, low) >>> (42 - 6 * index) & 0x3F);
+	}
+
+	// Helpers
+	// -------
+
+	private static void checkLength(int length) {
+		if (length != 7 && length != 14)
+			throw new IllegalArgumentException("Mode S frames have 7 or 14 bytes.");
+	}
+
+	/**
+	 * Finalization step of MurmurHash3 (64 bit)
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
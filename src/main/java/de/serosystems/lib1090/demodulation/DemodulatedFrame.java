@@ -0,0 +1,159 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+
+import java.util.Arrays;
+
+/**
+ * A frame found by the {@link PPMDemodulator} with its position in the sample stream, signal level and per-bit
+ * confidence. Instances passed to a {@link PPMDemodulator.FrameListener} are reused, use {@link #copy()} to keep
+ * them.
+ */
+public class DemodulatedFrame {
+
+	final byte[] frame = new byte[14];
+	final byte[] confidence = new byte[112];
+	int length;
+	// position of the preamble start in 1/phases of a sample
+	long position;
+	int phases;
+	int sampleRate;
+	int signal;
+	int noise;
+	int corrected;
+
+	DemodulatedFrame() {}
+
+	/**
+	 * @return length of the frame in bytes (7 or 14)
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return a copy of the frame, ready for {@link ModeSDownlinkMsg#ModeSDownlinkMsg(byte[])}
+	 */
+	public byte[] getFrame() {
+		return Arrays.copyOf(frame, length);
+	}
+
+	/**
+	 * @param bit index of the bit (0 is the most significant bit of the first byte)
+	 * @return confidence of the bit decision from 0 (both halves of the bit had the same energy) to 255 (the
+	 * difference was at least as large as expected from the signal level of the preamble)
+	 */
+	public int getConfidence(int bit) {
+		if (bit < 0 || bit >= length * 8)
+			throw new IndexOutOfBoundsException("Bit " + bit + " is not part of the frame");
+		return confidence[bit] & 0xFF;
+	}
+
+	/**
+	 * @return the lowest confidence of all bits (before error correction)
+	 */
+	public int getMinConfidence() {
+		int min = 255;
+		for (int i = 0; i < length * 8; i++)
+			min = Math.min(min, confidence[i] & 0xFF);
+		return min;
+	}
+
+	/**
+	 * @return index of the sample at which the preamble starts
+	 */
+	public long getSample() {
+		return position / phases;
+	}
+
+	/**
+	 * @return time of the start of the preamble in nanoseconds after the first sample (with sub-sample resolution)
+	 */
+	public long getNanos() {
+		return Math.round(position * (1e9 / sampleRate / phases));
+	}
+
+	/**
+	 * @return mean magnitude of the preamble pulses
+	 */
+	public int getSignalLevel() {
+		return signal;
+	}
+
+	/**
+	 * @return mean magnitude between the preamble pulses
+	 */
+	public int getNoiseLevel() {
+		return noise;
+	}
+
+	/**
+	 * @return number of bits which have been corrected to obtain a valid parity
+	 */
+	public int getCorrectedBits() {
+		return corrected;
+	}
+
+	/**
+	 * @return the frame as Mode S downlink message for further decoding
+	 * @throws BadFormatException     if the frame is malformed
+	 * @throws UnspecifiedFormatError if the format is not specified
+	 */
+	public ModeSDownlinkMsg toMessage() throws BadFormatException, UnspecifiedFormatError {
+		return new ModeSDownlinkMsg(getFrame());
+	}
+
+	/**
+	 * @return an independent copy of this frame
+	 */
+	public DemodulatedFrame copy() {
+		DemodulatedFrame copy = new DemodulatedFrame();
+		copy.set(this);
+		return copy;
+	}
+
+	void set(DemodulatedFrame other) {
+		System.arraycopy(other.frame, 0, frame, 0, frame.length);
+		System.arraycopy(other.confidence, 0, confidence, 0, confidence.length);
+		length = other.length;
+		position = other.position;
+		phases = other.phases;
+		sampleRate = other.sampleRate;
+		signal = other.signal;
+		noise = other.noise;
+		corrected = other.corrected;
+	}
+
+	@Override
+	public String toString() {
+		return "DemodulatedFrame{" +
+				"frame=" + Tools.toHexString(getFrame()) +
+				", sample=" + getSample() +
+				", signal=" + signal +
+				", noise=" + noise +
+				", corrected=" + corrected +
+				'}';
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+/**
+ * Converts recorded samples to the 16 bit unsigned magnitudes processed by {@link PPMDemodulator}.
+ * Magnitudes are stored in char arrays (unsigned 16 bit).
+ */
+public final class Magnitude {
+
+	// magnitude of all combinations of 8 bit I (high byte) and Q (low byte)
+	private static final char[] IQ_MAGNITUDE = new char[1 << 16];
+
+	static {
+		// full scale (127.5 * sqrt(2)) maps to 65535
+		double scale = 65535. / Math.hypot(127.5, 127.5);
+		for (int i = 0; i < 256; i++)
+			for (int q = 0; q < 256; q++)
+				IQ_MAGNITUDE[i << 8 | q] = (char) Math.round(Math.hypot(i - 127.5, q - 127.5) * scale);
+	}
+
+	private Magnitude() {}
+
+	/**
+	 * Converts interleaved unsigned 8 bit IQ samples (as written by rtl_sdr) to magnitudes.
+	 *
+	 * @param iq      buffer with I and Q bytes
+	 * @param off     offset of the first I byte
+	 * @param samples number of samples (IQ pairs)
+	 * @param mag     magnitude buffer
+	 * @param magOff  offset of the first magnitude
+	 */
+	public static void fromIQ8(byte[] iq, int off, int samples, char[] mag, int magOff) {
+		for (int i = 0; i < samples; i++)
+			mag[magOff + i] = IQ_MAGNITUDE[(iq[off + 2 * i] & 0xFF) << 8 | iq[off + 2 * i + 1] & 0xFF];
+	}
+
+	/**
+	 * Converts unsigned 16 bit little-endian magnitude samples to magnitudes.
+	 *
+	 * @param in      buffer with two bytes per sample
+	 * @param off     offset of the first byte
+	 * @param samples number of samples
+	 * @param mag     magnitude buffer
+	 * @param magOff  offset of the first magnitude
+	 */
+	public static void fromU16LE(byte[] in, int off, int samples, char[] mag, int magOff) {
+		for (int i = 0; i < samples; i++)
+			mag[magOff + i] = (char) ((in[off + 2 * i] & 0xFF) | (in[off + 2 * i + 1] & 0xFF) << 8);
+	}
+
+	/**
+	 * @param i I byte of an unsigned 8 bit IQ sample
+	 * @param q Q byte of the sample
+	 * @return the magnitude of the sample
+	 */
+	public static char ofIQ8(int i, int q) {
+		return IQ_MAGNITUDE[(i & 0xFF) << 8 | q & 0xFF];
+	}
+}
@@ -0,0 +1,519 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+
+/**
+ * Demodulates the pulse position modulation of Mode S downlink frames from magnitude samples.<br>
+ * <br>
+ * The demodulator works on sub-sample phases: a candidate frame starts at a sample plus a fraction of a sample
+ * (1/4 for sample rates which are a multiple of 2 MHz, 1/5 otherwise, e.g. 2.4 MHz). The energy of each half
+ * microsecond (preamble pulses and half bits) is obtained by integrating the magnitudes with precomputed integer
+ * weights for the phase, i.e. samples which straddle the boundary of two half bits contribute to both. Preambles
+ * are checked for the pulse to quiet ratio at all phases of samples which exceed three times the noise level, bits
+ * are decided by the sign of the energy difference between the two halves of the bit, after removing the energy
+ * that neighbouring bits contribute to straddling samples (decision feedback based on the preamble's pulse level).
+ * The ratio of this difference and the difference expected for the pulse level is the bit's confidence.<br>
+ * <br>
+ * Frames are validated by their parity. Extended squitters (DF 17/18) with a wrong parity are corrected by
+ * flipping up to {@link #setMaxCorrectedBits(int) one or two} of the least confident bits. Replies with address
+ * and parity overlaid (DF 0/4/5/16/20/21/24) are only passed if their address was seen in a valid all-call reply
+ * or extended squitter within the last minute, unless {@link #setAcceptUnknownAddresses(boolean)} is set.<br>
+ * <br>
+ * This class is not thread-safe, use one instance per thread.
+ */
+public class PPMDemodulator {
+
+	/**
+	 * Receives the demodulated frames.
+	 */
+	@FunctionalInterface
+	public interface FrameListener {
+		/**
+		 * @param frame the demodulated frame. The instance is reused after the method returned.
+		 */
+		void frame(DemodulatedFrame frame);
+	}
+
+	// minimum ratio of the mean magnitude of each preamble pulse and the mean magnitude between the pulses
+	private static final int MIN_PULSE_RATIO = 2;
+	// minimum ratio of the magnitude at the start of a preamble and the noise level
+	private static final int MIN_LEVEL_RATIO = 3;
+	// least confident bits which are considered for error correction
+	private static final int CORRECTION_CANDIDATES = 8;
+	// bits with at least half of the expected difference are never corrected and frames with only such bits are
+	// not demodulated at other phases
+	private static final int CONFIDENT = 128;
+	// time after which an address is removed from the known addresses
+	private static final long ADDRESS_TTL_SECONDS = 60;
+
+	// half microseconds of the preamble with pulses and without pulses (up to 7 us)
+	private static final int[] PULSES = {0, 2, 7, 9};
+	private static final int[] QUIET = {1, 3, 4, 5, 6, 10, 11, 12, 13};
+
+	private final int sampleRate;
+	// sub-sample phases, all positions are in units of 1/phases of a sample
+	private final int phases;
+	private final int halfBit;
+
+	// bit decision weights per phase: difference of the energy of both half bits
+	private final int[][] bitDiff;
+	// contribution of a pulse in the first half of the bit, the second half of the previous bit and the first
+	// half of the next bit to the difference per phase
+	private final long[] bitOwn;
+	private final long[] prevLeak;
+	private final long[] nextLeak;
+	// inverse norm of the difference weights per phase, i.e. the differences are comparable among phases
+	private final double[] bitScale;
+	// contribution of a pulse to its own preamble weights per phase, relates the preamble to the pulse level
+	private final long[] pulseSelf;
+	// preamble weights per phase
+	private final int[][][] pulse;
+	private final int[][] quiet;
+	private final int maxFrameSamples;
+
+	// syndromes of single bit errors in long frames
+	private final int[] syndromes = new int[112];
+	private final int[] candidates = new int[CORRECTION_CANDIDATES];
+
+	// known addresses (address + 1) and the position at which they were seen last
+	private final int[] addresses = new int[1 << 12];
+	private final long[] addressSeen = new long[1 << 12];
+	private final long addressTTL;
+
+	// frame which is demodulated and best matching frame at the current sample
+	private final DemodulatedFrame out = new DemodulatedFrame();
+	private final DemodulatedFrame best = new DemodulatedFrame();
+	private final int[] phaseOrder;
+	private final long[] phaseScore;
+	// sum of the energy of the four preamble pulses and of the quiet periods per phase
+	private final long[] phasePulses;
+	private final long[] phaseQuiet;
+
+	// sum of the scaled absolute differences of all bits, higher for phases which match the frame better
+	private double match;
+
+	private int maxCorrectedBits = 1;
+	private boolean acceptUnknownAddresses;
+
+	/**
+	 * @param sampleRate sample rate in Hz; must be a multiple of 400 kHz and at least 2 MHz, e.g. 2 MHz or 2.4 MHz
+	 */
+	public PPMDemodulator(int sampleRate) {
+		if (sampleRate < 2_000_000 || sampleRate % 400_000 != 0)
+			throw new IllegalArgumentException("Sample rate must be a multiple of 400 kHz and at least 2 MHz");
+
+		this.sampleRate = sampleRate;
+		this.phases = sampleRate % 2_000_000 == 0 ? 4 : 5;
+		// samples per half microsecond times phases
+		this.halfBit = (int) ((long) sampleRate * phases / 2_000_000);
+		this.addressTTL = ADDRESS_TTL_SECONDS * sampleRate * phases;
+
+		int bitSpan = (phases - 1 + 2 * halfBit + phases - 1) / phases;
+		bitDiff = new int[phases][bitSpan];
+		for (int r = 0; r < phases; r++) {
+			for (int j = 0; j < bitSpan; j++) {
+				int first = overlap(j * phases, (j + 1) * phases, r, r + halfBit);
+				int second = overlap(j * phases, (j + 1) * phases, r + halfBit, r + 2 * halfBit);
+				bitDiff[r][j] = first - second;
+			}
+		}
+
+		bitOwn = new long[phases];
+		bitScale = new double[phases];
+		prevLeak = new long[phases];
+		nextLeak = new long[phases];
+		for (int r = 0; r < phases; r++) {
+			for (int j = 0; j < bitSpan; j++) {
+				bitOwn[r] += bitDiff[r][j] * overlap(j * phases, (j + 1) * phases, r, r + halfBit);
+				bitScale[r] += bitDiff[r][j] * bitDiff[r][j];
+				prevLeak[r] += bitDiff[r][j] * overlap(j * phases, (j + 1) * phases, r - halfBit, r);
+				nextLeak[r] += bitDiff[r][j] * overlap(j * phases, (j + 1) * phases, r + 2 * halfBit, r + 3 * halfBit);
+			}
+			bitScale[r] = 1 / Math.sqrt(bitScale[r]);
+		}
+
+		int preambleSpan = (phases - 1 + 14 * halfBit + phases - 1) / phases;
+		pulse = new int[PULSES.length][phases][preambleSpan];
+		quiet = new int[phases][preambleSpan];
+		for (int f = 0; f < phases; f++) {
+			for (int j = 0; j < preambleSpan; j++) {
+				for (int p = 0; p < PULSES.length; p++)
+					pulse[p][f][j] = overlap(j * phases, (j + 1) * phases,
+							f + PULSES[p] * halfBit, f + (PULSES[p] + 1) * halfBit);
+				for (int q : QUIET)
+					quiet[f][j] += overlap(j * phases, (j + 1) * phases, f + q * halfBit, f + (q + 1) * halfBit);
+			}
+		}
+		pulseSelf = new long[phases];
+		for (int f = 0; f < phases; f++)
+			for (int j = 0; j < preambleSpan; j++)
+				pulseSelf[f] += (long) pulse[0][f][j] * pulse[0][f][j];
+
+		// preamble (16 half bits) and 112 bits
+		maxFrameSamples = (phases - 1 + 240 * halfBit) / phases + bitSpan + 1;
+
+		byte[] frame = new byte[14];
+		for (int bit = 0; bit < 112; bit++) {
+			if (bit < 88) {
+				frame[bit >>> 3] = (byte) (0x80 >>> (bit & 7));
+				syndromes[bit] = ModeSDownlinkMsg.calcParityInt(frame, 0, 11);
+				frame[bit >>> 3] = 0;
+			} else {
+				syndromes[bit] = 1 << (111 - bit);
+			}
+		}
+
+		phaseOrder = new int[phases];
+		phaseScore = new long[phases];
+		phasePulses = new long[phases];
+		phaseQuiet = new long[phases];
+		out.phases = phases;
+		out.sampleRate = sampleRate;
+	}
+
+	private static int overlap(int a0, int a1, int b0, int b1) {
+		return Math.max(0, Math.min(a1, b1) - Math.max(a0, b0));
+	}
+
+	/**
+	 * @param maxCorrectedBits maximum number of bits which are corrected in extended squitters (0, 1 or 2;
+	 *                         default: 1). Correcting two bits increases the number of frames, but also the
+	 *                         probability of passing a corrupted frame.
+	 */
+	public void setMaxCorrectedBits(int maxCorrectedBits) {
+		if (maxCorrectedBits < 0 || maxCorrectedBits > 2)
+			throw new IllegalArgumentException("At most two bits can be corrected");
+		this.maxCorrectedBits = maxCorrectedBits;
+	}
+
+	/**
+	 * @param acceptUnknownAddresses whether replies with address and parity overlaid are passed even if the
+	 *                               address has not been seen before (default: false)
+	 */
+	public void setAcceptUnknownAddresses(boolean acceptUnknownAddresses) {
+		this.acceptUnknownAddresses = acceptUnknownAddresses;
+	}
+
+	/**
+	 * @return sample rate in Hz
+	 */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return number of samples after the start of a preamble which are needed to demodulate a long frame
+	 */
+	public int getMaxFrameSamples() {
+		return maxFrameSamples;
+	}
+
+	/**
+	 * Demodulates all frames which start in the given range and end before the end of the range. Samples after a
+	 * frame are not searched for other frames.
+	 *
+	 * @param mag         magnitudes, see {@link Magnitude}
+	 * @param off         index of the first magnitude
+	 * @param length      number of magnitudes
+	 * @param firstSample index of the first magnitude in the sample stream, used for the positions of frames
+	 * @param listener    receives the frames
+	 * @return number of samples which have been searched for frames (at most length); when processing a stream,
+	 * the remaining samples must be passed again together with the following samples
+	 */
+	public int demodulate(char[] mag, int off, int length, long firstSample, FrameListener listener) {
+		int level = MIN_LEVEL_RATIO * noiseLevel(mag, off, length);
+
+		int last = off + length - maxFrameSamples;
+		int s = off;
+		for (; s <= last; s++) {
+			if (mag[s] < level && mag[s + 1] < level)
+				continue;
+
+			// a frame between two samples may also be valid at other phases or the next sample, keep the best
+			// matching phase unless all bits are confident
+			double bestScore = -1;
+			boolean confident = false;
+			int end = 0;
+			for (int t = s; t <= s + 1 && t <= last && (t == s || bestScore >= 0) && !confident; t++) {
+				int candidates = preamble(mag, t, level);
+				for (int c = 0; c < candidates && !confident; c++) {
+					int f = phaseOrder[c];
+					// the position is needed for the known addresses when validating
+					out.position = (firstSample + t - off) * phases + f;
+					int bits = bits(mag, t, f);
+					if (bits == 0) continue;
+
+					if (match > bestScore) {
+						confident = out.corrected == 0 && out.getMinConfidence() >= CONFIDENT;
+						bestScore = match;
+						best.set(out);
+						end = t + (f + (16 + 2 * bits) * halfBit) / phases;
+					}
+				}
+			}
+
+			if (bestScore >= 0) {
+				listener.frame(best);
+				// continue after the frame
+				s = end - 1;
+			}
+		}
+		return Math.max(0, Math.min(length, s - off));
+	}
+
+	/**
+	 * Estimates the noise level as the mean of all magnitudes below the mean magnitude, so that the estimate
+	 * is not affected much by the share of samples with signals.
+	 */
+	private static int noiseLevel(char[] mag, int off, int length) {
+		if (length <= 0) return 0;
+		long sum = 0;
+		for (int i = off; i < off + length; i++)
+			sum += mag[i];
+		int mean = (int) (sum / length);
+
+		long below = 0;
+		int count = 0;
+		for (int i = off; i < off + length; i++) {
+			int m = mag[i];
+			int low = m < mean ? 1 : 0;
+			below += m * low;
+			count += low;
+		}
+		return count == 0 ? mean : (int) (below / count);
+	}
+
+	/**
+	 * Checks the preamble at all phases of a sample and orders the phases which passed by their score.
+	 *
+	 * @return number of phases which passed
+	 */
+	private int preamble(char[] mag, int s, int level) {
+		int passed = 0;
+		int span = quiet[0].length;
+		for (int f = 0; f < phases; f++) {
+			long q = 0, p0 = 0, p1 = 0, p2 = 0, p3 = 0;
+			int[] qw = quiet[f], w0 = pulse[0][f], w1 = pulse[1][f], w2 = pulse[2][f], w3 = pulse[3][f];
+			for (int j = 0; j < span; j++) {
+				int m = mag[s + j];
+				q += qw[j] * m;
+				p0 += w0[j] * m;
+				p1 += w1[j] * m;
+				p2 += w2[j] * m;
+				p3 += w3[j] * m;
+			}
+
+			// mean of quiet periods times pulse length in units, compared with each pulse's energy
+			long quietLevel = q * MIN_PULSE_RATIO / QUIET.length;
+			long minPulse = Math.min(Math.min(p0, p1), Math.min(p2, p3));
+			if (minPulse <= quietLevel || (p0 + p1 + p2 + p3) < 4L * level * halfBit)
+				continue;
+
+			phasePulses[f] = p0 + p1 + p2 + p3;
+			phaseQuiet[f] = q;
+
+			// insert by score, i.e. pulse energy relative to the quiet energy
+			long score = (p0 + p1 + p2 + p3) * 1024 / (q + 1);
+			int i = passed++;
+			while (i > 0 && phaseScore[i - 1] < score) {
+				phaseScore[i] = phaseScore[i - 1];
+				phaseOrder[i] = phaseOrder[i - 1];
+				i--;
+			}
+			phaseScore[i] = score;
+			phaseOrder[i] = f;
+		}
+		return passed;
+	}
+
+	/**
+	 * Demodulates and validates the bits of a frame which starts at the given sample and phase.
+	 *
+	 * @return number of bits or 0 if the frame is not valid
+	 */
+	private int bits(char[] mag, int s, int f) {
+		long pulses = phasePulses[f], self = 4 * pulseSelf[f];
+		match = 0;
+		for (int i = 0; i < 5; i++)
+			bit(mag, s, f, i, pulses, self);
+		int bits = (out.frame[0] & 0xFF) >>> 3 >= 16 ? 112 : 56;
+		for (int i = 5; i < bits; i++)
+			bit(mag, s, f, i, pulses, self);
+
+		out.length = bits / 8;
+		out.corrected = 0;
+		out.signal = (int) (pulses / (4 * halfBit));
+		out.noise = (int) (phaseQuiet[f] / (QUIET.length * halfBit));
+		return validate() ? bits : 0;
+	}
+
+	/**
+	 * Decides a bit by the energy difference of its halves. If samples straddle the bit boundaries, the expected
+	 * energy of the previous bit's second half (known) and the next bit's first half (one half on average) is
+	 * removed from the difference using the pulse level of the preamble.
+	 */
+	private void bit(char[] mag, int s, int f, int i, long pulses, long self) {
+		int u = f + (16 + 2 * i) * halfBit;
+		int k = s + u / phases, r = u % phases;
+		int[] dw = bitDiff[r];
+		long d = 0;
+		for (int j = 0; j < dw.length; j++)
+			d += dw[j] * mag[k + j];
+		match += Math.abs(d) * bitScale[r];
+
+		// a zero has its pulse in the second half, the half microsecond before the first bit is quiet
+		boolean prevPulse = i > 0 && (out.frame[(i - 1) >>> 3] & 0x80 >>> ((i - 1) & 7)) == 0;
+		long leak = (prevPulse ? 2 * prevLeak[r] : 0) + nextLeak[r];
+		// difference scaled by 2 * self
+		d = 2 * d * self - pulses * leak;
+		long expected = 2 * bitOwn[r] * pulses;
+
+		int index = i >>> 3, mask = 0x80 >>> (i & 7);
+		if (d > 0) out.frame[index] |= mask;
+		else out.frame[index] &= ~mask;
+		out.confidence[i] = (byte) (expected <= 0 ? 0 : Math.min(255, Math.abs(d) * 255 / expected));
+	}
+
+	/**
+	 * Checks the parity and corrects extended squitters.
+	 */
+	private boolean validate() {
+		byte[] frame = out.frame;
+		int length = out.length;
+		int df = (frame[0] & 0xFF) >>> 3;
+		if (df >= 24) df = 24;
+		int parity = (frame[length - 3] & 0xFF) << 16 | (frame[length - 2] & 0xFF) << 8 | frame[length - 1] & 0xFF;
+		int syndrome = ModeSDownlinkMsg.calcParityInt(frame, 0, length - 3) ^ parity;
+
+		switch (df) {
+			case 11:
+				// parity may be overlaid with the interrogator identifier
+				if ((syndrome & ~0x7F) != 0) return false;
+				seen(address(frame));
+				return true;
+
+			case 17:
+			case 18:
+				if (syndrome != 0 && !correct(syndrome)) return false;
+				seen(address(frame));
+				return true;
+
+			case 19:
+				return syndrome == 0;
+
+			case 0:
+			case 4:
+			case 5:
+			case 16:
+			case 20:
+			case 21:
+			case 24:
+				return acceptUnknownAddresses || known(syndrome);
+
+			default:
+				return false;
+		}
+	}
+
+	private static int address(byte[] frame) {
+		return (frame[1] & 0xFF) << 16 | (frame[2] & 0xFF) << 8 | frame[3] & 0xFF;
+	}
+
+	/**
+	 * Flips one or two of the least confident bits (except the downlink format) if their syndrome matches. Bits
+	 * with at least half of the expected difference are never flipped.
+	 */
+	private boolean correct(int syndrome) {
+		if (maxCorrectedBits == 0) return false;
+
+		// select the least confident bits
+		int n = 0;
+		for (int i = 5; i < 112; i++) {
+			int c = out.confidence[i] & 0xFF;
+			if (c >= CONFIDENT) continue;
+			if (n == CORRECTION_CANDIDATES && c >= (out.confidence[candidates[n - 1]] & 0xFF)) continue;
+			int j = n < CORRECTION_CANDIDATES ? n++ : n - 1;
+			while (j > 0 && (out.confidence[candidates[j - 1]] & 0xFF) > c) {
+				candidates[j] = candidates[j - 1];
+				j--;
+			}
+			candidates[j] = i;
+		}
+
+		for (int a = 0; a < n; a++) {
+			if (syndromes[candidates[a]] == syndrome) {
+				flip(candidates[a]);
+				out.corrected = 1;
+				return true;
+			}
+		}
+		if (maxCorrectedBits < 2) return false;
+
+		for (int a = 0; a < n; a++) {
+			for (int b = a + 1; b < n; b++) {
+				if ((syndromes[candidates[a]] ^ syndromes[candidates[b]]) == syndrome) {
+					flip(candidates[a]);
+					flip(candidates[b]);
+					out.corrected = 2;
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void flip(int bit) {
+		out.frame[bit >>> 3] ^= (byte) (0x80 >>> (bit & 7));
+	}
+
+	private void seen(int address) {
+		int slot = slot(address);
+		addresses[slot] = address + 1;
+		addressSeen[slot] = out.position;
+	}
+
+	private boolean known(int address) {
+		int slot = slot(address);
+		return addresses[slot] == address + 1 && out.position - addressSeen[slot] <= addressTTL;
+	}
+
+	/**
+	 * @return the slot of the address or the slot to use for it (empty, expired or the first probed slot if all
+	 * probed slots are in use)
+	 */
+	private int slot(int address) {
+		int mask = addresses.length - 1;
+		int slot = (address * 0x9E3779B1) >>> 20 & mask;
+		int use = -1;
+		for (int probe = 0; probe < 16; probe++) {
+			int i = slot + probe & mask;
+			if (addresses[i] == address + 1) return i;
+			if (addresses[i] == 0 || out.position - addressSeen[i] > addressTTL) {
+				if (use < 0) use = i;
+				if (addresses[i] == 0) break;
+			} else if (use < 0 && probe == 15) {
+				use = slot;
+			}
+		}
+		return use;
+	}
+}
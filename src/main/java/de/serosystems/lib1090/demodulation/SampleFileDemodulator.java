@@ -0,0 +1,205 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Demodulates recorded sample files in chunks, optionally on multiple threads.<br>
+ * <br>
+ * The file is split into chunks of {@link #setChunkSamples(int) a fixed number of samples}. Each chunk is read
+ * together with the {@link PPMDemodulator#getMaxFrameSamples() length of a frame} before and after it, so frames
+ * which cross chunk boundaries are found in the chunk in which their preamble starts. Chunks are demodulated
+ * independently with a new {@link PPMDemodulator}, i.e. the noise level and the known addresses for replies with
+ * address and parity overlaid are determined per chunk. Consequently, the result only depends on the chunk size
+ * and not on the number of threads. Frames are passed to the listener in the order of the file on the calling
+ * thread.
+ */
+public class SampleFileDemodulator {
+
+	/**
+	 * Sample formats, both with two bytes per sample.
+	 */
+	public enum Format {
+		/** interleaved unsigned 8 bit I and Q (e.g. rtl_sdr) */
+		IQ_U8,
+		/** unsigned 16 bit little-endian magnitudes */
+		MAGNITUDE_U16LE
+	}
+
+	private static final int BYTES_PER_SAMPLE = 2;
+
+	private final Format format;
+	private final int sampleRate;
+	private final int maxFrameSamples;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int chunkSamples = 1 << 21;
+	private int maxCorrectedBits = 1;
+	private boolean acceptUnknownAddresses;
+
+	/**
+	 * @param format     format of the samples
+	 * @param sampleRate sample rate in Hz, see {@link PPMDemodulator#PPMDemodulator(int)}
+	 */
+	public SampleFileDemodulator(Format format, int sampleRate) {
+		if (format == null)
+			throw new IllegalArgumentException("Format must not be null");
+		this.format = format;
+		this.sampleRate = sampleRate;
+		this.maxFrameSamples = new PPMDemodulator(sampleRate).getMaxFrameSamples();
+	}
+
+	/**
+	 * @param threads number of threads used for demodulation (default: number of available processors)
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one thread is required");
+		this.threads = threads;
+	}
+
+	/**
+	 * @param chunkSamples number of samples per chunk (default: 2^21, about one second at 2 MHz). Must be larger
+	 *                     than the length of a frame.
+	 */
+	public void setChunkSamples(int chunkSamples) {
+		if (chunkSamples <= maxFrameSamples)
+			throw new IllegalArgumentException("Chunks must be longer than " + maxFrameSamples + " samples");
+		this.chunkSamples = chunkSamples;
+	}
+
+	/**
+	 * @param maxCorrectedBits see {@link PPMDemodulator#setMaxCorrectedBits(int)}
+	 */
+	public void setMaxCorrectedBits(int maxCorrectedBits) {
+		if (maxCorrectedBits < 0 || maxCorrectedBits > 2)
+			throw new IllegalArgumentException("At most two bits can be corrected");
+		this.maxCorrectedBits = maxCorrectedBits;
+	}
+
+	/**
+	 * @param acceptUnknownAddresses see {@link PPMDemodulator#setAcceptUnknownAddresses(boolean)}
+	 */
+	public void setAcceptUnknownAddresses(boolean acceptUnknownAddresses) {
+		this.acceptUnknownAddresses = acceptUnknownAddresses;
+	}
+
+	/**
+	 * Demodulates all frames of a file.
+	 *
+	 * @param file     the sample file
+	 * @param listener receives the frames in the order of the file; frames are copies and can be kept
+	 * @return number of samples in the file
+	 * @throws IOException          if the file cannot be read
+	 * @throws InterruptedException if the calling thread was interrupted while waiting for a chunk
+	 */
+	public long demodulate(File file, PPMDemodulator.FrameListener listener) throws IOException, InterruptedException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long samples = channel.size() / BYTES_PER_SAMPLE;
+			long chunks = (samples + chunkSamples - 1) / chunkSamples;
+
+			if (threads == 1) {
+				for (long c = 0; c < chunks; c++)
+					emit(demodulateChunk(channel, c * chunkSamples, samples), listener);
+				return samples;
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, "lib1090-demodulator");
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				// bounded window of pending chunks to limit memory
+				ArrayDeque<Future<List<DemodulatedFrame>>> pending = new ArrayDeque<>();
+				long next = 0;
+				while (next < chunks || !pending.isEmpty()) {
+					while (next < chunks && pending.size() < 2 * threads) {
+						long start = next++ * chunkSamples;
+						pending.add(executor.submit(() -> demodulateChunk(channel, start, samples)));
+					}
+					emit(pending.poll().get(), listener);
+				}
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+			return samples;
+		}
+	}
+
+	private static void emit(List<DemodulatedFrame> frames, PPMDemodulator.FrameListener listener) {
+		for (DemodulatedFrame frame : frames)
+			listener.frame(frame);
+	}
+
+	/**
+	 * Demodulates the frames with a preamble in [start, start + chunkSamples).
+	 */
+	private List<DemodulatedFrame> demodulateChunk(FileChannel channel, long start, long samples) throws IOException {
+		long end = Math.min(start + chunkSamples, samples);
+		long first = Math.max(0, start - maxFrameSamples);
+		long last = Math.min(samples, end + maxFrameSamples);
+		int count = (int) (last - first);
+
+		ByteBuffer buffer = ByteBuffer.allocate(count * BYTES_PER_SAMPLE);
+		long position = first * BYTES_PER_SAMPLE;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0)
+				throw new IOException("Unexpected end of file");
+		}
+
+		char[] mag = new char[count];
+		if (format == Format.IQ_U8)
+			Magnitude.fromIQ8(buffer.array(), 0, count, mag, 0);
+		else
+			Magnitude.fromU16LE(buffer.array(), 0, count, mag, 0);
+
+		PPMDemodulator demodulator = new PPMDemodulator(sampleRate);
+		demodulator.setMaxCorrectedBits(maxCorrectedBits);
+		demodulator.setAcceptUnknownAddresses(acceptUnknownAddresses);
+
+		List<DemodulatedFrame> frames = new ArrayList<>();
+		demodulator.demodulate(mag, 0, count, first, frame -> {
+			long sample = frame.getSample();
+			if (sample >= start && sample < end)
+				frames.add(frame.copy());
+		});
+		return frames;
+	}
+}
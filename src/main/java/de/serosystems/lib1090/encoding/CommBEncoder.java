@@ -0,0 +1,181 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import static de.serosystems.lib1090.encoding.ExtendedSquitterEncoder.clamp;
+import static de.serosystems.lib1090.encoding.ExtendedSquitterEncoder.field;
+import static de.serosystems.lib1090.encoding.ExtendedSquitterEncoder.flag;
+import static de.serosystems.lib1090.encoding.ModeSEncoder.UNAVAILABLE;
+
+/**
+ * Stateless encoder for the 56 bit MB field of Comm-B replies with the registers supported by
+ * {@link de.serosystems.lib1090.msgs.bds}. The field is returned as primitive long (MB bit 1 is bit 55 of the long)
+ * and can be written with {@link ModeSEncoder#commBAltitudeReply(byte[], int, int, int, int, short, long, int)} or
+ * {@link ModeSEncoder#commBIdentifyReply(byte[], int, int, int, int, short, long, int)}.
+ * <p>
+ * Physical values are rounded to the resolution of the respective field and clamped to its range. Values which are
+ * not available (status bit cleared) are passed as {@link ModeSEncoder#UNAVAILABLE} or {@link Double#NaN}.
+ */
+public final class CommBEncoder {
+
+	// BDS registers in the order of the capability bits of BDS 1,7 (MB bits 1-28), 0 for unassigned bits
+	private static final int[] GICB_REGISTERS = {
+			0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x20, 0x21,
+			0x40, 0x41, 0x42, 0x43, 0x44, 0x45, 0x48, 0x50,
+			0x51, 0x52, 0x53, 0x54, 0x55, 0x56, 0x5F, 0x60,
+			0, 0, 0xE1, 0xE2, 0xF1
+	};
+
+	private CommBEncoder() {}
+
+	/**
+	 * BDS 1,0 data link capability report
+	 * @param capabilities the capability subfields (MB bits 9-56) as defined in Annex 10 V3 Table A-2-16
+	 * @return the MB field
+	 */
+	public static long dataLinkCapability(long capabilities) {
+		return field(0x10, 1, 8) | capabilities & 0xFFFFFFFFFFFFL;
+	}
+
+	/**
+	 * BDS 1,7 common usage GICB capability report. Combine registers by OR-ing the results.
+	 * @param register a BDS register which is announced as supported, e.g. 0x40 for BDS 4,0
+	 * @return the MB field with the capability bit of the register set
+	 * @throws IllegalArgumentException if the register is not part of the report
+	 */
+	public static long commonUsageGICBCapability(int register) {
+		for (int i = 0; i < GICB_REGISTERS.length; i++)
+			if (GICB_REGISTERS[i] == register && register != 0)
+				return flag(true, i + 1);
+		throw new IllegalArgumentException("BDS register " + Integer.toHexString(register) +
+				" is not part of the GICB capability report.");
+	}
+
+	/**
+	 * BDS 2,0 aircraft identification
+	 * @param identification the 48 bit character field, see {@link ModeSEncoder#encodeIdentification(CharSequence)}
+	 * @return the MB field
+	 */
+	public static long aircraftIdentification(long identification) {
+		return field(0x20, 1, 8) | identification & 0xFFFFFFFFFFFFL;
+	}
+
+	/**
+	 * BDS 3,0 ACAS active resolution advisory. Fields are passed as raw codes as defined in Annex 10 V4 4.3.8.4.2.2.
+	 * @param activeRA active resolution advisories (14 bits)
+	 * @param racRecord resolution advisory complements record (4 bits)
+	 * @param raTerminated whether the RA has been terminated
+	 * @param multipleThreats whether there are multiple threats
+	 * @param threatType threat type indicator (2 bits)
+	 * @param threatIdentity threat identity data (26 bits)
+	 * @return the MB field
+	 */
+	public static long acasResolutionAdvisory(int activeRA, int racRecord, boolean raTerminated,
+											  boolean multipleThreats, int threatType, int threatIdentity) {
+		return field(0x30, 1, 8) | field(activeRA, 9, 22) | field(racRecord, 23, 26) | flag(raTerminated, 27) |
+				flag(multipleThreats, 28) | field(threatType, 29, 30) | field(threatIdentity, 31, 56);
+	}
+
+	/**
+	 * BDS 4,0 selected vertical intention
+	 * @param mcpAltitude MCP/FCU selected altitude in feet (16 ft resolution) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param fmsAltitude FMS selected altitude in feet (16 ft resolution) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param baroPressureSetting barometric pressure setting in millibars (0.1 mb resolution) or NaN
+	 * @param modesValid whether the status of the MCP/FCU modes (VNAV to approach) is valid
+	 * @param vnav whether VNAV mode is engaged
+	 * @param altitudeHold whether altitude hold mode is active
+	 * @param approach whether approach mode is active
+	 * @param targetAltitudeSource target altitude source (2 bits) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @return the MB field
+	 */
+	public static long selectedVerticalIntention(int mcpAltitude, int fmsAltitude, double baroPressureSetting,
+												 boolean modesValid, boolean vnav, boolean altitudeHold,
+												 boolean approach, int targetAltitudeSource) {
+		long mb = flag(modesValid, 48);
+		if (mcpAltitude != UNAVAILABLE)
+			mb |= flag(true, 1) | field(clamp((mcpAltitude + 8) >> 4, 0, 0xFFF), 2, 13);
+		if (fmsAltitude != UNAVAILABLE)
+			mb |= flag(true, 14) | field(clamp((fmsAltitude + 8) >> 4, 0, 0xFFF), 15, 26);
+		if (!Double.isNaN(baroPressureSetting))
+			mb |= flag(true, 27) | field(clamp((int) Math.floor((baroPressureSetting - 800) * 10 + .5), 0, 0xFFF), 28, 39);
+		if (modesValid)
+			mb |= flag(vnav, 49) | flag(altitudeHold, 50) | flag(approach, 51);
+		if (targetAltitudeSource != UNAVAILABLE)
+			mb |= flag(true, 54) | field(targetAltitudeSource, 55, 56);
+		return mb;
+	}
+
+	/**
+	 * BDS 5,0 track and turn report
+	 * @param rollAngle roll angle in degrees (negative for left wing down) or NaN
+	 * @param trueTrackAngle true track angle in degrees [-180, 180) or NaN
+	 * @param groundSpeed ground speed in knots (2 kt resolution) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param trackAngleRate track angle rate in degrees/second or NaN
+	 * @param trueAirspeed true airspeed in knots (2 kt resolution) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @return the MB field
+	 */
+	public static long trackAndTurn(double rollAngle, double trueTrackAngle, int groundSpeed, double trackAngleRate,
+									int trueAirspeed) {
+		long mb = signed(rollAngle, 45. / 256, 1, 11) | signed(trueTrackAngle, 90. / 512, 12, 23) |
+				signed(trackAngleRate, 8. / 256, 35, 45);
+		if (groundSpeed != UNAVAILABLE)
+			mb |= flag(true, 24) | field(clamp((groundSpeed + 1) >> 1, 0, 0x3FF), 25, 34);
+		if (trueAirspeed != UNAVAILABLE)
+			mb |= flag(true, 46) | field(clamp((trueAirspeed + 1) >> 1, 0, 0x3FF), 47, 56);
+		return mb;
+	}
+
+	/**
+	 * BDS 6,0 heading and speed report
+	 * @param magneticHeading magnetic heading in degrees [-180, 180) or NaN
+	 * @param indicatedAirspeed indicated airspeed in knots or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param machNumber mach number or NaN
+	 * @param baroAltitudeRate barometric altitude rate in feet/minute (32 fpm resolution) or
+	 *                         {@link ModeSEncoder#UNAVAILABLE}
+	 * @param inertialVerticalRate inertial vertical rate in feet/minute (32 fpm resolution) or
+	 *                             {@link ModeSEncoder#UNAVAILABLE}
+	 * @return the MB field
+	 */
+	public static long headingAndSpeed(double magneticHeading, int indicatedAirspeed, double machNumber,
+									   int baroAltitudeRate, int inertialVerticalRate) {
+		long mb = signed(magneticHeading, 90. / 512, 1, 12) |
+				signed(baroAltitudeRate == UNAVAILABLE ? Double.NaN : baroAltitudeRate, 32, 35, 45) |
+				signed(inertialVerticalRate == UNAVAILABLE ? Double.NaN : inertialVerticalRate, 32, 46, 56);
+		if (indicatedAirspeed != UNAVAILABLE)
+			mb |= flag(true, 13) | field(clamp(indicatedAirspeed, 0, 0x3FF), 14, 23);
+		if (!Double.isNaN(machNumber))
+			mb |= flag(true, 24) | field(clamp((int) Math.floor(machNumber * 512 / 2.048 + .5), 0, 0x3FF), 25, 34);
+		return mb;
+	}
+
+	/**
+	 * Encodes a status bit followed by a sign bit and a value, i.e. a two's complement field
+	 * @param value the value or NaN if not available
+	 * @param lsb resolution of the field
+	 * @param from MB bit of the status bit
+	 * @param to last MB bit of the value
+	 */
+	private static long signed(double value, double lsb, int from, int to) {
+		if (Double.isNaN(value)) return 0L;
+		int half = 1 << (to - from - 1);
+		int scaled = clamp((int) Math.floor(value / lsb + .5), -half, half - 1);
+		return flag(true, from) | field(scaled, from + 1, to);
+	}
+}
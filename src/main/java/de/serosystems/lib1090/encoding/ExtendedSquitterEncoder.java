@@ -0,0 +1,416 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.cpr.CPREncoder;
+import de.serosystems.lib1090.decoding.SurfacePosition;
+
+import static de.serosystems.lib1090.encoding.ModeSEncoder.UNAVAILABLE;
+
+/**
+ * Stateless encoder for the 56 bit ME field of ADS-B extended squitters. The field is returned as primitive long
+ * (ME bit 1 is bit 55 of the long) and can be written with
+ * {@link ModeSEncoder#extendedSquitter(byte[], int, int, int, long)}.
+ * <p>
+ * Physical values are rounded to the resolution of the respective field and clamped to its range. Integer values
+ * which are not available are passed as {@link ModeSEncoder#UNAVAILABLE}, floating point values as {@link Double#NaN}.
+ * Categorical fields (e.g. NACp, SIL, capability classes) are passed as raw codes.
+ */
+public final class ExtendedSquitterEncoder {
+
+	// ground speeds of all movement codes with a speed (1-124), ascending
+	private static final double[] MOVEMENT_SPEEDS = new double[124];
+
+	static {
+		for (int movement = 1; movement <= 124; movement++)
+			MOVEMENT_SPEEDS[movement - 1] = SurfacePosition.groundSpeed((byte) movement);
+	}
+
+	private ExtendedSquitterEncoder() {}
+
+	// Messages
+	// --------
+
+	/**
+	 * Aircraft identification and category message (type codes 1-4)
+	 * @param typeCode emitter category set (1-4)
+	 * @param emitterCategory emitter category (3 bits)
+	 * @param identification the 48 bit character field, see {@link ModeSEncoder#encodeIdentification(CharSequence)}
+	 * @return the ME field
+	 */
+	public static long identification(int typeCode, int emitterCategory, long identification) {
+		return field(typeCode, 1, 5) | field(emitterCategory, 6, 8) | identification & 0xFFFFFFFFFFFFL;
+	}
+
+	/**
+	 * Airborne position message (type codes 9-18 and 20-22)
+	 * @param typeCode type code, determines NIC/NACp and whether the altitude is barometric or GNSS height
+	 * @param surveillanceStatus surveillance status (2 bits)
+	 * @param nicSupplementB NIC supplement B (version 1 and 2) or single antenna flag (version 0)
+	 * @param altitudeCode 12 bit altitude, see {@link ModeSEncoder#encode12BitAltitude(int)}
+	 * @param time whether the time of applicability is synchronized to UTC
+	 * @param isOdd whether the position has the odd CPR format
+	 * @param cpr CPR encoded position (17 bits), see {@link CPREncoder#encode(double, double, boolean, boolean)}
+	 * @return the ME field
+	 */
+	public static long airbornePosition(int typeCode, int surveillanceStatus, boolean nicSupplementB,
+										short altitudeCode, boolean time, boolean isOdd, long cpr) {
+		return field(typeCode, 1, 5) | field(surveillanceStatus, 6, 7) | flag(nicSupplementB, 8) |
+				field(altitudeCode, 9, 20) | flag(time, 21) | flag(isOdd, 22) | cpr & 0x3FFFFFFFFL;
+	}
+
+	/**
+	 * Airborne position message with barometric altitude, no surveillance status and unsynchronized time
+	 * @param typeCode type code (9-18)
+	 * @param altitude barometric altitude in feet or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param isOdd whether to use the odd CPR format
+	 * @param latitude latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @return the ME field
+	 */
+	public static long airbornePosition(int typeCode, int altitude, boolean isOdd, double latitude, double longitude) {
+		return airbornePosition(typeCode, 0, false, ModeSEncoder.encode12BitAltitude(altitude), false, isOdd,
+				CPREncoder.encode(latitude, longitude, isOdd, false));
+	}
+
+	/**
+	 * Surface position message (type codes 5-8)
+	 * @param typeCode type code, determines NIC/NACp
+	 * @param movement movement code (7 bits), see {@link #encodeMovement(double)}
+	 * @param groundTrack ground track code (7 bits), see {@link #encodeGroundTrack(double)}; not available if negative
+	 * @param time whether the time of applicability is synchronized to UTC
+	 * @param isOdd whether the position has the odd CPR format
+	 * @param cpr CPR encoded position (17 bits), see {@link CPREncoder#encode(double, double, boolean, boolean)}
+	 * @return the ME field
+	 */
+	public static long surfacePosition(int typeCode, int movement, int groundTrack, boolean time, boolean isOdd,
+									   long cpr) {
+		return field(typeCode, 1, 5) | field(movement, 6, 12) | flag(groundTrack >= 0, 13) |
+				field(Math.max(groundTrack, 0), 14, 20) | flag(time, 21) | flag(isOdd, 22) | cpr & 0x3FFFFFFFFL;
+	}
+
+	/**
+	 * Surface position message with unsynchronized time
+	 * @param typeCode type code (5-8)
+	 * @param groundSpeed ground speed in knots or NaN
+	 * @param groundTrack ground track in degrees or NaN
+	 * @param isOdd whether to use the odd CPR format
+	 * @param latitude latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @return the ME field
+	 */
+	public static long surfacePosition(int typeCode, double groundSpeed, double groundTrack, boolean isOdd,
+									   double latitude, double longitude) {
+		return surfacePosition(typeCode, encodeMovement(groundSpeed), encodeGroundTrack(groundTrack), false, isOdd,
+				CPREncoder.encode(latitude, longitude, isOdd, true));
+	}
+
+	/**
+	 * Airborne velocity message with velocity over ground (type code 19, subtype 1 or 2). The supersonic subtype 2
+	 * is used if a velocity component exceeds the range of subtype 1.
+	 * @param eastWest velocity from west to east in knots (negative if moving west) or
+	 *                 {@link ModeSEncoder#UNAVAILABLE}
+	 * @param northSouth velocity from south to north in knots (negative if moving south) or
+	 *                   {@link ModeSEncoder#UNAVAILABLE}
+	 * @param verticalRate vertical rate in feet/minute (negative if descending) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param baroVerticalRate whether the vertical rate is barometric rather than geometric
+	 * @param geoMinusBaro difference between geometric and barometric altitude in feet or
+	 *                     {@link ModeSEncoder#UNAVAILABLE}
+	 * @param nacV navigation accuracy category for velocity (3 bits)
+	 * @param intentChange intent change flag
+	 * @param ifrCapability IFR capability flag
+	 * @return the ME field
+	 */
+	public static long velocityOverGround(int eastWest, int northSouth, int verticalRate, boolean baroVerticalRate,
+										  int geoMinusBaro, int nacV, boolean intentChange, boolean ifrCapability) {
+		boolean available = eastWest != UNAVAILABLE && northSouth != UNAVAILABLE;
+		boolean supersonic = available && (Math.abs(eastWest) > 1021 || Math.abs(northSouth) > 1021);
+		int shift = supersonic ? 2 : 0;
+
+		long me = field(19, 1, 5) | field(supersonic ? 2 : 1, 6, 8) | flag(intentChange, 9) |
+				flag(ifrCapability, 10) | field(nacV, 11, 13) | verticalFields(verticalRate, baroVerticalRate, geoMinusBaro);
+		if (available) {
+			me |= flag(eastWest < 0, 14) | field(velocity(Math.abs(eastWest), shift), 15, 24) |
+					flag(northSouth < 0, 25) | field(velocity(Math.abs(northSouth), shift), 26, 35);
+		}
+		return me;
+	}
+
+	/**
+	 * Airborne velocity message with airspeed and heading (type code 19, subtype 3 or 4). The supersonic subtype 4
+	 * is used if the airspeed exceeds the range of subtype 3.
+	 * @param heading heading in degrees clockwise from magnetic north or NaN
+	 * @param airspeed airspeed in knots or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param trueAirspeed whether the airspeed is true rather than indicated airspeed
+	 * @param verticalRate vertical rate in feet/minute (negative if descending) or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param baroVerticalRate whether the vertical rate is barometric rather than geometric
+	 * @param geoMinusBaro difference between geometric and barometric altitude in feet or
+	 *                     {@link ModeSEncoder#UNAVAILABLE}
+	 * @param nacV navigation accuracy category for velocity (3 bits)
+	 * @param intentChange intent change flag
+	 * @param ifrCapability IFR capability flag
+	 * @return the ME field
+	 */
+	public static long airspeedHeading(double heading, int airspeed, boolean trueAirspeed, int verticalRate,
+									   boolean baroVerticalRate, int geoMinusBaro, int nacV, boolean intentChange,
+									   boolean ifrCapability) {
+		boolean supersonic = airspeed != UNAVAILABLE && airspeed > 1021;
+
+		long me = field(19, 1, 5) | field(supersonic ? 4 : 3, 6, 8) | flag(intentChange, 9) |
+				flag(ifrCapability, 10) | field(nacV, 11, 13) | flag(trueAirspeed, 25) |
+				verticalFields(verticalRate, baroVerticalRate, geoMinusBaro);
+		if (!Double.isNaN(heading))
+			me |= flag(true, 14) | field(angle(heading, 1024), 15, 24);
+		if (airspeed != UNAVAILABLE)
+			me |= field(velocity(airspeed, supersonic ? 2 : 0), 26, 35);
+		return me;
+	}
+
+	/**
+	 * Operational status message of version 0 transponders (type code 31, subtype 0)
+	 * @param enrouteCapabilities en-route operational capabilities (6 bits)
+	 * @return the ME field
+	 */
+	public static long operationalStatusV0(int enrouteCapabilities) {
+		return field(31, 1, 5) | field(enrouteCapabilities & 0x3F, 9, 16);
+	}
+
+	/**
+	 * Airborne operational status message of version 1 or 2 (type code 31, subtype 0)
+	 * @param version ADS-B version (1 or 2)
+	 * @param capabilityClass capability class code (14 bits)
+	 * @param operationalMode operational mode code (14 bits)
+	 * @param nicSupplementA NIC supplement A
+	 * @param nacP navigation accuracy category for position (4 bits)
+	 * @param gva barometric altitude quality (version 1) or geometric vertical accuracy (version 2) (2 bits)
+	 * @param sil surveillance integrity level (2 bits)
+	 * @param nicBaro barometric altitude integrity code
+	 * @param horizontalReferenceDirection true for magnetic north, false for true north
+	 * @param silSupplement whether SIL is per sample rather than per hour (version 2 only)
+	 * @return the ME field
+	 */
+	public static long airborneOperationalStatus(int version, int capabilityClass, int operationalMode,
+												 boolean nicSupplementA, int nacP, int gva, int sil, boolean nicBaro,
+												 boolean horizontalReferenceDirection, boolean silSupplement) {
+		return field(31, 1, 5) | field(capabilityClass & 0x3FFF, 9, 24) | field(operationalMode & 0x3FFF, 25, 40) |
+				field(version, 41, 43) | flag(nicSupplementA, 44) | field(nacP, 45, 48) | field(gva, 49, 50) |
+				field(sil, 51, 52) | flag(nicBaro, 53) | flag(horizontalReferenceDirection, 54) |
+				flag(silSupplement, 55);
+	}
+
+	/**
+	 * Surface operational status message of version 1 or 2 (type code 31, subtype 1)
+	 * @param version ADS-B version (1 or 2)
+	 * @param capabilityClass capability class code (9 bits)
+	 * @param lengthWidth aircraft/vehicle length and width code (4 bits)
+	 * @param operationalMode operational mode code (14 bits)
+	 * @param nicSupplementA NIC supplement A
+	 * @param nacP navigation accuracy category for position (4 bits)
+	 * @param sil surveillance integrity level (2 bits)
+	 * @param trackHeading true if the surface position reports heading, false for track angle
+	 * @param horizontalReferenceDirection true for magnetic north, false for true north
+	 * @param silSupplement whether SIL is per sample rather than per hour (version 2 only)
+	 * @return the ME field
+	 */
+	public static long surfaceOperationalStatus(int version, int capabilityClass, int lengthWidth,
+												int operationalMode, boolean nicSupplementA, int nacP, int sil,
+												boolean trackHeading, boolean horizontalReferenceDirection,
+												boolean silSupplement) {
+		return field(31, 1, 5) | field(1, 6, 8) | field(capabilityClass & 0x1FF, 9, 20) |
+				field(lengthWidth, 21, 24) | field(operationalMode & 0x3FFF, 25, 40) | field(version, 41, 43) |
+				flag(nicSupplementA, 44) | field(nacP, 45, 48) | field(sil, 51, 52) | flag(trackHeading, 53) |
+				flag(horizontalReferenceDirection, 54) | flag(silSupplement, 55);
+	}
+
+	/**
+	 * Target state and status message of version 1 transponders (type code 29, subtype 0). Fields are passed as
+	 * raw codes as defined in DO-260A 2.2.3.2.7.1.
+	 * @param verticalDataSource vertical data available and source indicator (2 bits)
+	 * @param targetAltitudeType target altitude type
+	 * @param targetAltitudeCapability target altitude capability (2 bits)
+	 * @param verticalModeIndicator vertical mode indicator (2 bits)
+	 * @param targetAltitude target altitude in feet (100 ft resolution)
+	 * @param horizontalDataSource horizontal data available and source indicator (2 bits)
+	 * @param targetHeading target heading/track angle in degrees
+	 * @param isTrackAngle whether the target angle is a track angle rather than a heading
+	 * @param horizontalModeIndicator horizontal mode indicator (2 bits)
+	 * @param nacP navigation accuracy category for position (4 bits)
+	 * @param nicBaro barometric altitude integrity code
+	 * @param sil surveillance integrity level (2 bits)
+	 * @param tcasOperational whether TCAS/ACAS is operational
+	 * @param resolutionAdvisoryActive whether a TCAS/ACAS resolution advisory is active
+	 * @param emergencyPriorityStatus emergency/priority status (3 bits)
+	 * @return the ME field
+	 */
+	public static long targetStateAndStatusV1(int verticalDataSource, boolean targetAltitudeType,
+											  int targetAltitudeCapability, int verticalModeIndicator,
+											  int targetAltitude, int horizontalDataSource, double targetHeading,
+											  boolean isTrackAngle, int horizontalModeIndicator, int nacP,
+											  boolean nicBaro, int sil, boolean tcasOperational,
+											  boolean resolutionAdvisoryActive, int emergencyPriorityStatus) {
+		int altitude = clamp((int) Math.floor((targetAltitude + 1000) / 100. + .5), 0, 0x3FF);
+		return field(29, 1, 5) | field(verticalDataSource, 8, 9) | flag(targetAltitudeType, 10) |
+				field(targetAltitudeCapability, 12, 13) | field(verticalModeIndicator, 14, 15) |
+				field(altitude, 16, 25) | field(horizontalDataSource, 26, 27) |
+				field(angle(targetHeading, 512), 28, 36) | flag(isTrackAngle, 37) |
+				field(horizontalModeIndicator, 38, 39) | field(nacP, 40, 43) | flag(nicBaro, 44) | field(sil, 45, 46) |
+				flag(!tcasOperational, 52) | flag(resolutionAdvisoryActive, 53) | field(emergencyPriorityStatus, 54, 56);
+	}
+
+	/**
+	 * Target state and status message of version 2 transponders (type code 29, subtype 1)
+	 * @param silSupplement whether SIL is per sample rather than per hour
+	 * @param fmsSelectedAltitude whether the selected altitude is from the FMS rather than the MCP/FCU
+	 * @param selectedAltitude selected altitude in feet or {@link ModeSEncoder#UNAVAILABLE}
+	 * @param baroPressureSetting barometric pressure setting in millibars or NaN
+	 * @param selectedHeading selected heading in degrees or NaN
+	 * @param nacP navigation accuracy category for position (4 bits)
+	 * @param nicBaro barometric altitude integrity code
+	 * @param sil surveillance integrity level (2 bits)
+	 * @param modesValid whether the status of the MCP/FCU modes (autopilot to LNAV) is valid
+	 * @param autopilot whether the autopilot is engaged
+	 * @param vnav whether VNAV mode is engaged
+	 * @param altitudeHold whether altitude hold mode is active
+	 * @param approach whether approach mode is active
+	 * @param tcasOperational whether TCAS/ACAS is operational
+	 * @param lnav whether LNAV mode is engaged
+	 * @return the ME field
+	 */
+	public static long targetStateAndStatusV2(boolean silSupplement, boolean fmsSelectedAltitude,
+											  int selectedAltitude, double baroPressureSetting,
+											  double selectedHeading, int nacP, boolean nicBaro, int sil,
+											  boolean modesValid, boolean autopilot, boolean vnav,
+											  boolean altitudeHold, boolean approach, boolean tcasOperational,
+											  boolean lnav) {
+		int altitude = selectedAltitude == UNAVAILABLE ? 0 :
+				clamp((int) Math.floor(selectedAltitude / 32. + .5) + 1, 1, 0x7FF);
+		int baro = Double.isNaN(baroPressureSetting) ? 0 :
+				clamp((int) Math.floor((baroPressureSetting - 800) / .8 + .5) + 1, 1, 0x1FF);
+
+		long me = field(29, 1, 5) | field(1, 6, 7) | flag(silSupplement, 8) | flag(fmsSelectedAltitude, 9) |
+				field(altitude, 10, 20) | field(baro, 21, 29) | field(nacP, 40, 43) | flag(nicBaro, 44) |
+				field(sil, 45, 46) | flag(modesValid, 47) | flag(tcasOperational, 53);
+		if (!Double.isNaN(selectedHeading))
+			me |= flag(true, 30) | field(angle(selectedHeading, 512), 31, 39);
+		if (modesValid)
+			me |= flag(autopilot, 48) | flag(vnav, 49) | flag(altitudeHold, 50) | flag(approach, 52) |
+					flag(lnav, 54);
+		return me;
+	}
+
+	/**
+	 * Emergency/priority status message (type code 28, subtype 1)
+	 * @param emergencyState emergency state (3 bits)
+	 * @param identityCode 13 bit identity code, see {@link ModeSEncoder#encodeIdentity(int)}
+	 * @return the ME field
+	 */
+	public static long emergencyOrPriorityStatus(int emergencyState, short identityCode) {
+		return field(28, 1, 5) | field(1, 6, 8) | field(emergencyState, 9, 11) | field(identityCode, 12, 24);
+	}
+
+	/**
+	 * ACAS resolution advisory broadcast (type code 28, subtype 2). The message has the same content as
+	 * BDS 3,0, see {@link CommBEncoder#acasResolutionAdvisory(int, int, boolean, boolean, int, int)}.
+	 * @param bds30 the Comm-B message of BDS register 3,0
+	 * @return the ME field
+	 */
+	public static long tcasResolutionAdvisory(long bds30) {
+		return field(28, 1, 5) | field(2, 6, 8) | bds30 & 0xFFFFFFFFFFFFL;
+	}
+
+	// Fields
+	// ------
+
+	/**
+	 * Encodes a ground speed as movement code, rounded to the nearest speed which can be represented
+	 * @param groundSpeed ground speed in knots or NaN
+	 * @return movement code (7 bits), 0 if not available
+	 */
+	public static int encodeMovement(double groundSpeed) {
+		if (Double.isNaN(groundSpeed)) return 0;
+
+		int lo = 0, hi = MOVEMENT_SPEEDS.length - 1;
+		while (lo < hi) { // first speed >= groundSpeed
+			int mid = (lo + hi) >>> 1;
+			if (MOVEMENT_SPEEDS[mid] < groundSpeed) lo = mid + 1;
+			else hi = mid;
+		}
+		if (lo > 0 && groundSpeed - MOVEMENT_SPEEDS[lo - 1] <= MOVEMENT_SPEEDS[lo] - groundSpeed)
+			lo--;
+		return lo + 1;
+	}
+
+	/**
+	 * @param groundTrack ground track in degrees or NaN
+	 * @return ground track code (7 bits) for surface position messages or -1 if not available
+	 */
+	public static int encodeGroundTrack(double groundTrack) {
+		return Double.isNaN(groundTrack) ? -1 : angle(groundTrack, 128);
+	}
+
+	// Helpers
+	// -------
+
+	/**
+	 * @param value value of the field
+	 * @param from first ME bit (1-based, inclusive)
+	 * @param to last ME bit (inclusive)
+	 * @return the value masked to the field length and shifted to its position
+	 */
+	static long field(long value, int from, int to) {
+		return (value & (1L << (to - from + 1)) - 1) << (56 - to);
+	}
+
+	static long flag(boolean value, int bit) {
+		return value ? 1L << (56 - bit) : 0L;
+	}
+
+	static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/**
+	 * @return angle in [0, 360) degrees scaled to steps per full circle and rounded
+	 */
+	static int angle(double degrees, int steps) {
+		return (int) Math.floor(degrees * steps / 360. + .5) & steps - 1;
+	}
+
+	/**
+	 * @return 10 bit velocity field (value + 1), 1 knot resolution or 4 knots if shift is 2
+	 */
+	private static int velocity(int knots, int shift) {
+		return clamp(((knots + (1 << shift >>> 1)) >> shift) + 1, 1, 0x3FF);
+	}
+
+	/**
+	 * @return vertical rate (ME bits 36-46) and geometric minus barometric altitude (ME bits 49-56)
+	 */
+	private static long verticalFields(int verticalRate, boolean baroVerticalRate, int geoMinusBaro) {
+		long me = flag(baroVerticalRate, 36);
+		if (verticalRate != UNAVAILABLE)
+			me |= flag(verticalRate < 0, 37) |
+					field(clamp((Math.abs(verticalRate) + 32 >> 6) + 1, 1, 0x1FF), 38, 46);
+		if (geoMinusBaro != UNAVAILABLE)
+			me |= flag(geoMinusBaro < 0, 49) |
+					field(clamp((Math.abs(geoMinusBaro) + 12) / 25 + 1, 1, 0x7F), 50, 56);
+		return me;
+	}
+}
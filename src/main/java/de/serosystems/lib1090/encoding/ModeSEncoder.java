@@ -0,0 +1,314 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.decoding.Altitude;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+
+/**
+ * Stateless encoder for Mode S downlink frames and common fields. Frames are written into caller-provided buffers
+ * at an offset, so a single buffer can be reused for any number of frames. All methods return the number of bytes
+ * written. Parity fields are computed as the decoders expect them: address/parity (AP) for DF 4, 5, 20, and 21,
+ * parity/interrogator identifier (PI) for DF 11, and PI with an interrogator identifier of 0 for extended squitters.
+ * <p>
+ * Fields are passed in their encoded form, see the field encoders in this class and in
+ * {@link ExtendedSquitterEncoder} and {@link CommBEncoder}.
+ */
+public final class ModeSEncoder {
+
+	/**
+	 * Sentinel for values which are not available, same as {@link Altitude#UNAVAILABLE}
+	 */
+	public static final int UNAVAILABLE = Altitude.UNAVAILABLE;
+
+	/**
+	 * Length of short (56 bit) frames in bytes
+	 */
+	public static final int SHORT_FRAME = 7;
+
+	/**
+	 * Length of long (112 bit) frames in bytes
+	 */
+	public static final int LONG_FRAME = 14;
+
+	// 12 bit octal Mode A codes mapped to the 13 bit identity code (C1 A1 C2 A2 C4 A4 X B1 D1 B2 D2 B4 D4)
+	private static final short[] IDENTITY_CODES = new short[1 << 12];
+
+	static {
+		for (int octal = 0; octal < IDENTITY_CODES.length; octal++) {
+			int A = octal >>> 9 & 7, B = octal >>> 6 & 7, C = octal >>> 3 & 7, D = octal & 7;
+			IDENTITY_CODES[octal] = (short) (
+					(C & 1) << 12 | (A & 1) << 11 | (C & 2) << 9 | (A & 2) << 8 | (C & 4) << 6 | (A & 4) << 5 |
+					(B & 1) << 5 | (D & 1) << 4 | (B & 2) << 2 | (D & 2) << 1 | (B & 4) >>> 1 | (D & 4) >>> 2);
+		}
+	}
+
+	private ModeSEncoder() {}
+
+	// Frames
+	// ------
+
+	/**
+	 * Writes a surveillance altitude reply (DF 4)
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param flightStatus flight status (3 bits)
+	 * @param downlinkRequest downlink request (5 bits)
+	 * @param utilityMsg utility message (6 bits)
+	 * @param altitudeCode 13 bit altitude code, see {@link #encode13BitAltitude(int)}
+	 * @param address ICAO 24-bit address
+	 * @return number of bytes written
+	 */
+	public static int altitudeReply(byte[] buf, int off, int flightStatus, int downlinkRequest, int utilityMsg,
+									short altitudeCode, int address) {
+		surveillanceHeader(buf, off, 4, flightStatus, downlinkRequest, utilityMsg, altitudeCode);
+		return parity(buf, off, SHORT_FRAME, address);
+	}
+
+	/**
+	 * Writes a surveillance identify reply (DF 5)
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param flightStatus flight status (3 bits)
+	 * @param downlinkRequest downlink request (5 bits)
+	 * @param utilityMsg utility message (6 bits)
+	 * @param identityCode 13 bit identity code, see {@link #encodeIdentity(int)}
+	 * @param address ICAO 24-bit address
+	 * @return number of bytes written
+	 */
+	public static int identifyReply(byte[] buf, int off, int flightStatus, int downlinkRequest, int utilityMsg,
+									short identityCode, int address) {
+		surveillanceHeader(buf, off, 5, flightStatus, downlinkRequest, utilityMsg, identityCode);
+		return parity(buf, off, SHORT_FRAME, address);
+	}
+
+	/**
+	 * Writes a Comm-B altitude reply (DF 20)
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param flightStatus flight status (3 bits)
+	 * @param downlinkRequest downlink request (5 bits)
+	 * @param utilityMsg utility message (6 bits)
+	 * @param altitudeCode 13 bit altitude code, see {@link #encode13BitAltitude(int)}
+	 * @param mb 56 bit Comm-B message, see {@link CommBEncoder}
+	 * @param address ICAO 24-bit address
+	 * @return number of bytes written
+	 */
+	public static int commBAltitudeReply(byte[] buf, int off, int flightStatus, int downlinkRequest, int utilityMsg,
+										 short altitudeCode, long mb, int address) {
+		surveillanceHeader(buf, off, 20, flightStatus, downlinkRequest, utilityMsg, altitudeCode);
+		putField56(buf, off + 4, mb);
+		return parity(buf, off, LONG_FRAME, address);
+	}
+
+	/**
+	 * Writes a Comm-B identify reply (DF 21)
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param flightStatus flight status (3 bits)
+	 * @param downlinkRequest downlink request (5 bits)
+	 * @param utilityMsg utility message (6 bits)
+	 * @param identityCode 13 bit identity code, see {@link #encodeIdentity(int)}
+	 * @param mb 56 bit Comm-B message, see {@link CommBEncoder}
+	 * @param address ICAO 24-bit address
+	 * @return number of bytes written
+	 */
+	public static int commBIdentifyReply(byte[] buf, int off, int flightStatus, int downlinkRequest, int utilityMsg,
+										 short identityCode, long mb, int address) {
+		surveillanceHeader(buf, off, 21, flightStatus, downlinkRequest, utilityMsg, identityCode);
+		putField56(buf, off + 4, mb);
+		return parity(buf, off, LONG_FRAME, address);
+	}
+
+	/**
+	 * Writes an all-call reply (DF 11)
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param capabilities capabilities (3 bits)
+	 * @param address ICAO 24-bit address
+	 * @param codeLabel code label (3 bits), 0 for interrogator identifiers
+	 * @param interrogatorCode interrogator or surveillance identifier (4 bits)
+	 * @return number of bytes written
+	 */
+	public static int allCallReply(byte[] buf, int off, int capabilities, int address,
+								   int codeLabel, int interrogatorCode) {
+		buf[off] = (byte) (11 << 3 | capabilities & 0x7);
+		putAddress(buf, off + 1, address);
+		return parity(buf, off, SHORT_FRAME, (codeLabel & 0x7) << 4 | interrogatorCode & 0xF);
+	}
+
+	/**
+	 * Writes an extended squitter (DF 17) with the PI field for an interrogator identifier of 0
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param capabilities capabilities (3 bits)
+	 * @param address ICAO 24-bit address
+	 * @param me 56 bit message, see {@link ExtendedSquitterEncoder}
+	 * @return number of bytes written
+	 */
+	public static int extendedSquitter(byte[] buf, int off, int capabilities, int address, long me) {
+		return squitter(buf, off, 17, capabilities, address, me);
+	}
+
+	/**
+	 * Writes a non-transponder extended squitter (DF 18), e.g. TIS-B or ADS-R
+	 * @param buf destination buffer
+	 * @param off index of the first byte of the frame in buf
+	 * @param controlField control field (3 bits), e.g. 0 for ADS-B with ICAO address, 2 for TIS-B, or 6 for ADS-R
+	 * @param address 24 bit address
+	 * @param me 56 bit message, see {@link ExtendedSquitterEncoder}
+	 * @return number of bytes written
+	 */
+	public static int nonTransponderSquitter(byte[] buf, int off, int controlField, int address, long me) {
+		return squitter(buf, off, 18, controlField, address, me);
+	}
+
+	// Fields
+	// ------
+
+	/**
+	 * Encodes an altitude according to Annex 10 V4 3.1.2.6.5.4 as used in most Mode S replies. Altitudes from -1000
+	 * to 50175 ft are encoded in 25 ft increments (Q bit set), other altitudes in 100 ft increments (Gillham code).
+	 * Altitudes are rounded to the nearest increment.
+	 * @param altitude altitude in feet or {@link #UNAVAILABLE}
+	 * @return 13 bit altitude code (M bit not set)
+	 * @throws IllegalArgumentException if altitude is outside [-1200, 126700] ft
+	 */
+	public static short encode13BitAltitude(int altitude) {
+		int code = encode12BitAltitudeInt(altitude);
+		// insert M bit (0) at bit 6
+		return (short) ((code & 0xFC0) << 1 | code & 0x3F);
+	}
+
+	/**
+	 * Encodes an altitude according to DO-260B 2.2.3.2.3.4.3 as used in airborne position messages, see
+	 * {@link #encode13BitAltitude(int)} for ranges and rounding.
+	 * @param altitude altitude in feet or {@link #UNAVAILABLE}
+	 * @return 12 bit encoded altitude
+	 * @throws IllegalArgumentException if altitude is outside [-1200, 126700] ft
+	 */
+	public static short encode12BitAltitude(int altitude) {
+		return (short) encode12BitAltitudeInt(altitude);
+	}
+
+	/**
+	 * Encodes a Mode A code
+	 * @param modeA the Mode A code with its octal digits as decimal digits, e.g. 7700 for emergency, as returned by
+	 *              {@link de.serosystems.lib1090.decoding.Identity#decodeIdentityInt(short)}
+	 * @return 13 bit identity code
+	 * @throws IllegalArgumentException if modeA is not a four digit octal code
+	 */
+	public static short encodeIdentity(int modeA) {
+		int A = modeA / 1000, B = modeA / 100 % 10, C = modeA / 10 % 10, D = modeA % 10;
+		if (modeA < 0 || A > 7 || B > 7 || C > 7 || D > 7)
+			throw new IllegalArgumentException("Invalid Mode A code " + modeA);
+		return IDENTITY_CODES[A << 9 | B << 6 | C << 3 | D];
+	}
+
+	/**
+	 * Encodes a callsign into eight 6 bit characters. Callsigns with less than 8 characters are padded with spaces.
+	 * @param callsign up to 8 characters A-Z, 0-9, and space
+	 * @return the 48 bit character field, compatible with
+	 *         {@link de.serosystems.lib1090.decoding.Identification#decodeCallsign(long)}
+	 * @throws IllegalArgumentException if the callsign is too long or contains other characters
+	 */
+	public static long encodeIdentification(CharSequence callsign) {
+		if (callsign.length() > 8)
+			throw new IllegalArgumentException("Callsigns have at most 8 characters.");
+
+		long identification = 0;
+		for (int i = 0; i < 8; i++) {
+			char c = i < callsign.length() ? callsign.charAt(i) : ' ';
+			int digit;
+			if (c >= 'A' && c <= 'Z') digit = c - 'A' + 1;
+			else if (c >= '0' && c <= '9') digit = c - '0' + 48;
+			else if (c == ' ') digit = 32;
+			else throw new IllegalArgumentException("Invalid character '" + c + "' in callsign.");
+			identification = identification << 6 | digit;
+		}
+		return identification;
+	}
+
+	// Helpers
+	// -------
+
+	private static int squitter(byte[] buf, int off, int downlinkFormat, int firstField, int address, long me) {
+		buf[off] = (byte) (downlinkFormat << 3 | firstField & 0x7);
+		putAddress(buf, off + 1, address);
+		putField56(buf, off + 4, me);
+		return parity(buf, off, LONG_FRAME, 0);
+	}
+
+	private static void surveillanceHeader(byte[] buf, int off, int downlinkFormat, int flightStatus,
+										   int downlinkRequest, int utilityMsg, short code) {
+		buf[off] = (byte) (downlinkFormat << 3 | flightStatus & 0x7);
+		buf[off + 1] = (byte) ((downlinkRequest & 0x1F) << 3 | (utilityMsg & 0x3F) >>> 3);
+		buf[off + 2] = (byte) ((utilityMsg & 0x7) << 5 | (code & 0x1FFF) >>> 8);
+		buf[off + 3] = (byte) code;
+	}
+
+	private static void putAddress(byte[] buf, int off, int address) {
+		buf[off] = (byte) (address >>> 16);
+		buf[off + 1] = (byte) (address >>> 8);
+		buf[off + 2] = (byte) address;
+	}
+
+	private static void putField56(byte[] buf, int off, long field) {
+		for (int i = 0; i < 7; i++)
+			buf[off + i] = (byte) (field >>> (48 - 8 * i));
+	}
+
+	/**
+	 * Computes the parity of the first length-3 bytes, overlays it with xor and writes it to the last 3 bytes
+	 */
+	private static int parity(byte[] buf, int off, int length, int xor) {
+		int parity = ModeSDownlinkMsg.calcParityInt(buf, off, length - 3) ^ xor;
+		putAddress(buf, off + length - 3, parity);
+		return length;
+	}
+
+	private static int encode12BitAltitudeInt(int altitude) {
+		if (altitude == UNAVAILABLE)
+			return 0;
+		if (altitude < -1200 || altitude > 126700)
+			throw new IllegalArgumentException("Altitude " + altitude + " ft cannot be encoded.");
+
+		int N = Math.floorDiv(altitude + 1000 + 12, 25);
+		if (N >= 0 && N < 1 << 11) // 25 ft increments
+			return (N & 0x7F0) << 1 | 0x10 | N & 0xF;
+
+		// 100 ft increments (Gillham code)
+		int hundreds = Math.floorDiv(altitude + 1200 + 50, 100);
+		int N500 = hundreds / 5;
+		int N100 = hundreds % 5;
+		if (N500 % 2 != 0) N100 = 4 - N100; // reflected
+		int c = N100 + 1;
+		c ^= c >>> 1; // to gray code
+		int n = N500 ^ N500 >>> 1;
+
+		// gray code bits: D2 D4 A1 A2 A4 B1 B2 B4, C1 C2 C4
+		int D2 = n >>> 7 & 1, D4 = n >>> 6 & 1, A1 = n >>> 5 & 1, A2 = n >>> 4 & 1, A4 = n >>> 3 & 1;
+		int B1 = n >>> 2 & 1, B2 = n >>> 1 & 1, B4 = n & 1;
+		int C1 = c >>> 2 & 1, C2 = c >>> 1 & 1, C4 = c & 1;
+
+		return C1 << 11 | A1 << 10 | C2 << 9 | A2 << 8 | C4 << 7 | A4 << 6 |
+				B1 << 5 | B2 << 3 | D2 << 2 | B4 << 1 | D4;
+	}
+}
@@ -0,0 +1,626 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import java.util.Random;
+
+/**
+ * Generates the Mode S and ADS-B frames of a simulated airspace in timestamp order, e.g. for soak tests of the
+ * decoder. Aircraft fly piecewise straight and turning segments with climbs and descents within a circular area
+ * around a center position; a fraction of them taxis around the center on the ground. Each aircraft emits the
+ * extended squitters of its ADS-B version (0, 1 or 2) at the nominal rates of DO-260B 2.2.3.3.1.4, acquisition
+ * squitters (DF 11) and, if enabled, replies to interrogations (DF 4/5/20/21 with BDS 2,0, 4,0, 5,0 and 6,0).<br>
+ * <br>
+ * Optionally, frames are impaired with random bit errors, duplicates and timestamp jitter, and aircraft are
+ * replaced by new ones (with new addresses) after a random lifetime.<br>
+ * <br>
+ * The state of all aircraft is kept in primitive arrays, frames are written into caller-provided buffers, so
+ * {@link #next(byte[], int)} does not allocate. The output is deterministic for a given seed.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public class TrafficGenerator {
+
+	// message types emitted by each aircraft
+	private static final int POSITION = 0;
+	private static final int VELOCITY = 1;
+	private static final int IDENTIFICATION = 2;
+	private static final int STATUS = 3;
+	private static final int TARGET_STATE = 4;
+	private static final int ACQUISITION = 5;
+	private static final int SURVEILLANCE = 6;
+	private static final int TYPES = 7;
+
+	private static final double GROUND_FRACTION = 0.1;
+	// radius of the "airport" around the center in degrees latitude
+	private static final double AIRPORT_RADIUS = 0.02;
+	private static final double BARO_SETTING = 1013.2;
+
+	private final int aircraft;
+	private final double centerLatitude;
+	private final double centerLongitude;
+	private final double radius;
+	private final Random rnd;
+
+	// per-aircraft state
+	private final int[] address;
+	private final byte[] version;
+	private final long[] identification;
+	private final short[] identity;
+	private final boolean[] onGround;
+	private final boolean[] odd;
+	private final double[] latitude;
+	private final double[] longitude;
+	private final double[] altitude; // feet
+	private final double[] heading; // degrees [0, 360)
+	private final double[] speed; // knots
+	private final double[] verticalRate; // feet/minute
+	private final double[] turnRate; // degrees/second
+	private final int[] targetAltitude; // feet
+	private final long[] manoeuvreEnd;
+	private final long[] lastUpdate;
+	private final long[] expiry;
+	private final int[] replies;
+
+	// binary min-heap of the next emission time of each (aircraft, message type)
+	private final long[] times;
+	private final int[] events;
+
+	private long interrogationInterval;
+	private double bitErrorRate;
+	private double logBitErrorRate;
+	private double duplicateRate;
+	private long jitter;
+	private long lifetime;
+
+	private final byte[] duplicate = new byte[ModeSEncoder.LONG_FRAME];
+	private int duplicateLength;
+	private long duplicateTimestamp;
+
+	private long timestamp;
+	private int current;
+	private long frames, corrupted, duplicates, replaced;
+
+	/**
+	 * @param aircraft        number of simultaneously simulated aircraft
+	 * @param centerLatitude  latitude of the center of the area in degrees
+	 * @param centerLongitude longitude of the center of the area in degrees
+	 * @param radius          radius of the area in nautical miles
+	 * @param startTime       time of the first frames in milliseconds
+	 * @param seed            seed of the random number generator
+	 */
+	public TrafficGenerator(int aircraft, double centerLatitude, double centerLongitude, double radius,
+							long startTime, long seed) {
+		if (aircraft < 1)
+			throw new IllegalArgumentException("Number of aircraft must be positive");
+		if (Math.abs(centerLatitude) > 70)
+			throw new IllegalArgumentException("Center latitude must be within [-70, 70]");
+		if (radius <= 0 || radius > 600)
+			throw new IllegalArgumentException("Radius must be within (0, 600] NM");
+
+		this.aircraft = aircraft;
+		this.centerLatitude = centerLatitude;
+		this.centerLongitude = centerLongitude;
+		this.radius = radius;
+		this.rnd = new Random(seed);
+
+		address = new int[aircraft];
+		version = new byte[aircraft];
+		identification = new long[aircraft];
+		identity = new short[aircraft];
+		onGround = new boolean[aircraft];
+		odd = new boolean[aircraft];
+		latitude = new double[aircraft];
+		longitude = new double[aircraft];
+		altitude = new double[aircraft];
+		heading = new double[aircraft];
+		speed = new double[aircraft];
+		verticalRate = new double[aircraft];
+		turnRate = new double[aircraft];
+		targetAltitude = new int[aircraft];
+		manoeuvreEnd = new long[aircraft];
+		lastUpdate = new long[aircraft];
+		expiry = new long[aircraft];
+		replies = new int[aircraft];
+
+		times = new long[aircraft * TYPES];
+		events = new int[aircraft * TYPES];
+
+		interrogationInterval = 1600;
+		for (int i = 0; i < aircraft; i++)
+			spawn(i, startTime);
+		// stagger the first emissions over one period of each message type
+		for (int e = 0; e < events.length; e++) {
+			events[e] = e;
+			times[e] = startTime + (long) (rnd.nextDouble() * interval(e / TYPES, e % TYPES));
+		}
+		for (int e = events.length / 2 - 1; e >= 0; e--)
+			siftDown(e);
+		timestamp = startTime;
+	}
+
+	/**
+	 * @param interval mean time between two replies to interrogations of the same aircraft in milliseconds or 0 to
+	 *                 disable replies (default: 1600, i.e. three replies per 4.8 s radar scan)
+	 */
+	public void setInterrogationInterval(long interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("Interrogation interval must not be negative");
+		interrogationInterval = interval;
+	}
+
+	/**
+	 * @param bitErrorRate probability of each bit of a frame to be flipped (default: 0)
+	 */
+	public void setBitErrorRate(double bitErrorRate) {
+		if (!(bitErrorRate >= 0 && bitErrorRate < 1))
+			throw new IllegalArgumentException("Bit error rate must be within [0, 1)");
+		this.bitErrorRate = bitErrorRate;
+		this.logBitErrorRate = Math.log(1 - bitErrorRate);
+	}
+
+	/**
+	 * @param duplicateRate probability of a frame to be emitted twice (default: 0)
+	 */
+	public void setDuplicateRate(double duplicateRate) {
+		if (!(duplicateRate >= 0 && duplicateRate < 1))
+			throw new IllegalArgumentException("Duplicate rate must be within [0, 1)");
+		this.duplicateRate = duplicateRate;
+	}
+
+	/**
+	 * @param jitter maximum deviation of the timestamps from the time of transmission in milliseconds. Timestamps
+	 *               are not in order anymore if the jitter exceeds the time between frames. (default: 0)
+	 */
+	public void setJitter(long jitter) {
+		if (jitter < 0)
+			throw new IllegalArgumentException("Jitter must not be negative");
+		this.jitter = jitter;
+	}
+
+	/**
+	 * @param lifetime mean (exponentially distributed) lifetime of an aircraft in milliseconds after which it is
+	 *                 replaced by a new aircraft with a new address or 0 to keep all aircraft (default: 0). The
+	 *                 lifetime of the current aircraft starts over.
+	 */
+	public void setLifetime(long lifetime) {
+		if (lifetime < 0)
+			throw new IllegalArgumentException("Lifetime must not be negative");
+		this.lifetime = lifetime;
+		for (int i = 0; i < aircraft; i++)
+			expiry[i] = expiry(lastUpdate[i]);
+	}
+
+	/**
+	 * Writes the next frame into the buffer.
+	 *
+	 * @param buf buffer with at least {@link ModeSEncoder#LONG_FRAME} bytes after the offset
+	 * @param off offset of the frame in the buffer
+	 * @return length of the frame in bytes (7 or 14)
+	 */
+	public int next(byte[] buf, int off) {
+		if (duplicateLength > 0) {
+			int length = duplicateLength;
+			System.arraycopy(duplicate, 0, buf, off, length);
+			duplicateLength = 0;
+			timestamp = duplicateTimestamp;
+			++frames;
+			++duplicates;
+			return length;
+		}
+
+		int length;
+		long time;
+		do {
+			time = times[0];
+			int i = events[0] / TYPES, type = events[0] % TYPES;
+			if (time >= expiry[i]) {
+				spawn(i, time);
+				++replaced;
+			}
+			advance(i, time);
+			length = emit(i, type, buf, off);
+
+			times[0] = time + interval(i, type);
+			siftDown(0);
+			current = i;
+		} while (length == 0);
+
+		if (bitErrorRate > 0)
+			corrupt(buf, off, length);
+
+		timestamp = jitter > 0 ? time + (long) Math.floor((rnd.nextDouble() * 2 - 1) * jitter + .5) : time;
+
+		if (duplicateRate > 0 && rnd.nextDouble() < duplicateRate) {
+			System.arraycopy(buf, off, duplicate, 0, length);
+			duplicateLength = length;
+			duplicateTimestamp = timestamp + rnd.nextInt(3);
+		}
+
+		++frames;
+		return length;
+	}
+
+	/**
+	 * @return timestamp of the last frame in milliseconds (including jitter)
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return index of the aircraft which emitted the last frame
+	 */
+	public int getAircraft() {
+		return current;
+	}
+
+	/**
+	 * @return number of simultaneously simulated aircraft
+	 */
+	public int size() {
+		return aircraft;
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return the aircraft's 24 bit address
+	 */
+	public int getAddress(int i) {
+		return address[i];
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return the aircraft's ADS-B version
+	 */
+	public byte getVersion(int i) {
+		return version[i];
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return the aircraft's latitude in degrees at the time of its last frame
+	 */
+	public double getLatitude(int i) {
+		return latitude[i];
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return the aircraft's longitude in degrees at the time of its last frame
+	 */
+	public double getLongitude(int i) {
+		return longitude[i];
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return the aircraft's barometric altitude in feet at the time of its last frame
+	 */
+	public double getAltitude(int i) {
+		return altitude[i];
+	}
+
+	/**
+	 * @param i aircraft index
+	 * @return whether the aircraft is on the ground
+	 */
+	public boolean isOnGround(int i) {
+		return onGround[i];
+	}
+
+	/**
+	 * @return number of emitted frames
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return number of frames with bit errors
+	 */
+	public long getCorrupted() {
+		return corrupted;
+	}
+
+	/**
+	 * @return number of duplicated frames
+	 */
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return number of aircraft which have been replaced after their lifetime
+	 */
+	public long getReplaced() {
+		return replaced;
+	}
+
+	/**
+	 * Creates a new aircraft with random address, identification and position.
+	 */
+	private void spawn(int i, long time) {
+		address[i] = 1 + rnd.nextInt(0xFFFFFE);
+		version[i] = (byte) (rnd.nextInt(10) < 6 ? 2 : rnd.nextInt(2));
+		identification[i] = callsign();
+		identity[i] = ModeSEncoder.encodeIdentity(
+				rnd.nextInt(8) * 1000 + rnd.nextInt(8) * 100 + rnd.nextInt(8) * 10 + rnd.nextInt(8));
+		odd[i] = rnd.nextBoolean();
+		heading[i] = rnd.nextDouble() * 360;
+		turnRate[i] = 0;
+		verticalRate[i] = 0;
+		manoeuvreEnd[i] = time;
+		lastUpdate[i] = time;
+		replies[i] = rnd.nextInt(6);
+		expiry[i] = expiry(time);
+
+		double distance, bearing = rnd.nextDouble() * 2 * Math.PI;
+		onGround[i] = rnd.nextDouble() < GROUND_FRACTION;
+		if (onGround[i]) {
+			distance = Math.sqrt(rnd.nextDouble()) * AIRPORT_RADIUS * 60;
+			altitude[i] = 0;
+			targetAltitude[i] = 0;
+			speed[i] = rnd.nextInt(3) == 0 ? 0 : 5 + rnd.nextDouble() * 25;
+		} else {
+			distance = Math.sqrt(rnd.nextDouble()) * radius;
+			altitude[i] = 100 * (20 + rnd.nextInt(391));
+			targetAltitude[i] = (int) altitude[i];
+			speed[i] = 180 + altitude[i] / 100 + rnd.nextDouble() * 60;
+		}
+		latitude[i] = centerLatitude + distance * Math.cos(bearing) / 60;
+		longitude[i] = centerLongitude + distance * Math.sin(bearing) / 60 / Math.cos(Math.toRadians(centerLatitude));
+	}
+
+	private long expiry(long time) {
+		return lifetime > 0 ? time + (long) (-Math.log(1 - rnd.nextDouble()) * lifetime) : Long.MAX_VALUE;
+	}
+
+	private long callsign() {
+		long ident = 0;
+		for (int c = 0; c < 3; c++)
+			ident = ident << 6 | 1 + rnd.nextInt(26);
+		int digits = 1 + rnd.nextInt(4);
+		for (int c = 0; c < 5; c++)
+			ident = ident << 6 | (c < digits ? 48 + rnd.nextInt(10) : 32);
+		return ident;
+	}
+
+	/**
+	 * Moves an aircraft to the given time and starts a new manoeuvre if the current one has ended.
+	 */
+	private void advance(int i, long time) {
+		double dt = (time - lastUpdate[i]) / 1000.;
+		if (dt <= 0) return;
+		lastUpdate[i] = time;
+
+		if (time >= manoeuvreEnd[i])
+			manoeuvre(i, time);
+
+		heading[i] = (heading[i] + turnRate[i] * dt) % 360;
+		if (heading[i] < 0) heading[i] += 360;
+
+		if (verticalRate[i] != 0) {
+			altitude[i] += verticalRate[i] * dt / 60;
+			if ((verticalRate[i] > 0) == (altitude[i] >= targetAltitude[i])) {
+				altitude[i] = targetAltitude[i];
+				verticalRate[i] = 0;
+			}
+		}
+
+		double distance = speed[i] * dt / 3600;
+		double hdg = Math.toRadians(heading[i]);
+		latitude[i] += distance * Math.cos(hdg) / 60;
+		longitude[i] += distance * Math.sin(hdg) / 60 / Math.cos(Math.toRadians(latitude[i]));
+		if (longitude[i] >= 180) longitude[i] -= 360;
+		else if (longitude[i] < -180) longitude[i] += 360;
+	}
+
+	private void manoeuvre(int i, long time) {
+		double north = (centerLatitude - latitude[i]) * 60;
+		double east = (centerLongitude - longitude[i]) * 60 * Math.cos(Math.toRadians(latitude[i]));
+		double limit = onGround[i] ? AIRPORT_RADIUS * 60 : radius;
+
+		if (north * north + east * east > limit * limit) {
+			// head back towards the center
+			heading[i] = (Math.toDegrees(Math.atan2(east, north)) + rnd.nextDouble() * 40 - 20 + 360) % 360;
+			turnRate[i] = 0;
+		} else {
+			int r = rnd.nextInt(10);
+			turnRate[i] = r < 6 ? 0 : (r % 2 == 0 ? 1 : -1) * (onGround[i] ? 10 : r < 9 ? 1.5 : 3);
+		}
+
+		if (!onGround[i] && verticalRate[i] == 0 && rnd.nextInt(4) == 0) {
+			targetAltitude[i] = 100 * (20 + rnd.nextInt(391));
+			double rate = 1000 + rnd.nextDouble() * 1500;
+			verticalRate[i] = targetAltitude[i] > altitude[i] ? rate : -rate;
+		}
+
+		manoeuvreEnd[i] = time + (onGround[i] ? 5000 : 10000) + rnd.nextInt(onGround[i] ? 15000 : 50000);
+	}
+
+	/**
+	 * @return the time until the next frame of the given type in milliseconds
+	 */
+	private long interval(int i, int type) {
+		switch (type) {
+			case POSITION:
+			case VELOCITY:
+				return onGround[i] && speed[i] == 0 ? uniform(4800, 5200) : uniform(400, 600);
+			case IDENTIFICATION:
+				return onGround[i] && speed[i] == 0 ? uniform(9800, 10200) : uniform(4800, 5200);
+			case STATUS:
+				return uniform(2400, 2600);
+			case TARGET_STATE:
+				return uniform(1200, 1300);
+			case ACQUISITION:
+				return uniform(800, 1200);
+			default:
+				// replies are checked at least every 10 s to pick up changes of the interrogation interval
+				return interrogationInterval > 0 ?
+						uniform(interrogationInterval * 9 / 10, interrogationInterval * 11 / 10) : 10000;
+		}
+	}
+
+	private long uniform(long min, long max) {
+		return min + (long) (rnd.nextDouble() * (max - min));
+	}
+
+	/**
+	 * @return length of the frame or 0 if the aircraft does not emit this type of frame in its current state
+	 */
+	private int emit(int i, int type, byte[] buf, int off) {
+		int ca = onGround[i] ? 4 : 5;
+		switch (type) {
+			case POSITION:
+				odd[i] = !odd[i];
+				return ModeSEncoder.extendedSquitter(buf, off, ca, address[i], onGround[i] ?
+						ExtendedSquitterEncoder.surfacePosition(7, speed[i], speed[i] > 0 ? heading[i] : Double.NaN,
+								odd[i], latitude[i], longitude[i]) :
+						ExtendedSquitterEncoder.airbornePosition(11, (int) Math.round(altitude[i]), odd[i], latitude[i],
+								longitude[i]));
+
+			case VELOCITY:
+				if (onGround[i]) return 0;
+				double hdg = Math.toRadians(heading[i]);
+				return ModeSEncoder.extendedSquitter(buf, off, ca, address[i],
+						ExtendedSquitterEncoder.velocityOverGround((int) Math.round(speed[i] * Math.sin(hdg)),
+								(int) Math.round(speed[i] * Math.cos(hdg)), (int) verticalRate[i], true,
+								ModeSEncoder.UNAVAILABLE, version[i] == 0 ? 0 : 1, false, true));
+
+			case IDENTIFICATION:
+				return ModeSEncoder.extendedSquitter(buf, off, ca, address[i],
+						ExtendedSquitterEncoder.identification(4, 3, identification[i]));
+
+			case STATUS:
+				if (version[i] == 0)
+					return ModeSEncoder.extendedSquitter(buf, off, ca, address[i],
+							ExtendedSquitterEncoder.operationalStatusV0(0x10));
+				return ModeSEncoder.extendedSquitter(buf, off, ca, address[i], onGround[i] ?
+						ExtendedSquitterEncoder.surfaceOperationalStatus(version[i], 0, 5, 0, false, 9, 3, false,
+								false, false) :
+						ExtendedSquitterEncoder.airborneOperationalStatus(version[i], 0, 0, false, 9, 2, 3, true,
+								false, false));
+
+			case TARGET_STATE:
+				if (onGround[i] || version[i] != 2) return 0;
+				return ModeSEncoder.extendedSquitter(buf, off, ca, address[i],
+						ExtendedSquitterEncoder.targetStateAndStatusV2(false, false, targetAltitude[i], BARO_SETTING,
+								heading[i], 9, true, 3, true, true, false, verticalRate[i] == 0, false, true, true));
+
+			case ACQUISITION:
+				return ModeSEncoder.allCallReply(buf, off, ca, address[i], 0, 0);
+
+			default:
+				return interrogationInterval > 0 ? reply(i, buf, off) : 0;
+		}
+	}
+
+	/**
+	 * Replies to interrogations in turn with altitude, identity and Comm-B replies
+	 */
+	private int reply(int i, byte[] buf, int off) {
+		int fs = onGround[i] ? 1 : 0;
+		short altitudeCode = onGround[i] ? 0 : ModeSEncoder.encode13BitAltitude((int) Math.round(altitude[i]));
+		int kind = replies[i]++ % 6;
+		if (onGround[i]) kind &= 1;
+
+		switch (kind) {
+			case 0:
+				return ModeSEncoder.altitudeReply(buf, off, fs, 0, 0, altitudeCode, address[i]);
+			case 1:
+				return ModeSEncoder.identifyReply(buf, off, fs, 0, 0, identity[i], address[i]);
+			case 2:
+				return ModeSEncoder.commBAltitudeReply(buf, off, fs, 0, 0, altitudeCode,
+						CommBEncoder.aircraftIdentification(identification[i]), address[i]);
+			case 3:
+				return ModeSEncoder.commBAltitudeReply(buf, off, fs, 0, 0, altitudeCode,
+						CommBEncoder.selectedVerticalIntention(targetAltitude[i], targetAltitude[i], BARO_SETTING,
+								true, false, verticalRate[i] == 0, false, 2), address[i]);
+			case 4:
+				double roll = Math.toDegrees(Math.atan(Math.toRadians(turnRate[i]) * speed[i] * 0.514444 / 9.81));
+				return ModeSEncoder.commBAltitudeReply(buf, off, fs, 0, 0, altitudeCode,
+						CommBEncoder.trackAndTurn(roll, signedAngle(heading[i]), (int) speed[i], turnRate[i],
+								(int) speed[i]), address[i]);
+			default:
+				double mach = speed[i] / speedOfSound(altitude[i]);
+				return ModeSEncoder.commBIdentifyReply(buf, off, fs, 0, 0, identity[i],
+						CommBEncoder.headingAndSpeed(signedAngle(heading[i]), indicatedAirspeed(i), mach,
+								(int) verticalRate[i], (int) verticalRate[i]), address[i]);
+		}
+	}
+
+	private static double signedAngle(double degrees) {
+		return degrees >= 180 ? degrees - 360 : degrees;
+	}
+
+	/**
+	 * @return speed of sound in knots in the standard atmosphere
+	 */
+	private static double speedOfSound(double altitude) {
+		double temperature = Math.max(216.65, 288.15 - 0.0019812 * altitude);
+		return 661.47 * Math.sqrt(temperature / 288.15);
+	}
+
+	/**
+	 * @return indicated airspeed (approximated from the true airspeed and the standard atmosphere density)
+	 */
+	private int indicatedAirspeed(int i) {
+		double density = Math.pow(1 - 6.8756e-6 * Math.min(altitude[i], 36089), 4.2559) *
+				(altitude[i] > 36089 ? Math.exp(-4.806e-5 * (altitude[i] - 36089)) : 1);
+		return (int) (speed[i] * Math.sqrt(density));
+	}
+
+	/**
+	 * Flips each bit of the frame with the bit error rate. The distance to the next flipped bit is geometrically
+	 * distributed, so only one random number is drawn for a frame without errors.
+	 */
+	private void corrupt(byte[] buf, int off, int length) {
+		int bits = length * 8;
+		boolean flipped = false;
+		for (long bit = geometric(); bit < bits; bit += 1 + geometric()) {
+			buf[off + (int) (bit >>> 3)] ^= (byte) (0x80 >>> (bit & 7));
+			flipped = true;
+		}
+		if (flipped) ++corrupted;
+	}
+
+	private long geometric() {
+		return (long) (Math.log(1 - rnd.nextDouble()) / logBitErrorRate);
+	}
+
+	private void siftDown(int pos) {
+		int size = times.length;
+		long time = times[pos];
+		int event = events[pos];
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= size) break;
+			if (child + 1 < size && times[child + 1] < times[child]) child++;
+			if (times[child] >= time) break;
+			times[pos] = times[child];
+			events[pos] = events[child];
+			pos = child;
+		}
+		times[pos] = time;
+		events[pos] = event;
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.msgs;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Table of canonical {@link QualifiedAddress} instances, see {@link QualifiedAddress#of(int, QualifiedAddress.Type)}.
+ * Entries are held weakly, i.e. an address is dropped from the table as soon as neither messages nor decoder state
+ * refer to it anymore. Memory thus scales with the number of live addresses, not with the 24 bit address space
+ * (which matters since corrupted messages yield random addresses). Looking up an address which is in the table
+ * does not lock; new addresses are inserted into one of several segments which are locked independently.
+ * @author Matthias Schäfer (schaefer@sero-systems.de)
+ */
+final class AddressTable {
+
+	private static final int SEGMENT_BITS = 4;
+	private static final int INITIAL_CAPACITY = 256;
+
+	private static final Segment[] SEGMENTS = new Segment[1 << SEGMENT_BITS];
+	static {
+		for (int i = 0; i < SEGMENTS.length; i++)
+			SEGMENTS[i] = new Segment();
+	}
+
+	private AddressTable() {}
+
+	/**
+	 * @param address 24 bit address
+	 * @param type address type
+	 * @return the canonical instance for the address/type pair
+	 */
+	static QualifiedAddress intern(int address, QualifiedAddress.Type type) {
+		long key = QualifiedAddress.toKey(address, type);
+		int hash = mix(key);
+		return SEGMENTS[hash >>> (32 - SEGMENT_BITS)].intern(key, hash, address, type);
+	}
+
+	/**
+	 * @param key address and type as returned by {@link QualifiedAddress#toKey()}
+	 * @return the canonical instance or null if the address is not in the table; never locks
+	 */
+	static QualifiedAddress find(long key) {
+		int hash = mix(key);
+		return SEGMENTS[hash >>> (32 - SEGMENT_BITS)].find(key, hash);
+	}
+
+	/**
+	 * @return number of addresses which are currently in the table (including entries whose address has already
+	 *         been garbage collected but which were not yet removed)
+	 */
+	static int size() {
+		int size = 0;
+		for (Segment segment : SEGMENTS) {
+			synchronized (segment) {
+				segment.expunge();
+				size += segment.count;
+			}
+		}
+		return size;
+	}
+
+	private static int mix(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private static final class Entry extends WeakReference<QualifiedAddress> {
+		final long key;
+		final int hash;
+		// volatile for lock-free lookups while entries are unlinked
+		volatile Entry next;
+
+		Entry(QualifiedAddress referent, ReferenceQueue<QualifiedAddress> queue, long key, int hash, Entry next) {
+			super(referent, queue);
+			this.key = key;
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * Lookups of addresses which are in the table do not lock. Inserting, removing and resizing lock the segment.
+	 * A lookup which runs concurrently with a resize may miss an entry, it then falls back to the locked path.
+	 */
+	private static final class Segment {
+		private final ReferenceQueue<QualifiedAddress> queue = new ReferenceQueue<>();
+		private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+		private int count;
+
+		QualifiedAddress intern(long key, int hash, int address, QualifiedAddress.Type type) {
+			QualifiedAddress canonical = find(key, hash);
+			return canonical != null ? canonical : insert(key, hash, address, type);
+		}
+
+		/**
+		 * @return the canonical instance or null if the address is not in the table
+		 */
+		QualifiedAddress find(long key, int hash) {
+			AtomicReferenceArray<Entry> tab = table;
+			for (Entry e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+				if (e.key == key) {
+					QualifiedAddress canonical = e.get();
+					if (canonical != null) return canonical;
+					// cleared but not yet enqueued; will be removed by expunge
+				}
+			}
+			return null;
+		}
+
+		private synchronized QualifiedAddress insert(long key, int hash, int address, QualifiedAddress.Type type) {
+			expunge();
+
+			// may have been inserted by another thread in the meantime
+			QualifiedAddress canonical = find(key, hash);
+			if (canonical != null) return canonical;
+
+			canonical = new QualifiedAddress(address, type);
+			AtomicReferenceArray<Entry> tab = table;
+			int idx = hash & (tab.length() - 1);
+			// the address is constructed before it is published with the entry
+			tab.set(idx, new Entry(canonical, queue, key, hash, tab.get(idx)));
+			if (++count > tab.length() - (tab.length() >>> 2))
+				resize();
+
+			return canonical;
+		}
+
+		/**
+		 * Removes entries whose addresses have been garbage collected. Must hold the lock.
+		 */
+		void expunge() {
+			AtomicReferenceArray<Entry> tab = table;
+			Object ref;
+			while ((ref = queue.poll()) != null) {
+				Entry stale = (Entry) ref;
+				int idx = stale.hash & (tab.length() - 1);
+				Entry prev = null;
+				for (Entry e = tab.get(idx); e != null; prev = e, e = e.next) {
+					if (e == stale) {
+						// lookups which are at the entry continue with its successor
+						if (prev == null) tab.set(idx, e.next);
+						else prev.next = e.next;
+						--count;
+						break;
+					}
+				}
+			}
+
+			// shrink if the table became sparse
+			if (tab.length() > INITIAL_CAPACITY && count < tab.length() >>> 3)
+				rehash(tab.length() >>> 1);
+		}
+
+		private void resize() {
+			rehash(table.length() << 1);
+		}
+
+		/**
+		 * Moves the entries to a new table which is published afterwards. Lookups in the old table may miss
+		 * entries which have already been moved.
+		 */
+		private void rehash(int capacity) {
+			AtomicReferenceArray<Entry> old = table;
+			AtomicReferenceArray<Entry> tab = new AtomicReferenceArray<>(capacity);
+			for (int i = 0; i < old.length(); i++) {
+				Entry e = old.get(i);
+				while (e != null) {
+					Entry next = e.next;
+					int idx = e.hash & (capacity - 1);
+					e.next = tab.get(idx);
+					tab.set(idx, e);
+					e = next;
+				}
+			}
+			table = tab;
+		}
+	}
+}
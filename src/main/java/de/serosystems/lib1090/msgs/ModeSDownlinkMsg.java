@@ -38,6 +38,7 @@ public class ModeSDownlinkMsg implements Serializable {
 	 */
 	private byte downlink_format; // 0-24
 	private byte first_field; // the 3 bits after downlink format
+	private byte elm_bits; // DF 24 only: the KE bit and MSB of ND which share the 5 downlink format bits
 	private byte[] payload; // 3 or 10 bytes
 	private int parity; // 3 bytes
 	private boolean noCRC;
@@ -187,9 +188,22 @@ public class ModeSDownlinkMsg implements Serializable {
 	 * @return parity field as 24 bit integer
 	 */
 	public static int calcParityInt(byte[] msg) {
+		return calcParityInt(msg, 0, msg.length);
+	}
+
+	/**
+	 * Same as {@link #calcParityInt(byte[])} for a frame which is stored at an offset of a larger buffer.
+	 *
+	 * @param msg buffer containing the raw message
+	 * @param offset index of the first byte of the message
+	 * @param length number of bytes without parity, i.e. 4 or 11 for Mode S frames
+	 * @return parity field as 24 bit integer
+	 */
+	public static int calcParityInt(byte[] msg, int offset, int length) {
 		int remainder = 0;
 		assert CRC_TABLE.length == 1 << 8;
-		for (byte b : msg) {
+		for (int i = offset; i < offset + length; i++) {
+			byte b = msg[i];
 			/* multiply remainder by X^8, creating a polynomial that has potentially a degree higher than 24.
 			   We split the remainder into a polynomial of those leading monomials (called dividend) and the rest (will be the new remainder).
 			   Furthermore, we add another 8 coefficients (corresponds to one byte) from the message.
@@ -295,6 +309,7 @@ public class ModeSDownlinkMsg implements Serializable {
 				throw new BadFormatException("Third MSB of Comm-D Extended Length Message must be 1");
 			}
 
+			elm_bits = (byte) (downlink_format & 0x3);
 			downlink_format = 24;
 		}
 
@@ -326,9 +341,7 @@ public class ModeSDownlinkMsg implements Serializable {
 
 			case 11: // all call replies
 			case 17: case 18: case 19: // Extended squitter
-				byte[] raw_address = new byte[3];
-				System.arraycopy(payload, 0, raw_address, 0, 3);
-				addr = rawAPToInt(raw_address);
+				addr = (payload[0]&0xff) << 16 | (payload[1]&0xff) << 8 | (payload[2]&0xff);
 
 				if (downlink_format == 18 && first_field==4)
 					throw new UnspecifiedFormatError("TIS-B/ADS-R management frames not implemented.");
@@ -392,7 +405,7 @@ public class ModeSDownlinkMsg implements Serializable {
 			type = QualifiedAddress.Type.ICAO24;
 		}
 
-		address = new QualifiedAddress(addr, type);
+		address = QualifiedAddress.of(addr, type);
 		setType(subtype.MODES_REPLY);
 	}
 
@@ -444,11 +457,12 @@ public class ModeSDownlinkMsg implements Serializable {
 	public ModeSDownlinkMsg(ModeSDownlinkMsg reply) {
 		downlink_format = reply.downlink_format;
 		first_field = reply.first_field;
+		elm_bits = reply.elm_bits;
 		payload = Arrays.copyOf(reply.payload, reply.payload.length);
 		parity = reply.parity;
 		type = reply.type;
 		noCRC = reply.noCRC;
-		address = new QualifiedAddress(reply.address);
+		address = reply.address; // immutable and canonical
 	}
 
 	/**
@@ -483,6 +497,14 @@ public class ModeSDownlinkMsg implements Serializable {
 		return first_field;
 	}
 
+	/**
+	 * @return for DF 24 (Comm-D ELM) the two bits after the format bits which are not included in
+	 * {@link #getDownlinkFormat()}, i.e. the KE bit and the most significant bit of ND; 0 for other formats
+	 */
+	protected byte getELMBits() {
+		return elm_bits;
+	}
+
 	/**
 	 * @return fully qualified address (with type)
 	 */
@@ -511,7 +533,7 @@ public class ModeSDownlinkMsg implements Serializable {
 	public int calcParityInt() {
 		byte[] message = new byte[payload.length + 1];
 
-		message[0] = (byte) (downlink_format << 3 | first_field);
+		message[0] = (byte) ((downlink_format | elm_bits) << 3 | first_field);
 		System.arraycopy(payload, 0, message, 1, payload.length);
 
 		return calcParityInt(message);
@@ -534,7 +556,7 @@ public class ModeSDownlinkMsg implements Serializable {
 	 */
 	public String getHexMessage() {
 		byte[] msg = new byte[4+payload.length];
-		msg[0] = (byte) (downlink_format<<3 | first_field);
+		msg[0] = (byte) ((downlink_format | elm_bits)<<3 | first_field);
 		System.arraycopy(payload, 0, msg, 1, payload.length);
 		int crc = noCRC ? getParity()^ calcParityInt() : getParity();
 		msg[1+payload.length]   = (byte) ((crc>>16)&0xff);
@@ -578,7 +600,7 @@ public class ModeSDownlinkMsg implements Serializable {
 
 		// check the full payload
 		if (!Tools.areEqual(this.getPayload(), other.getPayload()) ||
-				this.getFirstField() != other.getFirstField())
+				this.getFirstField() != other.getFirstField() || this.elm_bits != other.elm_bits)
 			return false;
 
 		// and finally the parity
@@ -44,6 +44,8 @@ public class QualifiedAddress {
 		UNKNOWN
 	}
 
+	private static final Type[] TYPES = Type.values();
+
 	private int address;
 	private Type type;
 
@@ -53,6 +55,64 @@ public class QualifiedAddress {
 	protected QualifiedAddress() {
 	}
 
+	/**
+	 * Returns the canonical instance for an address. As long as an address is in use, this method always returns
+	 * the same instance for it, so canonical addresses can be compared by reference. Messages use canonical
+	 * addresses, but instances created with the constructors (or by serialization frameworks) are not canonical.
+	 *
+	 * @param address the 24 bit address
+	 * @param type the type of the address
+	 * @return canonical address instance
+	 */
+	public static QualifiedAddress of(int address, Type type) {
+		return AddressTable.intern(address, type);
+	}
+
+	/**
+	 * Returns the canonical instance for an address packed into a long, see {@link #toKey()}.
+	 *
+	 * @param key address and type as returned by {@link #toKey()}
+	 * @return canonical address instance
+	 * @throws IllegalArgumentException if the type is not valid
+	 */
+	public static QualifiedAddress ofKey(long key) {
+		int type = (int) (key & 0xFF);
+		if (type != 0xFF && type >= TYPES.length)
+			throw new IllegalArgumentException("Invalid address type: " + type);
+		return of((int) (key >>> 8), type == 0xFF ? null : TYPES[type]);
+	}
+
+	/**
+	 * Returns the canonical instance for an address packed into a long if the address is in use. Otherwise, a new
+	 * instance is returned which is not canonical (but equal to the canonical one). Unlike {@link #ofKey(long)},
+	 * this method never blocks, so threads which read shared state do not contend with decoding threads.
+	 *
+	 * @param key address and type as returned by {@link #toKey()}
+	 * @return canonical address instance or an equal new instance
+	 * @throws IllegalArgumentException if the type is not valid
+	 */
+	public static QualifiedAddress lookup(long key) {
+		int type = (int) (key & 0xFF);
+		if (type != 0xFF && type >= TYPES.length)
+			throw new IllegalArgumentException("Invalid address type: " + type);
+		QualifiedAddress canonical = AddressTable.find(key);
+		return canonical != null ? canonical : new QualifiedAddress((int) (key >>> 8), type == 0xFF ? null : TYPES[type]);
+	}
+
+	/**
+	 * @param address the 24 bit address
+	 * @param type the type of the address
+	 * @return address and type packed into a long (address &lt;&lt; 8 | type ordinal or 0xFF if there is no type)
+	 */
+	static long toKey(int address, Type type) {
+		return (long) address << 8 | (type == null ? 0xFF : type.ordinal());
+	}
+
+	/**
+	 * @param address the 24 bit address
+	 * @param type the type of the address
+	 * @see #of(int, Type) for canonical instances
+	 */
 	public QualifiedAddress(int address, Type type) {
 		this.address = address;
 		this.type = type;
@@ -80,6 +140,16 @@ public class QualifiedAddress {
 		return address;
 	}
 
+	/**
+	 * Packs address and type into a long, e.g. for use as key in primitive tables.
+	 *
+	 * @return address &lt;&lt; 8 | type ordinal (or 0xFF if there is no type)
+	 * @see #ofKey(long)
+	 */
+	public long toKey() {
+		return toKey(address, type);
+	}
+
 	/**
 	 * @return address as 6 digit hex string
 	 */
@@ -32,10 +32,10 @@ import java.util.Arrays;
  */
 public class IdentificationMsg extends ExtendedSquitter implements Serializable {
 
-	private static final long serialVersionUID = 3475444849066416732L;
+	private static final long serialVersionUID = 4470641741043253964L;
 
 	private byte emitter_category;
-	private byte[] identity;
+	private long identity;
 
 	/** protected no-arg constructor e.g. for serialization with Kryo **/
 	protected IdentificationMsg() { }
@@ -74,7 +74,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 		emitter_category = (byte) (msg[0] & 0x7);
 
 		// extract identity
-		identity = Identification.decodeAircraftIdentification(msg);
+		identity = Identification.extractIdentification(msg);
 	}
 
 	/**
@@ -88,7 +88,14 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	 * @return the call sign as 8 characters array
 	 */
 	public char[] getIdentity() {
-		return Identification.mapChar(identity);
+		return Identification.decodeCallsign(identity).toCharArray();
+	}
+
+	/**
+	 * @return the call sign with 8 characters (including trailing spaces); instances are cached and shared
+	 */
+	public String getCallsign() {
+		return Identification.decodeCallsign(identity);
 	}
 
 	/**
@@ -103,7 +110,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	public String toString() {
 		return super.toString() + "\n\tIdentificationMsg{" +
 				"emitter_category=" + emitter_category +
-				", identity=" + Arrays.toString(identity) +
+				", identity=" + Arrays.toString(Identification.unpackIdentification(identity)) +
 				'}';
 	}
 }
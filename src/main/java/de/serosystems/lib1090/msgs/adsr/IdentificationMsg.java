@@ -18,6 +18,7 @@
 
 package de.serosystems.lib1090.msgs.adsr;
 
+import de.serosystems.lib1090.decoding.Identification;
 import de.serosystems.lib1090.exceptions.BadFormatException;
 import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
 import de.serosystems.lib1090.msgs.modes.ExtendedSquitter;
@@ -31,10 +32,10 @@ import java.util.Arrays;
  */
 public class IdentificationMsg extends ExtendedSquitter implements Serializable {
 
-	private static final long serialVersionUID = -7843589383745529023L;
+	private static final long serialVersionUID = 842195533429704476L;
 
 	private byte emitter_category;
-	private byte[] identity;
+	private long identity;
 
 	/**
 	 * Maps ADS-R encoded to readable characters
@@ -98,7 +99,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 		emitter_category = (byte) (msg[0] & 0x7);
 
 		// extract identity
-		identity = decodeAircraftIdentification(msg);
+		identity = Identification.extractIdentification(msg);
 	}
 
 	public static byte[] decodeAircraftIdentification(byte[] msg) {
@@ -133,7 +134,14 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	 * @return the call sign as 8 characters array
 	 */
 	public char[] getIdentity() {
-		return mapChar(identity);
+		return Identification.decodeCallsign(identity).toCharArray();
+	}
+
+	/**
+	 * @return the call sign with 8 characters (including trailing spaces); instances are cached and shared
+	 */
+	public String getCallsign() {
+		return Identification.decodeCallsign(identity);
 	}
 
 	/**
@@ -197,7 +205,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	public String toString() {
 		return super.toString() + "\n\tIdentificationMsg{" +
 				"emitter_category=" + emitter_category +
-				", identity=" + Arrays.toString(identity) +
+				", identity=" + Arrays.toString(Identification.unpackIdentification(identity)) +
 				'}';
 	}
 }
@@ -28,7 +28,7 @@ import java.util.Arrays;
  */
 @SuppressWarnings("unused")
 public class AircraftIdentification extends BDSRegister implements Serializable {
-    private static final long serialVersionUID = -8005492828828163576L;
+    private static final long serialVersionUID = -5046907294423162229L;
 
 
     // Fields
@@ -37,7 +37,7 @@ public class AircraftIdentification extends BDSRegister implements Serializable
     // BDS Code
     private short bdsCode;
     // aircraft Identification
-    private byte[] aircraftIdentification;
+    private long aircraftIdentification;
 
     // Constructors
     // ------------
@@ -55,7 +55,7 @@ public class AircraftIdentification extends BDSRegister implements Serializable
         setBds(BDSRegister.bdsCode.AIRCRAFT_IDENTIFICATION);
 
         this.bdsCode = extractBdsCode(message);
-        this.aircraftIdentification = Identification.decodeAircraftIdentification(message);
+        this.aircraftIdentification = Identification.extractIdentification(message);
 
     }
 
@@ -66,7 +66,14 @@ public class AircraftIdentification extends BDSRegister implements Serializable
      * @return The call sign as 8 characters array
      */
     public char[] getAircraftIdentification() {
-        return Identification.mapChar(aircraftIdentification);
+        return Identification.decodeCallsign(aircraftIdentification).toCharArray();
+    }
+
+    /**
+     * @return The call sign with 8 characters (including trailing spaces); instances are cached and shared
+     */
+    public String getCallsign() {
+        return Identification.decodeCallsign(aircraftIdentification);
     }
 
     // Override
@@ -76,7 +83,7 @@ public class AircraftIdentification extends BDSRegister implements Serializable
     public String toString() {
         return "AircraftIdentification{" +
                 "bdsCode=" + bdsCode +
-                ", aircraftIdentification=" + Arrays.toString(aircraftIdentification) +
+                ", aircraftIdentification=" + Arrays.toString(Identification.unpackIdentification(aircraftIdentification)) +
                 '}';
     }
 
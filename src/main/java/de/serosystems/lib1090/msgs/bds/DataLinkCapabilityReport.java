@@ -275,6 +275,7 @@ public class DataLinkCapabilityReport extends BDSRegister implements Serializabl
      * Bit 36 shall be toggled each time the common usage GICB capability report (Register 1716) changes.
      * To avoid the generation of too many broadcast capability report changes,
      * Register 1716 shall be sampled at approximately one minute intervals to check for changes.
+     * Changes of both registers are reported by {@link de.serosystems.lib1090.CommBInference.CapabilityListener}.
      *
      * @return whether the common usage GICB capability report is set to true or false
      */
@@ -180,7 +180,7 @@ public class HeadingAndSpeed extends BDSRegister implements Serializable {
     }
 
     static Float computeMagneticHeading(boolean status, boolean sign, short value) {
-        return status ? (sign ? (float) ((-Math.pow(2, 10) + value) * 90 / 512) : value * 90 / 512) : null;
+        return status ? (sign ? (float) ((-Math.pow(2, 10) + value) * 90 / 512) : value * 90f / 512) : null;
     }
 
     static Short computeIndicatedAirspeed(boolean status, short value) {
@@ -178,11 +178,11 @@ public class TrackAndTurn extends BDSRegister implements Serializable {
     }
 
     static Float computeRollAngle(boolean rollAngleStatus, boolean rollAngleSign, short rollAngleValue) {
-        return rollAngleStatus ? rollAngleSign ? (float) ((-Math.pow(2,9) + rollAngleValue) * 45 / 256) : rollAngleValue * 45 / 256 : null;
+        return rollAngleStatus ? rollAngleSign ? (float) ((-Math.pow(2,9) + rollAngleValue) * 45 / 256) : rollAngleValue * 45f / 256 : null;
     }
 
     static Float computeTrueTrackAngle(boolean trueTrackAngleStatus, boolean trueTrackAngleSign, short trueTrackAngleValue) {
-        return trueTrackAngleStatus ? trueTrackAngleSign ? (float) ((-Math.pow(2,10) + trueTrackAngleValue) * 90 / 512) : trueTrackAngleValue * 90 / 512 : null;
+        return trueTrackAngleStatus ? trueTrackAngleSign ? (float) ((-Math.pow(2,10) + trueTrackAngleValue) * 90 / 512) : trueTrackAngleValue * 90f / 512 : null;
     }
 
     static Integer computeGroundSpeed(boolean groundSpeedStatus, short groundSpeedValue) {
@@ -190,7 +190,7 @@ public class TrackAndTurn extends BDSRegister implements Serializable {
     }
 
     static Float computeTrackAngleRate(boolean trackAngleRateStatus, boolean trackAngleRateSign, short trackAngleRateValue) {
-        return trackAngleRateStatus ? trackAngleRateSign ? (float) ((-Math.pow(2, 9) + trackAngleRateValue) * 8 / 256) : trackAngleRateValue * 8 / 256 :  null;
+        return trackAngleRateStatus ? trackAngleRateSign ? (float) ((-Math.pow(2, 9) + trackAngleRateValue) * 8 / 256) : trackAngleRateValue * 8f / 256 :  null;
     }
 
     static Integer computeTrueAirSpeed(boolean trueAirspeedStatus, short trueAirspeedValue) {
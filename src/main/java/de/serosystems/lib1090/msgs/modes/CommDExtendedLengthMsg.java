@@ -76,8 +76,8 @@ public class CommDExtendedLengthMsg extends ModeSDownlinkMsg implements Serializ
 
 		// extract Comm-D extended length message
 		message = getPayload();
-		ack = (getDownlinkFormat()&0x2)!=0;
-		seqno = (byte) ((getDownlinkFormat()&0x1)<<3|getFirstField());
+		ack = (getELMBits()&0x2)!=0;
+		seqno = (byte) ((getELMBits()&0x1)<<3|getFirstField());
 	}
 
 	/**
@@ -26,7 +26,9 @@ import java.io.Serializable;
 import java.util.Arrays;
 
 import static de.serosystems.lib1090.decoding.Identification.categoryDescription;
-import static de.serosystems.lib1090.decoding.Identification.mapChar;
+import static de.serosystems.lib1090.decoding.Identification.decodeCallsign;
+import static de.serosystems.lib1090.decoding.Identification.extractIdentification;
+import static de.serosystems.lib1090.decoding.Identification.unpackIdentification;
 
 /**
  * Decoder for TIS-B Identification and Category Message (DO-260B, 2.2.17.3.3).
@@ -34,10 +36,10 @@ import static de.serosystems.lib1090.decoding.Identification.mapChar;
  */
 public class IdentificationMsg extends ExtendedSquitter implements Serializable {
 
-	private static final long serialVersionUID = -1692656992966148114L;
+	private static final long serialVersionUID = 3912402110400304876L;
 
 	private byte emitter_category;
-	private byte[] identity;
+	private long identity;
 
 	/** protected no-arg constructor e.g. for serialization with Kryo **/
 	protected IdentificationMsg() { }
@@ -84,21 +86,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 		emitter_category = (byte) (msg[0] & 0x7);
 
 		// extract identity
-		identity = new byte[8];
-		int byte_off, bit_off;
-		for (int i=8; i>=1; i--) {
-			// calculate offsets
-			byte_off = (i*6)/8; bit_off = (i*6)%8;
-
-			// char aligned with byte?
-			if (bit_off == 0) identity[i-1] = (byte) (msg[byte_off]&0x3F);
-			else {
-				++byte_off;
-				identity[i-1] = (byte) (msg[byte_off]>>>(8-bit_off)&(0x3F>>>(6-bit_off)));
-				// should we add bits from the next byte?
-				if (bit_off < 6) identity[i-1] |= msg[byte_off-1]<<bit_off&0x3F;
-			}
-		}
+		identity = extractIdentification(msg);
 	}
 
 	/**
@@ -112,7 +100,14 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	 * @return the call sign as 8 characters array
 	 */
 	public char[] getIdentity() {
-		return mapChar(identity);
+		return decodeCallsign(identity).toCharArray();
+	}
+
+	/**
+	 * @return the call sign with 8 characters (including trailing spaces); instances are cached and shared
+	 */
+	public String getCallsign() {
+		return decodeCallsign(identity);
 	}
 
 	/**
@@ -127,7 +122,7 @@ public class IdentificationMsg extends ExtendedSquitter implements Serializable
 	public String toString() {
 		return super.toString() + "\n\tIdentificationMsg{" +
 				"emitter_category=" + emitter_category +
-				", identity=" + Arrays.toString(identity) +
+				", identity=" + Arrays.toString(unpackIdentification(identity)) +
 				'}';
 	}
 }
@@ -0,0 +1,276 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.decoding.Identification;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+/**
+ * Consistent copy of the state of one aircraft in an {@link AircraftTable}. Instances are filled by
+ * {@link AircraftTable#read(QualifiedAddress, AircraftState)} and can be reused to avoid allocations.
+ * Check the respective has-method before using a value.
+ */
+public class AircraftState {
+
+	long[] words = new long[AircraftTable.RECORD_SIZE];
+	QualifiedAddress address;
+	// record in the table the state was copied from
+	int record = -1;
+
+	private boolean valid(long flag) {
+		return (words[AircraftTable.VALID] & flag) != 0;
+	}
+
+	/**
+	 * @return the aircraft's address; not necessarily the canonical instance (see
+	 * {@link QualifiedAddress#lookup(long)}), compare with equals
+	 */
+	public QualifiedAddress getAddress() {
+		return address;
+	}
+
+	/**
+	 * @return time of the latest message of this aircraft in milliseconds
+	 */
+	public long getLastSeen() {
+		return words[AircraftTable.LAST_SEEN];
+	}
+
+	/**
+	 * @return number of messages received from this aircraft
+	 */
+	public long getMessageCount() {
+		return words[AircraftTable.MESSAGES];
+	}
+
+	/**
+	 * @return true if a (reasonable) position has been decoded
+	 */
+	public boolean hasPosition() {
+		return valid(AircraftTable.HAS_POSITION);
+	}
+
+	/**
+	 * @return latitude of the latest position in degrees
+	 */
+	public double getLatitude() {
+		return Double.longBitsToDouble(words[AircraftTable.LATITUDE]);
+	}
+
+	/**
+	 * @return longitude of the latest position in degrees
+	 */
+	public double getLongitude() {
+		return Double.longBitsToDouble(words[AircraftTable.LONGITUDE]);
+	}
+
+	/**
+	 * @return time of the latest position in milliseconds
+	 */
+	public long getPositionTime() {
+		return words[AircraftTable.POSITION_TIME];
+	}
+
+	/**
+	 * @return true if the on-ground status is known
+	 */
+	public boolean hasGroundStatus() {
+		return valid(AircraftTable.HAS_GROUND_STATUS);
+	}
+
+	/**
+	 * @return true if the aircraft reported to be on the ground
+	 */
+	public boolean isOnGround() {
+		return valid(AircraftTable.ON_GROUND);
+	}
+
+	/**
+	 * @return true if a barometric altitude is known
+	 */
+	public boolean hasBarometricAltitude() {
+		return valid(AircraftTable.HAS_ALTITUDE);
+	}
+
+	/**
+	 * @return barometric altitude in feet
+	 */
+	public int getBarometricAltitude() {
+		return (int) words[AircraftTable.ALTITUDE];
+	}
+
+	/**
+	 * @return time of the latest barometric altitude in milliseconds
+	 */
+	public long getAltitudeTime() {
+		return words[AircraftTable.ALTITUDE_TIME];
+	}
+
+	/**
+	 * @return true if a geometric altitude is known
+	 */
+	public boolean hasGeometricAltitude() {
+		return valid(AircraftTable.HAS_GEO_ALTITUDE);
+	}
+
+	/**
+	 * @return geometric altitude (above WGS84 ellipsoid) in feet
+	 */
+	public int getGeometricAltitude() {
+		return (int) words[AircraftTable.GEO_ALTITUDE];
+	}
+
+	/**
+	 * @return true if the ground speed is known
+	 */
+	public boolean hasGroundSpeed() {
+		return valid(AircraftTable.HAS_GROUND_SPEED);
+	}
+
+	/**
+	 * @return ground speed in knots
+	 */
+	public double getGroundSpeed() {
+		return Double.longBitsToDouble(words[AircraftTable.GROUND_SPEED]);
+	}
+
+	/**
+	 * @return true if the track angle is known
+	 */
+	public boolean hasTrack() {
+		return valid(AircraftTable.HAS_TRACK);
+	}
+
+	/**
+	 * @return true track angle (or heading on the surface) in degrees clockwise from north
+	 */
+	public double getTrack() {
+		return Double.longBitsToDouble(words[AircraftTable.TRACK]);
+	}
+
+	/**
+	 * @return time of the latest velocity in milliseconds
+	 */
+	public long getVelocityTime() {
+		return words[AircraftTable.VELOCITY_TIME];
+	}
+
+	/**
+	 * @return true if the vertical rate is known
+	 */
+	public boolean hasVerticalRate() {
+		return valid(AircraftTable.HAS_VERTICAL_RATE);
+	}
+
+	/**
+	 * @return vertical rate in feet per minute
+	 */
+	public int getVerticalRate() {
+		return (int) words[AircraftTable.VERTICAL_RATE];
+	}
+
+	/**
+	 * @return true if the heading is known
+	 */
+	public boolean hasHeading() {
+		return valid(AircraftTable.HAS_HEADING);
+	}
+
+	/**
+	 * @return heading in degrees clockwise from (magnetic or true) north
+	 */
+	public double getHeading() {
+		return Double.longBitsToDouble(words[AircraftTable.HEADING]);
+	}
+
+	/**
+	 * @return true if the airspeed is known
+	 */
+	public boolean hasAirspeed() {
+		return valid(AircraftTable.HAS_AIRSPEED);
+	}
+
+	/**
+	 * @return indicated or true airspeed in knots
+	 */
+	public int getAirspeed() {
+		return (int) words[AircraftTable.AIRSPEED];
+	}
+
+	/**
+	 * @return true if the callsign is known
+	 */
+	public boolean hasCallsign() {
+		return valid(AircraftTable.HAS_CALLSIGN);
+	}
+
+	/**
+	 * @return the call sign with 8 characters (including trailing spaces)
+	 */
+	public String getCallsign() {
+		return hasCallsign() ? Identification.decodeCallsign(words[AircraftTable.CALLSIGN]) : null;
+	}
+
+	/**
+	 * @return the emitter category as in the latest identification message
+	 */
+	public byte getEmitterCategory() {
+		return (byte) words[AircraftTable.CATEGORY];
+	}
+
+	/**
+	 * @return true if the Mode A code is known
+	 */
+	public boolean hasSquawk() {
+		return valid(AircraftTable.HAS_SQUAWK);
+	}
+
+	/**
+	 * @return Mode A code with its octal digits as decimal digits, e.g. 7700
+	 */
+	public int getSquawk() {
+		return (int) words[AircraftTable.SQUAWK];
+	}
+
+	/**
+	 * @return ADS-B version as tracked by the decoder
+	 */
+	public byte getAdsbVersion() {
+		return (byte) words[AircraftTable.ADSB_VERSION];
+	}
+
+	@Override
+	public String toString() {
+		return "AircraftState{" +
+				"address=" + address +
+				", lastSeen=" + getLastSeen() +
+				(hasPosition() ? ", latitude=" + getLatitude() + ", longitude=" + getLongitude() : "") +
+				(hasGroundStatus() ? ", onGround=" + isOnGround() : "") +
+				(hasBarometricAltitude() ? ", altitude=" + getBarometricAltitude() : "") +
+				(hasGeometricAltitude() ? ", geoAltitude=" + getGeometricAltitude() : "") +
+				(hasGroundSpeed() ? ", groundSpeed=" + getGroundSpeed() : "") +
+				(hasTrack() ? ", track=" + getTrack() : "") +
+				(hasVerticalRate() ? ", verticalRate=" + getVerticalRate() : "") +
+				(hasHeading() ? ", heading=" + getHeading() : "") +
+				(hasAirspeed() ? ", airspeed=" + getAirspeed() : "") +
+				(hasCallsign() ? ", callsign=" + getCallsign() : "") +
+				(hasSquawk() ? ", squawk=" + String.format("%04d", getSquawk()) : "") +
+				'}';
+	}
+}
@@ -0,0 +1,837 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.ModeSMessageVisitor;
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.decoding.Altitude;
+import de.serosystems.lib1090.decoding.Identification;
+import de.serosystems.lib1090.decoding.Identity;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.adsb.*;
+import de.serosystems.lib1090.msgs.modes.*;
+import de.serosystems.lib1090.msgs.tisb.FineAirbornePositionMsg;
+import de.serosystems.lib1090.msgs.tisb.FineSurfacePositionMsg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Table of the current state of all aircraft which merges the information of all downlink formats (positions,
+ * velocities, identification, Mode A codes, altitudes and ADS-B version) into one record per aircraft. Messages
+ * are decoded with a {@link StatefulModeSDecoder} and the fields of the aircraft's record are updated in place.
+ * <br>
+ * Records are fixed-width rows of primitive words. Each record is guarded by a sequence lock: the decoding
+ * thread never blocks and readers on other threads retry until they copied a consistent record (see
+ * {@link #read(QualifiedAddress, AircraftState)}). All update methods must be called by a single thread.
+ */
+public class AircraftTable {
+
+	/**
+	 * Receives the state of an aircraft after each update of its record. Listeners are called by the updating
+	 * thread and must not keep the state instance, it is reused.
+	 */
+	@FunctionalInterface
+	public interface UpdateListener {
+		/**
+		 * @param state the aircraft's state after the update
+		 */
+		void onUpdate(AircraftState state);
+
+		/**
+		 * Called when an aircraft is removed from the table.
+		 *
+		 * @param state the aircraft's last state
+		 */
+		default void onRemove(AircraftState state) {
+		}
+	}
+
+	// words of a record
+	static final int KEY = 0;
+	static final int VALID = 1;
+	static final int LAST_SEEN = 2;
+	static final int MESSAGES = 3;
+	static final int LATITUDE = 4;
+	static final int LONGITUDE = 5;
+	static final int POSITION_TIME = 6;
+	static final int ALTITUDE = 7;
+	static final int ALTITUDE_TIME = 8;
+	static final int GEO_ALTITUDE = 9;
+	static final int GROUND_SPEED = 10;
+	static final int TRACK = 11;
+	static final int VERTICAL_RATE = 12;
+	static final int VELOCITY_TIME = 13;
+	static final int HEADING = 14;
+	static final int AIRSPEED = 15;
+	static final int CALLSIGN = 16;
+	static final int CATEGORY = 17;
+	static final int SQUAWK = 18;
+	static final int ADSB_VERSION = 19;
+	static final int RECORD_SIZE = 20;
+
+	// bits of the VALID word
+	static final long HAS_POSITION = 1;
+	static final long HAS_GROUND_STATUS = 1 << 1;
+	static final long ON_GROUND = 1 << 2;
+	static final long HAS_ALTITUDE = 1 << 3;
+	static final long HAS_GEO_ALTITUDE = 1 << 4;
+	static final long HAS_GROUND_SPEED = 1 << 5;
+	static final long HAS_TRACK = 1 << 6;
+	static final long HAS_VERTICAL_RATE = 1 << 7;
+	static final long HAS_HEADING = 1 << 8;
+	static final long HAS_AIRSPEED = 1 << 9;
+	static final long HAS_CALLSIGN = 1 << 10;
+	static final long HAS_SQUAWK = 1 << 11;
+
+	// key of free records
+	private static final long FREE = -1;
+
+	// index slots: empty, removed, otherwise record + 1
+	private static final int EMPTY = 0;
+	private static final int REMOVED = -1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final StatefulModeSDecoder decoder;
+	private final Position receiver;
+	private final Updater updater = new Updater();
+	private UpdateListener[] listeners = new UpdateListener[0];
+	// state passed to listeners, only used by the updating thread
+	private final AircraftState updated = new AircraftState();
+
+	// records, their sequence numbers and the index; replaced as a whole when growing
+	private volatile Storage storage;
+
+	// records in use are below highWater; free records below highWater are on the free list
+	private volatile int highWater;
+	private int[] free = new int[16];
+	private int freeCount;
+	private volatile int size;
+	// index slots which are not empty
+	private int usedSlots;
+
+	/**
+	 * @param decoder  decoder which is used to decode all messages
+	 * @param receiver position of the receiver for position decoding (can be null)
+	 */
+	public AircraftTable(StatefulModeSDecoder decoder, Position receiver) {
+		this.decoder = decoder;
+		this.receiver = receiver;
+		storage = new Storage(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a table with a new {@link StatefulModeSDecoder} and without receiver position.
+	 */
+	public AircraftTable() {
+		this(new StatefulModeSDecoder(), null);
+	}
+
+	/**
+	 * Adds a listener which is called after each update. Must not be called concurrently with updates.
+	 *
+	 * @param listener the listener
+	 */
+	public void addListener(UpdateListener listener) {
+		listeners = Arrays.copyOf(listeners, listeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+	}
+
+	/**
+	 * @return the decoder of this table
+	 */
+	public StatefulModeSDecoder getDecoder() {
+		return decoder;
+	}
+
+	/**
+	 * Decodes a message and updates the record of the sending aircraft.
+	 *
+	 * @param msg       the incompletely decoded Mode S message
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded message, see {@link StatefulModeSDecoder#decode(ModeSDownlinkMsg, long)}
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 */
+	public ModeSDownlinkMsg update(ModeSDownlinkMsg msg, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+		updater.timestamp = timestamp;
+		return decoder.decode(msg, timestamp, updater);
+	}
+
+	/**
+	 * @param raw       the Mode S message as byte array
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded message
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 * @see #update(ModeSDownlinkMsg, long)
+	 */
+	public ModeSDownlinkMsg update(byte[] raw, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+		return update(new ModeSDownlinkMsg(raw), timestamp);
+	}
+
+	/**
+	 * @param raw       the Mode S message in hex representation
+	 * @param timestamp time of reception in milliseconds
+	 * @return the decoded message
+	 * @throws UnspecifiedFormatError if format is not specified
+	 * @throws BadFormatException     if format contains error
+	 * @see #update(ModeSDownlinkMsg, long)
+	 */
+	public ModeSDownlinkMsg update(String raw, long timestamp) throws BadFormatException, UnspecifiedFormatError {
+		return update(new ModeSDownlinkMsg(raw), timestamp);
+	}
+
+	/**
+	 * Removes all aircraft which have not been seen for more than maxIdle milliseconds and notifies the listeners.
+	 * Must be called by the thread which updates the table.
+	 *
+	 * @param now     current time in milliseconds
+	 * @param maxIdle maximum time since the last message in milliseconds
+	 * @return number of removed aircraft
+	 */
+	public int removeIdle(long now, long maxIdle) {
+		Storage st = storage;
+		AtomicLongArray d = st.data;
+		int removed = 0;
+		for (int record = 0; record < highWater; record++) {
+			int base = record * RECORD_SIZE;
+			long key = d.get(base + KEY);
+			if (key == FREE || now - d.get(base + LAST_SEEN) <= maxIdle) continue;
+
+			if (listeners.length > 0 && read(record, -1, updated)) {
+				for (UpdateListener listener : listeners)
+					listener.onRemove(updated);
+			}
+
+			st.index.lazySet(st.slot(key), REMOVED);
+			begin(st, record);
+			d.lazySet(base + KEY, FREE);
+			d.lazySet(base + VALID, 0);
+			end(st, record);
+			size--;
+
+			if (freeCount == free.length) free = Arrays.copyOf(free, 2 * freeCount);
+			free[freeCount++] = record;
+			removed++;
+		}
+		return removed;
+	}
+
+	/**
+	 * @return number of aircraft in the table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Copies the state of an aircraft. Can be called by any thread; never blocks the updating thread.
+	 *
+	 * @param address the aircraft's address
+	 * @param state   destination of the state
+	 * @return false if the aircraft is not in the table
+	 */
+	public boolean read(QualifiedAddress address, AircraftState state) {
+		long key = address.toKey();
+		int record = storage.record(key);
+		return record >= 0 && read(record, key, state);
+	}
+
+	/**
+	 * @param address the aircraft's address
+	 * @return a copy of the aircraft's state or null if it is not in the table
+	 * @see #read(QualifiedAddress, AircraftState)
+	 */
+	public AircraftState get(QualifiedAddress address) {
+		AircraftState state = new AircraftState();
+		return read(address, state) ? state : null;
+	}
+
+	/**
+	 * Copies the states of all aircraft. Each state is consistent in itself, but the states are not copied
+	 * at the same instant.
+	 *
+	 * @return copies of the states of all aircraft
+	 */
+	public List<AircraftState> snapshot() {
+		List<AircraftState> states = new ArrayList<>(size);
+		AircraftState state = new AircraftState();
+		for (int record = 0, n = highWater; record < n; record++) {
+			if (read(record, -1, state)) {
+				states.add(state);
+				state = new AircraftState();
+			}
+		}
+		return states;
+	}
+
+	/**
+	 * Seqlock read: retry until the sequence number is even and unchanged while copying. Records are always
+	 * below highWater and hence within the bounds of the storage, which is published before highWater.
+	 *
+	 * @param key expected key or -1 for any record in use
+	 */
+	private boolean read(int record, long key, AircraftState state) {
+		long[] words = state.words;
+		while (true) {
+			// sequence and data of the same storage, see Storage
+			Storage st = storage;
+			AtomicLongArray s = st.sequence, d = st.data;
+			long before = s.get(record);
+			if ((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			int base = record * RECORD_SIZE;
+			for (int i = 0; i < RECORD_SIZE; i++)
+				words[i] = d.get(base + i);
+
+			if (s.get(record) == before) {
+				if (words[KEY] == FREE || key != -1 && words[KEY] != key) return false;
+				state.address = QualifiedAddress.lookup(words[KEY]);
+				state.record = record;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Finds or creates the record of an aircraft and starts writing it.
+	 */
+	private int beginUpdate(QualifiedAddress address, long timestamp) {
+		long key = address.toKey();
+		Storage st = storage;
+		int slot = st.slot(key);
+		int record;
+		if (slot >= 0) {
+			record = st.index.get(slot) - 1;
+			begin(st, record);
+		} else {
+			record = allocate();
+			st = storage;
+			begin(st, record);
+			AtomicLongArray d = st.data;
+			int base = record * RECORD_SIZE;
+			for (int i = 0; i < RECORD_SIZE; i++)
+				d.lazySet(base + i, 0);
+			d.lazySet(base + KEY, key);
+			// the key is written before the record is published in the index
+			if (st.add(key, record)) usedSlots++;
+			size++;
+		}
+
+		AtomicLongArray d = st.data;
+		int base = record * RECORD_SIZE;
+		d.lazySet(base + LAST_SEEN, timestamp);
+		d.lazySet(base + MESSAGES, d.get(base + MESSAGES) + 1);
+		return base;
+	}
+
+	private int allocate() {
+		Storage st = storage;
+		int capacity = st.sequence.length();
+		boolean grow = freeCount == 0 && highWater == capacity;
+		if (grow || 2 * (usedSlots + 1) > st.index.length()) {
+			// copy into a new storage (with an index without removed slots); readers of the old storage get
+			// consistent but stale records
+			Storage grown = new Storage(grow ? 2 * capacity : capacity);
+			for (int i = 0; i < st.data.length(); i++) grown.data.lazySet(i, st.data.get(i));
+			for (int i = 0; i < capacity; i++) grown.sequence.lazySet(i, st.sequence.get(i));
+			usedSlots = 0;
+			for (int record = 0; record < highWater; record++) {
+				long key = grown.data.get(record * RECORD_SIZE + KEY);
+				if (key != FREE && grown.add(key, record)) usedSlots++;
+			}
+			storage = grown;
+		}
+
+		if (freeCount > 0) return free[--freeCount];
+		return highWater++;
+	}
+
+	/**
+	 * Ends the update of a record and notifies the listeners.
+	 */
+	private void finish(int base) {
+		int record = base / RECORD_SIZE;
+		end(storage, record);
+		if (listeners.length > 0 && read(record, -1, updated)) {
+			for (UpdateListener listener : listeners)
+				listener.onUpdate(updated);
+		}
+	}
+
+	private static void begin(Storage st, int record) {
+		// the odd sequence number needs no fence of its own: all writes of the record are release stores
+		// (lazySet), so a reader which sees any of them also sees the odd sequence number written before
+		st.sequence.lazySet(record, st.sequence.get(record) + 1);
+	}
+
+	private static void end(Storage st, int record) {
+		st.sequence.lazySet(record, st.sequence.get(record) + 1);
+	}
+
+	private void set(int base, int word, long value) {
+		storage.data.lazySet(base + word, value);
+	}
+
+	private void setValid(int base, long set, long clear) {
+		AtomicLongArray d = storage.data;
+		d.lazySet(base + VALID, d.get(base + VALID) & ~clear | set);
+	}
+
+	/**
+	 * Records, their sequence numbers (odd while a record is written) and an open addressing index from keys
+	 * to records. Published by a single volatile write, so readers always see arrays of the same generation.
+	 * Only the updating thread writes; it never writes to a storage after it has been replaced.
+	 */
+	private static final class Storage {
+		final AtomicLongArray data;
+		final AtomicLongArray sequence;
+		// linear probing with markers for removed records
+		final AtomicIntegerArray index;
+
+		Storage(int capacity) {
+			data = new AtomicLongArray(capacity * RECORD_SIZE);
+			sequence = new AtomicLongArray(capacity);
+			index = new AtomicIntegerArray(4 * capacity);
+			for (int record = 0; record < capacity; record++)
+				data.lazySet(record * RECORD_SIZE + KEY, FREE);
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ h >>> 32);
+		}
+
+		/**
+		 * Can be called by any thread. The key of the record is only a hint, readers validate it while copying
+		 * the record.
+		 *
+		 * @return the record of a key or -1 if there is none
+		 */
+		int record(long key) {
+			int mask = index.length() - 1;
+			for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+				int entry = index.get(i);
+				if (entry == EMPTY) return -1;
+				if (entry != REMOVED && data.get((entry - 1) * RECORD_SIZE + KEY) == key) return entry - 1;
+			}
+		}
+
+		/**
+		 * Must only be called by the updating thread.
+		 *
+		 * @return the index slot of a key or -1 if there is none
+		 */
+		int slot(long key) {
+			int mask = index.length() - 1;
+			for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+				int entry = index.get(i);
+				if (entry == EMPTY) return -1;
+				if (entry != REMOVED && data.get((entry - 1) * RECORD_SIZE + KEY) == key) return i;
+			}
+		}
+
+		/**
+		 * Adds a key which is not in the index.
+		 *
+		 * @return true if an empty slot has been used (rather than a removed one)
+		 */
+		boolean add(long key, int record) {
+			int mask = index.length() - 1;
+			for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+				int entry = index.get(i);
+				if (entry == EMPTY || entry == REMOVED) {
+					index.lazySet(i, record + 1);
+					return entry == EMPTY;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates the records; all methods return the message itself.
+	 */
+	private class Updater implements ModeSMessageVisitor<ModeSDownlinkMsg> {
+		long timestamp;
+
+		private void touch(ModeSDownlinkMsg msg) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			finish(base);
+		}
+
+		private void altitude(int base, int altitude) {
+			if (altitude == Altitude.UNAVAILABLE) return;
+			set(base, ALTITUDE, altitude);
+			set(base, ALTITUDE_TIME, timestamp);
+			setValid(base, HAS_ALTITUDE, 0);
+		}
+
+		private void airborne(int base, Boolean airborne) {
+			if (airborne == null) return;
+			setValid(base, airborne ? HAS_GROUND_STATUS : HAS_GROUND_STATUS | ON_GROUND, airborne ? ON_GROUND : 0);
+		}
+
+		private void squawk(int base, short code) {
+			set(base, SQUAWK, Identity.decodeIdentityInt(code));
+			setValid(base, HAS_SQUAWK, 0);
+		}
+
+		private ModeSDownlinkMsg modes(ModeSDownlinkMsg msg, short altitudeCode, Boolean airborne) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			altitude(base, Altitude.decode13BitAltitudeInt(altitudeCode));
+			airborne(base, airborne);
+			finish(base);
+			return msg;
+		}
+
+		private ModeSDownlinkMsg identity(ModeSDownlinkMsg msg, short identityCode, Boolean airborne) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			squawk(base, identityCode);
+			airborne(base, airborne);
+			finish(base);
+			return msg;
+		}
+
+		private <T extends ModeSDownlinkMsg & PositionMsg> ModeSDownlinkMsg position(T msg, boolean surface,
+																					  Double groundSpeed, Double heading) {
+			// decode before starting the update, the decoder might be slow
+			Position pos = decoder.extractPosition(msg.getAddress(), msg, receiver);
+
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			if (pos != null && pos.isReasonable()) {
+				set(base, LATITUDE, Double.doubleToRawLongBits(pos.getLatitude()));
+				set(base, LONGITUDE, Double.doubleToRawLongBits(pos.getLongitude()));
+				set(base, POSITION_TIME, timestamp);
+				setValid(base, HAS_POSITION, 0);
+			}
+			setValid(base, surface ? HAS_GROUND_STATUS | ON_GROUND : HAS_GROUND_STATUS, surface ? 0 : ON_GROUND);
+
+			if (!surface && msg.hasValidAltitude()) {
+				if (msg.getAltitudeType() == Position.AltitudeType.BAROMETRIC_ALTITUDE) {
+					altitude(base, msg.getAltitude());
+				} else if (msg.getAltitudeType() == Position.AltitudeType.ABOVE_WGS84_ELLIPSOID) {
+					set(base, GEO_ALTITUDE, msg.getAltitude());
+					setValid(base, HAS_GEO_ALTITUDE, 0);
+				}
+			}
+			if (groundSpeed != null) {
+				set(base, GROUND_SPEED, Double.doubleToRawLongBits(groundSpeed));
+				set(base, VELOCITY_TIME, timestamp);
+				setValid(base, HAS_GROUND_SPEED, 0);
+			}
+			if (heading != null) {
+				set(base, TRACK, Double.doubleToRawLongBits(heading));
+				setValid(base, HAS_TRACK, 0);
+			}
+			finish(base);
+			return msg;
+		}
+
+		private ModeSDownlinkMsg velocity(ModeSDownlinkMsg msg, Integer verticalRate,
+										  Double groundSpeed, Double track, Double heading, Integer airspeed) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			set(base, VELOCITY_TIME, timestamp);
+			if (groundSpeed != null) {
+				set(base, GROUND_SPEED, Double.doubleToRawLongBits(groundSpeed));
+				setValid(base, HAS_GROUND_SPEED, 0);
+			}
+			if (track != null) {
+				set(base, TRACK, Double.doubleToRawLongBits(track));
+				setValid(base, HAS_TRACK, 0);
+			}
+			if (heading != null) {
+				set(base, HEADING, Double.doubleToRawLongBits(heading));
+				setValid(base, HAS_HEADING, 0);
+			}
+			if (airspeed != null) {
+				set(base, AIRSPEED, airspeed);
+				setValid(base, HAS_AIRSPEED, 0);
+			}
+			if (verticalRate != null) {
+				set(base, VERTICAL_RATE, verticalRate);
+				setValid(base, HAS_VERTICAL_RATE, 0);
+			}
+			setValid(base, HAS_GROUND_STATUS, ON_GROUND);
+			finish(base);
+			return msg;
+		}
+
+		private ModeSDownlinkMsg identification(ExtendedSquitter msg, byte category) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			set(base, CALLSIGN, Identification.extractIdentification(msg.getMessage()));
+			set(base, CATEGORY, category);
+			setValid(base, HAS_CALLSIGN, 0);
+			finish(base);
+			return msg;
+		}
+
+		private ModeSDownlinkMsg version(ModeSDownlinkMsg msg) {
+			byte version = decoder.getAdsbVersion(msg);
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			set(base, ADSB_VERSION, version);
+			finish(base);
+			return msg;
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitDefault(ModeSDownlinkMsg msg) {
+			if (msg.getAddress() != null) touch(msg);
+			return msg;
+		}
+
+		// Mode S
+
+		@Override
+		public ModeSDownlinkMsg visitShortACAS(ShortACAS msg) {
+			return modes(msg, msg.getAltitudeCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitLongACAS(LongACAS msg) {
+			return modes(msg, msg.getAltitudeCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAltitudeReply(AltitudeReply msg) {
+			return modes(msg, msg.getAltitudeCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitCommBAltitudeReply(CommBAltitudeReply msg) {
+			return modes(msg, msg.getAltitudeCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitIdentifyReply(IdentifyReply msg) {
+			return identity(msg, msg.getIdentityCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitCommBIdentifyReply(CommBIdentifyReply msg) {
+			return identity(msg, msg.getIdentityCode(), msg.isAirborne());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAllCallReply(AllCallReply msg) {
+			int base = beginUpdate(msg.getAddress(), timestamp);
+			airborne(base, msg.isAirborne());
+			finish(base);
+			return msg;
+		}
+
+		// positions
+
+		@Override
+		public ModeSDownlinkMsg visitAirbornePositionV0(AirbornePositionV0Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAirbornePositionV1(AirbornePositionV1Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAirbornePositionV2(AirbornePositionV2Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirbornePositionV0(de.serosystems.lib1090.msgs.adsr.AirbornePositionV0Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirbornePositionV1(de.serosystems.lib1090.msgs.adsr.AirbornePositionV1Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirbornePositionV2(de.serosystems.lib1090.msgs.adsr.AirbornePositionV2Msg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitTisbFineAirbornePosition(FineAirbornePositionMsg msg) {
+			return position(msg, false, null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitSurfacePositionV0(SurfacePositionV0Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitSurfacePositionV1(SurfacePositionV1Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitSurfacePositionV2(SurfacePositionV2Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrSurfacePositionV0(de.serosystems.lib1090.msgs.adsr.SurfacePositionV0Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrSurfacePositionV1(de.serosystems.lib1090.msgs.adsr.SurfacePositionV1Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrSurfacePositionV2(de.serosystems.lib1090.msgs.adsr.SurfacePositionV2Msg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitTisbFineSurfacePosition(FineSurfacePositionMsg msg) {
+			return position(msg, true, msg.getGroundSpeed(), msg.getHeading());
+		}
+
+		// velocities
+
+		@Override
+		public ModeSDownlinkMsg visitVelocityOverGround(VelocityOverGroundMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, msg.getGroundSpeed(), msg.getTrueTrackAngle(), null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrVelocityOverGround(de.serosystems.lib1090.msgs.adsr.VelocityOverGroundMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, msg.getGroundSpeed(), msg.getTrueTrackAngle(), null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitTisbVelocityOverGround(de.serosystems.lib1090.msgs.tisb.VelocityOverGroundMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, msg.getGroundSpeed(), msg.getHeading(), null, null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAirspeedHeading(AirspeedHeadingMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, null, null, msg.getHeading(), msg.getAirspeed());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirspeedHeading(de.serosystems.lib1090.msgs.adsr.AirspeedHeadingMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, null, null, msg.getHeading(), msg.getAirspeed());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitTisbAirspeedHeading(de.serosystems.lib1090.msgs.tisb.AirspeedHeadingMsg msg) {
+			return velocity(msg, msg.hasVerticalRateInfo() ? msg.getVerticalRate() : null, null, null, msg.getHeading(), msg.getAirspeed());
+		}
+
+		// identification and Mode A code
+
+		@Override
+		public ModeSDownlinkMsg visitIdentification(IdentificationMsg msg) {
+			return identification(msg, msg.getEmitterCategory());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrIdentification(de.serosystems.lib1090.msgs.adsr.IdentificationMsg msg) {
+			return identification(msg, msg.getEmitterCategory());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitTisbIdentification(de.serosystems.lib1090.msgs.tisb.IdentificationMsg msg) {
+			return identification(msg, msg.getEmitterCategory());
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitModeACodeV1(ModeACodeV1Msg msg) {
+			return identity(msg, msg.getModeACode(), null);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitEmergencyOrPriorityStatus(EmergencyOrPriorityStatusMsg msg) {
+			if (msg instanceof EmergencyOrPriorityStatusV2Msg)
+				return identity(msg, ((EmergencyOrPriorityStatusV2Msg) msg).getModeACode(), null);
+			touch(msg);
+			return msg;
+		}
+
+		// operational status
+
+		@Override
+		public ModeSDownlinkMsg visitOperationalStatusV0(OperationalStatusV0Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAirborneOperationalStatusV1(AirborneOperationalStatusV1Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAirborneOperationalStatusV2(AirborneOperationalStatusV2Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitSurfaceOperationalStatusV1(SurfaceOperationalStatusV1Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitSurfaceOperationalStatusV2(SurfaceOperationalStatusV2Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrOperationalStatusV0(de.serosystems.lib1090.msgs.adsr.OperationalStatusV0Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirborneOperationalStatusV1(de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV1Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrAirborneOperationalStatusV2(de.serosystems.lib1090.msgs.adsr.AirborneOperationalStatusV2Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrSurfaceOperationalStatusV1(de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV1Msg msg) {
+			return version(msg);
+		}
+
+		@Override
+		public ModeSDownlinkMsg visitAdsrSurfaceOperationalStatusV2(de.serosystems.lib1090.msgs.adsr.SurfaceOperationalStatusV2Msg msg) {
+			return version(msg);
+		}
+	}
+}
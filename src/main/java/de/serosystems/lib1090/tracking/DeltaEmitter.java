@@ -0,0 +1,273 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import java.util.Arrays;
+
+import static java.lang.Math.*;
+
+/**
+ * Turns the updates of an {@link AircraftTable} into a stream of changes. The emitter compares each field of an
+ * updated aircraft with the value last emitted for this aircraft and calls its {@link DeltaListener} only if at
+ * least one field changed. Numeric fields can have a deadband (changes within the deadband are suppressed) and
+ * each field can have a minimum interval between two emitted changes.
+ * <br>
+ * Usage: {@code table.addListener(new DeltaEmitter(listener).setDeadband(Field.POSITION, 50))}. Like the
+ * table's listeners, the emitter must only be used by the updating thread.
+ */
+public class DeltaEmitter implements AircraftTable.UpdateListener {
+
+	/**
+	 * Fields of the aircraft state which are compared
+	 */
+	public enum Field {
+		/** latitude and longitude; deadband in meters */
+		POSITION,
+		/** on-ground status */
+		GROUND_STATUS,
+		/** barometric altitude; deadband in feet */
+		ALTITUDE,
+		/** geometric altitude; deadband in feet */
+		GEO_ALTITUDE,
+		/** ground speed; deadband in knots */
+		GROUND_SPEED,
+		/** track angle; deadband in degrees */
+		TRACK,
+		/** vertical rate; deadband in feet per minute */
+		VERTICAL_RATE,
+		/** heading; deadband in degrees */
+		HEADING,
+		/** airspeed; deadband in knots */
+		AIRSPEED,
+		/** callsign and emitter category */
+		CALLSIGN,
+		/** Mode A code */
+		SQUAWK,
+		/** ADS-B version */
+		ADSB_VERSION;
+
+		/**
+		 * @param changed bit mask of changed fields as passed to {@link DeltaListener#onDelta(AircraftState, int)}
+		 * @return true if this field is in the mask
+		 */
+		public boolean in(int changed) {
+			return (changed & mask()) != 0;
+		}
+
+		/**
+		 * @return bit of this field in masks of changed fields
+		 */
+		public int mask() {
+			return 1 << ordinal();
+		}
+	}
+
+	/**
+	 * Receives the changes.
+	 */
+	@FunctionalInterface
+	public interface DeltaListener {
+		/**
+		 * @param state   the aircraft's state; reused, must not be kept
+		 * @param changed bit mask of the changed fields, see {@link Field#in(int)}
+		 */
+		void onDelta(AircraftState state, int changed);
+	}
+
+	private static final Field[] FIELDS = Field.values();
+	private static final int FIELD_COUNT = FIELDS.length;
+	// one value per field, POSITION has a second value (longitude) at the end
+	private static final int SLOTS = FIELD_COUNT + 1;
+
+	private final DeltaListener listener;
+	private final double[] deadband = new double[FIELD_COUNT];
+	private final long[] minInterval = new long[FIELD_COUNT];
+
+	// per table record: key of the aircraft, fields emitted so far, last emitted values and times
+	private long[] keys = new long[0];
+	private int[] emitted = new int[0];
+	private double[] values = new double[0];
+	private long[] times = new long[0];
+
+	private long updates, deltas;
+
+	/**
+	 * @param listener receives the changes
+	 */
+	public DeltaEmitter(DeltaListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * @param field    a numeric field (including {@link Field#POSITION})
+	 * @param deadband changes up to this amount are not emitted; in the unit of the field
+	 * @return this emitter
+	 */
+	public DeltaEmitter setDeadband(Field field, double deadband) {
+		if (field.compareTo(Field.AIRSPEED) > 0 || field == Field.GROUND_STATUS)
+			throw new IllegalArgumentException("Field " + field + " has no deadband");
+		if (deadband < 0)
+			throw new IllegalArgumentException("Deadband must not be negative");
+		this.deadband[field.ordinal()] = deadband;
+		return this;
+	}
+
+	/**
+	 * @param field    the field
+	 * @param interval minimum time between two emitted changes of this field in milliseconds
+	 * @return this emitter
+	 */
+	public DeltaEmitter setMinInterval(Field field, long interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("Interval must not be negative");
+		minInterval[field.ordinal()] = interval;
+		return this;
+	}
+
+	/**
+	 * @return number of updates seen by this emitter
+	 */
+	public long getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * @return number of emitted changes
+	 */
+	public long getDeltas() {
+		return deltas;
+	}
+
+	@Override
+	public void onUpdate(AircraftState state) {
+		++updates;
+		int record = state.record;
+		if (record < 0) return;
+		if (record >= keys.length) grow(record);
+
+		long key = state.words[AircraftTable.KEY];
+		if (keys[record] != key) {
+			// new aircraft in this record
+			keys[record] = key;
+			emitted[record] = 0;
+		}
+
+		long now = state.getLastSeen();
+		int changed = 0;
+
+		if (state.hasPosition()) {
+			int slot = record * SLOTS;
+			double lat = state.getLatitude(), lon = state.getLongitude();
+			if (!wasEmitted(record, Field.POSITION) ||
+					distance(values[slot], values[slot + FIELD_COUNT], lat, lon) > deadband[Field.POSITION.ordinal()]) {
+				if (emit(record, Field.POSITION, now, lat)) {
+					values[slot + FIELD_COUNT] = lon;
+					changed |= Field.POSITION.mask();
+				}
+			}
+		}
+
+		if (state.hasGroundStatus())
+			changed |= compare(record, Field.GROUND_STATUS, now, state.isOnGround() ? 1 : 0);
+		if (state.hasBarometricAltitude())
+			changed |= compare(record, Field.ALTITUDE, now, state.getBarometricAltitude());
+		if (state.hasGeometricAltitude())
+			changed |= compare(record, Field.GEO_ALTITUDE, now, state.getGeometricAltitude());
+		if (state.hasGroundSpeed())
+			changed |= compare(record, Field.GROUND_SPEED, now, state.getGroundSpeed());
+		if (state.hasTrack())
+			changed |= compareAngle(record, Field.TRACK, now, state.getTrack());
+		if (state.hasVerticalRate())
+			changed |= compare(record, Field.VERTICAL_RATE, now, state.getVerticalRate());
+		if (state.hasHeading())
+			changed |= compareAngle(record, Field.HEADING, now, state.getHeading());
+		if (state.hasAirspeed())
+			changed |= compare(record, Field.AIRSPEED, now, state.getAirspeed());
+		if (state.hasCallsign())
+			changed |= compare(record, Field.CALLSIGN, now,
+					// 48 bit callsign and 3 bit category fit into the mantissa
+					state.words[AircraftTable.CALLSIGN] * 8 + state.getEmitterCategory());
+		if (state.hasSquawk())
+			changed |= compare(record, Field.SQUAWK, now, state.getSquawk());
+		changed |= compare(record, Field.ADSB_VERSION, now, state.getAdsbVersion());
+
+		if (changed != 0) {
+			++deltas;
+			listener.onDelta(state, changed);
+		}
+	}
+
+	@Override
+	public void onRemove(AircraftState state) {
+		if (state.record >= 0 && state.record < keys.length)
+			keys[state.record] = -1;
+	}
+
+	private int compare(int record, Field field, long now, double value) {
+		int f = field.ordinal();
+		if (wasEmitted(record, field) && abs(value - values[record * SLOTS + f]) <= deadband[f]) return 0;
+		return emit(record, field, now, value) ? field.mask() : 0;
+	}
+
+	private int compareAngle(int record, Field field, long now, double value) {
+		int f = field.ordinal();
+		if (wasEmitted(record, field)) {
+			double diff = abs(value - values[record * SLOTS + f]) % 360.;
+			if (min(diff, 360. - diff) <= deadband[f]) return 0;
+		}
+		return emit(record, field, now, value) ? field.mask() : 0;
+	}
+
+	/**
+	 * Records the emitted value unless the field's minimum interval has not passed yet.
+	 */
+	private boolean emit(int record, Field field, long now, double value) {
+		int f = field.ordinal();
+		int slot = record * SLOTS + f;
+		if (wasEmitted(record, field) && now - times[record * FIELD_COUNT + f] < minInterval[f]) return false;
+
+		values[slot] = value;
+		times[record * FIELD_COUNT + f] = now;
+		emitted[record] |= field.mask();
+		return true;
+	}
+
+	private boolean wasEmitted(int record, Field field) {
+		return (emitted[record] & field.mask()) != 0;
+	}
+
+	private void grow(int record) {
+		int capacity = max(1024, Integer.highestOneBit(record) << 1);
+		int old = keys.length;
+		keys = Arrays.copyOf(keys, capacity);
+		Arrays.fill(keys, old, capacity, -1);
+		emitted = Arrays.copyOf(emitted, capacity);
+		values = Arrays.copyOf(values, capacity * SLOTS);
+		times = Arrays.copyOf(times, capacity * FIELD_COUNT);
+	}
+
+	/**
+	 * Haversine distance in meters
+	 */
+	private static double distance(double lat0, double lon0, double lat1, double lon1) {
+		double a = pow(sin(toRadians(lat1 - lat0) / 2.0), 2);
+		double b = cos(toRadians(lat0)) * cos(toRadians(lat1)) * pow(sin(toRadians(lon1 - lon0) / 2.0), 2);
+		return 6371000.0 * 2 * asin(sqrt(a + b));
+	}
+}
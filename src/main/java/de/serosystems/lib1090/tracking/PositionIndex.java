@@ -0,0 +1,423 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.Math.*;
+
+/**
+ * Spatial index of the current positions of the aircraft in an {@link AircraftTable} for bounding box, radius and
+ * k-nearest neighbour queries. Register it with {@link AircraftTable#addListener(AircraftTable.UpdateListener)};
+ * it is updated with each new position.
+ * <br>
+ * Aircraft are kept in a uniform latitude/longitude grid. Each cell holds a primitive array of table records
+ * which is replaced when an aircraft enters or leaves the cell (copy on write); positions are stored as two
+ * floats packed into one word per record. Queries can run on any number of threads concurrently with updates
+ * and never block them (addresses are resolved with {@link QualifiedAddress#lookup(long)}). Each query sees the latest position of each aircraft it visits, but an aircraft which
+ * crosses a cell border while a query is running may be missed or reported twice by that query.
+ */
+public class PositionIndex implements AircraftTable.UpdateListener {
+
+	/**
+	 * Receives the results of a query.
+	 */
+	@FunctionalInterface
+	public interface Hit {
+		/**
+		 * @param address   address of the aircraft
+		 * @param latitude  the aircraft's latitude in degrees
+		 * @param longitude the aircraft's longitude in degrees
+		 */
+		void accept(QualifiedAddress address, double latitude, double longitude);
+	}
+
+	private static final double METERS_PER_DEGREE = 6371000.0 * PI / 180.;
+	private static final int[] EMPTY = new int[0];
+
+	private final double cellSize;
+	private final int latCells;
+	private final int lonCells;
+
+	// cell -> records in this cell
+	private final AtomicReferenceArray<int[]> cells;
+
+	// per record: key of the aircraft and packed position; replaced when growing
+	private volatile AtomicLongArray keys = new AtomicLongArray(0);
+	private volatile AtomicLongArray positions = new AtomicLongArray(0);
+
+	// per record: cell or -1 if not indexed; only used by the updating thread
+	private int[] cellOf = new int[0];
+	// written by the updating thread only
+	private volatile int size;
+
+	/**
+	 * @param cellSize size of the grid cells in degrees; must divide 180
+	 */
+	public PositionIndex(double cellSize) {
+		double cells = 180. / cellSize;
+		if (cellSize <= 0 || abs(cells - rint(cells)) > 1e-9)
+			throw new IllegalArgumentException("Cell size must divide 180 degrees");
+		this.cellSize = cellSize;
+		latCells = (int) rint(cells);
+		lonCells = 2 * latCells;
+		this.cells = new AtomicReferenceArray<>(latCells * lonCells);
+	}
+
+	/**
+	 * Creates an index with cells of one degree.
+	 */
+	public PositionIndex() {
+		this(1.);
+	}
+
+	/**
+	 * @return number of indexed aircraft
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void onUpdate(AircraftState state) {
+		if (!state.hasPosition() || state.record < 0) return;
+		int record = state.record;
+		if (record >= cellOf.length) grow(record);
+
+		long packed = pack(state.getLatitude(), state.getLongitude());
+		// the cell of the stored (rounded) position, queries check it against the cell they visit
+		int cell = cell(unpackLatitude(packed), unpackLongitude(packed));
+		int old = cellOf[record];
+
+		if (old == cell) {
+			positions.lazySet(record, packed);
+			return;
+		}
+
+		// add to the new cell before removing from the old one, so queries visiting the cells in the same order
+		// as the aircraft moves do not miss it
+		keys.lazySet(record, state.words[AircraftTable.KEY]);
+		positions.lazySet(record, packed);
+		add(cell, record);
+		if (old >= 0) remove(old, record);
+		else size++;
+		cellOf[record] = cell;
+	}
+
+	@Override
+	public void onRemove(AircraftState state) {
+		int record = state.record;
+		if (record < 0 || record >= cellOf.length || cellOf[record] < 0) return;
+		remove(cellOf[record], record);
+		cellOf[record] = -1;
+		size--;
+	}
+
+	/**
+	 * Finds all aircraft within a bounding box. The box may cross the antimeridian (west &gt; east).
+	 *
+	 * @param south southern latitude in degrees
+	 * @param west  western longitude in degrees
+	 * @param north northern latitude in degrees
+	 * @param east  eastern longitude in degrees
+	 * @param hit   called for each aircraft in the box
+	 * @return number of aircraft found
+	 */
+	public int withinBox(double south, double west, double north, double east, Hit hit) {
+		if (south > north) return 0;
+		int found = 0;
+		int lonSpan = lonSpan(west, east);
+		int y0 = latCell(south), y1 = latCell(north), x0 = lonCell(west);
+		for (int y = y0; y <= y1; y++) {
+			for (int dx = 0; dx <= lonSpan; dx++) {
+				int cell = y * lonCells + (x0 + dx) % lonCells;
+				int[] members = cells.get(cell);
+				if (members == null) continue;
+
+				AtomicLongArray pos = positions, k = keys;
+				for (int record : members) {
+					long packed = pos.get(record);
+					double lat = unpackLatitude(packed), lon = unpackLongitude(packed);
+					if (cell(lat, lon) != cell) continue; // moved, reported in its current cell
+					if (lat < south || lat > north || !withinLongitudes(lon, west, east)) continue;
+					hit.accept(QualifiedAddress.lookup(k.get(record)), lat, lon);
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @param south southern latitude in degrees
+	 * @param west  western longitude in degrees
+	 * @param north northern latitude in degrees
+	 * @param east  eastern longitude in degrees
+	 * @return addresses of all aircraft within the bounding box
+	 * @see #withinBox(double, double, double, double, Hit)
+	 */
+	public List<QualifiedAddress> withinBox(double south, double west, double north, double east) {
+		List<QualifiedAddress> result = new ArrayList<>();
+		withinBox(south, west, north, east, (address, lat, lon) -> result.add(address));
+		return result;
+	}
+
+	/**
+	 * Finds all aircraft within a radius around a position.
+	 *
+	 * @param latitude  latitude of the center in degrees
+	 * @param longitude longitude of the center in degrees
+	 * @param radius    radius in meters
+	 * @param hit       called for each aircraft within the radius
+	 * @return number of aircraft found
+	 */
+	public int withinRadius(double latitude, double longitude, double radius, Hit hit) {
+		double dLat = radius / METERS_PER_DEGREE;
+		double south = max(-90., latitude - dLat), north = min(90., latitude + dLat);
+		double cosLat = cos(toRadians(max(abs(south), abs(north))));
+		double dLon = cosLat < 1e-9 ? 180. : radius / (METERS_PER_DEGREE * cosLat);
+
+		double west = -180., east = 180.;
+		if (dLon < 180.) {
+			west = normalize(longitude - dLon);
+			east = normalize(longitude + dLon);
+		}
+
+		int[] found = {0};
+		withinBox(south, west, north, east, (address, lat, lon) -> {
+			if (distance(latitude, longitude, lat, lon) <= radius) {
+				hit.accept(address, lat, lon);
+				found[0]++;
+			}
+		});
+		return found[0];
+	}
+
+	/**
+	 * @param latitude  latitude of the center in degrees
+	 * @param longitude longitude of the center in degrees
+	 * @param radius    radius in meters
+	 * @return addresses of all aircraft within the radius
+	 */
+	public List<QualifiedAddress> withinRadius(double latitude, double longitude, double radius) {
+		List<QualifiedAddress> result = new ArrayList<>();
+		withinRadius(latitude, longitude, radius, (address, lat, lon) -> result.add(address));
+		return result;
+	}
+
+	/**
+	 * Finds the k aircraft nearest to a position. Searches rings of cells around the position until no closer
+	 * aircraft can be found.
+	 *
+	 * @param latitude  latitude in degrees
+	 * @param longitude longitude in degrees
+	 * @param k         number of aircraft
+	 * @return addresses of up to k aircraft ordered by distance
+	 */
+	public List<QualifiedAddress> nearest(double latitude, double longitude, int k) {
+		if (k <= 0) return new ArrayList<>();
+
+		// max-heap of the k best distances
+		double[] dist = new double[k];
+		long[] key = new long[k];
+		int n = 0;
+
+		int cy = latCell(latitude), cx = lonCell(longitude);
+		int maxRing = max(latCells, lonCells / 2);
+		for (int ring = 0; ring <= maxRing; ring++) {
+			if (n == k && dist[0] < ringDistance(latitude, ring)) break;
+
+			for (int y = max(0, cy - ring); y <= min(latCells - 1, cy + ring); y++) {
+				boolean edge = y == cy - ring || y == cy + ring;
+				int span = min(ring, lonCells / 2);
+				for (int dx = -span; dx <= span; dx++) {
+					// only the border of the ring, the inner cells have been searched already
+					if (!edge && abs(dx) != ring) continue;
+					// both ends denote the same column when the ring wraps around
+					if (dx == span && span == lonCells / 2) continue;
+					int cell = y * lonCells + Math.floorMod(cx + dx, lonCells);
+					int[] members = cells.get(cell);
+					if (members == null) continue;
+
+					AtomicLongArray pos = positions, keyArray = keys;
+					for (int record : members) {
+						long packed = pos.get(record);
+						double lat = unpackLatitude(packed), lon = unpackLongitude(packed);
+						if (cell(lat, lon) != cell) continue;
+						double d = distance(latitude, longitude, lat, lon);
+						if (n < k) {
+							dist[n] = d;
+							key[n] = keyArray.get(record);
+							siftUp(dist, key, n++);
+						} else if (d < dist[0]) {
+							dist[0] = d;
+							key[0] = keyArray.get(record);
+							siftDown(dist, key, n);
+						}
+					}
+				}
+			}
+		}
+
+		// sort by distance in place: move the farthest of the heap to its end
+		for (int m = n - 1; m > 0; m--) {
+			swap(dist, key, 0, m);
+			siftDown(dist, key, m);
+		}
+		List<QualifiedAddress> result = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) result.add(QualifiedAddress.lookup(key[i]));
+		return result;
+	}
+
+	/**
+	 * Lower bound of the distance of positions in the given ring of cells around a position.
+	 */
+	private double ringDistance(double latitude, int ring) {
+		if (ring == 0) return 0.;
+		double gap = toRadians((ring - 1) * cellSize);
+		// longitude degrees shrink towards the poles
+		double cosLat = cos(toRadians(min(90., abs(latitude) + ring * cellSize)));
+		return 2 * 6371000.0 * cosLat * sin(min(gap, PI) / 2);
+	}
+
+	private void add(int cell, int record) {
+		int[] members = cells.get(cell);
+		if (members == null) members = EMPTY;
+		int[] grown = Arrays.copyOf(members, members.length + 1);
+		grown[members.length] = record;
+		cells.set(cell, grown);
+	}
+
+	private void remove(int cell, int record) {
+		int[] members = cells.get(cell);
+		int i = 0;
+		while (members[i] != record) i++;
+		if (members.length == 1) {
+			cells.set(cell, null);
+			return;
+		}
+		int[] shrunk = new int[members.length - 1];
+		System.arraycopy(members, 0, shrunk, 0, i);
+		System.arraycopy(members, i + 1, shrunk, i, members.length - i - 1);
+		cells.set(cell, shrunk);
+	}
+
+	private void grow(int record) {
+		int capacity = max(1024, Integer.highestOneBit(record) << 1);
+		int old = cellOf.length;
+		cellOf = Arrays.copyOf(cellOf, capacity);
+		Arrays.fill(cellOf, old, capacity, -1);
+
+		AtomicLongArray k = new AtomicLongArray(capacity), p = new AtomicLongArray(capacity);
+		for (int i = 0; i < old; i++) {
+			k.lazySet(i, keys.get(i));
+			p.lazySet(i, positions.get(i));
+		}
+		keys = k;
+		positions = p;
+	}
+
+	private int cell(double lat, double lon) {
+		return latCell(lat) * lonCells + lonCell(lon);
+	}
+
+	private int latCell(double lat) {
+		return max(0, min(latCells - 1, (int) floor((lat + 90.) / cellSize)));
+	}
+
+	private int lonCell(double lon) {
+		return Math.floorMod((int) floor((lon + 180.) / cellSize), lonCells);
+	}
+
+	/**
+	 * @return number of cells from the western to the eastern cell (wrapping around)
+	 */
+	private int lonSpan(double west, double east) {
+		if (east - west >= 360.) return lonCells - 1;
+		int span = Math.floorMod(lonCell(east) - lonCell(west), lonCells);
+		// box crossing the antimeridian within a single cell
+		if (west > east && span == 0) return lonCells - 1;
+		return span;
+	}
+
+	private static boolean withinLongitudes(double lon, double west, double east) {
+		if (east - west >= 360.) return true;
+		return west <= east ? lon >= west && lon <= east : lon >= west || lon <= east;
+	}
+
+	private static double normalize(double lon) {
+		return lon - 360. * floor((lon + 180.) / 360.);
+	}
+
+	private static long pack(double lat, double lon) {
+		return (long) Float.floatToRawIntBits((float) lat) << 32 | (Float.floatToRawIntBits((float) lon) & 0xFFFFFFFFL);
+	}
+
+	private static double unpackLatitude(long packed) {
+		return Float.intBitsToFloat((int) (packed >>> 32));
+	}
+
+	private static double unpackLongitude(long packed) {
+		return Float.intBitsToFloat((int) packed);
+	}
+
+	private static void siftUp(double[] dist, long[] key, int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (dist[parent] >= dist[i]) break;
+			swap(dist, key, i, parent);
+			i = parent;
+		}
+	}
+
+	private static void siftDown(double[] dist, long[] key, int n) {
+		int i = 0;
+		while (2 * i + 1 < n) {
+			int child = 2 * i + 1;
+			if (child + 1 < n && dist[child + 1] > dist[child]) child++;
+			if (dist[i] >= dist[child]) break;
+			swap(dist, key, i, child);
+			i = child;
+		}
+	}
+
+	private static void swap(double[] dist, long[] key, int i, int j) {
+		double d = dist[i];
+		dist[i] = dist[j];
+		dist[j] = d;
+		long k = key[i];
+		key[i] = key[j];
+		key[j] = k;
+	}
+
+	/**
+	 * Haversine distance in meters
+	 */
+	private static double distance(double lat0, double lon0, double lat1, double lon1) {
+		double a = pow(sin(toRadians(lat1 - lat0) / 2.0), 2);
+		double b = cos(toRadians(lat0)) * cos(toRadians(lat1)) * pow(sin(toRadians(lon1 - lon0) / 2.0), 2);
+		return 6371000.0 * 2 * asin(sqrt(a + b));
+	}
+}
@@ -0,0 +1,340 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recent history (trail) of the positions, altitudes and velocities of the aircraft in an {@link AircraftTable}.
+ * Register it with {@link AircraftTable#addListener(AircraftTable.UpdateListener)}; a point is recorded for each
+ * new position of an aircraft.
+ * <br>
+ * Each aircraft gets a fixed-capacity ring buffer of primitive points (time as unsigned milliseconds since the
+ * first point, latitude and longitude in 1e-7 degrees, altitude in 25 ft, vertical rate, ground speed and track
+ * as 16 bit values), i.e. 20 bytes per point. The number of aircraft is limited as well, so the memory of the
+ * whole store never exceeds {@link #getMemoryCeiling()}. Positions of aircraft beyond the limit are not recorded.
+ * <br>
+ * Points are read in place with {@link #read(QualifiedAddress, long, long, PointVisitor)} on any thread
+ * concurrently with updates. Points which are overwritten while being read are skipped.
+ */
+public class TrackHistory implements AircraftTable.UpdateListener {
+
+	/**
+	 * Value for unknown altitudes and vertical rates
+	 */
+	public static final int UNKNOWN = Integer.MIN_VALUE;
+
+	/**
+	 * Receives the points of a track.
+	 */
+	@FunctionalInterface
+	public interface PointVisitor {
+		/**
+		 * @param time         time of the position in milliseconds
+		 * @param latitude     latitude in degrees
+		 * @param longitude    longitude in degrees
+		 * @param altitude     barometric altitude in feet or {@link #UNKNOWN}
+		 * @param groundSpeed  ground speed in knots or NaN
+		 * @param track        track angle in degrees or NaN
+		 * @param verticalRate vertical rate in feet/min or {@link #UNKNOWN}
+		 */
+		void accept(long time, double latitude, double longitude, int altitude, double groundSpeed, double track,
+					int verticalRate);
+	}
+
+	// ints of a point
+	private static final int TIME = 0;
+	private static final int LATITUDE = 1;
+	private static final int LONGITUDE = 2;
+	private static final int ALTITUDE_RATE = 3;
+	private static final int SPEED_TRACK = 4;
+	private static final int POINT_SIZE = 5;
+
+	// words of the meta data of a slot
+	private static final int KEY = 0;
+	private static final int BASE = 1;
+	private static final int FIRST = 2;
+	private static final int CLAIMED = 3;
+	private static final int PUBLISHED = 4;
+	// odd while KEY, BASE and FIRST are written when a slot is assigned or released
+	private static final int GENERATION = 5;
+	private static final int META_SIZE = 6;
+
+	private static final double SCALE = 1e7;
+	private static final short NO_SHORT = Short.MIN_VALUE;
+	private static final int NO_TRACK = 0xFFFF;
+
+	private final int maxAircraft;
+	private final int capacity;
+
+	// per slot: ring buffer of points, allocated on first use
+	private final AtomicReferenceArray<AtomicIntegerArray> points;
+	private final AtomicLongArray meta;
+	private final ConcurrentHashMap<QualifiedAddress, Integer> slots = new ConcurrentHashMap<>();
+
+	// only used by the updating thread
+	private final long[] lastTime;
+	private final int[] freeSlots;
+	private int free;
+	private int highWater;
+	private int[] slotOf = new int[0];
+	private long rejected;
+
+	/**
+	 * @param maxAircraft maximum number of aircraft with a history
+	 * @param capacity    number of points kept per aircraft
+	 */
+	public TrackHistory(int maxAircraft, int capacity) {
+		if (maxAircraft <= 0 || capacity <= 0)
+			throw new IllegalArgumentException("Number of aircraft and capacity must be positive");
+		if ((long) capacity * POINT_SIZE > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Capacity too large");
+		this.maxAircraft = maxAircraft;
+		this.capacity = capacity;
+		points = new AtomicReferenceArray<>(maxAircraft);
+		meta = new AtomicLongArray(maxAircraft * META_SIZE);
+		lastTime = new long[maxAircraft];
+		freeSlots = new int[maxAircraft];
+	}
+
+	/**
+	 * @return number of aircraft with a history
+	 */
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * @return number of points kept per aircraft
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return upper bound of the memory used by all ring buffers and their meta data in bytes
+	 */
+	public long getMemoryCeiling() {
+		return (long) maxAircraft * (capacity * POINT_SIZE * 4L + META_SIZE * 8L);
+	}
+
+	/**
+	 * @return number of positions which have not been recorded because the store was full
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	@Override
+	public void onUpdate(AircraftState state) {
+		if (!state.hasPosition() || state.record < 0) return;
+		int record = state.record;
+		if (record >= slotOf.length) {
+			int old = slotOf.length;
+			slotOf = Arrays.copyOf(slotOf, Math.max(1024, Integer.highestOneBit(record) << 1));
+			Arrays.fill(slotOf, old, slotOf.length, -1);
+		}
+
+		long time = state.getPositionTime();
+		int slot = slotOf[record];
+		if (slot >= 0) {
+			if (time <= lastTime[slot]) return; // not a new position
+			if (time - meta.get(slot * META_SIZE + BASE) > 0xFFFFFFFFL) {
+				// time offset would overflow, start over in a new slot
+				int next = acquire(state, time);
+				release(state, slot);
+				slotOf[record] = -1;
+				slot = next;
+			}
+		} else {
+			slot = acquire(state, time);
+		}
+		if (slot < 0) {
+			rejected++;
+			return;
+		}
+		slotOf[record] = slot;
+		append(slot, state, time);
+	}
+
+	@Override
+	public void onRemove(AircraftState state) {
+		int record = state.record;
+		if (record < 0 || record >= slotOf.length || slotOf[record] < 0) return;
+		release(state, slotOf[record]);
+		slotOf[record] = -1;
+	}
+
+	/**
+	 * Visits the points of an aircraft in the time range [from, to] in chronological order without copying them.
+	 * May be called on any thread.
+	 *
+	 * @param address address of the aircraft
+	 * @param from    start of the range (inclusive) in milliseconds
+	 * @param to      end of the range (inclusive) in milliseconds
+	 * @param visitor called for each point
+	 * @return number of visited points
+	 */
+	public int read(QualifiedAddress address, long from, long to, PointVisitor visitor) {
+		Integer s = slots.get(address);
+		if (s == null) return 0;
+		int m = s * META_SIZE;
+
+		// KEY, BASE and FIRST of the same assignment of the slot (sequence lock on GENERATION); points are
+		// published afterwards, so PUBLISHED is not below FIRST
+		long base, first, published, key, generation;
+		while (true) {
+			generation = meta.get(m + GENERATION);
+			if ((generation & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+			base = meta.get(m + BASE);
+			first = meta.get(m + FIRST);
+			published = meta.get(m + PUBLISHED);
+			key = meta.get(m + KEY);
+			if (meta.get(m + GENERATION) == generation) break;
+		}
+		if (key != address.toKey()) return 0;
+
+		AtomicIntegerArray buffer = points.get(s);
+		if (buffer == null) return 0;
+
+		// binary search for the first point at or after from; overwritten points count as older
+		long lo = Math.max(first, published - capacity), hi = published;
+		while (lo < hi) {
+			long mid = (lo + hi) >>> 1;
+			long time = time(buffer, mid, base);
+			if (!valid(m, mid) || time < from) lo = mid + 1;
+			else hi = mid;
+		}
+
+		int visited = 0;
+		for (long n = lo; n < published; n++) {
+			int i = index(n);
+			long time = time(buffer, n, base);
+			int lat = buffer.get(i + LATITUDE), lon = buffer.get(i + LONGITUDE);
+			int altitudeRate = buffer.get(i + ALTITUDE_RATE), speedTrack = buffer.get(i + SPEED_TRACK);
+			if (!valid(m, n)) continue;
+			if (time > to) break;
+
+			short altitude = (short) (altitudeRate >> 16), rate = (short) altitudeRate;
+			short speed = (short) (speedTrack >> 16);
+			int track = speedTrack & 0xFFFF;
+			visitor.accept(time, lat / SCALE, lon / SCALE,
+					altitude == NO_SHORT ? UNKNOWN : altitude * 25,
+					speed == NO_SHORT ? Double.NaN : speed / 4.,
+					track == NO_TRACK ? Double.NaN : track * 360. / 32768.,
+					rate == NO_SHORT ? UNKNOWN : rate);
+			visited++;
+		}
+		return visited;
+	}
+
+	/**
+	 * @param address address of the aircraft
+	 * @return number of points kept for the aircraft
+	 */
+	public int count(QualifiedAddress address) {
+		return read(address, Long.MIN_VALUE, Long.MAX_VALUE, (t, la, lo, a, g, tr, v) -> {});
+	}
+
+	private int index(long n) {
+		return (int) (n % capacity) * POINT_SIZE;
+	}
+
+	private long time(AtomicIntegerArray buffer, long n, long base) {
+		return base + (buffer.get(index(n) + TIME) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return whether point n has not been overwritten since it was read
+	 */
+	private boolean valid(int m, long n) {
+		return meta.get(m + CLAIMED) <= n + capacity;
+	}
+
+	private int acquire(AircraftState state, long time) {
+		int slot;
+		if (free > 0) slot = freeSlots[--free];
+		else if (highWater < maxAircraft) slot = highWater++;
+		else return -1;
+
+		if (points.get(slot) == null)
+			points.set(slot, new AtomicIntegerArray(capacity * POINT_SIZE));
+
+		int m = slot * META_SIZE;
+		meta.set(m + GENERATION, meta.get(m + GENERATION) + 1);
+		meta.set(m + FIRST, meta.get(m + CLAIMED));
+		meta.set(m + KEY, state.words[AircraftTable.KEY]);
+		meta.set(m + BASE, time);
+		meta.set(m + GENERATION, meta.get(m + GENERATION) + 1);
+		lastTime[slot] = Long.MIN_VALUE;
+		slots.put(state.getAddress(), slot);
+		return slot;
+	}
+
+	private void release(AircraftState state, int slot) {
+		int m = slot * META_SIZE;
+		slots.remove(state.getAddress(), slot);
+		meta.set(m + GENERATION, meta.get(m + GENERATION) + 1);
+		meta.set(m + FIRST, meta.get(m + CLAIMED));
+		meta.set(m + KEY, -1);
+		meta.set(m + GENERATION, meta.get(m + GENERATION) + 1);
+		freeSlots[free++] = slot;
+	}
+
+	private void append(int slot, AircraftState state, long time) {
+		int m = slot * META_SIZE;
+		long n = meta.get(m + CLAIMED);
+		AtomicIntegerArray buffer = points.get(slot);
+		int i = index(n);
+
+		short altitude = NO_SHORT, rate = NO_SHORT, speed = NO_SHORT;
+		int track = NO_TRACK;
+		if (state.hasBarometricAltitude())
+			altitude = clamp(Math.round(state.getBarometricAltitude() / 25.));
+		if (state.hasVerticalRate())
+			rate = clamp(state.getVerticalRate());
+		if (state.hasGroundSpeed())
+			speed = clamp(Math.round(state.getGroundSpeed() * 4.));
+		if (state.hasTrack())
+			track = (int) Math.round(state.getTrack() * 32768. / 360.) & 0x7FFF;
+
+		// claim the point before overwriting it, so readers detect the overwrite
+		meta.set(m + CLAIMED, n + 1);
+		buffer.lazySet(i + TIME, (int) (time - meta.get(m + BASE)));
+		buffer.lazySet(i + LATITUDE, (int) Math.round(state.getLatitude() * SCALE));
+		buffer.lazySet(i + LONGITUDE, (int) Math.round(state.getLongitude() * SCALE));
+		buffer.lazySet(i + ALTITUDE_RATE, altitude << 16 | rate & 0xFFFF);
+		buffer.lazySet(i + SPEED_TRACK, speed << 16 | track);
+		meta.lazySet(m + PUBLISHED, n + 1);
+		lastTime[slot] = time;
+	}
+
+	private static short clamp(long value) {
+		return (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, value));
+	}
+}
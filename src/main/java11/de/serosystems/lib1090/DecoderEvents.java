@@ -0,0 +1,328 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Hooks for JDK Flight Recorder events of the decoder: slow decodes, failed CPR pairs, failed reasonableness
+ * tests, evicted aircraft and cleanup sweeps.
+ * <br>
+ * This class is the Java 11 version which emits the events if the system property {@code lib1090.jfr} is set
+ * to {@code true}. Events are off by default. Callers check {@link #isEnabled()} before calling any other method,
+ * so disabled events cost no more than a check of a constant. If enabled, the frame being decoded is only tracked
+ * while an event which uses it is enabled in a running recording.
+ * <br>
+ * The events are in the category "lib1090" and carry the address, downlink format and message type of the
+ * frame which was being decoded by the current thread when the event was emitted. The threshold of slow
+ * decodes (default 100 us) can be changed in the recording settings.
+ */
+public final class DecoderEvents {
+
+	/**
+	 * Reasons for which two CPR encoded positions could not be combined by global decoding
+	 */
+	public enum CPRFailure {
+		/**
+		 * the time between the even and the odd position exceeds {@link de.serosystems.lib1090.cpr.CPREncodedPosition#maxGap}
+		 */
+		MAX_GAP_EXCEEDED,
+		/**
+		 * the even and odd position are in different longitude zones (NL)
+		 */
+		STRADDLING_ZONES,
+		/**
+		 * the decoded latitude is invalid
+		 */
+		INVALID_LATITUDE
+	}
+
+	private static final boolean ENABLED = Boolean.getBoolean("lib1090.jfr");
+
+	// frame which is being decoded by the current thread
+	private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+	// types of the events which carry the frame, for cheap checks whether they are enabled in any recording
+	private static final EventType SLOW_DECODE = ENABLED ? EventType.getEventType(SlowDecode.class) : null;
+	private static final EventType CPR_PAIR_FAILURE = ENABLED ? EventType.getEventType(CPRPairFailure.class) : null;
+	private static final EventType POSITION_REJECTED = ENABLED ? EventType.getEventType(PositionRejected.class) : null;
+	private static final EventType STATE_EVICTION = ENABLED ? EventType.getEventType(StateEviction.class) : null;
+
+	private DecoderEvents() {
+	}
+
+	/**
+	 * @return true if events are emitted
+	 */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/**
+	 * @return whether any event which carries the frame being decoded is enabled
+	 */
+	private static boolean tracked() {
+		return SLOW_DECODE.isEnabled() || CPR_PAIR_FAILURE.isEnabled() || POSITION_REJECTED.isEnabled() ||
+				STATE_EVICTION.isEnabled();
+	}
+
+	/**
+	 * Called before a frame is decoded.
+	 *
+	 * @param modes the frame
+	 * @return true if the frame is tracked, {@link #decodeFinished()} must be called then
+	 */
+	public static boolean decodeStarted(ModeSDownlinkMsg modes) {
+		boolean slow = SLOW_DECODE.isEnabled();
+		if (!slow && !tracked()) return false;
+
+		Context ctx = CONTEXT.get();
+		ctx.modes = modes;
+		ctx.subtype = null;
+		ctx.decode = null;
+		if (slow) {
+			ctx.decode = new SlowDecode();
+			ctx.decode.begin();
+		}
+		return true;
+	}
+
+	/**
+	 * Called with the message a frame has been decoded to.
+	 *
+	 * @param msg the decoded message
+	 */
+	public static void decoded(ModeSDownlinkMsg msg) {
+		if (tracked()) CONTEXT.get().subtype = msg.getType();
+	}
+
+	/**
+	 * Called after a tracked frame has been decoded (also if decoding failed). Emits a slow decode event if
+	 * decoding took longer than the event's threshold.
+	 */
+	public static void decodeFinished() {
+		Context ctx = CONTEXT.get();
+		SlowDecode event = ctx.decode;
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				ctx.fill(event);
+				event.commit();
+			}
+		}
+		ctx.modes = null;
+		ctx.subtype = null;
+		ctx.decode = null;
+	}
+
+	/**
+	 * Called if two CPR encoded positions could not be combined.
+	 *
+	 * @param reason the reason
+	 * @param gap    time between the two positions in milliseconds
+	 * @param maxGap maximum time between the two positions in milliseconds
+	 */
+	public static void cprPairFailed(CPRFailure reason, long gap, long maxGap) {
+		if (!CPR_PAIR_FAILURE.isEnabled()) return;
+
+		CPRPairFailure event = new CPRPairFailure();
+		if (event.shouldCommit()) {
+			CONTEXT.get().fill(event);
+			event.reason = reason.name();
+			event.gap = gap;
+			event.maxGap = maxGap;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Called if a decoded position failed a reasonableness test.
+	 *
+	 * @param test     the failed test
+	 * @param position the position
+	 */
+	public static void rejected(DecoderMetrics.ReasonablenessTest test, Position position) {
+		if (!POSITION_REJECTED.isEnabled()) return;
+
+		PositionRejected event = new PositionRejected();
+		if (event.shouldCommit()) {
+			CONTEXT.get().fill(event);
+			event.test = test.name();
+			event.latitude = position.getLatitude();
+			event.longitude = position.getLongitude();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Called for each aircraft which is removed from the decoder state.
+	 *
+	 * @param address the aircraft's address
+	 * @param idle    time since the aircraft has been seen last in milliseconds
+	 */
+	public static void evicted(QualifiedAddress address, long idle) {
+		if (!STATE_EVICTION.isEnabled()) return;
+
+		StateEviction event = new StateEviction();
+		if (event.shouldCommit()) {
+			CONTEXT.get().fill(event);
+			event.evicted = address.getHexAddress();
+			event.idle = idle;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Called before idle aircraft are removed from the decoder state.
+	 */
+	public static void cleanupStarted() {
+		Context ctx = CONTEXT.get();
+		ctx.cleanup = new CleanupSweep();
+		ctx.cleanup.begin();
+	}
+
+	/**
+	 * Called after idle aircraft have been removed from the decoder state.
+	 *
+	 * @param before  number of aircraft before the cleanup
+	 * @param after   number of aircraft after the cleanup
+	 * @param maxIdle maximum idle time in milliseconds
+	 */
+	public static void cleanupFinished(int before, int after, long maxIdle) {
+		Context ctx = CONTEXT.get();
+		CleanupSweep event = ctx.cleanup;
+		ctx.cleanup = null;
+		if (event == null) return;
+		event.end();
+		if (event.shouldCommit()) {
+			ctx.fill(event);
+			event.before = before;
+			event.after = after;
+			event.maxIdle = maxIdle;
+			event.commit();
+		}
+	}
+
+	private static final class Context {
+		ModeSDownlinkMsg modes;
+		ModeSDownlinkMsg.subtype subtype;
+		SlowDecode decode;
+		CleanupSweep cleanup;
+
+		void fill(DecoderEvent event) {
+			if (modes == null) {
+				event.downlinkFormat = -1;
+				return;
+			}
+			event.address = modes.getAddress().getHexAddress();
+			event.downlinkFormat = modes.getDownlinkFormat();
+			if (subtype != null) event.subtype = subtype.name();
+		}
+	}
+
+	@Category("lib1090")
+	@StackTrace(false)
+	abstract static class DecoderEvent extends Event {
+		@Label("Address")
+		@Description("Address of the frame being decoded")
+		String address;
+
+		@Label("Downlink Format")
+		@Description("Downlink format of the frame being decoded or -1 if no frame is being decoded")
+		int downlinkFormat;
+
+		@Label("Subtype")
+		@Description("Type of the message the frame has been decoded to")
+		String subtype;
+	}
+
+	@Name("de.serosystems.lib1090.SlowDecode")
+	@Label("Slow Decode")
+	@Description("Decoding of a frame took longer than the threshold")
+	@Threshold("100 us")
+	static final class SlowDecode extends DecoderEvent {
+	}
+
+	@Name("de.serosystems.lib1090.CPRPairFailure")
+	@Label("CPR Pair Failure")
+	@Description("An even and an odd CPR encoded position could not be combined")
+	static final class CPRPairFailure extends DecoderEvent {
+		@Label("Reason")
+		String reason;
+
+		@Label("Gap")
+		@Timespan(Timespan.MILLISECONDS)
+		long gap;
+
+		@Label("Maximum Gap")
+		@Timespan(Timespan.MILLISECONDS)
+		long maxGap;
+	}
+
+	@Name("de.serosystems.lib1090.PositionRejected")
+	@Label("Position Rejected")
+	@Description("A decoded position failed a reasonableness test")
+	static final class PositionRejected extends DecoderEvent {
+		@Label("Test")
+		String test;
+
+		@Label("Latitude")
+		double latitude;
+
+		@Label("Longitude")
+		double longitude;
+	}
+
+	@Name("de.serosystems.lib1090.StateEviction")
+	@Label("State Eviction")
+	@Description("An idle aircraft has been removed from the decoder state")
+	static final class StateEviction extends DecoderEvent {
+		@Label("Evicted Address")
+		String evicted;
+
+		@Label("Idle Time")
+		@Timespan(Timespan.MILLISECONDS)
+		long idle;
+	}
+
+	@Name("de.serosystems.lib1090.CleanupSweep")
+	@Label("Cleanup Sweep")
+	@Description("Idle aircraft have been removed from the decoder state")
+	static final class CleanupSweep extends DecoderEvent {
+		@Label("Aircraft Before")
+		int before;
+
+		@Label("Aircraft After")
+		int after;
+
+		@Label("Maximum Idle Time")
+		@Timespan(Timespan.MILLISECONDS)
+		long maxIdle;
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.decoding.Identification;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.bds.AircraftIdentification;
+import de.serosystems.lib1090.msgs.bds.BDSRegister;
+import de.serosystems.lib1090.msgs.bds.BDSRegister.bdsCode;
+import de.serosystems.lib1090.msgs.bds.HeadingAndSpeed;
+import de.serosystems.lib1090.msgs.modes.CommBAltitudeReply;
+import de.serosystems.lib1090.msgs.modes.CommBIdentifyReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.serosystems.lib1090.msgs.bds.BDSRegister.bdsCode.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommBInferenceTest {
+
+	private static final QualifiedAddress ADDRESS = QualifiedAddress.of(0x4840D6, QualifiedAddress.Type.ICAO24);
+
+	// BDS 5,0 and 6,0 messages which pass the bit-level checks of both registers
+	private static final String AMBIGUOUS_50 = "A0000000FFDA9517000464000000";
+	private static final String AMBIGUOUS_60 = "A0000000919A5927E23444000000";
+
+	private static bdsCode infer(String frame) throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		ModeSDownlinkMsg msg = decoder.decode(frame, 0);
+		if (msg instanceof CommBAltitudeReply)
+			return decoder.decodeCommB((CommBAltitudeReply) msg, 0).getBds();
+		return decoder.decodeCommB((CommBIdentifyReply) msg, 0).getBds();
+	}
+
+	private static byte[] mb(String frame) {
+		return Tools.hexStringToByteArray(frame.substring(8, 22));
+	}
+
+	@Test
+	void testBitLevelChecks() throws Exception {
+		assertEquals(DATA_LINK_CAPABILITY_REPORT, infer("A800178D10010080F50000D5893C"));
+		assertEquals(COMMON_USAGE_GICB_CAPABILITY_REPORT, infer("A0000638FA81C10000000081A92F"));
+		assertEquals(AIRCRAFT_IDENTIFICATION, infer("A0001838201584F23468207CDFA5"));
+		assertEquals(SELECTED_VERTICAL_INTENTION, infer("A0001839CA3800315800007448D9"));
+		assertEquals(TRACK_AND_TURN_REPORT, infer("A000139381951536E024D4CCF6B5"));
+		assertEquals(HEADING_AND_SPEED_REPORT, infer("A00004128F39F91A7E27C46ADC21"));
+
+		// no ADS-B state to decide
+		assertEquals(UNKNOWN, infer(AMBIGUOUS_50));
+		assertEquals(UNKNOWN, infer(AMBIGUOUS_60));
+		assertEquals(UNKNOWN, infer("A000000000000000000000000000"));
+	}
+
+	@Test
+	void testCrossCheckWithADSB() {
+		CommBInference inference = new CommBInference();
+		inference.observeVelocity(ADDRESS, 182., 237., null, 1000);
+		assertEquals(TRACK_AND_TURN_REPORT, inference.infer(ADDRESS, mb(AMBIGUOUS_50), 1250, 1500).getBds());
+
+		inference = new CommBInference();
+		inference.observeVelocity(ADDRESS, 413., 54., null, 1000);
+		assertEquals(HEADING_AND_SPEED_REPORT, inference.infer(ADDRESS, mb(AMBIGUOUS_60), 18700, 1500).getBds());
+
+		// outdated state is not used
+		inference = new CommBInference();
+		inference.observeVelocity(ADDRESS, 413., 54., null, 1000);
+		assertEquals(UNKNOWN, inference.infer(ADDRESS, mb(AMBIGUOUS_60), 18700, 1000 + CommBInference.MAX_STATE_AGE + 1).getBds());
+		assertEquals(1, inference.getAmbiguous());
+	}
+
+	@Test
+	void testCallsignConfirmsIdentification() {
+		CommBInference inference = new CommBInference();
+		byte[] mb = mb("A0001838201584F23468207CDFA5");
+		inference.observeCallsign(ADDRESS, Identification.extractIdentification(mb), 0);
+		AircraftIdentification identification = (AircraftIdentification) inference.infer(ADDRESS, mb, null, 1000);
+		assertEquals(identification.getCallsign(), Identification.decodeCallsign(Identification.extractIdentification(mb)));
+	}
+
+	@Test
+	void testRegisterMix() {
+		CommBInference inference = new CommBInference();
+		byte[] mb = mb(AMBIGUOUS_60);
+
+		// confirmed by ADS-B, later replies are resolved with a single check
+		for (int i = 0; i < 10; i++) {
+			inference.observeVelocity(ADDRESS, 413., 54., null, i * 1000);
+			long checks = inference.getCandidateChecks();
+			assertEquals(HEADING_AND_SPEED_REPORT, inference.infer(ADDRESS, mb, 18700, i * 1000 + 500).getBds());
+			if (i > 0) assertEquals(1, inference.getCandidateChecks() - checks);
+		}
+
+		// without ADS-B state, ties are broken by the register mix
+		long later = 10 * 1000 + CommBInference.MAX_STATE_AGE + 1;
+		assertEquals(HEADING_AND_SPEED_REPORT, inference.infer(ADDRESS, mb, 18700, later).getBds());
+		assertEquals(HEADING_AND_SPEED_REPORT, inference.infer(ADDRESS, mb(AMBIGUOUS_50), null, later).getBds());
+		assertEquals(0, inference.getAmbiguous());
+		assertEquals(12, inference.getResolved());
+
+		// other aircraft have their own mix; no state is kept for them if the register cannot be inferred
+		QualifiedAddress other = QualifiedAddress.of(0x3C6586, QualifiedAddress.Type.ICAO24);
+		assertEquals(UNKNOWN, inference.infer(other, mb, 18700, later).getBds());
+		assertEquals(1, inference.size());
+
+		inference.removeIdle(later + 10, 5);
+		assertEquals(0, inference.size());
+	}
+
+	@Test
+	void testStateOfRandomAddressesIsBounded() {
+		CommBInference inference = new CommBInference();
+		byte[] capabilities = mb("A800178D10010080F50000D5893C");
+		byte[] ambiguous = mb(AMBIGUOUS_60);
+
+		// corrupted replies yield random addresses, one per reply every 10 ms
+		long time = 0;
+		for (int i = 0; i < 300_000; i++, time += 10) {
+			QualifiedAddress random = QualifiedAddress.of(0x800000 + i, QualifiedAddress.Type.ICAO24);
+			assertEquals(UNKNOWN, inference.infer(random, ambiguous, 18700, time).getBds());
+		}
+		assertEquals(0, inference.size());
+
+		for (int i = 0; i < 300_000; i++, time += 10) {
+			QualifiedAddress random = QualifiedAddress.of(0x800000 + i, QualifiedAddress.Type.ICAO24);
+			assertEquals(DATA_LINK_CAPABILITY_REPORT, inference.infer(random, capabilities, null, time).getBds());
+			// aircraft with ADS-B state are kept for longer
+			if (i == 0) {
+				inference.observeVelocity(ADDRESS, 413., 54., null, time);
+				inference.infer(ADDRESS, capabilities, null, time);
+			}
+		}
+		// replies of the last 30 s and at most one sweep interval
+		assertTrue(inference.size() <= CommBInference.MAX_STATE_AGE / 10 + (1 << 16), "" + inference.size());
+		assertTrue(inference.size() >= CommBInference.MAX_STATE_AGE / 10);
+		assertNull(inference.getDataLinkCapability(QualifiedAddress.of(0x800000, QualifiedAddress.Type.ICAO24)));
+		assertNotNull(inference.getDataLinkCapability(ADDRESS));
+	}
+
+	@Test
+	void testContradictionRejects() {
+		CommBInference inference = new CommBInference();
+		// heading and vertical rate do not match the reported track
+		inference.observeVelocity(ADDRESS, 250., 200., 3000, 0);
+		assertEquals(UNKNOWN, inference.infer(ADDRESS, mb("A00004128F39F91A7E27C46ADC21"), 5450, 1000).getBds());
+	}
+
+	@Test
+	void testMachToCas() {
+		assertEquals(661.5 * 0.5, CommBInference.machToCas(0.5, 0), 1);
+		// M 0.78 at FL 350 is about 260 kt CAS
+		assertEquals(260, CommBInference.machToCas(0.78, 35000), 5);
+	}
+
+	@Test
+	void testCapabilityCache() {
+		CommBInference inference = new CommBInference();
+		List<BDSRegister[]> changes = new ArrayList<>();
+		inference.addCapabilityListener((address, previous, current, timestamp) -> {
+			assertEquals(ADDRESS, address);
+			changes.add(new BDSRegister[] {previous, current});
+		});
+
+		byte[] mb = mb("A800178D10010080F50000D5893C");
+		BDSRegister first = inference.infer(ADDRESS, mb, null, 0);
+		assertEquals(DATA_LINK_CAPABILITY_REPORT, first.getBds());
+		assertSame(first, inference.getDataLinkCapability(ADDRESS));
+
+		// unchanged reports come from the cache without checks
+		long checks = inference.getCandidateChecks();
+		assertSame(first, inference.infer(ADDRESS, mb.clone(), null, 60_000));
+		assertEquals(checks, inference.getCandidateChecks());
+		assertEquals(1, inference.getCacheHits());
+		assertTrue(changes.isEmpty());
+
+		// toggled common usage GICB bit (36) announces a changed BDS 1,7 report
+		byte[] changed = mb.clone();
+		changed[4] ^= 0x10;
+		BDSRegister second = inference.infer(ADDRESS, changed, null, 120_000);
+		assertNotSame(first, second);
+		assertEquals(1, changes.size());
+		assertSame(first, changes.get(0)[0]);
+		assertSame(second, changes.get(0)[1]);
+	}
+
+	@Test
+	void testCapabilitiesNarrowCandidates() {
+		CommBInference inference = new CommBInference();
+		List<BDSRegister[]> changes = new ArrayList<>();
+		inference.addCapabilityListener((address, previous, current, timestamp) -> changes.add(new BDSRegister[] {previous, current}));
+
+		// supports BDS 2,0 and 6,0 only
+		byte[] gicb = Tools.hexStringToByteArray("02000100000000");
+		assertEquals(COMMON_USAGE_GICB_CAPABILITY_REPORT, inference.infer(ADDRESS, gicb, null, 0).getBds());
+		assertNotNull(inference.getGICBCapability(ADDRESS));
+
+		// plausible as BDS 5,0 and 6,0, but the aircraft does not support 5,0
+		assertEquals(HEADING_AND_SPEED_REPORT, inference.infer(ADDRESS, mb(AMBIGUOUS_50), null, 1000).getBds());
+		QualifiedAddress other = QualifiedAddress.of(0x3C6586, QualifiedAddress.Type.ICAO24);
+		assertEquals(UNKNOWN, inference.infer(other, mb(AMBIGUOUS_50), null, 1000).getBds());
+
+		// changed report (also supports 5,0)
+		byte[] changed = Tools.hexStringToByteArray("02010100000000");
+		assertEquals(COMMON_USAGE_GICB_CAPABILITY_REPORT, inference.infer(ADDRESS, changed, null, 2000).getBds());
+		assertEquals(1, changes.size());
+		assertSame(inference.getGICBCapability(ADDRESS), changes.get(0)[1]);
+	}
+
+	@Test
+	void testDecoderCollectsADSBState() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		decoder.getCommBInference();
+		// velocity of 0x485020: 159 kt, track 182.88, vertical rate -832 ft/min
+		decoder.decode("8D485020994409940838175B284F", 1000);
+
+		// DF 20 with BDS 6,0: heading -180 (south), vertical rate -832 ft/min; address in the parity field
+		byte[] frame = Tools.hexStringToByteArray("A0000000" + "C00000000007E6" + "485020");
+		HeadingAndSpeed headingAndSpeed = (HeadingAndSpeed) decoder.decodeCommB(
+				new CommBAltitudeReply(new ModeSDownlinkMsg(frame, true)), 1500);
+		assertEquals(-180, headingAndSpeed.getMagneticHeading(), 0.1);
+		assertEquals(-832, (int) headingAndSpeed.getInertialVerticalRate());
+		assertEquals(1, decoder.getCommBInference().getResolved());
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.PositionDecoderSupplier;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactStateStoreTest {
+
+	private static final int TARGETS = 3000;
+
+	/**
+	 * Simple CPR encoder (DO-260B A.1.7.7) for test data
+	 */
+	static int[] encode(double lat, double lon, boolean odd, boolean surface) {
+		double angle = surface ? 90. : 360.;
+		int i = odd ? 1 : 0;
+		double scale = 1 << 17;
+		double dLat = angle / (60 - i);
+		int yz = (int) Math.floor(scale * mod(lat, dLat) / dLat + 0.5);
+		double rLat = dLat * (yz / scale + Math.floor(lat / dLat));
+		double dLon = angle / Math.max(nl(rLat) - i, 1);
+		int xz = (int) Math.floor(scale * mod(lon, dLon) / dLon + 0.5);
+		return new int[] {yz & 0x1FFFF, xz & 0x1FFFF};
+	}
+
+	private static double mod(double a, double b) {
+		return a - b * Math.floor(a / b);
+	}
+
+	private static int nl(double lat) {
+		if (lat == 0) return 59;
+		if (Math.abs(lat) >= 87) return 1;
+		double c = Math.cos(Math.PI / 180. * lat);
+		return (int) Math.floor(2 * Math.PI / Math.acos(1 - (1 - Math.cos(Math.PI / 30.)) / (c * c)));
+	}
+
+	private static void assertSamePosition(Position expected, Position actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertNotNull(actual);
+		assertEquals(expected.getLatitude(), actual.getLatitude());
+		assertEquals(expected.getLongitude(), actual.getLongitude());
+		assertEquals(expected.isReasonable(), actual.isReasonable());
+	}
+
+	private static void runComparison(boolean disableSpeedTest) {
+		Random rnd = new Random(disableSpeedTest ? 1 : 2);
+		DecoderStateStore objects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder(disableSpeedTest));
+		DecoderStateStore compact = new CompactStateStore(disableSpeedTest);
+
+		double[] lat = new double[TARGETS], lon = new double[TARGETS];
+		for (int t = 0; t < TARGETS; t++) {
+			lat[t] = 48 + rnd.nextDouble() * 8;
+			lon[t] = 2 + rnd.nextDouble() * 14;
+		}
+		Position receiver = new Position(9., 52., 0.);
+
+		long time = 0;
+		int decoded = 0;
+		for (int n = 0; n < 200000; n++) {
+			time += rnd.nextInt(20);
+			int t = rnd.nextInt(TARGETS);
+			QualifiedAddress address = QualifiedAddress.of(0x400000 + t,
+					t % 10 == 0 ? QualifiedAddress.Type.NON_ICAO : QualifiedAddress.Type.ICAO24);
+			boolean surface = t % 7 == 0;
+			boolean odd = rnd.nextBoolean();
+
+			// move a bit, sometimes jump
+			lat[t] += (rnd.nextDouble() - 0.5) * 0.01;
+			lon[t] += (rnd.nextDouble() - 0.5) * 0.01;
+			if (rnd.nextInt(500) == 0) lat[t] += 1;
+
+			CPREncodedPosition cpr;
+			if (rnd.nextInt(200) == 0) {
+				cpr = CPREncodedPosition.ofAirborne(17, odd, rnd.nextInt(1 << 17), rnd.nextInt(1 << 17), time);
+			} else {
+				int[] enc = encode(lat[t], lon[t], odd, surface);
+				cpr = surface ?
+						CPREncodedPosition.ofSurface(17, odd, rnd.nextBoolean(), enc[0], enc[1], time) :
+						CPREncodedPosition.ofAirborne(17, odd, enc[0], enc[1], time);
+			}
+			Position rx = rnd.nextInt(3) == 0 ? null : receiver;
+
+			objects.select(address, time);
+			compact.select(address, time);
+
+			switch (rnd.nextInt(4)) {
+				case 0:
+					byte version = (byte) rnd.nextInt(3);
+					objects.setAdsbVersion(version);
+					compact.setAdsbVersion(version);
+					break;
+				case 1:
+					boolean a = rnd.nextBoolean(), c = rnd.nextBoolean();
+					objects.setNICSupplementA(a);
+					compact.setNICSupplementA(a);
+					objects.setNICSupplementC(c);
+					compact.setNICSupplementC(c);
+					break;
+				case 2:
+					Integer gmb = rnd.nextInt(10) == 0 ? null : rnd.nextInt(2000) - 1000;
+					objects.setGeoMinusBaro(gmb);
+					compact.setGeoMinusBaro(gmb);
+					break;
+				default:
+			}
+
+			assertEquals(objects.getAdsbVersion(), compact.getAdsbVersion());
+			assertEquals(objects.hasNICSupplementA(), compact.hasNICSupplementA());
+			assertEquals(objects.hasNICSupplementC(), compact.hasNICSupplementC());
+			assertEquals(objects.getGeoMinusBaro(), compact.getGeoMinusBaro());
+
+			Position expected = objects.decodePosition(cpr, rx);
+			assertSamePosition(expected, compact.decodePosition(cpr, rx));
+			if (expected != null && expected.isReasonable()) decoded++;
+
+			int receiverId = rnd.nextInt(4);
+			assertSamePosition(objects.decodePosition(receiverId, cpr, rx), compact.decodePosition(receiverId, cpr, rx));
+
+			if (n % 50000 == 49999) {
+				objects.removeIdle(time, 20_000);
+				compact.removeIdle(time, 20_000);
+				assertEquals(objects.size(), compact.size());
+			}
+		}
+
+		assertEquals(objects.size(), compact.size());
+		assertTrue(decoded > 10000, "decoded " + decoded);
+	}
+
+	@Test
+	void testBehavesLikeObjectStore() {
+		runComparison(false);
+	}
+
+	@Test
+	void testBehavesLikeObjectStoreWithoutSpeedTest() {
+		runComparison(true);
+	}
+
+	@Test
+	void testReceiverPartitionedState() {
+		for (DecoderStateStore store : new DecoderStateStore[] {
+				new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder()), new CompactStateStore(false)}) {
+			QualifiedAddress address = QualifiedAddress.of(0x3C6586, QualifiedAddress.Type.ICAO24);
+			int[] even = encode(50.1, 8.6, false, false), odd = encode(50.1, 8.6, true, false);
+
+			// pairs are not formed across receivers
+			store.select(address, 1000);
+			store.setAdsbVersion((byte) 2);
+			assertNull(store.decodePosition(1, CPREncodedPosition.ofAirborne(17, false, even[0], even[1], 1000), null));
+			store.select(address, 1500);
+			assertNull(store.decodePosition(2, CPREncodedPosition.ofAirborne(17, true, odd[0], odd[1], 1500), null));
+			assertNull(store.decodePosition(CPREncodedPosition.ofAirborne(17, true, odd[0], odd[1], 1500), null));
+
+			store.select(address, 2000);
+			Position pos = store.decodePosition(1, CPREncodedPosition.ofAirborne(17, true, odd[0], odd[1], 2000), null);
+			assertNotNull(pos);
+			assertEquals(50.1, pos.getLatitude(), 1e-4);
+			assertEquals(8.6, pos.getLongitude(), 1e-4);
+
+			// other state is shared
+			assertEquals(2, store.getAdsbVersion());
+			assertEquals(1, store.size());
+
+			store.removeIdle(10_000, 1000);
+			assertEquals(0, store.size());
+			store.select(address, 10_000);
+			assertNull(store.decodePosition(1, CPREncodedPosition.ofAirborne(17, false, even[0], even[1], 10_000), null));
+		}
+	}
+
+	@Test
+	void testRemoveIdle() {
+		CompactStateStore store = new CompactStateStore(false);
+		for (int i = 0; i < 5000; i++) {
+			store.select(QualifiedAddress.of(i, QualifiedAddress.Type.ICAO24), i);
+			store.setAdsbVersion((byte) (i % 3));
+			store.setGeoMinusBaro(i);
+		}
+		assertEquals(5000, store.size());
+
+		store.removeIdle(5000, 1000);
+		assertEquals(1000, store.size());
+
+		for (int i = 4000; i < 5000; i++) {
+			store.select(QualifiedAddress.of(i, QualifiedAddress.Type.ICAO24), 5000);
+			assertEquals(i % 3, store.getAdsbVersion());
+			assertEquals(i, (int) store.getGeoMinusBaro());
+		}
+		assertEquals(1000, store.size());
+
+		// removed aircraft start over
+		store.select(QualifiedAddress.of(0, QualifiedAddress.Type.ICAO24), 5000);
+		assertEquals(0, store.getAdsbVersion());
+		assertNull(store.getGeoMinusBaro());
+		assertEquals(1001, store.size());
+	}
+
+	@Test
+	void testDecoderWithCompactState() throws Exception {
+		StatefulModeSDecoder decoder = StatefulModeSDecoder.withCompactState(false);
+		decoder.decode("8D4840D6202CC371C32CE0576098", 0L);
+		assertEquals(0, decoder.getAdsbVersion(decoder.decode("8D4840D6202CC371C32CE0576098", 1L)));
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs in the "jfr" surefire execution which puts the Java 11 version of {@link DecoderEvents} on the class path
+ * and sets {@code lib1090.jfr=true}. It is skipped in the default execution.
+ */
+class DecoderEventsTest {
+
+	private static final String IDENTIFICATION = "8D4840D6202CC371C32CE0576098";
+	private static final String OTHER = "8D40621D58C382D690C8AC2863A7";
+
+	@BeforeEach
+	void requireEvents() {
+		assumeTrue(DecoderEvents.isEnabled(), "lib1090.jfr is not set");
+	}
+
+	private static List<RecordedEvent> events(Recording recording, String name) throws IOException {
+		Path file = Files.createTempFile("lib1090", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(e -> e.getEventType().getName().equals(name))
+					.collect(Collectors.toList());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void testNotTrackedWithoutRecording() throws Exception {
+		assertFalse(DecoderEvents.decodeStarted(new StatefulModeSDecoder().decode(IDENTIFICATION, 0)));
+	}
+
+	@Test
+	void testSlowDecode() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		try (Recording recording = new Recording()) {
+			recording.enable("de.serosystems.lib1090.SlowDecode").withThreshold(Duration.ZERO);
+			recording.start();
+			for (int i = 0; i < 10; i++)
+				decoder.decode(IDENTIFICATION, i);
+			recording.stop();
+
+			List<RecordedEvent> events = events(recording, "de.serosystems.lib1090.SlowDecode");
+			assertEquals(10, events.size());
+			for (RecordedEvent event : events) {
+				assertEquals("4840d6", event.getString("address"));
+				assertEquals(17, event.getInt("downlinkFormat"));
+				assertEquals("ADSB_IDENTIFICATION", event.getString("subtype"));
+			}
+		}
+	}
+
+	@Test
+	void testEviction() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		try (Recording recording = new Recording()) {
+			recording.enable("de.serosystems.lib1090.StateEviction");
+			recording.enable("de.serosystems.lib1090.CleanupSweep");
+			recording.start();
+			decoder.decode(IDENTIFICATION, 0);
+			decoder.decode(OTHER, 7200_000L);
+			decoder.clearDecoders();
+			recording.stop();
+
+			List<RecordedEvent> evictions = events(recording, "de.serosystems.lib1090.StateEviction");
+			assertEquals(1, evictions.size());
+			assertEquals("4840d6", evictions.get(0).getString("evicted"));
+			assertEquals(7200_000L, evictions.get(0).getDuration("idle").toMillis());
+
+			List<RecordedEvent> sweeps = events(recording, "de.serosystems.lib1090.CleanupSweep");
+			assertEquals(1, sweeps.size());
+			assertEquals(2, sweeps.get(0).getInt("before"));
+			assertEquals(1, sweeps.get(0).getInt("after"));
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecoderMetricsTest {
+
+	private static final String IDENTIFICATION = "8D4840D6202CC371C32CE0576098";
+	private static final String EVEN = "8D40621D58C382D690C8AC2863A7";
+	private static final String ODD = "8D40621D58C386435CC412692AD6";
+
+	@Test
+	void testDisabledByDefault() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		decoder.decode(IDENTIFICATION, 0);
+		assertNull(decoder.getMetrics());
+
+		DecoderMetrics metrics = decoder.enableMetrics();
+		assertSame(metrics, decoder.enableMetrics());
+		decoder.decode(IDENTIFICATION, 1);
+		decoder.disableMetrics();
+		decoder.decode(IDENTIFICATION, 2);
+		assertEquals(1, metrics.getReceived());
+	}
+
+	@Test
+	void testFrameCounters() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		DecoderMetrics metrics = decoder.enableMetrics();
+		metrics.setCheckParity(true);
+
+		decoder.decode(IDENTIFICATION, 0);
+		decoder.decode("8D4840D6202CC371C32CE0576099", 1); // wrong parity
+		decoder.decode("20001838CA3804", 2); // DF 4
+		assertThrows(BadFormatException.class, () -> decoder.decode("8D4840D6202CC371C32C", 3));
+
+		assertEquals(3, metrics.getReceived());
+		assertEquals(2, metrics.getReceived(17));
+		assertEquals(1, metrics.getReceived(4));
+		assertEquals(1, metrics.getCRCPassed());
+		assertEquals(1, metrics.getCRCFailed());
+		assertEquals(1, metrics.getMalformed());
+		assertEquals(2, metrics.getDecoded(ModeSDownlinkMsg.subtype.ADSB_IDENTIFICATION));
+		assertEquals(1, metrics.getDecoded(ModeSDownlinkMsg.subtype.ALTITUDE_REPLY));
+		assertEquals(2L, metrics.getReceivedByDownlinkFormat().get("DF17"));
+		assertEquals(0, metrics.getBadFormat());
+
+		metrics.reset();
+		assertEquals(0, metrics.getReceived());
+		assertTrue(metrics.getDecodedBySubtype().isEmpty());
+		decoder.decode(IDENTIFICATION, 4);
+		assertEquals(1, metrics.getDecoded(ModeSDownlinkMsg.subtype.ADSB_IDENTIFICATION));
+	}
+
+	@Test
+	void testTrackedTargets() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		DecoderMetrics metrics = decoder.enableMetrics();
+
+		// updated every 1024 frames
+		byte[] frame = Tools.hexStringToByteArray(IDENTIFICATION);
+		for (int i = 0; i < 1024; i++) {
+			frame[2] = (byte) (i >>> 8);
+			frame[3] = (byte) i;
+			decoder.decode(frame, true, i);
+		}
+		assertEquals(1024, metrics.getTrackedTargets());
+	}
+
+	@Test
+	void testErrorsByDownlinkFormat() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		DecoderMetrics metrics = decoder.enableMetrics();
+
+		// airborne operational status with invalid version
+		ModeSDownlinkMsg raw = new ModeSDownlinkMsg("8D4840D6F800000000E000000000", true);
+		assertThrows(BadFormatException.class, () -> decoder.decode(raw, 0));
+		assertEquals(1, metrics.getBadFormat(17));
+		assertEquals(1L, metrics.getErrors().get("BadFormatException/DF17"));
+	}
+
+	@Test
+	void testPositionCounters() throws Exception {
+		for (StatefulModeSDecoder decoder : new StatefulModeSDecoder[] {
+				new StatefulModeSDecoder(), StatefulModeSDecoder.withCompactState(false)}) {
+			DecoderMetrics metrics = decoder.enableMetrics();
+			Position far = new Position(-120., -30., 0.);
+
+			PositionMsg even = (PositionMsg) decoder.decode(EVEN, 1000);
+			QualifiedAddress address = ((ModeSDownlinkMsg) even).getAddress();
+			assertNull(decoder.extractPosition(address, even, null));
+			PositionMsg odd = (PositionMsg) decoder.decode(ODD, 2000);
+			Position pos = decoder.extractPosition(address, odd, far);
+			assertNotNull(pos);
+			assertEquals(52.2658, pos.getLatitude(), 1e-4);
+			assertFalse(pos.isReasonable());
+
+			assertEquals(1, metrics.getCPRFailed());
+			assertEquals(1, metrics.getCPRGlobal());
+			assertEquals(0, metrics.getCPRLocal());
+			assertEquals(1, metrics.getRejected(DecoderMetrics.ReasonablenessTest.RECEIVER_DISTANCE));
+			assertEquals(0, metrics.getRejected(DecoderMetrics.ReasonablenessTest.LOCAL_GLOBAL));
+
+			// local decoding with the last position as reference
+			decoder.decode(EVEN, 3000);
+			assertNotNull(decoder.extractPosition(address, even, null));
+			assertEquals(2, metrics.getCPRGlobal());
+
+			// evictions
+			decoder.decode(IDENTIFICATION, 10_000_000);
+			decoder.clearDecoders();
+			assertEquals(1, metrics.getEvictions());
+			assertEquals(1, metrics.getTrackedTargets());
+		}
+	}
+
+	@Test
+	void testMBean() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		DecoderMetrics metrics = decoder.enableMetrics();
+		metrics.setCheckParity(true);
+		decoder.decode(IDENTIFICATION, 0);
+
+		metrics.registerMBean("test");
+		try {
+			ObjectName name = new ObjectName("de.serosystems.lib1090:type=DecoderMetrics,name=\"test\"");
+			assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Received"));
+			assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CRCPassed"));
+		} finally {
+			metrics.unregisterMBean();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+				new ObjectName("de.serosystems.lib1090:type=DecoderMetrics,name=\"test\"")));
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.PositionDecoderSupplier;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecoderSnapshotTest {
+
+	private static final int TARGETS = 2000;
+
+	/**
+	 * Feeds the same random traffic to all stores and checks that they return the same results
+	 */
+	private static long feed(long seed, long time, int messages, DecoderStateStore... stores) {
+		Random rnd = new Random(seed);
+		for (int n = 0; n < messages; n++) {
+			time += rnd.nextInt(10);
+			int t = rnd.nextInt(TARGETS);
+			QualifiedAddress address = QualifiedAddress.of(0x300000 + t, QualifiedAddress.Type.ICAO24);
+			double lat = 50 + (t % 40) * 0.1 + (time % 100_000) * 1e-6;
+			double lon = 8 + (t / 40) * 0.1;
+			boolean odd = rnd.nextBoolean();
+			boolean surface = t % 9 == 0;
+			int[] enc = CompactStateStoreTest.encode(lat, lon, odd, surface);
+			CPREncodedPosition cpr = surface ?
+					CPREncodedPosition.ofSurface(17, odd, false, enc[0], enc[1], time) :
+					CPREncodedPosition.ofAirborne(17, odd, enc[0], enc[1], time);
+			Position receiver = new Position(9., 51., 0.);
+			byte version = (byte) rnd.nextInt(3);
+			int gmb = rnd.nextInt(100);
+			boolean update = rnd.nextInt(5) == 0;
+
+			Position expected = null;
+			for (int s = 0; s < stores.length; s++) {
+				DecoderStateStore store = stores[s];
+				store.select(address, time);
+				if (update) {
+					store.setAdsbVersion(version);
+					store.setNICSupplementA(gmb % 2 == 0);
+					store.setGeoMinusBaro(gmb);
+				}
+				Position pos = store.decodePosition(cpr, receiver);
+				if (s == 0) {
+					expected = pos;
+				} else if (expected == null) {
+					assertNull(pos);
+				} else {
+					assertEquals(expected.getLatitude(), pos.getLatitude());
+					assertEquals(expected.getLongitude(), pos.getLongitude());
+					assertEquals(expected.isReasonable(), pos.isReasonable());
+				}
+				assertEquals(stores[0].getAdsbVersion(), store.getAdsbVersion());
+				assertEquals(stores[0].hasNICSupplementA(), store.hasNICSupplementA());
+				assertEquals(stores[0].getGeoMinusBaro(), store.getGeoMinusBaro());
+			}
+		}
+		return time;
+	}
+
+	private static byte[] snapshot(DecoderStateStore store, long timestamp) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DecoderSnapshot.write(store, timestamp, out);
+		return out.toByteArray();
+	}
+
+	private static byte[] snapshot(DecoderSnapshot.IncrementalWriter writer) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.writeTo(out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void testRestoreContinuesDecoding() throws IOException {
+		DecoderStateStore objects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+		DecoderStateStore compact = new CompactStateStore(false);
+		long time = feed(1, 0, 50000, objects, compact);
+
+		byte[] fromObjects = snapshot(objects, time);
+		assertEquals(18 + objects.size() * DecoderSnapshot.RECORD_SIZE, fromObjects.length);
+
+		// restore into both backends, from both backends
+		DecoderStateStore restoredObjects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+		DecoderStateStore restoredCompact = new CompactStateStore(false);
+		DecoderStateStore crossObjects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+		assertEquals(time, DecoderSnapshot.read(restoredObjects, new ByteArrayInputStream(fromObjects)));
+		assertEquals(time, DecoderSnapshot.read(restoredCompact, new ByteArrayInputStream(fromObjects)));
+		DecoderSnapshot.read(crossObjects, new ByteArrayInputStream(snapshot(compact, time)));
+		assertEquals(objects.size(), restoredCompact.size());
+		assertEquals(objects.size(), crossObjects.size());
+
+		feed(2, time, 50000, objects, compact, restoredObjects, restoredCompact, crossObjects);
+	}
+
+	@Test
+	void testInvalidSnapshots() {
+		assertThrows(IOException.class, () ->
+				DecoderSnapshot.read(new CompactStateStore(false), new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6})));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertDoesNotThrow(() -> {
+			DataOutputStream data = new DataOutputStream(out);
+			data.writeInt(DecoderSnapshot.MAGIC);
+			data.writeShort(DecoderSnapshot.FORMAT_VERSION + 1);
+		});
+		assertThrows(IOException.class, () ->
+				DecoderSnapshot.read(new CompactStateStore(false), new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test
+	void testFailedRestoreKeepsState() throws IOException {
+		DecoderStateStore objects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+		DecoderStateStore compact = new CompactStateStore(false);
+		long time = feed(3, 0, 20000, objects, compact);
+		byte[] snapshot = snapshot(objects, time);
+
+		// truncated
+		byte[] truncated = Arrays.copyOf(snapshot, snapshot.length - 10);
+		// invalid address type in the last record
+		byte[] corrupt = snapshot.clone();
+		corrupt[18 + (objects.size() - 1) * DecoderSnapshot.RECORD_SIZE + 7] = (byte) 0xF0;
+
+		for (byte[] invalid : new byte[][] {truncated, corrupt}) {
+			DecoderStateStore restoredObjects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+			DecoderStateStore restoredCompact = new CompactStateStore(false);
+			feed(4, 0, 1000, restoredObjects, restoredCompact);
+			int size = restoredObjects.size();
+			assertThrows(IOException.class, () -> DecoderSnapshot.read(restoredObjects, new ByteArrayInputStream(invalid)));
+			assertThrows(IOException.class, () -> DecoderSnapshot.read(restoredCompact, new ByteArrayInputStream(invalid)));
+			assertEquals(size, restoredObjects.size());
+			assertEquals(size, restoredCompact.size());
+			feed(4, 0, 1000, restoredObjects, restoredCompact);
+		}
+	}
+
+	@Test
+	void testIncrementalSnapshot() throws IOException {
+		DecoderStateStore objects = new ObjectStateStore(PositionDecoderSupplier.statefulPositionDecoder());
+		DecoderStateStore compact = new CompactStateStore(false);
+		long time = feed(5, 0, 20000, objects, compact);
+
+		for (DecoderStateStore store : new DecoderStateStore[] {objects, compact}) {
+			DecoderSnapshot.IncrementalWriter writer = new DecoderSnapshot.IncrementalWriter(store, time);
+			int slices = 1;
+			while (!writer.write(store, 100)) slices++;
+			assertEquals((store.size() + 99) / 100, slices);
+			assertArrayEquals(snapshot(store, time), snapshot(writer));
+		}
+
+		// records removed while writing are skipped
+		for (DecoderStateStore store : new DecoderStateStore[] {objects, compact}) {
+			DecoderSnapshot.IncrementalWriter writer = new DecoderSnapshot.IncrementalWriter(store, time);
+			assertFalse(writer.write(store, 10));
+			store.removeIdle(time + 3600_000L, 3600_000L - 100);
+			assertEquals(0, store.size());
+			assertTrue(writer.write(store, Integer.MAX_VALUE));
+
+			DecoderStateStore restored = new CompactStateStore(false);
+			DecoderSnapshot.read(restored, new ByteArrayInputStream(snapshot(writer)));
+			assertEquals(10, restored.size());
+		}
+	}
+
+	@Test
+	void testRejectedSnapshot() {
+		File file = new File(System.getProperty("java.io.tmpdir"), "lib1090-rejected.snapshot");
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		decoder.enablePeriodicSnapshots(file, 0, command -> {
+			throw new RejectedExecutionException();
+		});
+		assertDoesNotThrow(() -> {
+			for (int i = 0; i < 4096; i++)
+				decoder.decode("8D4840D6202CC371C32CE0576098", 1000L + i);
+		});
+		assertFalse(file.exists());
+	}
+
+	@Test
+	void testSnapshotFiles() throws Exception {
+		File file = File.createTempFile("lib1090", ".snapshot");
+		file.deleteOnExit();
+
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		decoder.decode("8D4840D6202CC371C32CE0576098", 1000L);
+		decoder.writeSnapshot(file);
+
+		StatefulModeSDecoder restored = StatefulModeSDecoder.withCompactState(false);
+		restored.readSnapshot(file);
+		assertEquals(0, restored.getAdsbVersion(restored.decode("8D4840D6202CC371C32CE0576098", 2000L)));
+
+		// periodic snapshots
+		assertTrue(file.delete());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		decoder.enablePeriodicSnapshots(file, 0, executor);
+		for (int i = 0; i < 2048; i++)
+			decoder.decode("8D4840D6202CC371C32CE0576098", 3000L + i);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertTrue(file.exists());
+		restored.readSnapshot(file);
+	}
+}
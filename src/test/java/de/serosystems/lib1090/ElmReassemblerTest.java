@@ -0,0 +1,156 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.modes.CommBAltitudeReply;
+import de.serosystems.lib1090.msgs.modes.CommDExtendedLengthMsg;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElmReassemblerTest {
+
+	private static final int ICAO = 0x4840D6;
+	private static final QualifiedAddress ADDRESS = QualifiedAddress.of(ICAO, QualifiedAddress.Type.ICAO24);
+
+	private static CommDExtendedLengthMsg segment(int icao, boolean ack, int number, int fill) throws Exception {
+		byte[] frame = new byte[14];
+		frame[0] = (byte) (0xC0 | (ack ? 0x10 : 0) | number);
+		for (int i = 1; i <= 10; i++) frame[i] = (byte) (fill + i);
+		frame[11] = (byte) (icao >>> 16);
+		frame[12] = (byte) (icao >>> 8);
+		frame[13] = (byte) icao;
+		return new CommDExtendedLengthMsg(new ModeSDownlinkMsg(frame, true));
+	}
+
+	private static class Collector implements ElmReassembler.Sink {
+		final List<byte[]> messages = new ArrayList<>();
+
+		@Override
+		public void accept(QualifiedAddress address, byte[] message, long timestamp) {
+			assertEquals(ADDRESS, address);
+			messages.add(message);
+		}
+	}
+
+	@Test
+	void testSegmentFields() throws Exception {
+		for (int nd = 0; nd < 16; nd++) {
+			CommDExtendedLengthMsg msg = segment(ICAO, false, nd, 0);
+			assertEquals(nd, msg.getSequenceNumber());
+			assertFalse(msg.isAck());
+			assertEquals(ADDRESS, msg.getAddress());
+			assertEquals(24, msg.getDownlinkFormat());
+		}
+		assertTrue(segment(ICAO, true, 11, 0).isAck());
+		assertEquals(11, segment(ICAO, true, 11, 0).getSequenceNumber());
+
+		// KE and ND survive the round trip through the hex representation
+		CommDExtendedLengthMsg msg = segment(ICAO, true, 9, 0);
+		assertEquals(0xD9, Integer.parseInt(msg.getHexMessage().substring(0, 2), 16) & 0xFF);
+		assertNotEquals(segment(ICAO, false, 9, 0), segment(ICAO, false, 1, 0));
+	}
+
+	@Test
+	void testReassembleOutOfOrder() throws Exception {
+		Collector sink = new Collector();
+		ElmReassembler elm = new ElmReassembler(4, 5000, sink);
+
+		elm.announce(ADDRESS, 12, 1000);
+		for (int nd = 11; nd >= 1; nd--)
+			assertFalse(elm.offer(segment(ICAO, false, nd, nd * 16), 1000 + 12 - nd));
+		// duplicates and acknowledgements do not matter
+		assertFalse(elm.offer(segment(ICAO, false, 5, 5 * 16), 1020));
+		assertFalse(elm.offer(segment(ICAO, true, 0, 0xAA), 1021));
+		assertTrue(elm.offer(segment(ICAO, false, 0, 0), 1030));
+
+		assertEquals(1, sink.messages.size());
+		byte[] message = sink.messages.get(0);
+		assertEquals(120, message.length);
+		for (int nd = 0; nd < 12; nd++)
+			for (int i = 0; i < 10; i++)
+				assertEquals((byte) (nd * 16 + i + 1), message[nd * 10 + i]);
+		assertEquals(1, elm.getCompleted());
+		assertEquals(0, elm.size());
+	}
+
+	@Test
+	void testAnnouncementAfterSegments() throws Exception {
+		Collector sink = new Collector();
+		ElmReassembler elm = new ElmReassembler(4, 5000, sink);
+
+		elm.offer(segment(ICAO, false, 0, 0), 1000);
+		elm.offer(segment(ICAO, false, 1, 16), 1001);
+		assertTrue(sink.messages.isEmpty());
+
+		// DR 17: two segments
+		byte[] frame = {(byte) 0xA0, (byte) (17 << 3), 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0x48, (byte) 0x40, (byte) 0xD6};
+		assertTrue(elm.announce(new CommBAltitudeReply(new ModeSDownlinkMsg(frame, true)), 1002));
+		assertEquals(1, sink.messages.size());
+		assertEquals(20, sink.messages.get(0).length);
+
+		frame[1] = 0;
+		assertFalse(elm.announce(new CommBAltitudeReply(new ModeSDownlinkMsg(frame, true)), 1003));
+	}
+
+	@Test
+	void testConflictingSegmentStartsOver() throws Exception {
+		Collector sink = new Collector();
+		ElmReassembler elm = new ElmReassembler(4, 5000, sink);
+
+		elm.announce(ADDRESS, 2, 1000);
+		elm.offer(segment(ICAO, false, 0, 0), 1000);
+		elm.offer(segment(ICAO, false, 0, 50), 1100);
+		assertEquals(1, elm.getExpired());
+		elm.announce(ADDRESS, 2, 1100);
+		elm.offer(segment(ICAO, false, 1, 60), 1200);
+
+		assertEquals(1, sink.messages.size());
+		assertEquals(51, sink.messages.get(0)[0]);
+	}
+
+	@Test
+	void testTimeoutAndEviction() throws Exception {
+		Collector sink = new Collector();
+		ElmReassembler elm = new ElmReassembler(2, 1000, sink);
+
+		elm.announce(ADDRESS, 3, 0);
+		elm.offer(segment(ICAO, false, 0, 0), 10);
+		elm.announce(QualifiedAddress.of(1, QualifiedAddress.Type.ICAO24), 2, 500);
+		assertEquals(2, elm.size());
+
+		// expires the first message
+		elm.announce(QualifiedAddress.of(2, QualifiedAddress.Type.ICAO24), 2, 1200);
+		assertEquals(1, elm.getExpired());
+		assertEquals(2, elm.size());
+		elm.offer(segment(ICAO, false, 1, 0), 1210);
+		elm.offer(segment(ICAO, false, 2, 0), 1220);
+		assertTrue(sink.messages.isEmpty());
+
+		// all slots in use
+		assertEquals(1, elm.getEvicted());
+		assertEquals(2, elm.size());
+		assertEquals(320, elm.getMemoryBudget());
+	}
+}
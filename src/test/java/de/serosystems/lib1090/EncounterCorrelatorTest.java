@@ -0,0 +1,249 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.EncounterCorrelator.Encounter;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.msgs.adsb.TCASResolutionAdvisoryMsg;
+import de.serosystems.lib1090.msgs.bds.ACASActiveResolutionAdvisoryReport;
+import de.serosystems.lib1090.msgs.modes.ExtendedSquitter;
+import de.serosystems.lib1090.msgs.modes.LongACAS;
+import de.serosystems.lib1090.msgs.modes.ShortACAS;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncounterCorrelatorTest {
+
+	private static final int A = 0x4840D6, B = 0x3C6586, C = 0x400ABC;
+
+	/**
+	 * BDS 3,0 / TC 28 subtype 2 content; tti 1 with the threat address, tti 2 with altitude, range and bearing
+	 */
+	private static byte[] ra(int first, int ara, int rac, boolean rat, boolean mte, int tti, int tid) {
+		byte[] msg = new byte[7];
+		msg[0] = (byte) first;
+		msg[1] = (byte) (ara >>> 6);
+		msg[2] = (byte) ((ara & 0x3F) << 2 | rac >>> 2);
+		msg[3] = (byte) ((rac & 0x3) << 6 | (rat ? 0x20 : 0) | (mte ? 0x10 : 0) | tti << 2 | tid >>> 24 & 0x3);
+		msg[4] = (byte) (tid >>> 16);
+		msg[5] = (byte) (tid >>> 8);
+		msg[6] = (byte) tid;
+		return msg;
+	}
+
+	private static int tidOf(int icao) {
+		return icao << 2;
+	}
+
+	private static TCASResolutionAdvisoryMsg adsb(int icao, int ara, int rac, boolean rat, boolean mte, int tti, int tid)
+			throws Exception {
+		byte[] frame = new byte[14];
+		frame[0] = (byte) 0x8D;
+		frame[1] = (byte) (icao >>> 16);
+		frame[2] = (byte) (icao >>> 8);
+		frame[3] = (byte) icao;
+		System.arraycopy(ra(0xE2, ara, rac, rat, mte, tti, tid), 0, frame, 4, 7);
+		return new TCASResolutionAdvisoryMsg(new ExtendedSquitter(new ModeSDownlinkMsg(frame, true)));
+	}
+
+	private static int altitudeCode(int feet) {
+		int n = (feet + 1000) / 25;
+		return (n >>> 5) << 7 | ((n >>> 4) & 0x1) << 5 | 0x10 | (n & 0xF);
+	}
+
+	private static LongACAS df16(int icao, int feet, byte[] mv) throws Exception {
+		int ac = altitudeCode(feet);
+		byte[] frame = new byte[14];
+		frame[0] = (byte) 0x80;
+		frame[2] = (byte) (ac >>> 8);
+		frame[3] = (byte) ac;
+		System.arraycopy(mv, 0, frame, 4, 7);
+		frame[11] = (byte) (icao >>> 16);
+		frame[12] = (byte) (icao >>> 8);
+		frame[13] = (byte) icao;
+		return new LongACAS(new ModeSDownlinkMsg(frame, true));
+	}
+
+	private static ShortACAS df0(int icao, int feet) throws Exception {
+		int ac = altitudeCode(feet);
+		byte[] frame = {0, 0, (byte) (ac >>> 8), (byte) ac, (byte) (icao >>> 16), (byte) (icao >>> 8), (byte) icao};
+		return new ShortACAS(new ModeSDownlinkMsg(frame, true));
+	}
+
+	private static class Events implements EncounterCorrelator.EncounterListener {
+		final List<String> events = new ArrayList<>();
+
+		@Override
+		public void onOpen(Encounter encounter, long timestamp) {
+			events.add("open " + encounter.getId());
+		}
+
+		@Override
+		public void onUpdate(Encounter encounter, long timestamp) {
+			events.add("update " + encounter.getId());
+		}
+
+		@Override
+		public void onClose(Encounter encounter, long timestamp) {
+			events.add("close " + encounter.getId());
+		}
+	}
+
+	@Test
+	void testLinkBothSides() throws Exception {
+		Events events = new Events();
+		EncounterCorrelator correlator = new EncounterCorrelator(events);
+
+		correlator.offer(adsb(A, 0x2000, 0, false, false, 1, tidOf(B)), 1000);
+		correlator.offer(adsb(A, 0x2000, 0, false, false, 1, tidOf(B)), 2000);
+		assertEquals(1, correlator.size());
+		Encounter e = correlator.getEncounter(B, A);
+		assertNotNull(e);
+		assertEquals(A, e.getAddress(0));
+		assertEquals(B, e.getAddress(1));
+		assertTrue(e.isActive(0));
+		assertFalse(e.hasReported(1));
+		assertEquals(0x2000, e.getActiveRA(0));
+
+		// B via Comm-B, with complement
+		correlator.offer(QualifiedAddress.of(B, QualifiedAddress.Type.ICAO24),
+				new ACASActiveResolutionAdvisoryReport(ra(0x30, 0x2100, 0x8, false, false, 1, tidOf(A))), 2500);
+		assertSame(e, correlator.getEncounter(A, B));
+		assertEquals(EncounterCorrelator.Source.COMM_B, e.getSource(1));
+		assertEquals(0x8, e.getRACRecord(1));
+
+		// A terminates, B still active
+		correlator.offer(adsb(A, 0, 0, true, false, 1, tidOf(B)), 5000);
+		assertFalse(e.isClosed());
+		assertTrue(e.hasRATerminated(0));
+
+		correlator.offer(QualifiedAddress.of(B, QualifiedAddress.Type.ICAO24),
+				new ACASActiveResolutionAdvisoryReport(ra(0x30, 0, 0, true, false, 1, tidOf(A))), 5500);
+		assertTrue(e.isClosed());
+		assertEquals(0, correlator.size());
+		assertEquals(0, correlator.getEncounters(A).length);
+
+		// terminated RAs are reported for a while, they do not open new encounters
+		correlator.offer(adsb(A, 0, 0, true, false, 1, tidOf(B)), 6000);
+		assertEquals(0, correlator.size());
+
+		assertEquals(Arrays.asList("open 0", "update 0", "update 0", "close 0"), events.events);
+	}
+
+	@Test
+	void testThreatIdentifiedLater() throws Exception {
+		Events events = new Events();
+		EncounterCorrelator correlator = new EncounterCorrelator(events);
+
+		// A reports a threat without transponder address (altitude, range, bearing)
+		correlator.offer(adsb(A, 0x2000, 0, false, false, 2, 0x0123456), 1000);
+		Encounter e = correlator.getEncounters(A)[0];
+		assertFalse(e.hasThreatAddress());
+		assertNotNull(e.getThreatIdentityData());
+
+		// B reports A as threat in a DF 16 reply
+		correlator.offer(df16(B, 10000, ra(0x30, 0x2100, 0, false, false, 1, tidOf(A))), 1500);
+		assertTrue(e.hasThreatAddress());
+		assertEquals(B, e.getAddress(1));
+		assertEquals(EncounterCorrelator.Source.ACAS, e.getSource(1));
+		assertEquals(10000, (int) e.getAltitude(1));
+		assertSame(e, correlator.getEncounters(B)[0]);
+		assertEquals(1, correlator.size());
+
+		correlator.offer(df0(A, 9500), 1600);
+		assertEquals(9500, (int) e.getAltitude(0));
+
+		assertEquals(Arrays.asList("open 0", "update 0"), events.events);
+	}
+
+	@Test
+	void testMultipleThreatsAndTimeout() throws Exception {
+		Events events = new Events();
+		EncounterCorrelator correlator = new EncounterCorrelator(10_000, events);
+
+		correlator.offer(adsb(A, 0x2000, 0, false, false, 1, tidOf(B)), 1000);
+		correlator.offer(adsb(A, 0x2000, 0, false, true, 1, tidOf(C)), 1500);
+		assertEquals(2, correlator.size());
+		assertEquals(2, correlator.getEncounters(A).length);
+
+		// the RA of A applies to both encounters
+		correlator.offer(adsb(A, 0x2400, 0, false, true, 1, tidOf(B)), 2000);
+		assertEquals(0x2400, correlator.getEncounter(A, B).getActiveRA(0));
+		assertEquals(0x2400, correlator.getEncounter(A, C).getActiveRA(0));
+
+		correlator.offer(adsb(C, 0x2000, 0, false, false, 1, tidOf(A)), 8000);
+		correlator.offer(df0(B, 5000), 12_500);
+		assertNull(correlator.getEncounter(A, B));
+		assertNotNull(correlator.getEncounter(A, C));
+		correlator.expire(20_000);
+		assertEquals(0, correlator.size());
+		assertEquals(2, correlator.getOpenedCount());
+		assertEquals(2, correlator.getClosedCount());
+	}
+
+	@Test
+	void testIndexConsistency() throws Exception {
+		Map<Long, Encounter> open = new HashMap<>();
+		EncounterCorrelator correlator = new EncounterCorrelator(1000, new EncounterCorrelator.EncounterListener() {
+			@Override
+			public void onOpen(Encounter encounter, long timestamp) {
+				assertNull(open.put(encounter.getId(), encounter));
+			}
+
+			@Override
+			public void onClose(Encounter encounter, long timestamp) {
+				assertSame(encounter, open.remove(encounter.getId()));
+			}
+		});
+		Random rnd = new Random(1);
+
+		for (int n = 0; n < 20000; n++) {
+			int own = rnd.nextInt(300), threat = rnd.nextInt(300);
+			int tti = rnd.nextInt(10) == 0 ? 2 : 1;
+			correlator.offer(QualifiedAddress.of(own, QualifiedAddress.Type.ICAO24), new ACASActiveResolutionAdvisoryReport(
+					ra(0x30, 0x2000, 0, rnd.nextInt(4) == 0, false, tti, tidOf(threat))), n);
+
+			if (n % 1000 == 999) {
+				assertEquals(open.size(), correlator.size());
+				for (Encounter e : open.values()) {
+					assertFalse(e.isClosed());
+					for (int side = 0; side < 2; side++) {
+						int address = e.getAddress(side);
+						if (address < 0) continue;
+						assertTrue(Arrays.asList(correlator.getEncounters(address)).contains(e));
+					}
+					if (e.hasThreatAddress()) assertSame(e, correlator.getEncounter(e.getAddress(0), e.getAddress(1)));
+				}
+				for (int address = 0; address < 300; address++)
+					for (Encounter e : correlator.getEncounters(address))
+						assertSame(e, open.get(e.getId()));
+			}
+		}
+		assertTrue(correlator.getOpenedCount() > 1000);
+	}
+}
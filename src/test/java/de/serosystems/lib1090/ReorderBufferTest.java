@@ -0,0 +1,130 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090;
+
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderBufferTest {
+
+	@Test
+	void testReleasesInEventTimeOrder() throws Exception {
+		List<Long> out = new ArrayList<>();
+		ReorderBuffer<Integer> buffer = new ReorderBuffer<>(2000, 100000, (frame, timestamp) -> {
+			assertEquals(frame.longValue(), timestamp);
+			out.add(timestamp);
+		});
+
+		// every frame is delayed by at most 2 seconds
+		Random rnd = new Random(1090);
+		for (int t = 0; t < 100000; t += 10) {
+			int timestamp = Math.max(0, t - rnd.nextInt(2000));
+			assertTrue(buffer.offer(timestamp, timestamp));
+		}
+		assertTrue(buffer.size() > 0);
+		buffer.flush();
+
+		assertEquals(10000, out.size());
+		for (int i = 1; i < out.size(); i++)
+			assertTrue(out.get(i - 1) <= out.get(i));
+		assertEquals(0, buffer.getDroppedLate());
+		assertEquals(0., buffer.getLateDropRate());
+	}
+
+	@Test
+	void testEqualTimestampsKeepArrivalOrder() throws Exception {
+		List<Integer> out = new ArrayList<>();
+		ReorderBuffer<Integer> buffer = new ReorderBuffer<>(100, 1000, (frame, timestamp) -> out.add(frame));
+		for (int i = 0; i < 50; i++)
+			buffer.offer(i, 1000);
+		buffer.flush();
+		for (int i = 0; i < 50; i++)
+			assertEquals(i, out.get(i));
+	}
+
+	@Test
+	void testWatermarkAndLateFrames() throws Exception {
+		List<Long> out = new ArrayList<>();
+		ReorderBuffer<String> buffer = new ReorderBuffer<>(1000, 100, (frame, timestamp) -> out.add(timestamp));
+
+		buffer.offer("a", 5000);
+		buffer.offer("b", 4500);
+		assertTrue(out.isEmpty());
+
+		buffer.offer("c", 5500);
+		assertEquals(1, out.size());
+		assertEquals(4500L, out.get(0));
+
+		// later than the released frame
+		assertFalse(buffer.offer("d", 4000));
+		assertEquals(1, buffer.getDroppedLate());
+		assertEquals(0.25, buffer.getLateDropRate());
+
+		buffer.advanceTo(7000);
+		assertEquals(3, out.size());
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void testCapacity() throws Exception {
+		List<Long> out = new ArrayList<>();
+		ReorderBuffer<String> buffer = new ReorderBuffer<>(Long.MAX_VALUE, 3, (frame, timestamp) -> out.add(timestamp));
+		for (long t = 10; t > 6; t--)
+			assertTrue(buffer.offer("x", t));
+
+		// earliest frame was released early, so older frames are late now
+		assertEquals(3, buffer.size());
+		assertEquals(1, buffer.getOverflows());
+		assertEquals(7L, out.get(0));
+		assertFalse(buffer.offer("x", 6));
+		assertTrue(buffer.offer("x", 7));
+
+		buffer.flush();
+		assertEquals(5, buffer.getReleased());
+		for (int i = 1; i < out.size(); i++)
+			assertTrue(out.get(i - 1) <= out.get(i));
+	}
+
+	@Test
+	void testDecoder() throws Exception {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		List<ModeSDownlinkMsg> out = new ArrayList<>();
+		ReorderBuffer<ModeSDownlinkMsg> buffer = ReorderBuffer.forDecoder(decoder, new ModeSMessageVisitor<Void>() {
+			@Override
+			public Void visitDefault(ModeSDownlinkMsg msg) {
+				out.add(msg);
+				return null;
+			}
+		}, 1000, 100);
+
+		buffer.offer(new ModeSDownlinkMsg("8D4840D6202CC371C32CE0576098"), 1500);
+		buffer.offer(new ModeSDownlinkMsg("8D406B902015A678D4D220AA4BDA"), 1000);
+		buffer.flush();
+
+		assertEquals(2, out.size());
+		assertEquals(0x406B90, out.get(0).getAddress().getAddress());
+		assertEquals(0x4840D6, out.get(1).getAddress().getAddress());
+	}
+}
@@ -18,9 +18,12 @@
 
 package de.serosystems.lib1090;
 
+import de.serosystems.lib1090.encoding.ExtendedSquitterEncoder;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
 import de.serosystems.lib1090.exceptions.BadFormatException;
 import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
 import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.adsb.AirborneOperationalStatusV2Msg;
 import de.serosystems.lib1090.msgs.adsb.ModeACodeV1Msg;
 import de.serosystems.lib1090.msgs.adsb.ModeACodeV1MsgTest;
 import de.serosystems.lib1090.msgs.adsb.OperationalStatusMsgTest;
@@ -28,6 +31,8 @@ import de.serosystems.lib1090.msgs.adsb.TargetStateAndStatusV1Msg;
 import de.serosystems.lib1090.msgs.adsb.TargetStateAndStatusV1MsgTest;
 import de.serosystems.lib1090.msgs.adsb.TargetStateAndStatusV2Msg;
 import de.serosystems.lib1090.msgs.adsb.TargetStateAndStatusV2MsgTest;
+import de.serosystems.lib1090.msgs.modes.ExtendedSquitter;
+import de.serosystems.lib1090.msgs.modes.IdentifyReply;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -99,4 +104,78 @@ public class StatefulModeSDecoderTest {
 		assertEquals("6513", ((ModeACodeV1Msg) reply).getIdentity());
 	}
 
+	@Test
+	public void visitor_shouldBeCalledForDecodedClass() throws UnspecifiedFormatError, BadFormatException {
+		final ModeSMessageVisitor<String> visitor = new ModeSMessageVisitor<String>() {
+			@Override
+			public String visitDefault(ModeSDownlinkMsg msg) {
+				return "default";
+			}
+
+			@Override
+			public String visitIdentifyReply(IdentifyReply msg) {
+				return msg.getIdentity();
+			}
+
+			@Override
+			public String visitAirborneOperationalStatusV2(AirborneOperationalStatusV2Msg msg) {
+				return "v" + msg.getVersion();
+			}
+
+			@Override
+			public String visitModeACodeV1(ModeACodeV1Msg msg) {
+				return msg.getIdentity();
+			}
+		};
+
+		assertEquals("7000", decoder.decode("28280a805dcd47", 0L, visitor));
+		assertEquals("v2", decoder.decode(OperationalStatusMsgTest.A_OPSTAT_V2, 0L, visitor));
+
+		// ADS-B version 0 is assumed for this address, so this is just an extended squitter
+		assertEquals("default", decoder.decode(ModeACodeV1MsgTest.MODE_A_CODE_V1, 0L, visitor));
+
+		decoder.decode(TargetStateAndStatusV1MsgTest.A_OPSTAT_V1, 0L, visitor);
+		assertEquals("6513", decoder.decode(ModeACodeV1MsgTest.MODE_A_CODE_V1, 0L, visitor));
+	}
+
+	@Test
+	public void visitor_shouldMatchDecodedType() throws UnspecifiedFormatError, BadFormatException {
+		final ModeSMessageVisitor<ModeSDownlinkMsg> visitor = new ModeSMessageVisitor<ModeSDownlinkMsg>() {
+			@Override
+			public ModeSDownlinkMsg visitExtendedSquitter(ExtendedSquitter msg) {
+				return msg;
+			}
+		};
+
+		final ModeSDownlinkMsg reply = decoder.decode(TargetStateAndStatusV2MsgTest.TSS_WITH_ME11_BIT_SET, 0L, visitor);
+
+		assertNotNull(reply);
+		assertEquals(ModeSDownlinkMsg.subtype.EXTENDED_SQUITTER, reply.getType());
+		assertNull(decoder.decode(OperationalStatusMsgTest.A_OPSTAT_V2, 0L, visitor));
+	}
+
+	@Test
+	public void clearDecoders_shouldRunOncePerMillionFrames() throws UnspecifiedFormatError, BadFormatException {
+		final int[] cleanups = new int[1];
+		final StatefulModeSDecoder counting = new StatefulModeSDecoder() {
+			@Override
+			public void clearDecoders() {
+				// only count, the schedule is under test
+				cleanups[0]++;
+			}
+		};
+
+		final int aircraft = 30001;
+		final long me = ExtendedSquitterEncoder.identification(4, 1, ModeSEncoder.encodeIdentification("DLH123"));
+		final byte[][] frames = new byte[aircraft][14];
+		for (int i = 0; i < aircraft; i++)
+			ModeSEncoder.extendedSquitter(frames[i], 0, 5, 0x100000 + i, me);
+
+		for (int i = 0; i < 2_100_000; i++)
+			counting.decode(frames[i % aircraft], i);
+
+		// the cleanup is due after frame 1000001 and 2000002, not on every frame after that
+		assertEquals(2, cleanups[0]);
+	}
+
 }
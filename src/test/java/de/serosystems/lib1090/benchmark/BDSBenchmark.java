@@ -0,0 +1,125 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.bds.*;
+import de.serosystems.lib1090.msgs.modes.CommBAltitudeReply;
+import de.serosystems.lib1090.msgs.modes.CommBIdentifyReply;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BDS register decoders on the Comm-B replies of the corpus which are annotated with their register, and the
+ * register inference of {@link StatefulModeSDecoder} on the same replies. Each operation decodes one reply.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=BDSBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BDSBenchmark {
+
+	@Param({"1,0", "1,7", "2,0", "3,0", "4,0", "5,0", "6,0"})
+	public String register;
+
+	private interface RegisterDecoder {
+		BDSRegister decode(byte[] mb) throws BadFormatException;
+	}
+
+	private RegisterDecoder registerDecoder;
+	private byte[][] mb;
+	private CommBAltitudeReply[] altitudeReplies;
+	private CommBIdentifyReply[] identifyReplies;
+	private StatefulModeSDecoder decoder;
+	private long time;
+	private int next;
+
+	@Setup
+	public void setup() throws BadFormatException, UnspecifiedFormatError {
+		switch (register) {
+			case "1,0": registerDecoder = DataLinkCapabilityReport::new; break;
+			case "1,7": registerDecoder = CommonUsageGICBCapabilityReport::new; break;
+			case "2,0": registerDecoder = AircraftIdentification::new; break;
+			case "3,0": registerDecoder = ACASActiveResolutionAdvisoryReport::new; break;
+			case "4,0": registerDecoder = SelectedVerticalIntention::new; break;
+			case "5,0": registerDecoder = TrackAndTurn::new; break;
+			case "6,0": registerDecoder = HeadingAndSpeed::new; break;
+			default: throw new IllegalArgumentException("Unknown register " + register);
+		}
+
+		Corpus corpus = Corpus.load();
+		List<byte[]> selected = new ArrayList<>();
+		for (int i = 0; i < corpus.size(); i++)
+			if (register.equals(corpus.registers[i])) selected.add(corpus.frames[i]);
+		if (selected.isEmpty()) throw new IllegalStateException("No BDS " + register + " replies in corpus");
+
+		mb = new byte[selected.size()][];
+		altitudeReplies = new CommBAltitudeReply[selected.size()];
+		identifyReplies = new CommBIdentifyReply[selected.size()];
+		for (int i = 0; i < selected.size(); i++) {
+			byte[] frame = selected.get(i);
+			if ((frame[0] >>> 3 & 0x1F) == 20) {
+				altitudeReplies[i] = new CommBAltitudeReply(frame);
+				mb[i] = altitudeReplies[i].getMessage();
+			} else {
+				identifyReplies[i] = new CommBIdentifyReply(frame);
+				mb[i] = identifyReplies[i].getMessage();
+			}
+		}
+		decoder = new StatefulModeSDecoder();
+	}
+
+	private int next() {
+		int i = next;
+		next = i + 1 == mb.length ? 0 : i + 1;
+		return i;
+	}
+
+	@Benchmark
+	public BDSRegister decode() throws BadFormatException {
+		return registerDecoder.decode(mb[next()]);
+	}
+
+	@Benchmark
+	public BDSRegister infer() {
+		int i = next();
+		time += 1000;
+		return altitudeReplies[i] != null ?
+				decoder.decodeCommB(altitudeReplies[i], time) :
+				decoder.decodeCommB(identifyReplies[i], time);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(BDSBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
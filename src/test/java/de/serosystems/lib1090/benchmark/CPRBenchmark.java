@@ -0,0 +1,114 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global and local CPR decoding of the airborne or surface positions in the corpus. Global decoding combines
+ * consecutive even and odd positions of the same aircraft, local decoding uses the previous position of the
+ * aircraft as reference. Each operation decodes one position.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=CPRBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CPRBenchmark {
+
+	@Param({"false", "true"})
+	public boolean surface;
+
+	// global decoding: position, other position and reference (for surface positions)
+	private CPREncodedPosition[] globalThis, globalOther;
+	private Position[] globalReference;
+	// local decoding: position and reference
+	private CPREncodedPosition[] local;
+	private Position[] localReference;
+	private int nextGlobal, nextLocal;
+
+	@Setup
+	public void setup() throws BadFormatException, UnspecifiedFormatError {
+		List<CPREncodedPosition> pairThis = new ArrayList<>(), pairOther = new ArrayList<>(), localCPR = new ArrayList<>();
+		List<Position> pairReference = new ArrayList<>(), localRef = new ArrayList<>();
+		Map<QualifiedAddress, Corpus.EncodedPosition> previous = new HashMap<>();
+
+		for (Corpus.EncodedPosition pos : Corpus.load().positions()) {
+			if (pos.cpr.isSurface() != surface) continue;
+			Corpus.EncodedPosition prev = previous.put(pos.address, pos);
+			if (prev == null) continue;
+			Position reference = prev.decoded != null ? prev.decoded : pos.decoded;
+			if (reference == null) continue;
+
+			if (prev.cpr.isOddFormat() != pos.cpr.isOddFormat() &&
+					pos.cpr.decodeGlobal(prev.cpr, surface ? reference : null) != null) {
+				pairThis.add(pos.cpr);
+				pairOther.add(prev.cpr);
+				pairReference.add(surface ? reference : null);
+			}
+			localCPR.add(pos.cpr);
+			localRef.add(reference);
+		}
+		if (pairThis.isEmpty() || localCPR.isEmpty())
+			throw new IllegalStateException("No " + (surface ? "surface" : "airborne") + " positions in corpus");
+
+		globalThis = pairThis.toArray(new CPREncodedPosition[0]);
+		globalOther = pairOther.toArray(new CPREncodedPosition[0]);
+		globalReference = pairReference.toArray(new Position[0]);
+		local = localCPR.toArray(new CPREncodedPosition[0]);
+		localReference = localRef.toArray(new Position[0]);
+	}
+
+	@Benchmark
+	public Position global() {
+		int i = nextGlobal;
+		nextGlobal = i + 1 == globalThis.length ? 0 : i + 1;
+		return globalThis[i].decodeGlobal(globalOther[i], globalReference[i]);
+	}
+
+	@Benchmark
+	public Position local() {
+		int i = nextLocal;
+		nextLocal = i + 1 == local.length ? 0 : i + 1;
+		return local[i].decodeLocal(localReference[i]);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(CPRBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
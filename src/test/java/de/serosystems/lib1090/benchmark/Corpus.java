@@ -0,0 +1,126 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frames of the benchmark corpus (src/test/resources/benchmark/corpus.txt) in the order of the file.
+ */
+final class Corpus {
+
+	/**
+	 * Time offset in milliseconds between two passes through the corpus, so timestamps keep increasing when
+	 * benchmarks cycle through the frames
+	 */
+	static final long CYCLE = 300_000L;
+
+	final long[] times;
+	final String[] hex;
+	final byte[][] frames;
+	/**
+	 * BDS register ("2,0") of Comm-B replies or null if not annotated
+	 */
+	final String[] registers;
+
+	private Corpus(List<String[]> lines) {
+		int n = lines.size();
+		times = new long[n];
+		hex = new String[n];
+		frames = new byte[n][];
+		registers = new String[n];
+		for (int i = 0; i < n; i++) {
+			String[] line = lines.get(i);
+			times[i] = Long.parseLong(line[0]);
+			hex[i] = line[1];
+			frames[i] = Tools.hexStringToByteArray(line[1]);
+			registers[i] = line.length > 2 ? line[2] : null;
+		}
+	}
+
+	int size() {
+		return hex.length;
+	}
+
+	/**
+	 * @return the CPR encoded positions of all position messages with a valid position in the corpus
+	 * @throws BadFormatException     if a frame cannot be decoded
+	 * @throws UnspecifiedFormatError if a frame cannot be decoded
+	 */
+	List<EncodedPosition> positions() throws BadFormatException, UnspecifiedFormatError {
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		List<EncodedPosition> positions = new ArrayList<>();
+		for (int i = 0; i < size(); i++) {
+			ModeSDownlinkMsg msg = decoder.decode(frames[i], times[i]);
+			if (!(msg instanceof PositionMsg) || !((PositionMsg) msg).hasValidPosition()) continue;
+			Position decoded = decoder.extractPosition(msg.getAddress(), (PositionMsg) msg, null);
+			positions.add(new EncodedPosition(msg.getAddress(), ((PositionMsg) msg).getCPREncodedPosition(), decoded));
+		}
+		return positions;
+	}
+
+	static final class EncodedPosition {
+		final QualifiedAddress address;
+		final CPREncodedPosition cpr;
+		/**
+		 * position decoded by a {@link StatefulModeSDecoder} or null
+		 */
+		final Position decoded;
+
+		EncodedPosition(QualifiedAddress address, CPREncodedPosition cpr, Position decoded) {
+			this.address = address;
+			this.cpr = cpr;
+			this.decoded = decoded;
+		}
+	}
+
+	static Corpus load() {
+		List<String[]> lines = new ArrayList<>();
+		try (InputStream in = Corpus.class.getResourceAsStream("/benchmark/corpus.txt")) {
+			if (in == null) throw new IllegalStateException("benchmark/corpus.txt not found");
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) continue;
+				lines.add(line.split("\\s+"));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new Corpus(lines);
+	}
+}
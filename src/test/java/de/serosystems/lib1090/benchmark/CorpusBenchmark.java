@@ -0,0 +1,78 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole decoding path from hex string to message and position on the corpus in its original order. Each
+ * operation decodes one frame.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=CorpusBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+
+	private Corpus corpus;
+	private StatefulModeSDecoder decoder;
+	private long offset;
+	private int next;
+
+	@Setup
+	public void setup() {
+		corpus = Corpus.load();
+		decoder = new StatefulModeSDecoder();
+	}
+
+	@Benchmark
+	public void decode(Blackhole bh) throws BadFormatException, UnspecifiedFormatError {
+		int i = next;
+		ModeSDownlinkMsg msg = decoder.decode(corpus.hex[i], corpus.times[i] + offset);
+		if (msg instanceof PositionMsg)
+			bh.consume(decoder.extractPosition(msg.getAddress(), (PositionMsg) msg, null));
+		bh.consume(msg);
+		if (++i == corpus.size()) {
+			i = 0;
+			offset += Corpus.CYCLE;
+		}
+		next = i;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(CorpusBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
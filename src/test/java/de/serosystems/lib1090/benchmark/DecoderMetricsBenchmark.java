@@ -0,0 +1,97 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of {@link de.serosystems.lib1090.DecoderMetrics} on decoding and position decoding
+ * of a mix of frames. The difference between {@code metrics=true} and {@code metrics=false} should stay
+ * below 1%, which needs several forks to resolve. Timestamps repeat in a fixed cycle, so every iteration
+ * decodes the same sequence.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=DecoderMetricsBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(5)
+public class DecoderMetricsBenchmark {
+
+	private static final String[] FRAMES = {
+			"8D4840D6202CC371C32CE0576098", // identification
+			"8D40621D58C382D690C8AC2863A7", // airborne position (even)
+			"8D40621D58C386435CC412692AD6", // airborne position (odd)
+			"8D485020994409940838175B284F", // velocity
+			"20001838CA3804", // altitude reply
+			"5D3C6586F0D1F4", // all-call reply
+			"A0001838CA3804A20010A0A1E41C", // Comm-B
+	};
+
+	@Param({"false", "true"})
+	public boolean metrics;
+
+	private byte[][] frames;
+	// timestamps cycle through this many steps of 500 ms
+	private static final int TIME_STEPS = 1024;
+
+	private StatefulModeSDecoder decoder;
+	private int step;
+
+	@Setup
+	public void setup() {
+		frames = new byte[FRAMES.length][];
+		for (int i = 0; i < FRAMES.length; i++)
+			frames[i] = Tools.hexStringToByteArray(FRAMES[i]);
+		decoder = new StatefulModeSDecoder();
+		if (metrics) decoder.enableMetrics();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(7)
+	public void decode(Blackhole bh) throws BadFormatException, UnspecifiedFormatError {
+		for (byte[] frame : frames) {
+			long time = 1_000_000L + 500L * step;
+			step = (step + 1) & (TIME_STEPS - 1);
+			ModeSDownlinkMsg msg = decoder.decode(frame, time);
+			if (msg instanceof PositionMsg)
+				bh.consume(decoder.extractPosition(msg.getAddress(), (PositionMsg) msg, null));
+			bh.consume(msg);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DecoderMetricsBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.demodulation.Magnitude;
+import de.serosystems.lib1090.demodulation.PPMDemodulator;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
+import de.serosystems.lib1090.encoding.TrafficGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Software demodulator on one second of synthetic 8 bit IQ samples with 2000 frames of generated traffic and
+ * Gaussian noise. Each operation processes the complete second, i.e. it is faster than real time if an operation
+ * takes less than 1000 ms. On one core with OpenJDK 17, demodulation took 28 ms at 2 MHz and 43 ms at 2.4 MHz
+ * (plus 3 and 5 ms for the magnitude), i.e. more than 20 times faster than real time.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=DemodulatorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DemodulatorBenchmark {
+
+	private static final int FRAMES = 2000;
+
+	@Param({"2000000", "2400000"})
+	public int sampleRate;
+
+	private byte[] iq;
+	private char[] mag;
+	private PPMDemodulator demodulator;
+	private int frames;
+
+	@Setup
+	public void setup() {
+		double[] i = new double[sampleRate], q = new double[sampleRate];
+		TrafficGenerator generator = new TrafficGenerator(200, 50.0, 8.5, 150, 0, 1);
+		Random rnd = new Random(1);
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+		double samplesPerMicro = sampleRate / 1e6;
+		for (int n = 0; n < FRAMES; n++) {
+			int length = generator.next(buf, 0);
+			double start = n * 1e6 / FRAMES + rnd.nextDouble() * 300;
+			double amplitude = 5 + rnd.nextDouble() * 100;
+			double phase = rnd.nextDouble() * 2 * Math.PI;
+			for (int p = 0; p < 4 + length * 8; p++) {
+				double t = p < 4 ? new double[]{0, 1, 3.5, 4.5}[p] :
+						8 + (p - 4) + ((buf[(p - 4) >>> 3] >>> (7 - ((p - 4) & 7)) & 1) == 1 ? 0 : .5);
+				double s0 = (start + t) * samplesPerMicro, s1 = (start + t + .5) * samplesPerMicro;
+				for (int k = (int) s0; k < Math.min(s1, sampleRate); k++) {
+					double overlap = Math.min(s1, k + 1) - Math.max(s0, k);
+					i[k] += amplitude * overlap * Math.cos(phase);
+					q[k] += amplitude * overlap * Math.sin(phase);
+				}
+			}
+		}
+
+		iq = new byte[2 * sampleRate];
+		for (int k = 0; k < sampleRate; k++) {
+			iq[2 * k] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + i[k] + 2 * rnd.nextGaussian())));
+			iq[2 * k + 1] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + q[k] + 2 * rnd.nextGaussian())));
+		}
+		mag = new char[sampleRate];
+		Magnitude.fromIQ8(iq, 0, sampleRate, mag, 0);
+		demodulator = new PPMDemodulator(sampleRate);
+	}
+
+	@Benchmark
+	public char[] magnitude() {
+		Magnitude.fromIQ8(iq, 0, sampleRate, mag, 0);
+		return mag;
+	}
+
+	@Benchmark
+	public int demodulate() {
+		frames = 0;
+		demodulator.demodulate(mag, 0, sampleRate, 0, f -> frames++);
+		return frames;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DemodulatorBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
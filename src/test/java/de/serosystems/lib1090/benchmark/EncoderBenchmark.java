@@ -0,0 +1,128 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.encoding.CommBEncoder;
+import de.serosystems.lib1090.encoding.ExtendedSquitterEncoder;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame encoders writing into a reused buffer. Each operation encodes one complete frame including parity from a
+ * set of pre-generated random aircraft states. On one core with OpenJDK 17, this took 36 ns for an airborne position
+ * (28 million frames per second) and 4 to 19 ns for the other frames, without allocating.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=EncoderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncoderBenchmark {
+
+	private static final int STATES = 1024;
+
+	private final byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+	private final int[] address = new int[STATES];
+	private final double[] latitude = new double[STATES];
+	private final double[] longitude = new double[STATES];
+	private final int[] altitude = new int[STATES];
+	private final int[] eastWest = new int[STATES];
+	private final int[] northSouth = new int[STATES];
+	private final int[] verticalRate = new int[STATES];
+	private final long[] identification = new long[STATES];
+	private int next;
+
+	@Setup
+	public void setup() {
+		Random rnd = new Random(1);
+		for (int i = 0; i < STATES; i++) {
+			address[i] = rnd.nextInt(1 << 24);
+			latitude[i] = rnd.nextDouble() * 140 - 70;
+			longitude[i] = rnd.nextDouble() * 360 - 180;
+			altitude[i] = rnd.nextInt(450) * 100;
+			eastWest[i] = rnd.nextInt(1000) - 500;
+			northSouth[i] = rnd.nextInt(1000) - 500;
+			verticalRate[i] = (rnd.nextInt(100) - 50) * 64;
+			identification[i] = ModeSEncoder.encodeIdentification("TST" + rnd.nextInt(10000));
+		}
+	}
+
+	private int next() {
+		int i = next;
+		next = (i + 1) & (STATES - 1);
+		return i;
+	}
+
+	@Benchmark
+	public byte[] airbornePosition() {
+		int i = next();
+		long me = ExtendedSquitterEncoder.airbornePosition(11, altitude[i], (i & 1) == 1, latitude[i], longitude[i]);
+		ModeSEncoder.extendedSquitter(buf, 0, 5, address[i], me);
+		return buf;
+	}
+
+	@Benchmark
+	public byte[] velocity() {
+		int i = next();
+		long me = ExtendedSquitterEncoder.velocityOverGround(eastWest[i], northSouth[i], verticalRate[i], true,
+				ModeSEncoder.UNAVAILABLE, 1, false, false);
+		ModeSEncoder.extendedSquitter(buf, 0, 5, address[i], me);
+		return buf;
+	}
+
+	@Benchmark
+	public byte[] identification() {
+		int i = next();
+		ModeSEncoder.extendedSquitter(buf, 0, 5, address[i],
+				ExtendedSquitterEncoder.identification(4, 3, identification[i]));
+		return buf;
+	}
+
+	@Benchmark
+	public byte[] commBHeadingAndSpeed() {
+		int i = next();
+		long mb = CommBEncoder.headingAndSpeed(i * 0.35 - 180, 250, 0.78, verticalRate[i], verticalRate[i]);
+		ModeSEncoder.commBAltitudeReply(buf, 0, 0, 0, 0, ModeSEncoder.encode13BitAltitude(altitude[i]), mb,
+				address[i]);
+		return buf;
+	}
+
+	@Benchmark
+	public byte[] altitudeReply() {
+		int i = next();
+		ModeSEncoder.altitudeReply(buf, 0, 0, 0, 0, ModeSEncoder.encode13BitAltitude(altitude[i]), address[i]);
+		return buf;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(EncoderBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hex parsing, {@link ModeSDownlinkMsg} construction and CRC computation for the corpus frames of each
+ * downlink format. Each operation processes one frame.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=ModeSFrameBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeSFrameBenchmark {
+
+	@Param({"0", "4", "5", "11", "16", "17", "18", "20", "21"})
+	public int downlinkFormat;
+
+	private String[] hex;
+	private byte[][] frames;
+	// frames without parity field
+	private byte[][] payloads;
+	private int next;
+
+	@Setup
+	public void setup() {
+		Corpus corpus = Corpus.load();
+		List<Integer> selected = new ArrayList<>();
+		for (int i = 0; i < corpus.size(); i++)
+			if ((corpus.frames[i][0] >>> 3 & 0x1F) == downlinkFormat) selected.add(i);
+		if (selected.isEmpty()) throw new IllegalStateException("No frames with DF " + downlinkFormat + " in corpus");
+
+		hex = new String[selected.size()];
+		frames = new byte[selected.size()][];
+		payloads = new byte[selected.size()][];
+		for (int i = 0; i < selected.size(); i++) {
+			hex[i] = corpus.hex[selected.get(i)];
+			frames[i] = corpus.frames[selected.get(i)];
+			payloads[i] = Arrays.copyOf(frames[i], frames[i].length - 3);
+		}
+	}
+
+	private int next() {
+		int i = next;
+		next = i + 1 == frames.length ? 0 : i + 1;
+		return i;
+	}
+
+	@Benchmark
+	public byte[] parseHex() {
+		return Tools.hexStringToByteArray(hex[next()]);
+	}
+
+	@Benchmark
+	public ModeSDownlinkMsg construct() throws BadFormatException, UnspecifiedFormatError {
+		return new ModeSDownlinkMsg(frames[next()]);
+	}
+
+	@Benchmark
+	public int crc() {
+		return ModeSDownlinkMsg.calcParityInt(payloads[next()]);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(ModeSFrameBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.StatefulPositionDecoder;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StatefulPositionDecoder} with and without speed test on all positions in the corpus (one decoder per
+ * aircraft, in the order of the corpus). The first decoded position serves as receiver position. Each operation
+ * decodes one position. The decoders keep their state when the benchmark starts over with the first position.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=PositionDecoderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionDecoderBenchmark {
+
+	@Param({"true", "false"})
+	public boolean speedTest;
+
+	private CPREncodedPosition[] positions;
+	private StatefulPositionDecoder[] decoders;
+	// decoder of each position
+	private int[] decoder;
+	private Position receiver;
+	private int next;
+
+	@Setup
+	public void setup() throws BadFormatException, UnspecifiedFormatError {
+		List<Corpus.EncodedPosition> encoded = Corpus.load().positions();
+		Map<QualifiedAddress, Integer> aircraft = new HashMap<>();
+		positions = new CPREncodedPosition[encoded.size()];
+		decoder = new int[encoded.size()];
+		for (int i = 0; i < encoded.size(); i++) {
+			Corpus.EncodedPosition pos = encoded.get(i);
+			positions[i] = pos.cpr;
+			decoder[i] = aircraft.computeIfAbsent(pos.address, a -> aircraft.size());
+			if (receiver == null) receiver = pos.decoded;
+		}
+
+		decoders = new StatefulPositionDecoder[aircraft.size()];
+		for (int i = 0; i < decoders.length; i++)
+			decoders[i] = new StatefulPositionDecoder(!speedTest);
+	}
+
+	@Benchmark
+	public Position decode() {
+		int i = next;
+		next = i + 1 == positions.length ? 0 : i + 1;
+		return decoders[decoder[i]].decodePosition(positions[i], receiver);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PositionDecoderBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.encoding.ExtendedSquitterEncoder;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import de.serosystems.lib1090.tracking.AircraftTable;
+import de.serosystems.lib1090.tracking.PositionIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of a {@link PositionIndex} (one degree cells) with 100k aircraft spread over Europe (35 to 70 degrees
+ * north, 15 degrees west to 35 degrees east, i.e. about 57 aircraft per cell). Each operation is one query at
+ * the next of a set of random positions: a 2 by 2 degree bounding box, a 100 km radius or the 10 nearest
+ * aircraft.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=PositionIndexBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionIndexBenchmark {
+
+	private static final int TARGETS = 100_000;
+	private static final int QUERIES = 1024;
+
+	private final double[] latitude = new double[QUERIES];
+	private final double[] longitude = new double[QUERIES];
+	private PositionIndex index;
+	private int next;
+
+	@Setup
+	public void setup() throws BadFormatException, UnspecifiedFormatError {
+		AircraftTable table = new AircraftTable(new StatefulModeSDecoder(), null);
+		index = new PositionIndex();
+		table.addListener(index);
+
+		// alternating even and odd positions until the decoder considers the positions reasonable
+		Random rnd = new Random(1);
+		byte[] frame = new byte[ModeSEncoder.LONG_FRAME];
+		for (int t = 0; t < TARGETS; t++) {
+			double lat = 35 + rnd.nextDouble() * 35, lon = -15 + rnd.nextDouble() * 50;
+			for (int n = 0; n < 6; n++) {
+				ModeSEncoder.extendedSquitter(frame, 0, 5, 0x100000 + t,
+						ExtendedSquitterEncoder.airbornePosition(11, 35000, (n & 1) == 1, lat, lon));
+				table.update(frame.clone(), 1000L + 500 * n);
+			}
+		}
+		if (index.size() < TARGETS * 99 / 100)
+			throw new IllegalStateException("Only " + index.size() + " aircraft indexed");
+
+		for (int i = 0; i < QUERIES; i++) {
+			latitude[i] = 36 + rnd.nextDouble() * 33;
+			longitude[i] = -14 + rnd.nextDouble() * 48;
+		}
+	}
+
+	private int next() {
+		int i = next;
+		next = (i + 1) & (QUERIES - 1);
+		return i;
+	}
+
+	@Benchmark
+	public int boundingBox(Blackhole bh) {
+		int i = next();
+		return index.withinBox(latitude[i] - 1, longitude[i] - 1, latitude[i] + 1, longitude[i] + 1,
+				(address, lat, lon) -> bh.consume(address));
+	}
+
+	@Benchmark
+	public int radius(Blackhole bh) {
+		int i = next();
+		return index.withinRadius(latitude[i], longitude[i], 100_000, (address, lat, lon) -> bh.consume(address));
+	}
+
+	@Benchmark
+	public List<QualifiedAddress> nearest() {
+		int i = next();
+		return index.nearest(latitude[i], longitude[i], 10);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PositionIndexBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import de.serosystems.lib1090.DecoderMetrics;
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
+import de.serosystems.lib1090.encoding.TrafficGenerator;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds the frames of a {@link TrafficGenerator} into a {@link StatefulModeSDecoder} (including position decoding)
+ * for a long time and prints one CSV line per report interval with the sustained throughput, the decode latency
+ * percentiles, the GC pauses, the number of tracked aircraft and the live heap (heap usage after the last GC).
+ * Growing numbers of tracked aircraft or live heap at a constant number of simulated aircraft indicate a leak.<br>
+ * <br>
+ * Options (with defaults): --aircraft 5000 --rate 0 (frames/s, 0 for as fast as possible) --duration 3600 (s)
+ * --interval 10 (s) --lifetime 1800 (s, 0 to keep all aircraft) --ber 0 --duplicates 0 --jitter 0 (ms)
+ * --compact (use compact decoder state) --seed 1<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec@soak -Dsoak.args="--aircraft 20000 --duration 7200"
+ */
+public class SoakHarness {
+
+	private final TrafficGenerator generator;
+	private final StatefulModeSDecoder decoder;
+	private final DecoderMetrics metrics;
+	private final Position receiver;
+	private final double rate;
+
+	private final byte[] shortFrame = new byte[ModeSEncoder.SHORT_FRAME];
+	private final byte[] longFrame = new byte[ModeSEncoder.LONG_FRAME];
+
+	private final LatencyHistogram interval = new LatencyHistogram();
+	private final LatencyHistogram total = new LatencyHistogram();
+	private final GCPauses gcPauses = new GCPauses();
+	private long errors, failures, positions;
+
+	SoakHarness(Map<String, String> options) {
+		int aircraft = Integer.parseInt(options.getOrDefault("aircraft", "5000"));
+		long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+		generator = new TrafficGenerator(aircraft, 50.0, 8.5, 250, 0, seed);
+		generator.setLifetime(Long.parseLong(options.getOrDefault("lifetime", "1800")) * 1000);
+		generator.setBitErrorRate(Double.parseDouble(options.getOrDefault("ber", "0")));
+		generator.setDuplicateRate(Double.parseDouble(options.getOrDefault("duplicates", "0")));
+		generator.setJitter(Long.parseLong(options.getOrDefault("jitter", "0")));
+
+		decoder = options.containsKey("compact") ?
+				StatefulModeSDecoder.withCompactState(false) : new StatefulModeSDecoder();
+		metrics = decoder.enableMetrics();
+		receiver = new Position(8.5, 50.0, 0.);
+		rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+	}
+
+	/**
+	 * Generates and decodes one frame. Only decoding is included in the latency.
+	 */
+	private void step() {
+		int length = generator.next(longFrame, 0);
+		byte[] frame = longFrame;
+		if (length == ModeSEncoder.SHORT_FRAME) {
+			System.arraycopy(longFrame, 0, shortFrame, 0, length);
+			frame = shortFrame;
+		}
+		long timestamp = generator.getTimestamp();
+
+		long start = System.nanoTime();
+		try {
+			ModeSDownlinkMsg msg = decoder.decode(frame, timestamp);
+			if (msg instanceof PositionMsg && decoder.extractPosition(msg.getAddress(), (PositionMsg) msg, receiver) != null)
+				positions++;
+		} catch (BadFormatException | UnspecifiedFormatError e) {
+			errors++;
+		} catch (RuntimeException e) {
+			if (failures++ == 0) e.printStackTrace();
+		}
+		long latency = System.nanoTime() - start;
+		interval.record(latency);
+		total.record(latency);
+	}
+
+	void run(long duration, long reportInterval, PrintStream out) {
+		out.println("elapsed_s,frames,frames_per_s,p50_us,p99_us,p999_us,max_us,gc_pauses,gc_pause_max_ms," +
+				"gc_pause_total_ms,tracked,evictions,live_heap_mb,sim_time_s,errors,failures");
+
+		long start = System.nanoTime(), end = start + duration * 1_000_000_000L;
+		long nextReport = start + reportInterval * 1_000_000_000L;
+		long frames = 0, lastFrames = 0, lastReport = start;
+		while (true) {
+			for (int i = 0; i < 1024; i++)
+				step();
+			frames += 1024;
+
+			long now = System.nanoTime();
+			if (rate > 0) {
+				long ahead = start + (long) (frames * 1e9 / rate) - now;
+				if (ahead > 0) LockSupport.parkNanos(ahead);
+			}
+			if (now >= nextReport || now >= end) {
+				GCPauses.Stats gc = gcPauses.drain();
+				out.printf("%.0f,%d,%.0f,%.2f,%.2f,%.2f,%.2f,%d,%.1f,%.1f,%d,%d,%.1f,%.0f,%d,%d%n",
+						(now - start) / 1e9, frames, (frames - lastFrames) * 1e9 / (now - lastReport),
+						interval.percentile(.5) / 1e3, interval.percentile(.99) / 1e3,
+						interval.percentile(.999) / 1e3, interval.max() / 1e3,
+						gc.count, gc.max, gc.total, metrics.getTrackedTargets(), metrics.getEvictions(),
+						liveHeap() / 1048576., generator.getTimestamp() / 1e3, errors, failures);
+				interval.reset();
+				lastFrames = frames;
+				lastReport = now;
+				nextReport += reportInterval * 1_000_000_000L;
+				if (now >= end) break;
+			}
+		}
+
+		out.printf("# %d frames in %.0f s: %.0f frames/s, latency p50 %.2f us, p99 %.2f us, p999 %.2f us, " +
+						"max %.2f us, %d positions, %d errors, %d failures, %d aircraft replaced%n",
+				frames, (System.nanoTime() - start) / 1e9, frames * 1e9 / (System.nanoTime() - start),
+				total.percentile(.5) / 1e3, total.percentile(.99) / 1e3, total.percentile(.999) / 1e3,
+				total.max() / 1e3, positions, errors, failures, generator.getReplaced());
+		gcPauses.close();
+	}
+
+	/**
+	 * @return sum of the heap pools' usage after the last collection in bytes
+	 */
+	private static long liveHeap() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			MemoryUsage usage = pool.getCollectionUsage();
+			if (pool.getType() == MemoryType.HEAP && usage != null)
+				used += usage.getUsed();
+		}
+		return used;
+	}
+
+	/**
+	 * Histogram of latencies in nanoseconds with 32 linear sub-buckets per power of two, i.e. a relative error of
+	 * at most 3%.
+	 */
+	static final class LatencyHistogram {
+
+		private static final int SUB_BITS = 5;
+		private static final int SUB = 1 << SUB_BITS;
+
+		private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB];
+		private long count;
+		private long max;
+
+		void record(long nanos) {
+			if (nanos < 0) nanos = 0;
+			counts[index(nanos)]++;
+			count++;
+			if (nanos > max) max = nanos;
+		}
+
+		private static int index(long value) {
+			if (value < SUB) return (int) value;
+			int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+			return SUB + exponent * SUB + (int) (value >>> exponent) - SUB;
+		}
+
+		/**
+		 * @return upper bound of the bucket at the given index
+		 */
+		private static long value(int index) {
+			if (index < SUB) return index;
+			int exponent = (index - SUB) / SUB, sub = (index - SUB) % SUB;
+			return ((long) (SUB + sub + 1) << exponent) - 1;
+		}
+
+		/**
+		 * @param quantile quantile in [0, 1]
+		 * @return latency in nanoseconds below which the quantile of recorded latencies falls
+		 */
+		long percentile(double quantile) {
+			long rank = (long) Math.ceil(quantile * count), seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0) return Math.min(value(i), max);
+			}
+			return 0;
+		}
+
+		long max() {
+			return max;
+		}
+
+		void reset() {
+			Arrays.fill(counts, 0);
+			count = 0;
+			max = 0;
+		}
+	}
+
+	/**
+	 * Collects the durations of stop-the-world collections from the GC notifications. Concurrent cycles are
+	 * excluded as they do not pause the application.
+	 */
+	static final class GCPauses implements NotificationListener {
+
+		static final class Stats {
+			int count;
+			double max, total;
+		}
+
+		private Stats stats = new Stats();
+
+		GCPauses() {
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+				if (gc instanceof NotificationEmitter)
+					((NotificationEmitter) gc).addNotificationListener(this, null, null);
+		}
+
+		@Override
+		public synchronized void handleNotification(Notification notification, Object handback) {
+			if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+				return;
+			GarbageCollectionNotificationInfo info =
+					GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+			if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles"))
+				return;
+			long duration = info.getGcInfo().getDuration();
+			stats.count++;
+			stats.total += duration;
+			stats.max = Math.max(stats.max, duration);
+		}
+
+		synchronized Stats drain() {
+			Stats drained = stats;
+			stats = new Stats();
+			return drained;
+		}
+
+		void close() {
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				try {
+					if (gc instanceof NotificationEmitter)
+						((NotificationEmitter) gc).removeNotificationListener(this);
+				} catch (ListenerNotFoundException ignored) {
+				}
+			}
+		}
+	}
+
+	static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--"))
+				throw new IllegalArgumentException("Unexpected argument " + args[i]);
+			String key = args[i].substring(2);
+			if (key.equals("compact"))
+				options.put(key, "true");
+			else if (i + 1 < args.length)
+				options.put(key, args[++i]);
+			else
+				throw new IllegalArgumentException("Missing value of option " + args[i]);
+		}
+		return options;
+	}
+
+	public static void main(String[] args) {
+		Map<String, String> options = parseOptions(args);
+		SoakHarness harness = new SoakHarness(options);
+		harness.run(Long.parseLong(options.getOrDefault("duration", "3600")),
+				Long.parseLong(options.getOrDefault("interval", "10")), System.out);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.benchmark;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.exceptions.BadFormatException;
+import de.serosystems.lib1090.exceptions.UnspecifiedFormatError;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StatefulModeSDecoder#decode(ModeSDownlinkMsg, long)} for the corpus frames of each message type. The
+ * decoder state is built up by decoding the whole corpus first, so the message type of a frame is the one it has
+ * in a running decoder (e.g. version 2 positions after the operational status). Each operation decodes one frame;
+ * position decoding is covered by {@link PositionDecoderBenchmark}.<br>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.include=StatefulDecoderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatefulDecoderBenchmark {
+
+	@Param({
+			// Mode S
+			"SHORT_ACAS", "ALTITUDE_REPLY", "IDENTIFY_REPLY", "ALL_CALL_REPLY", "LONG_ACAS",
+			"COMM_B_ALTITUDE_REPLY", "COMM_B_IDENTIFY_REPLY",
+			// ADS-B
+			"ADSB_AIRBORN_POSITION_V0", "ADSB_AIRBORN_POSITION_V2", "ADSB_SURFACE_POSITION_V2",
+			"ADSB_IDENTIFICATION", "ADSB_VELOCITY", "ADSB_AIRSPEED", "ADSB_EMERGENCY",
+			"ADSB_AIRBORN_STATUS_V2", "ADSB_SURFACE_STATUS_V2", "ADSB_TARGET_STATE_AND_STATUS_V2",
+			// TIS-B
+			"TISB_FINE_AIRBORNE_POSITION", "TISB_FINE_SURFACE_POSITION", "TISB_IDENTIFICATION", "TISB_VELOCITY",
+			// ADS-R
+			"ADSR_AIRBORN_POSITION_V2", "ADSR_SURFACE_POSITION_V2", "ADSR_IDENTIFICATION", "ADSR_VELOCITY",
+			"ADSR_EMERGENCY", "ADSR_AIRBORN_STATUS_V2", "ADSR_SURFACE_STATUS_V2", "ADSR_TARGET_STATE_AND_STATUS"
+	})
+	public String subtype;
+
+	private StatefulModeSDecoder decoder;
+	private ModeSDownlinkMsg[] frames;
+	private long[] times;
+	private long offset;
+	private int next;
+
+	@Setup
+	public void setup() throws BadFormatException, UnspecifiedFormatError {
+		Corpus corpus = Corpus.load();
+		decoder = new StatefulModeSDecoder();
+		for (int i = 0; i < corpus.size(); i++)
+			decoder.decode(corpus.frames[i], corpus.times[i]);
+
+		ModeSDownlinkMsg.subtype type = ModeSDownlinkMsg.subtype.valueOf(subtype);
+		List<Integer> selected = new ArrayList<>();
+		for (int i = 0; i < corpus.size(); i++)
+			if (decoder.decode(corpus.frames[i], corpus.times[i] + Corpus.CYCLE).getType() == type) selected.add(i);
+		if (selected.isEmpty()) throw new IllegalStateException("No " + subtype + " frames in corpus");
+
+		frames = new ModeSDownlinkMsg[selected.size()];
+		times = new long[selected.size()];
+		for (int i = 0; i < selected.size(); i++) {
+			frames[i] = new ModeSDownlinkMsg(corpus.frames[selected.get(i)]);
+			times[i] = corpus.times[selected.get(i)];
+		}
+		offset = 2 * Corpus.CYCLE;
+	}
+
+	@Benchmark
+	public ModeSDownlinkMsg decode() throws BadFormatException, UnspecifiedFormatError {
+		int i = next;
+		ModeSDownlinkMsg msg = decoder.decode(frames[i], times[i] + offset);
+		if (++i == frames.length) {
+			i = 0;
+			offset += Corpus.CYCLE;
+		}
+		next = i;
+		return msg;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(StatefulDecoderBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.cpr;
+
+import de.serosystems.lib1090.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CPREncoderTest {
+
+	@Test
+	void testGlobalAirborne() {
+		Random rnd = new Random(1);
+		for (int n = 0; n < 100000; n++) {
+			double lat = rnd.nextDouble() * 180 - 90, lon = rnd.nextDouble() * 360 - 180;
+			CPREncodedPosition even = CPREncoder.airborne(lat, lon, false, 0);
+			CPREncodedPosition odd = CPREncoder.airborne(lat, lon, true, 1000);
+
+			Position pos = odd.decodeGlobal(even, null);
+			if (pos == null) {
+				// pair straddles a zone boundary, fine for the decoder to reject
+				continue;
+			}
+			assertEquals(lat, pos.getLatitude(), 360. / 59 / (1 << 17), "lat " + lat);
+			assertEquals(0, angleDiff(lon, pos.getLongitude()), 360. / (1 << 17), "lon " + lon);
+		}
+	}
+
+	@Test
+	void testGlobalSurface() {
+		Position receiver = new Position(8.5, 50.0, 0.);
+		Random rnd = new Random(2);
+		for (int n = 0; n < 10000; n++) {
+			double lat = 49 + rnd.nextDouble() * 2, lon = 7.5 + rnd.nextDouble() * 2;
+			CPREncodedPosition even = CPREncoder.surface(lat, lon, false, false, 0);
+			CPREncodedPosition odd = CPREncoder.surface(lat, lon, true, false, 1000);
+
+			Position pos = even.decodeGlobal(odd, receiver);
+			if (pos == null) continue;
+			assertEquals(lat, pos.getLatitude(), 90. / 59 / (1 << 17));
+			assertEquals(lon, pos.getLongitude(), 90. / (1 << 17));
+			assertTrue(odd.isSurface());
+			assertFalse(odd.isHighSurfaceSpeed());
+		}
+	}
+
+	@Test
+	void testLocal() {
+		Position reference = new Position(-122.4, 37.6, 0.);
+		for (double lat = 37; lat < 38; lat += 0.01) {
+			for (double lon = -123; lon < -122; lon += 0.01) {
+				Position pos = CPREncoder.airborne(lat, lon, lat > 37.5, 0).decodeLocal(reference);
+				assertNotNull(pos);
+				assertEquals(lat, pos.getLatitude(), 360. / 59 / (1 << 17));
+				assertEquals(lon, pos.getLongitude(), 360. / (1 << 17));
+			}
+		}
+	}
+
+	@Test
+	void testEncode() {
+		// even position of frame 8D40621D58C382D690C8AC2863A7
+		long cpr = CPREncoder.encode(52.2572021484375, 3.91937255859375, false, false);
+		assertEquals(93000, CPREncoder.yz(cpr));
+		assertEquals(51372, CPREncoder.xz(cpr));
+
+		// fewer bits are a truncation of the full precision encoding
+		long cpr12 = CPREncoder.encode(52.25, 3.91, true, false, 12);
+		long cpr17 = CPREncoder.encode(52.25, 3.91, true, false, 17);
+		assertEquals(CPREncoder.yz(cpr17) >> 5, cpr12 >>> 12, 1);
+		assertEquals(CPREncoder.xz(cpr17) >> 5, cpr12 & 0xFFF, 1);
+
+		assertThrows(IllegalArgumentException.class, () -> CPREncoder.encode(0, 0, false, false, 19));
+		assertThrows(IllegalArgumentException.class, () -> CPREncoder.encode(91, 0, false, false));
+		assertThrows(IllegalArgumentException.class, () -> CPREncoder.encode(Double.NaN, 0, false, false));
+	}
+
+	private static double angleDiff(double a, double b) {
+		double d = (a - b) % 360;
+		return d > 180 ? d - 360 : d < -180 ? d + 360 : d;
+	}
+}
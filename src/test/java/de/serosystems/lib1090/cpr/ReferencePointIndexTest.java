@@ -0,0 +1,131 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.cpr;
+
+import de.serosystems.lib1090.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferencePointIndexTest {
+
+	// FRA, MUC, HAM, Suva (close to the antimeridian)
+	private static final double[] LAT = {50.033333, 48.353802, 53.630402, -18.043301};
+	private static final double[] LON = {8.570556, 11.786100, 9.988230, 178.559006};
+
+	/**
+	 * Surface CPR encoding (DO-260B A.1.7.7) for test data
+	 */
+	private static CPREncodedPosition encodeSurface(double lat, double lon, boolean odd, long timestamp) {
+		int i = odd ? 1 : 0;
+		double scale = 1 << 17;
+		double dLat = 90. / (60 - i);
+		int yz = (int) Math.floor(scale * mod(lat, dLat) / dLat + 0.5);
+		double rLat = dLat * (yz / scale + Math.floor(lat / dLat));
+		double dLon = 90. / Math.max(L0Latitude.ofDegrees(rLat).NL() - i, 1);
+		int xz = (int) Math.floor(scale * mod(lon, dLon) / dLon + 0.5);
+		return CPREncodedPosition.ofSurface(17, odd, false, yz & 0x1FFFF, xz & 0x1FFFF, timestamp);
+	}
+
+	private static double mod(double a, double b) {
+		return a - b * Math.floor(a / b);
+	}
+
+	@Test
+	void testNearest() {
+		ReferencePointIndex index = new ReferencePointIndex(LAT, LON);
+		assertEquals(4, index.size());
+
+		Position fra = index.nearest(50.04, 8.55);
+		assertNotNull(fra);
+		assertEquals(LAT[0], fra.getLatitude());
+		assertEquals(LON[0], fra.getLongitude());
+
+		assertNull(index.nearest(50.2, 8.57));
+		assertNull(index.nearest(0., 0.));
+
+		// across the antimeridian and the cell border
+		assertNotNull(new ReferencePointIndex(new double[] {10.}, new double[] {179.99}).nearest(10., -179.99));
+	}
+
+	@Test
+	void testReferenceForDistantReceiver() {
+		ReferencePointIndex index = new ReferencePointIndex(LAT, LON);
+
+		// target at MUC, receiver about 150 km away
+		Position receiver = new Position(9.5, 49.5, 0.);
+		CPREncodedPosition cpr = encodeSurface(48.3550, 11.7800, false, 0);
+
+		// local decoding relative to the receiver yields the wrong alias
+		assertTrue(cpr.decodeLocal(receiver).haversine(new Position(11.78, 48.355, 0.)) > 50000);
+
+		Position ref = index.getReference(cpr, receiver);
+		assertNotNull(ref);
+		assertEquals(LAT[1], ref.getLatitude());
+		assertEquals(LON[1], ref.getLongitude());
+
+		// no reference without receiver or for airborne positions
+		assertNull(index.getReference(cpr, null));
+		assertNull(index.getReference(CPREncodedPosition.ofAirborne(17, false, cpr.yz(), cpr.xz(), 0), receiver));
+	}
+
+	@Test
+	void testFirstSurfacePosition() {
+		ReferencePointIndex index = new ReferencePointIndex(LAT, LON);
+		Position receiver = new Position(9.5, 49.5, 0.);
+
+		StatefulPositionDecoder withIndex = new StatefulPositionDecoder(false, index);
+		Position pos = withIndex.decodePosition(encodeSurface(48.3550, 11.7800, true, 0), receiver);
+		assertNotNull(pos);
+		assertEquals(48.3550, pos.getLatitude(), 1e-4);
+		assertEquals(11.7800, pos.getLongitude(), 1e-4);
+
+		// global decoding of the following pair agrees
+		pos = withIndex.decodePosition(encodeSurface(48.3551, 11.7801, false, 1000), receiver);
+		assertEquals(48.3551, pos.getLatitude(), 1e-4);
+		assertEquals(11.7801, pos.getLongitude(), 1e-4);
+
+		// target far from any airport: falls back to the receiver
+		Position fallback = new StatefulPositionDecoder(false, index)
+				.decodePosition(encodeSurface(49.6, 9.6, false, 0), receiver);
+		assertEquals(49.6, fallback.getLatitude(), 1e-4);
+	}
+
+	@Test
+	void testCsv() throws IOException {
+		String csv = "\"id\",\"ident\",\"type\",\"name\",\"latitude_deg\",\"longitude_deg\"\n" +
+				"2212,\"EDDF\",\"large_airport\",\"Frankfurt, Main\",50.033333,8.570556\n" +
+				"2218,\"EDDM\",\"large_airport\",\"Munich \"\"Franz Josef Strauss\"\"\",48.353802,11.786100\n" +
+				"1,\"XXXX\",\"closed\",\"Closed\",52.0,10.0\n" +
+				"3,\"ZZZZ\", closed ,\"Padded\",53.0,11.0\n" +
+				"4,\"WWWW\",\"Closed\",\"Capitalized\",54.0,12.0\n" +
+				"2,\"YYYY\",\"heliport\",\"No position\",,\n";
+		ReferencePointIndex index = ReferencePointIndex.fromCsv(new StringReader(csv), 3000.);
+		assertEquals(2, index.size());
+		assertNotNull(index.nearest(48.35, 11.79));
+		assertNull(index.nearest(52.0, 10.0));
+		assertNull(index.nearest(53.0, 11.0));
+		assertNull(index.nearest(54.0, 12.0));
+
+		assertThrows(IOException.class, () -> ReferencePointIndex.fromCsv(new StringReader("a,b\n1,2\n"), 3000.));
+	}
+}
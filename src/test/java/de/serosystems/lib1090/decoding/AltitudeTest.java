@@ -0,0 +1,133 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.decoding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AltitudeTest {
+
+	@Test
+	void testUnavailable() {
+		assertNull(Altitude.decode13BitAltitude((short) 0));
+		assertEquals(Altitude.UNAVAILABLE, Altitude.decode13BitAltitudeInt((short) 0));
+
+		// M bit set (metric altitude)
+		assertNull(Altitude.decode13BitAltitude((short) 0x40));
+		assertEquals(Altitude.UNAVAILABLE, Altitude.decode13BitAltitudeInt((short) 0x40));
+	}
+
+	@Test
+	void test25FtIncrements() {
+		// N = 1560 -> 38000 ft; M bit (0x40) is left out of the 13 bit code
+		short code13 = (short) (((1560 & 0x7E0) << 2) | ((1560 & 0x10) << 1) | 0x10 | (1560 & 0xF));
+		assertEquals(38000, Altitude.decode13BitAltitude(code13).intValue());
+		assertEquals(38000, Altitude.decode13BitAltitudeInt(code13));
+
+		short code12 = (short) (((1560 & 0x7F0) << 1) | 0x10 | (1560 & 0xF));
+		assertEquals(38000, Altitude.decode12BitAltitude(code12).intValue());
+		assertEquals(38000, Altitude.decode12BitAltitudeInt(code12));
+	}
+
+	@Test
+	void testGillham() {
+		// C1 only: first 500 ft band with the highest 100 ft step -> -800 ft
+		assertEquals(-800, Altitude.decode12BitAltitudeInt((short) 0x800));
+		assertEquals(-800, Altitude.decode13BitAltitudeInt((short) 0x1000));
+	}
+
+	@Test
+	void testBoxedMatchesPrimitive() {
+		for (int code = 0; code < 1 << 13; code++) {
+			Integer boxed = Altitude.decode13BitAltitude((short) code);
+			int primitive = Altitude.decode13BitAltitudeInt((short) code);
+			if (boxed == null) assertEquals(Altitude.UNAVAILABLE, primitive);
+			else assertEquals(boxed.intValue(), primitive);
+		}
+		for (int code = 0; code < 1 << 12; code++) {
+			assertEquals(Altitude.decode12BitAltitude((short) code).intValue(), Altitude.decode12BitAltitudeInt((short) code));
+		}
+	}
+
+	@Test
+	void testTablesMatchAlgorithm() {
+		for (int code = 0; code < 1 << 13; code++)
+			assertEquals(algorithm13Bit((short) code), Altitude.decode13BitAltitude((short) code), "code " + code);
+		for (int code = 0; code < 1 << 12; code++)
+			assertEquals(algorithm12Bit((short) code), Altitude.decode12BitAltitude((short) code), "code " + code);
+	}
+
+	// the algorithms which were replaced by the lookup tables
+
+	private static int grayToBin(int gray, int bitlength) {
+		int result = 0;
+		for (int i = bitlength-1; i >= 0; --i)
+			result = result|((((0x1<<(i+1))&result)>>>1)^((1<<i)&gray));
+		return result;
+	}
+
+	private static Integer algorithm13Bit(short altitude_code) {
+		if (altitude_code == 0) return null;
+		if ((altitude_code&0x40)!=0) return null;
+		if ((altitude_code&0x10)!=0) {
+			int N = (altitude_code&0x0F) | ((altitude_code&0x20)>>>1) | ((altitude_code&0x1F80)>>>2);
+			return 25*N-1000;
+		}
+		int C1 = (0x1000&altitude_code)>>>12;
+		int A1 = (0x0800&altitude_code)>>>11;
+		int C2 = (0x0400&altitude_code)>>>10;
+		int A2 = (0x0200&altitude_code)>>>9;
+		int C4 = (0x0100&altitude_code)>>>8;
+		int A4 = (0x0080&altitude_code)>>>7;
+		int B1 = (0x0020&altitude_code)>>>5;
+		int B2 = (0x0008&altitude_code)>>>3;
+		int D2 = (0x0004&altitude_code)>>>2;
+		int B4 = (0x0002&altitude_code)>>>1;
+		int D4 = (0x0001&altitude_code);
+		return gillham(C1, A1, C2, A2, C4, A4, B1, B2, D2, B4, D4);
+	}
+
+	private static Integer algorithm12Bit(short altitude_encoded) {
+		if ((altitude_encoded&0x10)!=0) {
+			int N = (altitude_encoded&0xF) | ((altitude_encoded&0xFE0)>>>1);
+			return 25*N-1000;
+		}
+		int C1 = (0x800&altitude_encoded)>>>11;
+		int A1 = (0x400&altitude_encoded)>>>10;
+		int C2 = (0x200&altitude_encoded)>>>9;
+		int A2 = (0x100&altitude_encoded)>>>8;
+		int C4 = (0x080&altitude_encoded)>>>7;
+		int A4 = (0x040&altitude_encoded)>>>6;
+		int B1 = (0x020&altitude_encoded)>>>5;
+		int B2 = (0x008&altitude_encoded)>>>3;
+		int D2 = (0x004&altitude_encoded)>>>2;
+		int B4 = (0x002&altitude_encoded)>>>1;
+		int D4 = (0x001&altitude_encoded);
+		return gillham(C1, A1, C2, A2, C4, A4, B1, B2, D2, B4, D4);
+	}
+
+	private static int gillham(int C1, int A1, int C2, int A2, int C4, int A4, int B1, int B2, int D2, int B4, int D4) {
+		int N500 = grayToBin(D2<<7|D4<<6|A1<<5|A2<<4|A4<<3|B1<<2|B2<<1|B4, 8);
+		int N100 = grayToBin(C1<<2|C2<<1|C4, 3)-1;
+		if (N100 == 6) N100=4;
+		if (N500%2 != 0) N100=4-N100;
+		return -1200+N500*500+N100*100;
+	}
+}
@@ -21,6 +21,9 @@ package de.serosystems.lib1090.decoding;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class BitReaderTest {
@@ -114,4 +117,42 @@ class BitReaderTest {
 		// Bits 9 to 48: 0x23456789AB
 		assertEquals(0x23456789ABL, reader.readLong(9, 48));
 	}
+
+	@Test
+	@DisplayName("Word path matches byte/bit loops")
+	void testWordPathMatchesLoops() {
+		Random rnd = new Random(1090);
+		for (int len : new int[] {1, 7, 14, 16}) {
+			byte[] frame = new byte[len];
+			rnd.nextBytes(frame);
+			// longer buffers are not loaded into words
+			byte[] padded = Arrays.copyOf(frame, 20);
+
+			BitReader[][] readers = {
+					{BitReader.forBigEndian(frame), BitReader.forBigEndian(padded)},
+					{BitReader.forLittleEndian(frame), BitReader.forLittleEndian(padded)}};
+
+			for (int from = 1; from <= len * 8; from++) {
+				for (int to = from; to <= len * 8 && to - from < 57; to++) {
+					for (BitReader[] r : readers) {
+						assertEquals(r[1].readLong(from, to), r[0].readLong(from, to));
+						assertEquals(r[0].readLong(from, to), r[0].readLongUnchecked(from, to));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Read 64 bits across words")
+	void testReadLongAcrossWords() {
+		byte[] data = new byte[14];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) (0x11 * i);
+
+		assertEquals(0x66778899AABBCCDDL, BitReader.forBigEndian(data).readLong(49, 112));
+		assertEquals(0x445566778899AABBL, BitReader.forBigEndian(data).readLong(33, 96));
+		assertEquals(0xBBAA998877665544L, BitReader.forLittleEndian(data).readLong(33, 96));
+		assertEquals(0x87, BitReader.forLittleEndian(data).readIntUnchecked(61, 68));
+	}
 }
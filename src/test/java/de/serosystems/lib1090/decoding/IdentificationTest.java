@@ -0,0 +1,51 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.decoding;
+
+import de.serosystems.lib1090.msgs.adsb.IdentificationMsg;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentificationTest {
+
+	@Test
+	void testCallsignMatchesCharacterDecoding() {
+		Random rnd = new Random(42);
+		byte[] me = new byte[7];
+		for (int i = 0; i < 100000; i++) {
+			rnd.nextBytes(me);
+			long packed = Identification.extractIdentification(me);
+			byte[] identity = Identification.decodeAircraftIdentification(me);
+			assertArrayEquals(identity, Identification.unpackIdentification(packed));
+			assertEquals(new String(Identification.mapChar(identity)), Identification.decodeCallsign(packed));
+		}
+	}
+
+	@Test
+	void testCallsignIsCached() throws Exception {
+		IdentificationMsg msg1 = new IdentificationMsg("8D4840D6202CC371C32CE0576098");
+		IdentificationMsg msg2 = new IdentificationMsg("8D4840D6202CC371C32CE0576098");
+		assertEquals("KLM1023 ", msg1.getCallsign());
+		assertSame(msg1.getCallsign(), msg2.getCallsign());
+		assertEquals(msg1.getCallsign(), new String(msg2.getIdentity()));
+	}
+}
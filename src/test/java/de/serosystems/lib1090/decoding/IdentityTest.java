@@ -0,0 +1,79 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.decoding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityTest {
+
+	@Test
+	void testSpecialCodes() {
+		// A4 A2 A1 C4 (no C bits for 7700) -> A=7, B=7
+		short emergency = (short) (0x080 | 0x200 | 0x800 | 0x002 | 0x008 | 0x020);
+		assertEquals("7700", Identity.decodeIdentity(emergency));
+		assertEquals(7700, Identity.decodeIdentityInt(emergency));
+
+		assertEquals("0000", Identity.decodeIdentity((short) 0));
+		assertEquals(0, Identity.decodeIdentityInt((short) 0));
+	}
+
+	@Test
+	void testCanonicalInstances() {
+		short squawk = (short) 0x0A80;
+		assertSame(Identity.decodeIdentity(squawk), Identity.decodeIdentity(squawk));
+	}
+
+	@Test
+	void testStringMatchesInt() {
+		for (int code = 0; code < 1 << 13; code++) {
+			assertEquals(Integer.parseInt(Identity.decodeIdentity((short) code)), Identity.decodeIdentityInt((short) code));
+		}
+	}
+
+	@Test
+	void testTableMatchesAlgorithm() {
+		for (int code = 0; code < 1 << 13; code++)
+			assertEquals(algorithm((short) code), Identity.decodeIdentity((short) code), "code " + code);
+	}
+
+	// the algorithm which was replaced by the lookup table
+	private static String algorithm(short identity) {
+		int C1 = (0x1000&identity)>>>12;
+		int A1 = (0x800&identity)>>>11;
+		int C2 = (0x400&identity)>>>10;
+		int A2 = (0x200&identity)>>>9;
+		int C4 = (0x100&identity)>>>8;
+		int A4 = (0x080&identity)>>>7;
+		int B1 = (0x020&identity)>>>5;
+		int D1 = (0x010&identity)>>>4;
+		int B2 = (0x008&identity)>>>3;
+		int D2 = (0x004&identity)>>>2;
+		int B4 = (0x002&identity)>>>1;
+		int D4 = (0x001&identity);
+
+		String A = Integer.toString((A4<<2)+(A2<<1)+A1);
+		String B = Integer.toString((B4<<2)+(B2<<1)+B1);
+		String C = Integer.toString((C4<<2)+(C2<<1)+C1);
+		String D = Integer.toString((D4<<2)+(D2<<1)+D1);
+
+		return A+B+C+D;
+	}
+}
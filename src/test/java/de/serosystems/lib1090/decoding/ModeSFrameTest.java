@@ -0,0 +1,128 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.decoding;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.msgs.adsb.AirbornePositionV0Msg;
+import de.serosystems.lib1090.msgs.adsb.VelocityOverGroundMsg;
+import de.serosystems.lib1090.msgs.modes.AltitudeReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModeSFrameTest {
+
+	@Test
+	void testFieldsMatchBitReader() {
+		Random rnd = new Random(1090);
+		byte[] frame = new byte[14];
+		for (int i = 0; i < 10000; i++) {
+			rnd.nextBytes(frame);
+			long hi = ModeSFrame.packHigh(frame), lo = ModeSFrame.packLow(frame);
+			BitReader r = BitReader.forBigEndian(frame);
+
+			assertTrue(ModeSFrame.isLong(lo));
+			assertArrayEquals(frame, ModeSFrame.unpack(hi, lo));
+
+			assertEquals(r.readInt(1, 5), ModeSFrame.downlinkFormat(hi));
+			assertEquals(r.readInt(6, 8), ModeSFrame.firstField(hi));
+			assertEquals(r.readInt(9, 32), ModeSFrame.announcedAddress(hi));
+			assertEquals(r.readInt(89, 112), ModeSFrame.parity(hi, lo));
+			assertEquals(r.readShort(20, 32), ModeSFrame.altitudeCode(hi));
+			assertEquals(r.readLong(33, 88), ModeSFrame.me(hi, lo));
+			assertEquals(r.readInt(33, 37), ModeSFrame.typeCode(hi));
+			assertEquals(r.readInt(38, 40), ModeSFrame.meSubtype(hi));
+			assertEquals(r.readShort(41, 52), ModeSFrame.airborneAltitudeCode(hi));
+			assertEquals(r.readInt(54, 54) == 1, ModeSFrame.cprOddFormat(hi));
+			assertEquals(r.readInt(55, 71), ModeSFrame.cprLatitude(hi, lo));
+			assertEquals(r.readInt(72, 88), ModeSFrame.cprLongitude(lo));
+			assertEquals(r.readInt(46, 46) == 1, ModeSFrame.velocityWest(hi));
+			assertEquals(r.readInt(47, 56), ModeSFrame.velocityEastWest(hi));
+			assertEquals(r.readInt(57, 57) == 1, ModeSFrame.velocitySouth(hi));
+			assertEquals(r.readInt(58, 67), ModeSFrame.velocityNorthSouth(hi, lo));
+			assertEquals(r.readInt(68, 68) == 0, ModeSFrame.verticalRateGeometric(lo));
+			assertEquals(r.readInt(69, 69) == 1, ModeSFrame.verticalRateDown(lo));
+			assertEquals(r.readInt(70, 78), ModeSFrame.verticalRate(lo));
+			assertEquals(r.readLong(41, 88), ModeSFrame.identification(hi, lo));
+			assertEquals(r.readByte(47, 52), ModeSFrame.identificationChar(hi, lo, 1));
+			assertEquals(r.readLong(20, 83), ModeSFrame.bits(hi, lo, 20, 83));
+
+			byte[] me = new byte[7];
+			System.arraycopy(frame, 4, me, 0, 7);
+			assertEquals(Identification.extractIdentification(me), ModeSFrame.identification(hi, lo));
+		}
+	}
+
+	@Test
+	void testShortFrame() throws Exception {
+		byte[] frame = Tools.hexStringToByteArray("200019A0000000");
+		frame[4] = 0x12; frame[5] = 0x34; frame[6] = 0x56;
+		long hi = ModeSFrame.packHigh(frame), lo = ModeSFrame.packLow(frame);
+
+		assertFalse(ModeSFrame.isLong(lo));
+		assertEquals(0L, lo);
+		assertArrayEquals(frame, ModeSFrame.unpack(hi, lo));
+		assertEquals(4, ModeSFrame.downlinkFormat(hi));
+		assertEquals(0x123456, ModeSFrame.parity(hi, lo));
+		assertEquals(new AltitudeReply(frame).getAltitudeCode(), ModeSFrame.altitudeCode(hi));
+	}
+
+	@Test
+	void testAgainstMessages() throws Exception {
+		byte[] frame = Tools.hexStringToByteArray("8d4845575803c647bcec2a980abc");
+		long hi = ModeSFrame.packHigh(frame), lo = ModeSFrame.packLow(frame);
+		CPREncodedPosition cpr = new AirbornePositionV0Msg(frame, 0L).getCPREncodedPosition();
+		assertEquals(17, ModeSFrame.downlinkFormat(hi));
+		assertEquals(0x484557, ModeSFrame.announcedAddress(hi));
+		assertEquals(11, ModeSFrame.typeCode(hi));
+		assertEquals(cpr.isOddFormat(), ModeSFrame.cprOddFormat(hi));
+		assertEquals(cpr.yz(), ModeSFrame.cprLatitude(hi, lo));
+		assertEquals(cpr.xz(), ModeSFrame.cprLongitude(lo));
+
+		frame = Tools.hexStringToByteArray("8D485020994409940838175B284F");
+		hi = ModeSFrame.packHigh(frame);
+		lo = ModeSFrame.packLow(frame);
+		VelocityOverGroundMsg velocity = new VelocityOverGroundMsg(frame);
+		assertEquals(19, ModeSFrame.typeCode(hi));
+		assertEquals(1, ModeSFrame.meSubtype(hi));
+		assertEquals(Math.abs(velocity.getEastToWestVelocity()), ModeSFrame.velocityEastWest(hi) - 1);
+		assertEquals(Math.abs(velocity.getNorthToSouthVelocity()), ModeSFrame.velocityNorthSouth(hi, lo) - 1);
+		assertEquals(Math.abs(velocity.getVerticalRate()), (ModeSFrame.verticalRate(lo) - 1) * 64);
+
+		frame = Tools.hexStringToByteArray("8D4840D6202CC371C32CE0576098");
+		hi = ModeSFrame.packHigh(frame);
+		lo = ModeSFrame.packLow(frame);
+		assertEquals("KLM1023 ", Identification.decodeCallsign(ModeSFrame.identification(hi, lo)));
+		assertEquals('K', Identification.mapChar(ModeSFrame.identificationChar(hi, lo, 0)));
+	}
+
+	@Test
+	void testFingerprint() {
+		long[] frames = new long[4];
+		ModeSFrame.pack(Tools.hexStringToByteArray("8D4840D6202CC371C32CE0576098"), frames, 0);
+		ModeSFrame.pack(Tools.hexStringToByteArray("8D4840D6202CC371C32CE0576099"), frames, 2);
+
+		assertEquals(ModeSFrame.fingerprint(frames[0], frames[1]), ModeSFrame.fingerprint(frames[0], frames[1]));
+		assertNotEquals(ModeSFrame.fingerprint(frames[0], frames[1]), ModeSFrame.fingerprint(frames[2], frames[3]));
+		assertThrows(IllegalArgumentException.class, () -> ModeSFrame.packHigh(new byte[8]));
+	}
+}
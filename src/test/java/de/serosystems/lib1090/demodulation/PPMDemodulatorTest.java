@@ -0,0 +1,306 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.encoding.ExtendedSquitterEncoder;
+import de.serosystems.lib1090.encoding.ModeSEncoder;
+import de.serosystems.lib1090.encoding.TrafficGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PPMDemodulatorTest {
+
+	/**
+	 * Adds the pulses of a frame (preamble and bits) starting at the given time to I and Q, integrated over each
+	 * sample.
+	 */
+	static void render(double[] i, double[] q, int sampleRate, double startMicros, byte[] frame, double amplitude,
+					   double carrierPhase) {
+		double samplesPerMicro = sampleRate / 1e6;
+		List<Double> pulses = new ArrayList<>();
+		for (double p : new double[]{0, 1, 3.5, 4.5})
+			pulses.add(p);
+		for (int bit = 0; bit < frame.length * 8; bit++)
+			pulses.add(8 + bit + ((frame[bit >>> 3] >>> (7 - (bit & 7)) & 1) == 1 ? 0 : .5));
+
+		double ci = amplitude * Math.cos(carrierPhase), cq = amplitude * Math.sin(carrierPhase);
+		for (double p : pulses) {
+			double s0 = (startMicros + p) * samplesPerMicro, s1 = (startMicros + p + .5) * samplesPerMicro;
+			for (int k = (int) Math.floor(s0); k < Math.ceil(s1); k++) {
+				double overlap = Math.min(s1, k + 1) - Math.max(s0, k);
+				i[k] += ci * overlap;
+				q[k] += cq * overlap;
+			}
+		}
+	}
+
+	/**
+	 * @return magnitudes of I and Q with Gaussian noise
+	 */
+	static char[] magnitudes(double[] i, double[] q, double noise, long seed) {
+		Random random = new Random(seed);
+		char[] mag = new char[i.length];
+		for (int k = 0; k < mag.length; k++)
+			mag[k] = (char) Math.min(65535, Math.round(Math.hypot(
+					i[k] + noise * random.nextGaussian(), q[k] + noise * random.nextGaussian())));
+		return mag;
+	}
+
+	/**
+	 * Renders generated traffic with one frame every 200 us.
+	 *
+	 * @return the rendered frames as hex strings, in order
+	 */
+	static List<String> traffic(double[] i, double[] q, int sampleRate, int frames, long seed) {
+		TrafficGenerator generator = new TrafficGenerator(50, 50.0, 8.5, 100, 0, seed);
+		Random random = new Random(seed);
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+		List<String> sent = new ArrayList<>();
+		for (int n = 0; n < frames; n++) {
+			int length = generator.next(buf, 0);
+			byte[] frame = Arrays.copyOf(buf, length);
+			render(i, q, sampleRate, 20 + n * 200 + random.nextDouble() * 10, frame,
+					3000 + random.nextDouble() * 7000, random.nextDouble() * 2 * Math.PI);
+			sent.add(Tools.toHexString(frame));
+		}
+		return sent;
+	}
+
+	private static List<DemodulatedFrame> demodulate(PPMDemodulator demodulator, char[] mag) {
+		List<DemodulatedFrame> frames = new ArrayList<>();
+		demodulator.demodulate(mag, 0, mag.length, 0, f -> frames.add(f.copy()));
+		return frames;
+	}
+
+	private void testRecovery(int sampleRate) {
+		int frames = 500;
+		int samples = (int) ((frames * 200L + 200) * sampleRate / 1_000_000);
+		double[] i = new double[samples], q = new double[samples];
+		List<String> sent = traffic(i, q, sampleRate, frames, 1);
+
+		PPMDemodulator demodulator = new PPMDemodulator(sampleRate);
+		List<DemodulatedFrame> received = demodulate(demodulator, magnitudes(i, q, 100, 2));
+
+		Set<String> sentSet = new HashSet<>(sent);
+		int extendedSquitters = 0;
+		long lastSample = -1;
+		for (DemodulatedFrame frame : received) {
+			String hex = Tools.toHexString(frame.getFrame());
+			assertTrue(sentSet.contains(hex), "unexpected frame " + frame);
+			assertTrue(frame.getSample() > lastSample);
+			lastSample = frame.getSample();
+			if ((frame.getFrame()[0] & 0xFF) >>> 3 == 17) extendedSquitters++;
+		}
+
+		long sentExtendedSquitters = sent.stream().filter(h -> Integer.parseInt(h.substring(0, 2), 16) >>> 3 == 17).count();
+		assertEquals(sentExtendedSquitters, extendedSquitters);
+		assertTrue(received.size() > 0.95 * frames, "only " + received.size() + " frames");
+	}
+
+	@Test
+	void testRecovery2MHz() {
+		testRecovery(2_000_000);
+	}
+
+	@Test
+	void testRecovery2_4MHz() {
+		testRecovery(2_400_000);
+	}
+
+	@Test
+	void testPositionAndLevels() throws Exception {
+		byte[] frame = new byte[ModeSEncoder.LONG_FRAME];
+		ModeSEncoder.extendedSquitter(frame, 0, 5, 0x3C6586,
+				ExtendedSquitterEncoder.identification(4, 1, ModeSEncoder.encodeIdentification("DLH123")));
+
+		for (int sampleRate : new int[]{2_000_000, 2_400_000}) {
+			double[] i = new double[1000], q = new double[1000];
+			render(i, q, sampleRate, 100, frame, 5000, 1);
+			List<DemodulatedFrame> received = demodulate(new PPMDemodulator(sampleRate), magnitudes(i, q, 20, 3));
+
+			assertEquals(1, received.size());
+			DemodulatedFrame demodulated = received.get(0);
+			assertArrayEquals(frame, demodulated.getFrame());
+			assertEquals(14, demodulated.getLength());
+			assertEquals(100_000, demodulated.getNanos(), 1e9 / sampleRate);
+			assertEquals(100 * sampleRate / 1_000_000, demodulated.getSample(), 1);
+			assertEquals(0, demodulated.getCorrectedBits());
+			assertTrue(demodulated.getMinConfidence() > 64, sampleRate + " " + demodulated.getMinConfidence());
+			assertTrue(demodulated.getSignalLevel() > 5 * demodulated.getNoiseLevel());
+			assertEquals(0x3C6586, demodulated.toMessage().getAddress().getAddress());
+			assertEquals(17, demodulated.toMessage().getDownlinkFormat());
+			assertThrows(IndexOutOfBoundsException.class, () -> demodulated.getConfidence(112));
+		}
+	}
+
+	@Test
+	void testIQ8() {
+		int sampleRate = 2_400_000;
+		int frames = 100;
+		int samples = (int) ((frames * 200L + 200) * sampleRate / 1_000_000);
+		double[] i = new double[samples], q = new double[samples];
+		// amplitudes of 30 to 100 with 8 bit samples
+		List<String> sent = traffic(i, q, sampleRate, frames, 4);
+		Random random = new Random(5);
+		byte[] iq = new byte[2 * samples];
+		for (int k = 0; k < samples; k++) {
+			iq[2 * k] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + i[k] / 100 + random.nextGaussian())));
+			iq[2 * k + 1] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + q[k] / 100 + random.nextGaussian())));
+		}
+
+		char[] mag = new char[samples];
+		Magnitude.fromIQ8(iq, 0, samples, mag, 0);
+		assertEquals(Magnitude.ofIQ8(iq[10], iq[11]), mag[5]);
+
+		Set<String> received = new HashSet<>();
+		for (DemodulatedFrame frame : demodulate(new PPMDemodulator(sampleRate), mag))
+			received.add(Tools.toHexString(frame.getFrame()));
+		assertTrue(sent.containsAll(received));
+		for (String frame : sent) {
+			int df = Integer.parseInt(frame.substring(0, 2), 16) >>> 3;
+			if (df == 11 || df == 17)
+				assertTrue(received.contains(frame), frame);
+		}
+	}
+
+	@Test
+	void testU16LE() {
+		byte[] in = {0x34, 0x12, (byte) 0xFF, (byte) 0xFF};
+		char[] mag = new char[3];
+		Magnitude.fromU16LE(in, 0, 2, mag, 1);
+		assertEquals(0x1234, mag[1]);
+		assertEquals(0xFFFF, mag[2]);
+	}
+
+	@Test
+	void testCorrection() {
+		int sampleRate = 2_000_000;
+		byte[] frame = new byte[ModeSEncoder.LONG_FRAME];
+		ModeSEncoder.extendedSquitter(frame, 0, 5, 0x3C6586,
+				ExtendedSquitterEncoder.identification(4, 1, ModeSEncoder.encodeIdentification("DLH123")));
+		double[] i = new double[1000], q = new double[1000];
+		render(i, q, sampleRate, 100, frame, 5000, 0);
+		char[] mag = magnitudes(i, q, 20, 6);
+
+		// weak pulse in the wrong half of bit 40
+		int bit = 40;
+		int first = 2 * (100 + 8 + bit);
+		boolean one = (frame[bit >>> 3] >>> (7 - (bit & 7)) & 1) == 1;
+		mag[first] = (char) (one ? 1500 : 3500);
+		mag[first + 1] = (char) (one ? 3500 : 1500);
+
+		PPMDemodulator demodulator = new PPMDemodulator(sampleRate);
+		List<DemodulatedFrame> received = demodulate(demodulator, mag);
+		assertEquals(1, received.size());
+		assertArrayEquals(frame, received.get(0).getFrame());
+		assertEquals(200, received.get(0).getSample());
+		assertEquals(1, received.get(0).getCorrectedBits());
+		assertTrue(received.get(0).getConfidence(bit) < 128);
+
+		// without correction, the frame is at most found at a worse matching phase
+		demodulator = new PPMDemodulator(sampleRate);
+		demodulator.setMaxCorrectedBits(0);
+		for (DemodulatedFrame demodulated : demodulate(demodulator, mag)) {
+			assertEquals(0, demodulated.getCorrectedBits());
+			assertTrue(demodulated.getSignalLevel() < received.get(0).getSignalLevel());
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> new PPMDemodulator(sampleRate).setMaxCorrectedBits(3));
+	}
+
+	@Test
+	void testUnknownAddresses() {
+		int sampleRate = 2_000_000;
+		int address = 0x3C6586;
+		byte[] altitudeReply = new byte[ModeSEncoder.SHORT_FRAME];
+		ModeSEncoder.altitudeReply(altitudeReply, 0, 0, 0, 0, ModeSEncoder.encode13BitAltitude(35000), address);
+		byte[] allCall = new byte[ModeSEncoder.SHORT_FRAME];
+		ModeSEncoder.allCallReply(allCall, 0, 5, address, 0, 0);
+
+		// altitude reply, all-call reply, altitude reply
+		double[] i = new double[2000], q = new double[2000];
+		render(i, q, sampleRate, 100, altitudeReply, 5000, 0);
+		render(i, q, sampleRate, 300, allCall, 5000, 0);
+		render(i, q, sampleRate, 500, altitudeReply, 5000, 0);
+		char[] mag = magnitudes(i, q, 20, 7);
+
+		List<DemodulatedFrame> received = demodulate(new PPMDemodulator(sampleRate), mag);
+		assertEquals(2, received.size());
+		assertArrayEquals(allCall, received.get(0).getFrame());
+		assertArrayEquals(altitudeReply, received.get(1).getFrame());
+		assertEquals(1000, received.get(1).getSample(), 1);
+
+		PPMDemodulator demodulator = new PPMDemodulator(sampleRate);
+		demodulator.setAcceptUnknownAddresses(true);
+		assertEquals(3, demodulate(demodulator, mag).size());
+	}
+
+	@Test
+	void testAddressTimeout() {
+		int sampleRate = 2_000_000;
+		int address = 0x3C6586;
+		byte[] altitudeReply = new byte[ModeSEncoder.SHORT_FRAME];
+		ModeSEncoder.altitudeReply(altitudeReply, 0, 0, 0, 0, ModeSEncoder.encode13BitAltitude(35000), address);
+		byte[] allCall = new byte[ModeSEncoder.SHORT_FRAME];
+		ModeSEncoder.allCallReply(allCall, 0, 5, address, 0, 0);
+
+		double[] i = new double[1000], q = new double[1000];
+		render(i, q, sampleRate, 100, allCall, 5000, 0);
+		char[] allCallMag = magnitudes(i, q, 20, 8);
+		i = new double[1000];
+		q = new double[1000];
+		render(i, q, sampleRate, 100, altitudeReply, 5000, 0);
+		char[] replyMag = magnitudes(i, q, 20, 9);
+
+		// the altitude reply follows the all-call reply 59 s and 61 s (of samples) later
+		for (int seconds : new int[]{59, 61}) {
+			PPMDemodulator demodulator = new PPMDemodulator(sampleRate);
+			List<DemodulatedFrame> received = new ArrayList<>();
+			demodulator.demodulate(allCallMag, 0, allCallMag.length, 0, f -> received.add(f.copy()));
+			long firstSample = (long) seconds * sampleRate;
+			demodulator.demodulate(replyMag, 0, replyMag.length, firstSample, f -> received.add(f.copy()));
+
+			assertArrayEquals(allCall, received.get(0).getFrame());
+			if (seconds < 60) {
+				assertEquals(2, received.size());
+				assertArrayEquals(altitudeReply, received.get(1).getFrame());
+				assertEquals(firstSample + 200, received.get(1).getSample(), 1);
+			} else {
+				assertEquals(1, received.size());
+			}
+		}
+	}
+
+	@Test
+	void testInvalidSampleRate() {
+		assertThrows(IllegalArgumentException.class, () -> new PPMDemodulator(1_000_000));
+		assertThrows(IllegalArgumentException.class, () -> new PPMDemodulator(2_500_000));
+		assertEquals(2_400_000, new PPMDemodulator(2_400_000).getSampleRate());
+	}
+}
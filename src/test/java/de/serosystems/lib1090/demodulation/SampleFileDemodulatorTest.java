@@ -0,0 +1,124 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.demodulation;
+
+import de.serosystems.lib1090.Tools;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleFileDemodulatorTest {
+
+	private static final int SAMPLE_RATE = 2_400_000;
+	private static final int FRAMES = 300;
+
+	private static File write(double[] i, double[] q, SampleFileDemodulator.Format format) throws IOException {
+		File file = File.createTempFile("lib1090", ".bin");
+		file.deleteOnExit();
+
+		Random random = new Random(1);
+		byte[] buf = new byte[2 * i.length];
+		for (int k = 0; k < i.length; k++) {
+			if (format == SampleFileDemodulator.Format.IQ_U8) {
+				buf[2 * k] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + i[k] / 100 + random.nextGaussian())));
+				buf[2 * k + 1] = (byte) Math.max(0, Math.min(255, Math.round(127.5 + q[k] / 100 + random.nextGaussian())));
+			} else {
+				int m = (int) Math.min(65535, Math.round(Math.hypot(
+						i[k] + 100 * random.nextGaussian(), q[k] + 100 * random.nextGaussian())));
+				buf[2 * k] = (byte) m;
+				buf[2 * k + 1] = (byte) (m >>> 8);
+			}
+		}
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(buf);
+		}
+		return file;
+	}
+
+	private static List<DemodulatedFrame> demodulate(File file, SampleFileDemodulator.Format format, int threads,
+													 int chunkSamples) throws Exception {
+		SampleFileDemodulator demodulator = new SampleFileDemodulator(format, SAMPLE_RATE);
+		demodulator.setThreads(threads);
+		demodulator.setChunkSamples(chunkSamples);
+		List<DemodulatedFrame> frames = new ArrayList<>();
+		assertEquals(file.length() / 2, demodulator.demodulate(file, frames::add));
+		return frames;
+	}
+
+	@Test
+	void testThreadsAndChunks() throws Exception {
+		int samples = (int) ((FRAMES * 200L + 200) * SAMPLE_RATE / 1_000_000);
+		double[] i = new double[samples], q = new double[samples];
+		List<String> sent = PPMDemodulatorTest.traffic(i, q, SAMPLE_RATE, FRAMES, 1);
+
+		for (SampleFileDemodulator.Format format : SampleFileDemodulator.Format.values()) {
+			File file = write(i, q, format);
+
+			// small chunks, many frames cross chunk boundaries
+			List<DemodulatedFrame> single = demodulate(file, format, 1, 5000);
+			List<DemodulatedFrame> multi = demodulate(file, format, 4, 5000);
+			assertEquals(single.size(), multi.size());
+			for (int n = 0; n < single.size(); n++) {
+				assertEquals(single.get(n).getSample(), multi.get(n).getSample());
+				assertArrayEquals(single.get(n).getFrame(), multi.get(n).getFrame());
+			}
+
+			// no frame is lost or duplicated at chunk boundaries
+			List<DemodulatedFrame> whole = demodulate(file, format, 1, samples);
+			HashSet<String> wholeFrames = new HashSet<>(), chunkedFrames = new HashSet<>();
+			long lastSample = -1;
+			for (DemodulatedFrame frame : single) {
+				assertTrue(frame.getSample() > lastSample);
+				lastSample = frame.getSample();
+				chunkedFrames.add(Tools.toHexString(frame.getFrame()));
+			}
+			for (DemodulatedFrame frame : whole)
+				wholeFrames.add(Tools.toHexString(frame.getFrame()));
+
+			assertTrue(sent.containsAll(chunkedFrames));
+			assertTrue(wholeFrames.size() > 0.9 * FRAMES);
+			// chunks do not share known addresses, but all-call replies and extended squitters are not affected
+			for (String frame : wholeFrames) {
+				int df = Integer.parseInt(frame.substring(0, 2), 16) >>> 3;
+				if (df == 11 || df == 17)
+					assertTrue(chunkedFrames.contains(frame), frame);
+			}
+		}
+	}
+
+	@Test
+	void testInvalidSettings() {
+		SampleFileDemodulator demodulator = new SampleFileDemodulator(SampleFileDemodulator.Format.IQ_U8, 2_000_000);
+		assertThrows(IllegalArgumentException.class, () -> demodulator.setThreads(0));
+		assertThrows(IllegalArgumentException.class, () -> demodulator.setChunkSamples(100));
+		assertThrows(IllegalArgumentException.class, () -> demodulator.setMaxCorrectedBits(-1));
+		assertThrows(IllegalArgumentException.class,
+				() -> new SampleFileDemodulator(SampleFileDemodulator.Format.IQ_U8, 1_000_000));
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.msgs.bds.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommBEncoderTest {
+
+	private static byte[] bytes(long mb) {
+		byte[] msg = new byte[7];
+		for (int i = 0; i < 7; i++)
+			msg[i] = (byte) (mb >>> (48 - 8 * i));
+		return msg;
+	}
+
+	@Test
+	void testDataLinkCapability() {
+		// aircraft identification capability (MB bit 33) and common usage GICB (MB bit 36)
+		long mb = CommBEncoder.dataLinkCapability(1L << 23 | 1L << 20);
+		DataLinkCapabilityReport report = new DataLinkCapabilityReport(bytes(mb));
+		assertTrue(report.isAircraftIdentificationCapability());
+		assertTrue(report.isCommonUsageGicb());
+		assertFalse(report.isSquitterCapabilitySubfield());
+	}
+
+	@Test
+	void testCommonUsageGICBCapability() {
+		long mb = CommBEncoder.commonUsageGICBCapability(0x20) | CommBEncoder.commonUsageGICBCapability(0x40) |
+				CommBEncoder.commonUsageGICBCapability(0x60) | CommBEncoder.commonUsageGICBCapability(0xF1);
+		CommonUsageGICBCapabilityReport report = new CommonUsageGICBCapabilityReport(bytes(mb));
+		assertTrue(report.getCommonUsageGICBCapabilityReport().get("BDS20"));
+		assertTrue(report.getCommonUsageGICBCapabilityReport().get("BDS40"));
+		assertTrue(report.getCommonUsageGICBCapabilityReport().get("BDS60"));
+		assertFalse(report.getCommonUsageGICBCapabilityReport().get("BDS50"));
+		assertEquals(4, Long.bitCount(mb));
+
+		assertThrows(IllegalArgumentException.class, () -> CommBEncoder.commonUsageGICBCapability(0x30));
+		assertThrows(IllegalArgumentException.class, () -> CommBEncoder.commonUsageGICBCapability(0));
+	}
+
+	@Test
+	void testAircraftIdentification() {
+		long mb = CommBEncoder.aircraftIdentification(ModeSEncoder.encodeIdentification("DLH4KT"));
+		AircraftIdentification report = new AircraftIdentification(bytes(mb));
+		assertEquals("DLH4KT", report.getCallsign().trim());
+	}
+
+	@Test
+	void testACASResolutionAdvisory() throws Exception {
+		long mb = CommBEncoder.acasResolutionAdvisory(0x2A01, 0x5, false, true, 1, 0x3C6586 << 2);
+		ACASActiveResolutionAdvisoryReport report = new ACASActiveResolutionAdvisoryReport(bytes(mb));
+		assertFalse(report.isTCAS6());
+		assertEquals(0x2A01, report.getActiveRA());
+		assertEquals(0x5, report.getRACRecord());
+		assertFalse(report.hasRATerminated());
+		assertTrue(report.hasMultiThreatEncounter());
+		assertEquals(1, (byte) report.getThreatType());
+		assertEquals(0x3C6586 << 2, (int) report.getThreatIdentity());
+	}
+
+	@Test
+	void testSelectedVerticalIntention() {
+		for (int alt = 0; alt <= 65520; alt += 16 * 37) {
+			float baro = 800 + alt % 4096 / 10f;
+			long mb = CommBEncoder.selectedVerticalIntention(alt, 65520 - alt, baro, true, alt % 2 == 0, true,
+					false, alt % 4);
+			SelectedVerticalIntention report = new SelectedVerticalIntention(bytes(mb));
+			assertEquals(alt, (int) report.getMcpFcuSelectedAltitude());
+			assertEquals(65520 - alt, (int) report.getFmsSelectedAltitude());
+			assertEquals(baro, report.getBarometricPressureSetting(), 1e-3);
+			assertEquals(alt % 2 == 0, report.hasVNAVModeEngaged());
+			assertTrue(report.hasActiveAltitudeHoldMode());
+			assertFalse(report.hasActiveApproachMode());
+			assertEquals(alt % 4, (short) report.getTargetAltSource());
+		}
+
+		long mb = CommBEncoder.selectedVerticalIntention(ModeSEncoder.UNAVAILABLE, ModeSEncoder.UNAVAILABLE,
+				Double.NaN, false, true, true, true, ModeSEncoder.UNAVAILABLE);
+		SelectedVerticalIntention report = new SelectedVerticalIntention(bytes(mb));
+		assertNull(report.getMcpFcuSelectedAltitude());
+		assertNull(report.getFmsSelectedAltitude());
+		assertNull(report.getBarometricPressureSetting());
+		assertNull(report.hasVNAVModeEngaged());
+		assertNull(report.getTargetAltSource());
+	}
+
+	@Test
+	void testTrackAndTurn() {
+		for (int i = -511; i < 512; i += 7) {
+			double roll = i * 45. / 256 / 6, track = i * 90. / 512 * 2, rate = i / 2 * 8. / 256;
+			int speed = 2 * (i + 511);
+			long mb = CommBEncoder.trackAndTurn(roll, track, speed, rate, 2046 - speed);
+			TrackAndTurn report = new TrackAndTurn(bytes(mb));
+			assertEquals(Math.round(roll / (45. / 256)) * 45. / 256, report.getRollAngle(), 1e-4);
+			assertEquals(track, report.getTrueTrackAngle(), 1e-4);
+			assertEquals(speed, (int) report.getGroundSpeed());
+			assertEquals(rate, report.getTrackAngleRate(), 1e-4);
+			assertEquals(2046 - speed, (int) report.getTrueAirspeed());
+		}
+
+		TrackAndTurn report = new TrackAndTurn(bytes(CommBEncoder.trackAndTurn(Double.NaN, Double.NaN,
+				ModeSEncoder.UNAVAILABLE, Double.NaN, ModeSEncoder.UNAVAILABLE)));
+		assertNull(report.getRollAngle());
+		assertNull(report.getTrueTrackAngle());
+		assertNull(report.getGroundSpeed());
+		assertNull(report.getTrackAngleRate());
+		assertNull(report.getTrueAirspeed());
+	}
+
+	@Test
+	void testHeadingAndSpeed() {
+		for (int i = -1023; i < 1024; i += 13) {
+			double heading = i * 90. / 512, mach = (i + 1024) / 2 * 2.048 / 512;
+			int ias = (i + 1024) / 2, rate = 32 * (i / 2);
+			long mb = CommBEncoder.headingAndSpeed(heading, ias, mach, rate, -rate);
+			HeadingAndSpeed report = new HeadingAndSpeed(bytes(mb));
+			assertEquals(heading, report.getMagneticHeading(), 1e-4);
+			assertEquals(ias, (short) report.getIndicatedAirspeed());
+			assertEquals(mach, report.getMachNumber(), 1e-4);
+			assertEquals(rate, (int) report.getBarometricAltitudeRate());
+			assertEquals(-rate, (int) report.getInertialVerticalRate());
+		}
+	}
+}
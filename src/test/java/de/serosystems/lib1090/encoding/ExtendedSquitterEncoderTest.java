@@ -0,0 +1,333 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.cpr.CPREncodedPosition;
+import de.serosystems.lib1090.cpr.CPREncoder;
+import de.serosystems.lib1090.decoding.Identity;
+import de.serosystems.lib1090.msgs.adsb.*;
+import de.serosystems.lib1090.msgs.modes.ExtendedSquitter;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.serosystems.lib1090.encoding.ModeSEncoder.UNAVAILABLE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtendedSquitterEncoderTest {
+
+	private static final int ADDRESS = 0x3C6586;
+
+	private static ExtendedSquitter squitter(long me) throws Exception {
+		byte[] buf = new byte[14];
+		ModeSEncoder.extendedSquitter(buf, 0, 5, ADDRESS, me);
+		ExtendedSquitter es = new ExtendedSquitter(buf);
+		assertTrue(es.checkParity());
+		assertEquals(ADDRESS, es.getAddress().getAddress());
+		return es;
+	}
+
+	private static int orUnavailable(Integer value) {
+		return value == null ? UNAVAILABLE : value;
+	}
+
+	private static double orNaN(Number value) {
+		return value == null ? Double.NaN : value.doubleValue();
+	}
+
+	/**
+	 * Re-encodes the DF 17 frames of the benchmark corpus from the decoded values. Reserved bits are not decoded
+	 * and thus only compared if they are 0.
+	 */
+	@Test
+	void testReencodesRealFrames() throws Exception {
+		Map<Integer, Integer> reencoded = new TreeMap<>();
+		byte[] buf = new byte[14];
+
+		try (InputStream in = getClass().getResourceAsStream("/benchmark/corpus.txt");
+			 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (line.startsWith("#") || fields.length < 2 || !fields[1].toLowerCase().startsWith("8d"))
+					continue;
+
+				ExtendedSquitter es = new ExtendedSquitter(Tools.hexStringToByteArray(fields[1]));
+				int typeCode = es.getFormatTypeCode();
+				int subtype = es.getMessage()[0] & 0x7;
+				long me, reserved = 0;
+
+				if (typeCode >= 1 && typeCode <= 4) {
+					IdentificationMsg msg = new IdentificationMsg(es);
+					me = ExtendedSquitterEncoder.identification(typeCode, msg.getEmitterCategory(),
+							ModeSEncoder.encodeIdentification(msg.getCallsign()));
+				} else if (typeCode >= 9 && typeCode <= 18) {
+					AirbornePositionV0Msg msg = new AirbornePositionV0Msg(es, 0L);
+					CPREncodedPosition cpr = msg.getCPREncodedPosition();
+					me = ExtendedSquitterEncoder.airbornePosition(typeCode, msg.getSurveillanceStatus(),
+							msg.hasSingleAntenna(), ModeSEncoder.encode12BitAltitude(orUnavailable(msg.getAltitude())),
+							msg.hasTimeFlag(), cpr.isOddFormat(), (long) cpr.yz() << 17 | cpr.xz());
+				} else if (typeCode == 19 && subtype == 1) {
+					reserved = ExtendedSquitterEncoder.field(3, 47, 48);
+					VelocityOverGroundMsg msg = new VelocityOverGroundMsg(es);
+					me = ExtendedSquitterEncoder.velocityOverGround(
+							msg.hasVelocityInfo() ? -msg.getEastToWestVelocity() : UNAVAILABLE,
+							msg.hasVelocityInfo() ? -msg.getNorthToSouthVelocity() : UNAVAILABLE,
+							orUnavailable(msg.getVerticalRate()), msg.isBarometricVerticalSpeed(),
+							orUnavailable(msg.getGeoMinusBaro()), msg.getNACv(), msg.hasChangeIntent(),
+							msg.hasIFRCapability());
+				} else if (typeCode == 19 && subtype == 3) {
+					reserved = ExtendedSquitterEncoder.field(3, 47, 48);
+					AirspeedHeadingMsg msg = new AirspeedHeadingMsg(es);
+					me = ExtendedSquitterEncoder.airspeedHeading(orNaN(msg.getHeading()),
+							orUnavailable(msg.getAirspeed()), msg.isTrueAirspeed(), orUnavailable(msg.getVerticalRate()),
+							msg.isBarometricVerticalSpeed(), orUnavailable(msg.getGeoMinusBaro()), msg.getNACv(),
+							msg.hasChangeIntent(), msg.hasIFRCapability());
+				} else if (typeCode == 28 && subtype == 1) {
+					EmergencyOrPriorityStatusV2Msg msg = new EmergencyOrPriorityStatusV2Msg(es);
+					me = ExtendedSquitterEncoder.emergencyOrPriorityStatus(msg.getEmergencyStateCode(),
+							msg.getModeACode());
+				} else if (typeCode == 29) {
+					TargetStateAndStatusV2Msg msg = new TargetStateAndStatusV2Msg(es);
+					me = ExtendedSquitterEncoder.targetStateAndStatusV2(msg.hasSILSupplement(),
+							msg.isFMSSelectedAltitude(), orUnavailable(msg.getSelectedAltitude()),
+							msg.hasBarometricPressureSettingInfo() ? msg.getBarometricPressureSetting() + 800 : Double.NaN,
+							orNaN(msg.getSelectedHeading()), msg.getNACp(), msg.getBarometricAltitudeIntegrityCode(),
+							msg.getSIL(), msg.hasModeInfo(), Boolean.TRUE.equals(msg.hasAutopilotEngaged()),
+							Boolean.TRUE.equals(msg.hasVNAVModeEngaged()),
+							Boolean.TRUE.equals(msg.hasActiveAltitudeHoldMode()),
+							Boolean.TRUE.equals(msg.hasActiveApproachMode()), msg.hasOperationalTCAS(),
+							Boolean.TRUE.equals(msg.hasLNAVModeEngaged()));
+				} else {
+					continue;
+				}
+
+				long original = ModeSEncoderTest.field56(es.getMessage());
+				assertEquals(original & ~reserved, me, "type code " + typeCode);
+				if ((original & reserved) == 0) {
+					ModeSEncoder.extendedSquitter(buf, 0, es.getFirstField(), es.getAddress().getAddress(), me);
+					assertEquals(fields[1].toLowerCase(), Tools.toHexString(buf), "type code " + typeCode);
+				}
+				reencoded.merge(typeCode, 1, Integer::sum);
+			}
+		}
+
+		assertEquals("[4, 11, 18, 19, 28, 29]", reencoded.keySet().toString());
+	}
+
+	@Test
+	void testAirbornePosition() throws Exception {
+		long me = ExtendedSquitterEncoder.airbornePosition(11, 38000, true, 50.1, 8.6);
+		AirbornePositionV0Msg msg = new AirbornePositionV0Msg(squitter(me), 0L);
+		assertEquals(38000, (int) msg.getAltitude());
+		assertTrue(msg.getCPREncodedPosition().isOddFormat());
+		assertFalse(msg.getCPREncodedPosition().isSurface());
+		assertEquals(CPREncoder.encode(50.1, 8.6, true, false),
+				(long) msg.getCPREncodedPosition().yz() << 17 | msg.getCPREncodedPosition().xz());
+
+		me = ExtendedSquitterEncoder.airbornePosition(20, 2, true, (short) 0, true, false, 0);
+		msg = new AirbornePositionV0Msg(squitter(me), 0L);
+		assertFalse(msg.hasValidAltitude());
+		assertEquals(2, msg.getSurveillanceStatus());
+		assertTrue(msg.hasSingleAntenna());
+		assertTrue(msg.hasTimeFlag());
+	}
+
+	@Test
+	void testSurfacePosition() throws Exception {
+		long me = ExtendedSquitterEncoder.surfacePosition(7, 17.0, 90, false, 50.033, 8.57);
+		SurfacePositionV0Msg msg = new SurfacePositionV0Msg(squitter(me), 0L);
+		assertEquals(17.0, msg.getGroundSpeed(), 0);
+		assertEquals(90, msg.getHeading(), 0);
+		assertTrue(msg.getCPREncodedPosition().isSurface());
+		assertEquals(CPREncoder.encode(50.033, 8.57, false, true),
+				(long) msg.getCPREncodedPosition().yz() << 17 | msg.getCPREncodedPosition().xz());
+
+		me = ExtendedSquitterEncoder.surfacePosition(8, Double.NaN, Double.NaN, true, 50.033, 8.57);
+		msg = new SurfacePositionV0Msg(squitter(me), 0L);
+		assertNull(msg.getGroundSpeed());
+		assertNull(msg.getHeading());
+		assertTrue(msg.getCPREncodedPosition().isHighSurfaceSpeed());
+	}
+
+	@Test
+	void testMovement() {
+		for (int movement = 1; movement <= 124; movement++) {
+			double speed = de.serosystems.lib1090.decoding.SurfacePosition.groundSpeed((byte) movement);
+			assertEquals(movement, ExtendedSquitterEncoder.encodeMovement(speed));
+		}
+		assertEquals(0, ExtendedSquitterEncoder.encodeMovement(Double.NaN));
+		assertEquals(1, ExtendedSquitterEncoder.encodeMovement(0.05));
+		assertEquals(2, ExtendedSquitterEncoder.encodeMovement(0.07));
+		assertEquals(124, ExtendedSquitterEncoder.encodeMovement(300));
+	}
+
+	@Test
+	void testVelocity() throws Exception {
+		long me = ExtendedSquitterEncoder.velocityOverGround(-150, 320, -1344, true, -75, 2, false, true);
+		VelocityOverGroundMsg msg = new VelocityOverGroundMsg(squitter(me));
+		assertFalse(msg.isSupersonic());
+		assertEquals(150, (int) msg.getEastToWestVelocity());
+		assertEquals(-320, (int) msg.getNorthToSouthVelocity());
+		assertEquals(-1344, (int) msg.getVerticalRate());
+		assertTrue(msg.isBarometricVerticalSpeed());
+		assertEquals(-75, (int) msg.getGeoMinusBaro());
+		assertEquals(2, msg.getNACv());
+		assertTrue(msg.hasIFRCapability());
+
+		me = ExtendedSquitterEncoder.velocityOverGround(1200, -8, UNAVAILABLE, false, UNAVAILABLE, 0, false, false);
+		msg = new VelocityOverGroundMsg(squitter(me));
+		assertTrue(msg.isSupersonic());
+		assertEquals(-1200, (int) msg.getEastToWestVelocity());
+		assertEquals(8, (int) msg.getNorthToSouthVelocity());
+		assertFalse(msg.hasVerticalRateInfo());
+		assertFalse(msg.hasGeoMinusBaroInfo());
+
+		me = ExtendedSquitterEncoder.velocityOverGround(UNAVAILABLE, 10, 0, false, 0, 0, false, false);
+		assertFalse(new VelocityOverGroundMsg(squitter(me)).hasVelocityInfo());
+	}
+
+	@Test
+	void testAirspeedHeading() throws Exception {
+		long me = ExtendedSquitterEncoder.airspeedHeading(243.28125, 452, true, 1024, false, UNAVAILABLE, 1, true,
+				false);
+		AirspeedHeadingMsg msg = new AirspeedHeadingMsg(squitter(me));
+		assertEquals(243.28125, msg.getHeading(), 0);
+		assertEquals(452, (int) msg.getAirspeed());
+		assertTrue(msg.isTrueAirspeed());
+		assertEquals(1024, (int) msg.getVerticalRate());
+		assertTrue(msg.hasChangeIntent());
+		assertFalse(msg.hasGeoMinusBaroInfo());
+
+		me = ExtendedSquitterEncoder.airspeedHeading(Double.NaN, 1500, false, UNAVAILABLE, false, 0, 0, false, false);
+		msg = new AirspeedHeadingMsg(squitter(me));
+		assertTrue(msg.isSupersonic());
+		assertNull(msg.getHeading());
+		assertEquals(1500, (int) msg.getAirspeed());
+	}
+
+	@Test
+	void testIdentification() throws Exception {
+		long me = ExtendedSquitterEncoder.identification(4, 3, ModeSEncoder.encodeIdentification("DLH9LF"));
+		IdentificationMsg msg = new IdentificationMsg(squitter(me));
+		assertEquals("DLH9LF  ", msg.getCallsign());
+		assertEquals(3, msg.getEmitterCategory());
+	}
+
+	@Test
+	void testOperationalStatus() throws Exception {
+		OperationalStatusV0Msg v0 = new OperationalStatusV0Msg(squitter(ExtendedSquitterEncoder.operationalStatusV0(0x10)));
+		assertEquals(0, v0.getVersion());
+		assertTrue(v0.hasOperationalTCAS());
+		assertTrue(v0.hasOperationalCDTI());
+
+		long me = ExtendedSquitterEncoder.airborneOperationalStatus(2, 0x2100, 0x400, true, 9, 2, 3, true, false, true);
+		AirborneOperationalStatusV2Msg v2 = new AirborneOperationalStatusV2Msg(squitter(me));
+		assertEquals(2, v2.getVersion());
+		assertTrue(v2.hasOperationalTCAS());
+		assertTrue(v2.hasTargetStateReport());
+		assertTrue(v2.hasSingleAntenna());
+		assertTrue(v2.hasNICSupplementA());
+		assertEquals(9, v2.getNACp());
+		assertEquals(2, v2.getGVA());
+		assertEquals(3, v2.getSIL());
+		assertTrue(v2.getBarometricAltitudeIntegrityCode());
+		assertTrue(v2.hasSILSupplement());
+
+		me = ExtendedSquitterEncoder.airborneOperationalStatus(1, 0x2000, 0, false, 7, 1, 2, false, true, false);
+		AirborneOperationalStatusV1Msg v1 = new AirborneOperationalStatusV1Msg(squitter(me));
+		assertEquals(1, v1.getVersion());
+		assertFalse(v1.hasOperationalTCAS());
+		assertEquals(7, v1.getNACp());
+		assertEquals(1, v1.getBAQ());
+		assertTrue(v1.getHorizontalReferenceDirection());
+
+		me = ExtendedSquitterEncoder.surfaceOperationalStatus(2, 0, 5, 0, true, 10, 3, true, false, false);
+		SurfaceOperationalStatusV2Msg surface = new SurfaceOperationalStatusV2Msg(squitter(me));
+		assertEquals(2, surface.getVersion());
+		assertEquals(5, surface.getAircraftVehicleLengthAndWidthCode());
+		assertEquals(10, surface.getNACp());
+		assertEquals(3, surface.getSIL());
+		assertTrue(surface.hasTrackHeadingInfo());
+		assertFalse(surface.hasSILSupplement());
+	}
+
+	@Test
+	void testTargetStateAndStatus() throws Exception {
+		long me = ExtendedSquitterEncoder.targetStateAndStatusV2(true, false, 36000, 1013.6, 270.703125, 9, true, 3,
+				true, true, false, true, false, true, true);
+		TargetStateAndStatusV2Msg v2 = new TargetStateAndStatusV2Msg(squitter(me));
+		assertTrue(v2.hasSILSupplement());
+		assertFalse(v2.isFMSSelectedAltitude());
+		assertEquals(36000, (int) v2.getSelectedAltitude());
+		assertEquals(213.6, v2.getBarometricPressureSetting(), 1e-3);
+		assertEquals(270.703125, v2.getSelectedHeading(), 0);
+		assertEquals(9, v2.getNACp());
+		assertEquals(3, v2.getSIL());
+		assertTrue(v2.hasAutopilotEngaged());
+		assertFalse(v2.hasVNAVModeEngaged());
+		assertTrue(v2.hasActiveAltitudeHoldMode());
+		assertFalse(v2.hasActiveApproachMode());
+		assertTrue(v2.hasOperationalTCAS());
+		assertTrue(v2.hasLNAVModeEngaged());
+
+		me = ExtendedSquitterEncoder.targetStateAndStatusV2(false, false, UNAVAILABLE, Double.NaN, Double.NaN, 0,
+				false, 0, false, true, true, true, true, false, true);
+		v2 = new TargetStateAndStatusV2Msg(squitter(me));
+		assertNull(v2.getSelectedAltitude());
+		assertNull(v2.getBarometricPressureSetting());
+		assertNull(v2.getSelectedHeading());
+		assertFalse(v2.hasModeInfo());
+		assertFalse(v2.hasOperationalTCAS());
+
+		me = ExtendedSquitterEncoder.targetStateAndStatusV1(2, false, 1, 1, 24000, 1, 182.8125, true, 1, 8, true, 2,
+				true, false, 0);
+		TargetStateAndStatusV1Msg v1 = new TargetStateAndStatusV1Msg(squitter(me));
+		assertEquals(2, v1.getVerticalDataAvailableAndSourceIndicator());
+		assertEquals(24000, (int) v1.getSelectedAltitude());
+		assertEquals(182.8125, v1.getSelectedHeading(), 0);
+		assertEquals(8, v1.getNACp());
+		assertEquals(2, v1.getSIL());
+		assertTrue(v1.hasOperationalTCAS());
+		assertFalse(v1.hasActiveTCASResolutionAdvisory());
+	}
+
+	@Test
+	void testEmergencyAndResolutionAdvisory() throws Exception {
+		long me = ExtendedSquitterEncoder.emergencyOrPriorityStatus(1, ModeSEncoder.encodeIdentity(7700));
+		EmergencyOrPriorityStatusV2Msg emergency = new EmergencyOrPriorityStatusV2Msg(squitter(me));
+		assertEquals(1, emergency.getEmergencyStateCode());
+		assertEquals("7700", Identity.decodeIdentity(emergency.getModeACode()));
+
+		long bds30 = CommBEncoder.acasResolutionAdvisory(0x2000, 0x8, false, false, 1, ADDRESS << 2);
+		TCASResolutionAdvisoryMsg ra = new TCASResolutionAdvisoryMsg(squitter(
+				ExtendedSquitterEncoder.tcasResolutionAdvisory(bds30)));
+		assertEquals(0x2000, ra.getActiveRA());
+		assertEquals(0x8, ra.getRACRecord());
+		assertEquals(1, (byte) ra.getThreatType());
+		assertEquals(ADDRESS, ra.getThreatIdentityData().getIcao24());
+	}
+}
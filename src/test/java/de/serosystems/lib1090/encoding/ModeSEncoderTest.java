@@ -0,0 +1,184 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.Tools;
+import de.serosystems.lib1090.decoding.Altitude;
+import de.serosystems.lib1090.decoding.Identification;
+import de.serosystems.lib1090.decoding.Identity;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.modes.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModeSEncoderTest {
+
+	private static final int ADDRESS = 0x3C6586;
+
+	@Test
+	void test13BitAltitude() {
+		for (int alt = -1000; alt <= 50175; alt += 25) {
+			short code = ModeSEncoder.encode13BitAltitude(alt);
+			assertEquals(alt, Altitude.decode13BitAltitudeInt(code));
+			assertTrue(Altitude.decode13BitQBit(code));
+		}
+		for (int alt = -1200; alt <= 126700; alt += 100)
+			assertEquals(alt, Altitude.decode13BitAltitudeInt(ModeSEncoder.encode13BitAltitude(alt)));
+		assertFalse(Altitude.decode13BitQBit(ModeSEncoder.encode13BitAltitude(60000)));
+
+		// every valid altitude which can be decoded can be encoded
+		for (short code = 1; code < 1 << 13; code++) {
+			int alt = Altitude.decode13BitAltitudeInt(code);
+			if (alt != Altitude.UNAVAILABLE && alt <= 126700)
+				assertEquals(alt, Altitude.decode13BitAltitudeInt(ModeSEncoder.encode13BitAltitude(alt)));
+		}
+
+		assertEquals(0, ModeSEncoder.encode13BitAltitude(ModeSEncoder.UNAVAILABLE));
+		assertEquals(38000, Altitude.decode13BitAltitudeInt(ModeSEncoder.encode13BitAltitude(38012)));
+		assertThrows(IllegalArgumentException.class, () -> ModeSEncoder.encode13BitAltitude(130000));
+	}
+
+	@Test
+	void test12BitAltitude() {
+		for (short code = 0; code < 1 << 12; code++) {
+			int alt = Altitude.decode12BitAltitudeInt(code);
+			if (alt >= -1200 && alt <= 126700)
+				assertEquals(alt, Altitude.decode12BitAltitudeInt(ModeSEncoder.encode12BitAltitude(alt)));
+		}
+		assertEquals(0xB98, ModeSEncoder.encode12BitAltitude(36000));
+	}
+
+	@Test
+	void testIdentity() {
+		for (int octal = 0; octal < 1 << 12; octal++) {
+			int modeA = Integer.parseInt(Integer.toOctalString(octal));
+			assertEquals(modeA, Identity.decodeIdentityInt(ModeSEncoder.encodeIdentity(modeA)));
+		}
+		assertEquals("7700", Identity.decodeIdentity(ModeSEncoder.encodeIdentity(7700)));
+		assertThrows(IllegalArgumentException.class, () -> ModeSEncoder.encodeIdentity(7800));
+		assertThrows(IllegalArgumentException.class, () -> ModeSEncoder.encodeIdentity(-1));
+	}
+
+	@Test
+	void testIdentification() {
+		assertEquals("KLM1023 ", Identification.decodeCallsign(ModeSEncoder.encodeIdentification("KLM1023")));
+		assertEquals("        ", Identification.decodeCallsign(ModeSEncoder.encodeIdentification("")));
+		assertThrows(IllegalArgumentException.class, () -> ModeSEncoder.encodeIdentification("klm1023"));
+		assertThrows(IllegalArgumentException.class, () -> ModeSEncoder.encodeIdentification("ABCDEFGHI"));
+	}
+
+	@Test
+	void testExtendedSquitter() {
+		byte[] buf = new byte[20];
+		long me = ExtendedSquitterEncoder.identification(4, 0, ModeSEncoder.encodeIdentification("KLM1023"));
+		assertEquals(14, ModeSEncoder.extendedSquitter(buf, 3, 5, 0x4840D6, me));
+		assertEquals("8d4840d6202cc371c32ce0576098", Tools.toHexString(Arrays.copyOfRange(buf, 3, 17)));
+	}
+
+	@Test
+	void testNonTransponderSquitter() throws Exception {
+		byte[] buf = new byte[14];
+		ModeSEncoder.nonTransponderSquitter(buf, 0, 6, ADDRESS, 0x58C901375147EFL);
+		ExtendedSquitter es = new ExtendedSquitter(buf);
+		assertEquals(18, es.getDownlinkFormat());
+		assertEquals(6, es.getFirstField());
+		assertEquals(ADDRESS, es.getAddress().getAddress());
+		assertTrue(es.checkParity());
+	}
+
+	@Test
+	void testAltitudeReply() throws Exception {
+		byte[] buf = new byte[9];
+		assertEquals(7, ModeSEncoder.altitudeReply(buf, 2, 1, 4, 0x2A,
+				ModeSEncoder.encode13BitAltitude(37025), ADDRESS));
+
+		AltitudeReply reply = new AltitudeReply(Arrays.copyOfRange(buf, 2, 9));
+		assertEquals(1, reply.getFlightStatus());
+		assertEquals(4, reply.getDownlinkRequest());
+		assertEquals(0x2A, reply.getUtilityMsg());
+		assertEquals(37025, (int) reply.getAltitude());
+		assertEquals(ADDRESS, reply.getAddress().getAddress());
+	}
+
+	@Test
+	void testIdentifyReply() throws Exception {
+		byte[] buf = new byte[7];
+		ModeSEncoder.identifyReply(buf, 0, 5, 0, 0, ModeSEncoder.encodeIdentity(7500), ADDRESS);
+
+		IdentifyReply reply = new IdentifyReply(buf);
+		assertEquals(5, reply.getFlightStatus());
+		assertEquals("7500", reply.getIdentity());
+		assertEquals(ADDRESS, reply.getAddress().getAddress());
+	}
+
+	@Test
+	void testCommBReplies() throws Exception {
+		byte[] buf = new byte[28];
+		long mb = CommBEncoder.aircraftIdentification(ModeSEncoder.encodeIdentification("DLH9LF"));
+
+		ModeSEncoder.commBAltitudeReply(buf, 0, 0, 0, 0, ModeSEncoder.encode13BitAltitude(12000), mb, ADDRESS);
+		ModeSEncoder.commBIdentifyReply(buf, 14, 0, 0, 0, ModeSEncoder.encode13BitAltitude(1200), mb, ADDRESS);
+
+		CommBAltitudeReply altitude = new CommBAltitudeReply(Arrays.copyOfRange(buf, 0, 14));
+		assertEquals(12000, (int) altitude.getAltitude());
+		assertEquals(ADDRESS, altitude.getAddress().getAddress());
+		assertEquals(mb, ModeSEncoderTest.field56(altitude.getMessage()));
+
+		CommBIdentifyReply identify = new CommBIdentifyReply(Arrays.copyOfRange(buf, 14, 28));
+		assertEquals(ADDRESS, identify.getAddress().getAddress());
+		assertEquals(mb, ModeSEncoderTest.field56(identify.getMessage()));
+	}
+
+	@Test
+	void testAllCallReply() throws Exception {
+		byte[] buf = new byte[7];
+
+		ModeSEncoder.allCallReply(buf, 0, 5, ADDRESS, 0, 0);
+		AllCallReply reply = new AllCallReply(buf);
+		assertTrue(reply.checkParity());
+		assertEquals(5, reply.getCapabilities());
+		assertEquals(ADDRESS, reply.getAddress().getAddress());
+
+		ModeSEncoder.allCallReply(buf, 0, 4, ADDRESS, 2, 9);
+		reply = new AllCallReply(buf);
+		assertTrue(reply.hasValidInterrogatorCode());
+		assertTrue(reply.isSurveillanceID());
+		assertEquals(25, reply.getInterrogatorCode());
+	}
+
+	@Test
+	void testParityOffset() {
+		byte[] frame = Tools.hexStringToByteArray("8d4840d6202cc371c32ce0576098");
+		byte[] buf = new byte[20];
+		System.arraycopy(frame, 0, buf, 5, 14);
+		assertEquals(ModeSDownlinkMsg.calcParityInt(Arrays.copyOf(frame, 11)),
+				ModeSDownlinkMsg.calcParityInt(buf, 5, 11));
+	}
+
+	static long field56(byte[] field) {
+		long value = 0;
+		for (byte b : field)
+			value = value << 8 | b & 0xFF;
+		return value;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.serosystems.lib1090.encoding;
+
+import de.serosystems.lib1090.Position;
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.PositionMsg;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficGeneratorTest {
+
+	private static byte[] frame(byte[] buf, int length) {
+		return Arrays.copyOf(buf, length);
+	}
+
+	@Test
+	void testFramesDecodeToTruth() throws Exception {
+		TrafficGenerator generator = new TrafficGenerator(300, 50.0, 8.5, 150, 0, 1);
+		StatefulModeSDecoder decoder = new StatefulModeSDecoder();
+		Position receiver = new Position(8.5, 50.0, 0.);
+		Map<ModeSDownlinkMsg.subtype, Integer> types = new EnumMap<>(ModeSDownlinkMsg.subtype.class);
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+
+		int positions = 0;
+		long last = 0;
+		while (generator.getTimestamp() < 120_000) {
+			int length = generator.next(buf, 0);
+			assertTrue(generator.getTimestamp() >= last);
+			last = generator.getTimestamp();
+
+			ModeSDownlinkMsg msg = decoder.decode(frame(buf, length), generator.getTimestamp());
+			int i = generator.getAircraft();
+			assertEquals(generator.getAddress(i), msg.getAddress().getAddress());
+			assertTrue(msg.checkParity() || msg.getDownlinkFormat() != 17);
+			types.merge(msg.getType(), 1, Integer::sum);
+
+			if (StatefulModeSDecoder.isPosition(msg)) {
+				assertEquals(generator.isOnGround(i), StatefulModeSDecoder.isSurfacePosition(msg));
+				Position pos = decoder.extractPosition(msg.getAddress(), (PositionMsg) msg, receiver);
+				if (pos != null && pos.isReasonable()) {
+					assertEquals(generator.getLatitude(i), pos.getLatitude(), 1e-3);
+					assertEquals(generator.getLongitude(i), pos.getLongitude(), 1e-3);
+					if (!generator.isOnGround(i))
+						assertEquals(generator.getAltitude(i), pos.getAltitude(), 12.5);
+					positions++;
+				}
+			}
+		}
+
+		assertTrue(positions > 300 * 120 * 3 / 2, "positions " + positions);
+		assertEquals(0, generator.getCorrupted());
+		assertEquals(0, generator.getDuplicates());
+		for (ModeSDownlinkMsg.subtype type : new ModeSDownlinkMsg.subtype[] {
+				ModeSDownlinkMsg.subtype.ADSB_AIRBORN_POSITION_V0, ModeSDownlinkMsg.subtype.ADSB_AIRBORN_POSITION_V2,
+				ModeSDownlinkMsg.subtype.ADSB_SURFACE_POSITION_V2, ModeSDownlinkMsg.subtype.ADSB_VELOCITY,
+				ModeSDownlinkMsg.subtype.ADSB_IDENTIFICATION, ModeSDownlinkMsg.subtype.ADSB_AIRBORN_STATUS_V2,
+				ModeSDownlinkMsg.subtype.ADSB_TARGET_STATE_AND_STATUS_V2, ModeSDownlinkMsg.subtype.ALL_CALL_REPLY,
+				ModeSDownlinkMsg.subtype.ALTITUDE_REPLY, ModeSDownlinkMsg.subtype.IDENTIFY_REPLY,
+				ModeSDownlinkMsg.subtype.COMM_B_ALTITUDE_REPLY, ModeSDownlinkMsg.subtype.COMM_B_IDENTIFY_REPLY})
+			assertTrue(types.containsKey(type), type.toString());
+	}
+
+	@Test
+	void testNominalRates() {
+		TrafficGenerator generator = new TrafficGenerator(100, 0.0, 0.0, 100, 0, 2);
+		generator.setInterrogationInterval(0);
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+
+		int[] formats = new int[32];
+		while (generator.getTimestamp() < 600_000) {
+			generator.next(buf, 0);
+			formats[buf[0] >>> 3 & 0x1F]++;
+		}
+		// acquisition squitters once per second
+		assertEquals(100 * 600, formats[11], 100 * 600 * 0.02);
+		// at least positions and velocities twice per second for airborne aircraft
+		assertTrue(formats[17] > 100 * 600 * 3.2, "DF17 " + formats[17]);
+		assertEquals(formats[17] + formats[11], (int) generator.getFrames());
+	}
+
+	@Test
+	void testDeterministic() {
+		TrafficGenerator a = new TrafficGenerator(50, 40, -74, 80, 1000, 3);
+		TrafficGenerator b = new TrafficGenerator(50, 40, -74, 80, 1000, 3);
+		a.setJitter(20);
+		b.setJitter(20);
+		byte[] bufA = new byte[20], bufB = new byte[20];
+		for (int n = 0; n < 100000; n++) {
+			int length = a.next(bufA, 3);
+			assertEquals(length, b.next(bufB, 3));
+			assertArrayEquals(bufA, bufB);
+			assertEquals(a.getTimestamp(), b.getTimestamp());
+		}
+	}
+
+	@Test
+	void testImpairments() throws Exception {
+		TrafficGenerator generator = new TrafficGenerator(200, 50.0, 8.5, 150, 0, 4);
+		generator.setBitErrorRate(1e-3);
+		generator.setDuplicateRate(0.05);
+		generator.setJitter(50);
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+		byte[] previous = new byte[0];
+
+		int failedParity = 0, repeated = 0, n = 200000;
+		long maxTime = 0, minDelta = 0;
+		for (int k = 0; k < n; k++) {
+			byte[] frame = frame(buf, generator.next(buf, 0));
+			if (Arrays.equals(frame, previous)) repeated++;
+			previous = frame;
+
+			if ((frame[0] >>> 3 & 0x1F) == 17 && !new ModeSDownlinkMsg(frame).checkParity()) failedParity++;
+			minDelta = Math.min(minDelta, generator.getTimestamp() - maxTime);
+			maxTime = Math.max(maxTime, generator.getTimestamp());
+		}
+
+		// approx. 10% of the long frames have a bit error
+		double corrupted = generator.getCorrupted() / (double) n;
+		assertTrue(corrupted > 0.05 && corrupted < 0.12, "corrupted " + corrupted);
+		assertTrue(failedParity > 0 && failedParity <= generator.getCorrupted());
+
+		assertEquals(n * 0.05, generator.getDuplicates(), n * 0.05 * 0.1);
+		assertTrue(repeated >= generator.getDuplicates());
+
+		// timestamps are out of order, but not by more than twice the jitter (and the delay of duplicates)
+		assertTrue(minDelta < 0 && minDelta >= -2 * 50 - 2, "minDelta " + minDelta);
+	}
+
+	@Test
+	void testLifetime() {
+		TrafficGenerator generator = new TrafficGenerator(100, 50.0, 8.5, 150, 0, 5);
+		generator.setLifetime(60_000);
+		Set<Integer> addresses = new HashSet<>();
+		byte[] buf = new byte[ModeSEncoder.LONG_FRAME];
+		while (generator.getTimestamp() < 600_000) {
+			generator.next(buf, 0);
+			addresses.add(generator.getAddress(generator.getAircraft()));
+		}
+		// 100 aircraft are replaced about ten times within 10 minutes
+		assertEquals(1000, generator.getReplaced(), 150);
+		assertEquals(100 + generator.getReplaced(), addresses.size(), 5);
+
+		generator.setLifetime(0);
+		long replaced = generator.getReplaced();
+		while (generator.getTimestamp() < 900_000)
+			generator.next(buf, 0);
+		assertEquals(replaced, generator.getReplaced());
+	}
+
+	@Test
+	void testInvalidSettings() {
+		assertThrows(IllegalArgumentException.class, () -> new TrafficGenerator(0, 50, 8, 100, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TrafficGenerator(10, 80, 8, 100, 0, 1));
+		TrafficGenerator generator = new TrafficGenerator(10, 50, 8, 100, 0, 1);
+		assertThrows(IllegalArgumentException.class, () -> generator.setBitErrorRate(1));
+		assertThrows(IllegalArgumentException.class, () -> generator.setDuplicateRate(-0.1));
+		assertThrows(IllegalArgumentException.class, () -> generator.setJitter(-1));
+	}
+}
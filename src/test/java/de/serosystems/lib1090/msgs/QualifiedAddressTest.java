@@ -0,0 +1,154 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.msgs;
+
+import de.serosystems.lib1090.msgs.adsb.IdentificationMsg;
+import de.serosystems.lib1090.msgs.modes.ExtendedSquitter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QualifiedAddressTest {
+
+	@Test
+	void testCanonicalInstances() {
+		QualifiedAddress a = QualifiedAddress.of(0x4840D6, QualifiedAddress.Type.ICAO24);
+		assertSame(a, QualifiedAddress.of(0x4840D6, QualifiedAddress.Type.ICAO24));
+		assertEquals(new QualifiedAddress(0x4840D6, QualifiedAddress.Type.ICAO24), a);
+
+		QualifiedAddress b = QualifiedAddress.of(0x4840D6, QualifiedAddress.Type.NON_ICAO);
+		assertNotSame(a, b);
+		assertNotEquals(a, b);
+		assertEquals(QualifiedAddress.Type.NON_ICAO, b.getType());
+		assertEquals(0x4840D6, b.getAddress());
+	}
+
+	@Test
+	void testTableGrows() {
+		QualifiedAddress[] addresses = new QualifiedAddress[100000];
+		for (int i = 0; i < addresses.length; i++)
+			addresses[i] = QualifiedAddress.of(i * 97, QualifiedAddress.Type.ICAO24);
+		for (int i = 0; i < addresses.length; i++) {
+			assertSame(addresses[i], QualifiedAddress.of(i * 97, QualifiedAddress.Type.ICAO24));
+			assertEquals(i * 97, addresses[i].getAddress());
+		}
+		assertTrue(AddressTable.size() >= addresses.length);
+	}
+
+	/**
+	 * Holds the locks of all segments while looking up addresses which are in the table
+	 */
+	@Test
+	void testLookupDoesNotLock() throws Exception {
+		QualifiedAddress[] addresses = new QualifiedAddress[1000];
+		for (int i = 0; i < addresses.length; i++)
+			addresses[i] = QualifiedAddress.of(0x500000 + i, QualifiedAddress.Type.ICAO24);
+
+		Field field = AddressTable.class.getDeclaredField("SEGMENTS");
+		field.setAccessible(true);
+		Object[] segments = (Object[]) field.get(null);
+		CountDownLatch locked = new CountDownLatch(1), done = new CountDownLatch(1);
+		Thread holder = new Thread(() -> lockAll(segments, 0, locked, done));
+		holder.start();
+		try {
+			locked.await();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				for (int i = 0; i < addresses.length; i++)
+					assertSame(addresses[i], QualifiedAddress.of(0x500000 + i, QualifiedAddress.Type.ICAO24));
+			});
+		} finally {
+			done.countDown();
+			holder.join();
+		}
+	}
+
+	@Test
+	void testConcurrentInterning() throws Exception {
+		int threads = 4, n = 1 << 16;
+		QualifiedAddress[][] seen = new QualifiedAddress[threads][n];
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			// each thread interns the same addresses in a different order (odd factors permute 2^16 values)
+			// while the segments grow
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < n; i++) {
+					int a = (i * (2 * id + 1)) % n;
+					seen[id][a] = QualifiedAddress.of(0x600000 + a, QualifiedAddress.Type.NON_ICAO);
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) worker.join();
+
+		for (int a = 0; a < n; a++) {
+			assertEquals(0x600000 + a, seen[0][a].getAddress());
+			for (int t = 1; t < threads; t++)
+				assertSame(seen[0][a], seen[t][a]);
+		}
+	}
+
+	private static void lockAll(Object[] segments, int i, CountDownLatch locked, CountDownLatch done) {
+		if (i == segments.length) {
+			locked.countDown();
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+		synchronized (segments[i]) {
+			lockAll(segments, i + 1, locked, done);
+		}
+	}
+
+	@Test
+	void testKeys() {
+		for (QualifiedAddress.Type type : QualifiedAddress.Type.values()) {
+			QualifiedAddress address = QualifiedAddress.of(0xFFFFFF, type);
+			assertSame(address, QualifiedAddress.ofKey(address.toKey()));
+		}
+		QualifiedAddress untyped = QualifiedAddress.of(0x4840D6, null);
+		assertEquals(0x4840D6FFL, untyped.toKey());
+		assertSame(untyped, QualifiedAddress.ofKey(untyped.toKey()));
+		assertThrows(IllegalArgumentException.class, () -> QualifiedAddress.ofKey(0x4840D6F0L));
+
+		// lookup returns the canonical instance if there is one and an equal instance otherwise
+		assertSame(untyped, QualifiedAddress.lookup(untyped.toKey()));
+		QualifiedAddress unknown = new QualifiedAddress(0x7B0000, QualifiedAddress.Type.ICAO24);
+		QualifiedAddress looked = QualifiedAddress.lookup(unknown.toKey());
+		assertEquals(unknown, looked);
+		assertNotSame(looked, QualifiedAddress.lookup(unknown.toKey()));
+		assertThrows(IllegalArgumentException.class, () -> QualifiedAddress.lookup(0x4840D6F0L));
+	}
+
+	@Test
+	void testMessagesShareAddress() throws Exception {
+		ModeSDownlinkMsg raw = new ModeSDownlinkMsg("8D4840D6202CC371C32CE0576098");
+		IdentificationMsg msg1 = new IdentificationMsg("8D4840D6202CC371C32CE0576098");
+		IdentificationMsg msg2 = new IdentificationMsg(new ExtendedSquitter(raw));
+		assertSame(raw.getAddress(), msg1.getAddress());
+		assertSame(msg1.getAddress(), msg2.getAddress());
+	}
+}
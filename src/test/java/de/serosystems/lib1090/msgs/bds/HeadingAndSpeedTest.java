@@ -112,4 +112,13 @@ public class HeadingAndSpeedTest {
 
     }
 
+    @Test
+    public void positiveMagneticHeading() {
+
+        // positive angles must not be truncated to whole degrees
+        assertEquals(0.17578125f, HeadingAndSpeed.computeMagneticHeading(true, false, (short) 1));
+        assertEquals(179.12109375f, HeadingAndSpeed.computeMagneticHeading(true, false, (short) 1019));
+
+    }
+
 }
@@ -113,4 +113,19 @@ public class TrackAndTurnTest {
 
     }
 
+    @Test
+    public void positiveAngles() {
+
+        // positive angles must not be truncated to whole degrees
+        assertEquals(2.109375f, TrackAndTurn.computeRollAngle(true, false, (short) 12));
+        assertEquals(114.2578125f, TrackAndTurn.computeTrueTrackAngle(true, false, (short) 650));
+        assertEquals(0.125f, TrackAndTurn.computeTrackAngleRate(true, false, (short) 4));
+
+        TrackAndTurn register = new TrackAndTurn(msg);
+        assertEquals(2.109375f, register.getRollAngle());
+        assertEquals(114.2578125f, register.getTrueTrackAngle());
+        assertEquals(0.125f, register.getTrackAngleRate());
+
+    }
+
 }
@@ -0,0 +1,214 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.decoding.Altitude;
+import de.serosystems.lib1090.decoding.Identity;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AircraftTableTest {
+
+	private static final QualifiedAddress KLM = QualifiedAddress.of(0x4840D6, QualifiedAddress.Type.ICAO24);
+	private static final QualifiedAddress POS = QualifiedAddress.of(0x40621D, QualifiedAddress.Type.ICAO24);
+
+	/**
+	 * Mode S reply with the address in the parity field (i.e. without CRC)
+	 */
+	private static ModeSDownlinkMsg reply(int b0, int b1, int b2, int b3, int address) throws Exception {
+		return new ModeSDownlinkMsg(new byte[] {(byte) b0, (byte) b1, (byte) b2, (byte) b3,
+				(byte) (address >>> 16), (byte) (address >>> 8), (byte) address}, true);
+	}
+
+	@Test
+	void testMergesDownlinkFormats() throws Exception {
+		AircraftTable table = new AircraftTable();
+
+		table.update("8D4840D6202CC371C32CE0576098", 1000);
+		table.update(reply(0x28, 0x00, 0x0A, 0x0B, 0x4840D6), 2000); // DF5
+		table.update(reply(0x20, 0x00, 0x18, 0x38, 0x4840D6), 3000); // DF4
+
+		AircraftState state = table.get(KLM);
+		assertNotNull(state);
+		assertEquals(KLM, state.getAddress());
+		assertEquals(3, state.getMessageCount());
+		assertEquals(3000, state.getLastSeen());
+		assertEquals("KLM1023 ", state.getCallsign());
+		assertTrue(state.hasSquawk());
+		assertEquals(Identity.decodeIdentityInt((short) 0x0A0B), state.getSquawk());
+		assertTrue(state.hasBarometricAltitude());
+		assertEquals(Altitude.decode13BitAltitudeInt((short) 0x1838), state.getBarometricAltitude());
+		assertEquals(3000, state.getAltitudeTime());
+		assertTrue(state.hasGroundStatus());
+		assertFalse(state.isOnGround());
+		assertFalse(state.hasPosition());
+		assertFalse(state.hasGroundSpeed());
+
+		// velocity over ground
+		table.update("8D485020994409940838175B284F", 4000);
+		AircraftState velocity = table.get(QualifiedAddress.of(0x485020, QualifiedAddress.Type.ICAO24));
+		assertEquals(159.2, velocity.getGroundSpeed(), 0.1);
+		assertEquals(182.88, velocity.getTrack(), 0.01);
+		assertEquals(-832, velocity.getVerticalRate());
+
+		assertEquals(2, table.size());
+		assertEquals(2, table.snapshot().size());
+	}
+
+	@Test
+	void testPositions() throws Exception {
+		// the two frames are not from the same time, so they fail the speed test
+		AircraftTable table = new AircraftTable(new StatefulModeSDecoder(true), null);
+		for (int i = 0; i < 6; i++) {
+			table.update("8D40621D58C382D690C8AC2863A7", 10000 + 1000 * i);
+			table.update("8D40621D58C386435CC412692AD6", 10500 + 1000 * i);
+		}
+
+		AircraftState state = table.get(POS);
+		assertTrue(state.hasPosition());
+		assertEquals(52.2658, state.getLatitude(), 1e-4);
+		assertEquals(3.9389, state.getLongitude(), 1e-4);
+		assertEquals(15500, state.getPositionTime());
+		assertTrue(state.hasBarometricAltitude());
+		assertEquals(38000, state.getBarometricAltitude());
+		assertFalse(state.isOnGround());
+	}
+
+	@Test
+	void testRemoveIdle() throws Exception {
+		AircraftTable table = new AircraftTable();
+		for (int a = 1; a <= 2000; a++)
+			table.update(reply(0x28, 0x00, 0x0A, 0x0B, a), a);
+		assertEquals(2000, table.size());
+
+		assertEquals(1000, table.removeIdle(2000, 999));
+		assertEquals(1000, table.size());
+		assertNull(table.get(QualifiedAddress.of(1, QualifiedAddress.Type.ICAO24)));
+
+		// free records are reused and start over
+		table.update(reply(0x20, 0x00, 0x18, 0x38, 1), 3000);
+		AircraftState state = table.get(QualifiedAddress.of(1, QualifiedAddress.Type.ICAO24));
+		assertEquals(1, state.getMessageCount());
+		assertFalse(state.hasSquawk());
+		assertEquals(1001, table.size());
+
+		// removed records leave markers in the index until it is rebuilt
+		for (int round = 1; round <= 20; round++) {
+			for (int a = 1; a <= 1000; a++)
+				table.update(reply(0x28, 0x00, 0x0A, 0x0B, 0x100000 + 0x1000 * round + a), 0);
+			assertEquals(2001, table.size());
+			assertEquals(1000, table.removeIdle(3000, 2999));
+			assertNull(table.get(QualifiedAddress.of(0x100000 + 0x1000 * round + 1, QualifiedAddress.Type.ICAO24)));
+		}
+		assertEquals(1001, table.size());
+		assertEquals(1001, table.snapshot().size());
+		assertNotNull(table.get(QualifiedAddress.of(1, QualifiedAddress.Type.ICAO24)));
+	}
+
+	@Test
+	void testConcurrentReadersSeeConsistentRecords() throws Exception {
+		AircraftTable table = new AircraftTable();
+		int aircraft = 5000;
+		ModeSDownlinkMsg[] msgs = new ModeSDownlinkMsg[aircraft];
+		for (int a = 0; a < aircraft; a++)
+			msgs[a] = reply(0x28, 0x00, 0x0A, 0x0B, a + 1);
+
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<>();
+		Thread reader = new Thread(() -> {
+			AircraftState state = new AircraftState();
+			while (!done.get()) {
+				for (int a = 1; a <= aircraft; a += 7) {
+					if (!table.read(QualifiedAddress.of(a, QualifiedAddress.Type.ICAO24), state)) continue;
+					// the writer keeps message count and last seen in sync
+					if (state.getMessageCount() != state.getLastSeen())
+						failure.set(state.getMessageCount() + " != " + state.getLastSeen());
+				}
+			}
+		});
+		reader.start();
+
+		// grow the table while reading
+		for (int round = 1; round <= 200; round++)
+			for (int a = 0; a < aircraft; a++)
+				table.update(msgs[a], round);
+
+		done.set(true);
+		reader.join();
+		assertNull(failure.get());
+		assertEquals(200, table.get(QualifiedAddress.of(1, QualifiedAddress.Type.ICAO24)).getMessageCount());
+	}
+
+	@Test
+	void testConcurrentReadersWhileGrowing() throws Exception {
+		AircraftTable table = new AircraftTable();
+		// grows from 1024 to 65536 records
+		int aircraft = 50000;
+		ModeSDownlinkMsg[] msgs = new ModeSDownlinkMsg[aircraft + 1];
+		for (int a = 1; a <= aircraft; a++)
+			msgs[a] = reply(0x28, 0x00, 0x0A, 0x0B, a);
+
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<>();
+		Thread[] readers = new Thread[3];
+		for (int r = 0; r < readers.length; r++) {
+			int seed = r;
+			readers[r] = new Thread(() -> {
+				AircraftState state = new AircraftState();
+				Random rnd = new Random(seed);
+				while (!done.get()) {
+					for (int i = 0; i < 10000; i++) {
+						QualifiedAddress address = QualifiedAddress.of(1 + rnd.nextInt(aircraft), QualifiedAddress.Type.ICAO24);
+						if (table.read(address, state) && (state.getMessageCount() != state.getLastSeen() ||
+								!address.equals(state.getAddress())))
+							failure.set(state.getAddress() + ": " + state.getMessageCount() + " != " + state.getLastSeen());
+					}
+					for (AircraftState s : table.snapshot()) {
+						if (s.getMessageCount() != s.getLastSeen())
+							failure.set(s.getAddress() + ": " + s.getMessageCount() + " != " + s.getLastSeen());
+					}
+				}
+			});
+			readers[r].start();
+		}
+
+		// add aircraft while updating existing records, the n-th message of an aircraft has timestamp n
+		int[] count = new int[aircraft + 1];
+		for (int a = 1; a <= aircraft; a++) {
+			table.update(msgs[a], ++count[a]);
+			for (int b = a / 2 + 1; b <= a; b += 97)
+				table.update(msgs[b], ++count[b]);
+		}
+
+		done.set(true);
+		for (Thread reader : readers) reader.join();
+		assertNull(failure.get());
+		assertEquals(aircraft, table.size());
+		for (int a = 1; a <= aircraft; a += 13)
+			assertEquals(count[a], table.get(QualifiedAddress.of(a, QualifiedAddress.Type.ICAO24)).getMessageCount());
+	}
+}
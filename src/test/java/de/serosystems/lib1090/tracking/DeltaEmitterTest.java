@@ -0,0 +1,105 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.decoding.Altitude;
+import de.serosystems.lib1090.msgs.ModeSDownlinkMsg;
+import de.serosystems.lib1090.tracking.DeltaEmitter.Field;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaEmitterTest {
+
+	private final List<Integer> changes = new ArrayList<>();
+	private final List<Integer> altitudes = new ArrayList<>();
+
+	private DeltaEmitter emitter() {
+		return new DeltaEmitter((state, changed) -> {
+			changes.add(changed);
+			altitudes.add(state.hasBarometricAltitude() ? state.getBarometricAltitude() : null);
+		});
+	}
+
+	/**
+	 * DF4 altitude reply with 25 ft resolution and the address in the parity field
+	 */
+	private static ModeSDownlinkMsg altitudeReply(int altitude) throws Exception {
+		int n = (altitude + 1000) / 25;
+		int code = (n & 0x7E0) << 2 | (n & 0x10) << 1 | (n & 0xF) | 0x10;
+		assertEquals(altitude, Altitude.decode13BitAltitudeInt((short) code));
+		return new ModeSDownlinkMsg(new byte[] {0x20, 0x00, (byte) (code >>> 8), (byte) code, 0x48, 0x40, (byte) 0xD6}, true);
+	}
+
+	@Test
+	void testDuplicatesAreSuppressed() throws Exception {
+		AircraftTable table = new AircraftTable();
+		DeltaEmitter emitter = emitter();
+		table.addListener(emitter);
+
+		for (int i = 0; i < 10; i++)
+			table.update("8D4840D6202CC371C32CE0576098", 1000 + i * 100);
+
+		assertEquals(1, changes.size());
+		assertTrue(Field.CALLSIGN.in(changes.get(0)));
+		assertFalse(Field.POSITION.in(changes.get(0)));
+		assertEquals(10, emitter.getUpdates());
+		assertEquals(1, emitter.getDeltas());
+
+		table.update(altitudeReply(10000), 3000);
+		assertEquals(2, changes.size());
+		assertEquals(Field.ALTITUDE.mask() | Field.GROUND_STATUS.mask(), (int) changes.get(1));
+	}
+
+	@Test
+	void testDeadband() throws Exception {
+		AircraftTable table = new AircraftTable();
+		table.addListener(emitter().setDeadband(Field.ALTITUDE, 100));
+
+		int[] input = {10000, 10025, 10050, 10100, 10125, 10150, 9975};
+		for (int i = 0; i < input.length; i++)
+			table.update(altitudeReply(input[i]), 1000 * i);
+
+		// changes are measured against the last emitted value
+		assertEquals(3, changes.size());
+		assertEquals(10000, (int) altitudes.get(0));
+		assertEquals(10125, (int) altitudes.get(1));
+		assertEquals(9975, (int) altitudes.get(2));
+
+		assertThrows(IllegalArgumentException.class, () -> emitter().setDeadband(Field.CALLSIGN, 1));
+	}
+
+	@Test
+	void testMinInterval() throws Exception {
+		AircraftTable table = new AircraftTable();
+		table.addListener(emitter().setMinInterval(Field.ALTITUDE, 5000));
+
+		table.update(altitudeReply(10000), 0);
+		table.update(altitudeReply(11000), 1000);
+		table.update(altitudeReply(12000), 4999);
+		table.update(altitudeReply(12000), 5000);
+
+		assertEquals(2, changes.size());
+		assertEquals(10000, (int) altitudes.get(0));
+		assertEquals(12000, (int) altitudes.get(1));
+	}
+}
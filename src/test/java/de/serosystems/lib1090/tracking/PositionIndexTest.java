@@ -0,0 +1,286 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.StatefulModeSDecoder;
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+
+	private static final int TARGETS = 20000;
+
+	private final double[] lat = new double[TARGETS], lon = new double[TARGETS];
+	private final AircraftState state = new AircraftState();
+
+	private static QualifiedAddress address(int target) {
+		return QualifiedAddress.of(0x400000 + target, QualifiedAddress.Type.ICAO24);
+	}
+
+	/**
+	 * Feeds a position to the index like the table would
+	 */
+	private void move(PositionIndex index, int target, double latitude, double longitude) {
+		lat[target] = latitude;
+		lon[target] = longitude;
+		state.record = target;
+		state.address = address(target);
+		state.words[AircraftTable.KEY] = state.address.toKey();
+		state.words[AircraftTable.VALID] = AircraftTable.HAS_POSITION;
+		state.words[AircraftTable.LATITUDE] = Double.doubleToRawLongBits(latitude);
+		state.words[AircraftTable.LONGITUDE] = Double.doubleToRawLongBits(longitude);
+		index.onUpdate(state);
+	}
+
+	private PositionIndex populate(Random rnd) {
+		PositionIndex index = new PositionIndex();
+		for (int t = 0; t < TARGETS; t++)
+			move(index, t, rnd.nextDouble() * 170 - 85, rnd.nextDouble() * 360 - 180);
+		// move some around
+		for (int i = 0; i < TARGETS; i++) {
+			int t = rnd.nextInt(TARGETS);
+			move(index, t, Math.max(-89, Math.min(89, lat[t] + rnd.nextGaussian())),
+					normalize(lon[t] + rnd.nextGaussian()));
+		}
+		return index;
+	}
+
+	private static double normalize(double lon) {
+		return lon - 360. * Math.floor((lon + 180.) / 360.);
+	}
+
+	private static double distance(double lat0, double lon0, double lat1, double lon1) {
+		double a = Math.pow(Math.sin(Math.toRadians(lat1 - lat0) / 2.0), 2);
+		double b = Math.cos(Math.toRadians(lat0)) * Math.cos(Math.toRadians(lat1)) *
+				Math.pow(Math.sin(Math.toRadians(lon1 - lon0) / 2.0), 2);
+		return 6371000.0 * 2 * Math.asin(Math.sqrt(a + b));
+	}
+
+	private static Set<QualifiedAddress> set(List<QualifiedAddress> list) {
+		Set<QualifiedAddress> set = new HashSet<>(list);
+		assertEquals(list.size(), set.size(), "duplicates");
+		return set;
+	}
+
+	// positions are stored with float precision
+	private boolean inBox(int t, double south, double west, double north, double east) {
+		float la = (float) lat[t], lo = (float) lon[t];
+		boolean lons = west <= east ? lo >= west && lo <= east : lo >= west || lo <= east;
+		return la >= south && la <= north && lons;
+	}
+
+	@Test
+	void testBoxQueries() {
+		Random rnd = new Random(1);
+		PositionIndex index = populate(rnd);
+		assertEquals(TARGETS, index.size());
+
+		for (int q = 0; q < 200; q++) {
+			double south = rnd.nextDouble() * 160 - 80, west = rnd.nextDouble() * 360 - 180;
+			double north = south + rnd.nextDouble() * 10, east = normalize(west + rnd.nextDouble() * 20);
+
+			Set<QualifiedAddress> expected = new HashSet<>();
+			for (int t = 0; t < TARGETS; t++)
+				if (inBox(t, south, west, north, east)) expected.add(address(t));
+			assertEquals(expected, set(index.withinBox(south, west, north, east)));
+		}
+	}
+
+	@Test
+	void testAntimeridian() {
+		PositionIndex index = new PositionIndex(5.);
+		move(index, 0, 10, 179.5);
+		move(index, 1, 10, -179.5);
+		move(index, 2, 10, 0);
+
+		assertEquals(set(Arrays.asList(address(0), address(1))), set(index.withinBox(5, 179, 15, -179)));
+		assertEquals(set(Arrays.asList(address(0), address(1))), set(index.withinRadius(10, 180, 100_000)));
+		assertEquals(Arrays.asList(address(1), address(0)), index.nearest(10, -179.9, 2));
+		assertEquals(3, index.withinBox(-90, -180, 90, 180).size());
+	}
+
+	@Test
+	void testRadiusAndNearest() {
+		Random rnd = new Random(2);
+		PositionIndex index = populate(rnd);
+
+		for (int q = 0; q < 100; q++) {
+			double la = rnd.nextDouble() * 170 - 85, lo = rnd.nextDouble() * 360 - 180;
+			double radius = rnd.nextDouble() * 500_000;
+
+			Integer[] order = new Integer[TARGETS];
+			double[] dist = new double[TARGETS];
+			Set<QualifiedAddress> expected = new HashSet<>();
+			for (int t = 0; t < TARGETS; t++) {
+				order[t] = t;
+				dist[t] = distance(la, lo, (float) lat[t], (float) lon[t]);
+				if (dist[t] <= radius) expected.add(address(t));
+			}
+			assertEquals(expected, set(index.withinRadius(la, lo, radius)));
+
+			Arrays.sort(order, Comparator.comparingDouble(t -> dist[t]));
+			List<QualifiedAddress> nearest = index.nearest(la, lo, 10);
+			assertEquals(10, nearest.size());
+			for (int i = 0; i < 10; i++)
+				assertEquals(address(order[i]), nearest.get(i));
+		}
+	}
+
+	@Test
+	void testSparseNearest() {
+		PositionIndex index = new PositionIndex();
+		assertTrue(index.nearest(0, 0, 5).isEmpty());
+		move(index, 0, 80, 100);
+		move(index, 1, -60, -20);
+		assertEquals(Arrays.asList(address(1), address(0)), index.nearest(-10, 0, 5));
+	}
+
+	/**
+	 * Positions which are rounded across a cell border when stored as floats
+	 */
+	@Test
+	void testCellBorders() {
+		PositionIndex index = new PositionIndex();
+		move(index, 0, 45.99999999, 8.5);
+		move(index, 1, 10.5, 179.99999999);
+		move(index, 2, -0.000000001, -0.000000001);
+
+		assertEquals(Collections.singletonList(address(0)), index.withinBox(45.5, 8, 46.5, 9));
+		assertEquals(Collections.singletonList(address(0)), index.nearest(46, 8.5, 1));
+		assertEquals(Collections.singletonList(address(1)), index.withinBox(10, 179, 11, 180));
+		assertEquals(Collections.singletonList(address(1)), index.nearest(10.5, -180, 1));
+		assertEquals(Collections.singletonList(address(2)), index.withinBox(-0.5, -0.5, 0.5, 0.5));
+		assertEquals(Collections.singletonList(address(2)), index.nearest(0, 0, 1));
+	}
+
+	/**
+	 * Queries with all locks of the address table held by another thread, for aircraft whose addresses are not
+	 * in the address table
+	 */
+	@Test
+	void testQueriesDoNotLockAddresses() throws Exception {
+		PositionIndex index = new PositionIndex();
+		List<QualifiedAddress> expected = new ArrayList<>();
+		for (int t = 0; t < 100; t++) {
+			// not canonical, i.e. not interned
+			QualifiedAddress address = new QualifiedAddress(0x7A0000 + t, QualifiedAddress.Type.NON_ICAO);
+			expected.add(address);
+			state.record = t;
+			state.address = address;
+			state.words[AircraftTable.KEY] = address.toKey();
+			state.words[AircraftTable.VALID] = AircraftTable.HAS_POSITION;
+			state.words[AircraftTable.LATITUDE] = Double.doubleToRawLongBits(50 + t * 0.01);
+			state.words[AircraftTable.LONGITUDE] = Double.doubleToRawLongBits(8);
+			index.onUpdate(state);
+		}
+
+		Field field = Class.forName("de.serosystems.lib1090.msgs.AddressTable").getDeclaredField("SEGMENTS");
+		field.setAccessible(true);
+		Object[] segments = (Object[]) field.get(null);
+		CountDownLatch locked = new CountDownLatch(1), done = new CountDownLatch(1);
+		Thread holder = new Thread(() -> lockAll(segments, 0, locked, done));
+		holder.start();
+		try {
+			locked.await();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+				assertEquals(new HashSet<>(expected), set(index.withinBox(49, 7, 52, 9)));
+				assertEquals(expected.subList(0, 10), index.nearest(50, 8, 10));
+			});
+		} finally {
+			done.countDown();
+			holder.join();
+		}
+	}
+
+	private static void lockAll(Object[] segments, int i, CountDownLatch locked, CountDownLatch done) {
+		if (i == segments.length) {
+			locked.countDown();
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+		synchronized (segments[i]) {
+			lockAll(segments, i + 1, locked, done);
+		}
+	}
+
+	@Test
+	void testTableIntegration() throws Exception {
+		AircraftTable table = new AircraftTable(new StatefulModeSDecoder(true), null);
+		PositionIndex index = new PositionIndex();
+		table.addListener(index);
+		for (int i = 0; i < 3; i++) {
+			table.update("8D40621D58C382D690C8AC2863A7", 10000 + 1000 * i);
+			table.update("8D40621D58C386435CC412692AD6", 10500 + 1000 * i);
+		}
+		QualifiedAddress address = QualifiedAddress.of(0x40621D, QualifiedAddress.Type.ICAO24);
+		assertEquals(Collections.singletonList(address), index.withinRadius(52.26, 3.94, 5000));
+		assertEquals(Collections.singletonList(address), index.nearest(0, 0, 3));
+
+		table.removeIdle(100_000, 1000);
+		assertEquals(0, index.size());
+		assertTrue(index.withinBox(-90, -180, 90, 180).isEmpty());
+	}
+
+	@Test
+	void testConcurrentQueries() throws Exception {
+		PositionIndex index = new PositionIndex();
+		// two clusters far apart, aircraft move within their cluster across cell borders
+		for (int t = 0; t < 1000; t++)
+			move(index, t, t < 500 ? 10 : -40, t < 500 ? 10 : 120);
+
+		AtomicBoolean done = new AtomicBoolean();
+		Thread writer = new Thread(() -> {
+			Random rnd = new Random(3);
+			while (!done.get()) {
+				int t = rnd.nextInt(1000);
+				double latBase = t < 500 ? 10 : -40, lonBase = t < 500 ? 10 : 120;
+				move(index, t, latBase + rnd.nextDouble() * 4 - 2, lonBase + rnd.nextDouble() * 4 - 2);
+			}
+		});
+		writer.start();
+		try {
+			for (int q = 0; q < 2000; q++) {
+				index.withinBox(7, 7, 13, 13, (address, la, lo) -> {
+					assertTrue(address.getAddress() < 0x400000 + 500, address.toString());
+					assertTrue(la >= 7 && la <= 13 && lo >= 7 && lo <= 13);
+				});
+				assertEquals(5, index.nearest(-40, 120, 5).size());
+			}
+		} finally {
+			done.set(true);
+			writer.join();
+		}
+
+		assertEquals(1000, index.size());
+		assertEquals(500, set(index.withinBox(7, 7, 13, 13)).size());
+		assertEquals(500, set(index.withinRadius(-40, 120, 400_000)).size());
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ *  This file is part of lib1090.
+ *  Copyright (C) 2026 SeRo Systems GmbH
+ *
+ *  lib1090 is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  lib1090 is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with de.serosystems.lib1090.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.serosystems.lib1090.tracking;
+
+import de.serosystems.lib1090.msgs.QualifiedAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackHistoryTest {
+
+	private final AircraftState state = new AircraftState();
+
+	private static QualifiedAddress address(int target) {
+		return QualifiedAddress.of(0x400000 + target, QualifiedAddress.Type.ICAO24);
+	}
+
+	/**
+	 * Feeds a position (with altitude and velocity derived from the time) to the history like the table would
+	 */
+	private void position(TrackHistory history, int target, long time) {
+		state.record = target;
+		state.address = address(target);
+		state.words[AircraftTable.KEY] = state.address.toKey();
+		state.words[AircraftTable.VALID] = AircraftTable.HAS_POSITION | AircraftTable.HAS_ALTITUDE |
+				AircraftTable.HAS_GROUND_SPEED | AircraftTable.HAS_TRACK | AircraftTable.HAS_VERTICAL_RATE;
+		state.words[AircraftTable.POSITION_TIME] = time;
+		state.words[AircraftTable.LATITUDE] = Double.doubleToRawLongBits(latitude(target, time));
+		state.words[AircraftTable.LONGITUDE] = Double.doubleToRawLongBits(-longitude(time));
+		state.words[AircraftTable.ALTITUDE] = altitude(time);
+		state.words[AircraftTable.GROUND_SPEED] = Double.doubleToRawLongBits(time % 4000 / 4.);
+		state.words[AircraftTable.TRACK] = Double.doubleToRawLongBits(time % 360);
+		state.words[AircraftTable.VERTICAL_RATE] = (time % 100) * 64 - 3200;
+		history.onUpdate(state);
+	}
+
+	private static double latitude(int target, long time) {
+		return (target % 80) + (time % 1000) / 1000.;
+	}
+
+	private static double longitude(long time) {
+		return (time % 180_000) / 1000.;
+	}
+
+	private static int altitude(long time) {
+		return (int) (time % 2000) * 25 - 1000;
+	}
+
+	private static List<Long> times(TrackHistory history, int target, long from, long to) {
+		List<Long> times = new ArrayList<>();
+		assertEquals(history.read(address(target), from, to, (time, lat, lon, alt, gs, trk, vr) -> {
+			assertEquals(latitude(target, time), lat, 1e-7);
+			assertEquals(-longitude(time), lon, 1e-7);
+			assertEquals(altitude(time), alt);
+			assertEquals(time % 4000 / 4., gs, 0.125);
+			assertEquals(time % 360, trk, 0.01);
+			assertEquals((time % 100) * 64 - 3200, vr);
+			times.add(time);
+		}), times.size());
+		return times;
+	}
+
+	@Test
+	void testRingBuffer() {
+		TrackHistory history = new TrackHistory(10, 8);
+		for (int i = 0; i < 20; i++)
+			position(history, 0, 1000 + i * 10);
+
+		List<Long> times = times(history, 0, Long.MIN_VALUE, Long.MAX_VALUE);
+		assertEquals(8, times.size());
+		for (int i = 0; i < 8; i++)
+			assertEquals(1120 + i * 10, (long) times.get(i));
+
+		// time ranges are inclusive
+		assertEquals(3, times(history, 0, 1140, 1160).size());
+		assertEquals(1, times(history, 0, 1185, 1190).size());
+		assertEquals(0, times(history, 0, 0, 1100).size());
+		assertEquals(0, times(history, 0, 1195, 2000).size());
+	}
+
+	@Test
+	void testOnlyNewPositions() {
+		TrackHistory history = new TrackHistory(10, 8);
+		position(history, 0, 1000);
+		position(history, 0, 1000);
+		position(history, 0, 900);
+		assertEquals(1, history.count(address(0)));
+
+		// updates without position are ignored
+		state.words[AircraftTable.VALID] = 0;
+		state.words[AircraftTable.POSITION_TIME] = 2000;
+		history.onUpdate(state);
+		assertEquals(1, history.count(address(0)));
+	}
+
+	@Test
+	void testUnknownValues() {
+		TrackHistory history = new TrackHistory(1, 4);
+		position(history, 0, 1000);
+		state.words[AircraftTable.VALID] = AircraftTable.HAS_POSITION;
+		state.words[AircraftTable.POSITION_TIME] = 2000;
+		history.onUpdate(state);
+
+		List<Object[]> points = new ArrayList<>();
+		history.read(address(0), 2000, 2000, (time, lat, lon, alt, gs, trk, vr) ->
+				points.add(new Object[] {alt, gs, trk, vr}));
+		assertEquals(1, points.size());
+		assertArrayEquals(new Object[] {TrackHistory.UNKNOWN, Double.NaN, Double.NaN, TrackHistory.UNKNOWN}, points.get(0));
+	}
+
+	@Test
+	void testMemoryCeiling() {
+		TrackHistory history = new TrackHistory(3, 100);
+		assertEquals(3 * (100 * 20 + 48), history.getMemoryCeiling());
+		for (int t = 0; t < 5; t++)
+			position(history, t, 1000);
+		assertEquals(3, history.size());
+		assertEquals(2, history.getRejected());
+		assertEquals(0, history.count(address(4)));
+
+		// removed aircraft free their slot
+		state.record = 1;
+		state.address = address(1);
+		history.onRemove(state);
+		assertEquals(0, history.count(address(1)));
+		position(history, 4, 2000);
+		assertEquals(1, history.count(address(4)));
+		assertEquals(3, history.size());
+	}
+
+	@Test
+	void testTimeOffsetOverflow() {
+		TrackHistory history = new TrackHistory(2, 8);
+		position(history, 0, 1000);
+		position(history, 0, 2000);
+		position(history, 0, 1000 + 0x1_0000_0000L);
+		assertEquals(1, history.size());
+		assertEquals(1, history.count(address(0)));
+		assertEquals(1000 + 0x1_0000_0000L, (long) times(history, 0, 0, Long.MAX_VALUE).get(0));
+	}
+
+	@Test
+	void testConcurrentReads() throws Exception {
+		TrackHistory history = new TrackHistory(100, 64);
+		AtomicBoolean done = new AtomicBoolean();
+		Thread writer = new Thread(() -> {
+			long time = 0;
+			while (!done.get()) {
+				time += 7;
+				for (int t = 0; t < 100; t++)
+					position(history, t, time);
+			}
+		});
+		writer.start();
+		try {
+			for (int i = 0; i < 20000; i++) {
+				int target = i % 100;
+				List<Long> times = times(history, target, Long.MIN_VALUE, Long.MAX_VALUE);
+				// points are never torn (checked by times()), in order, and only overwritten points are missing
+				assertTrue(times.size() <= 64);
+				for (int n = 1; n < times.size(); n++) {
+					assertTrue(times.get(n - 1) < times.get(n));
+					assertEquals(0, times.get(n) % 7);
+				}
+			}
+		} finally {
+			done.set(true);
+			writer.join();
+		}
+	}
+
+	@Test
+	void testConcurrentReadsWhileSlotsAreReused() throws Exception {
+		// two aircraft take turns in a single slot, their times differ modulo 1000
+		TrackHistory history = new TrackHistory(1, 16);
+		AtomicBoolean done = new AtomicBoolean();
+		Thread writer = new Thread(() -> {
+			long time = 0;
+			while (!done.get()) {
+				for (int t = 0; t < 2; t++) {
+					time += 10_000;
+					for (int n = 0; n < 3; n++)
+						position(history, t, time + n * 1000 + 100 * (t + 1));
+					state.record = t;
+					state.address = address(t);
+					history.onRemove(state);
+				}
+			}
+		});
+		writer.start();
+		try {
+			for (int i = 0; i < 100000; i++) {
+				int target = i % 2;
+				// KEY, BASE and FIRST of different assignments would yield times of the other aircraft
+				for (long time : times(history, target, Long.MIN_VALUE, Long.MAX_VALUE))
+					assertEquals(100 * (target + 1), time % 1000);
+			}
+		} finally {
+			done.set(true);
+			writer.join();
+		}
+	}
+}